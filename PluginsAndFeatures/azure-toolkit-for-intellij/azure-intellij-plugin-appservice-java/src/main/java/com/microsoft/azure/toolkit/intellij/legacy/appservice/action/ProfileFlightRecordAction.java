@@ -5,8 +5,12 @@
 
 package com.microsoft.azure.toolkit.intellij.legacy.appservice.action;
 
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.testFramework.LightVirtualFile;
 import com.intellij.util.PlatformUtils;
 import com.microsoft.azure.toolkit.intellij.legacy.appservice.jfr.RunFlightRecorderDialog;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
@@ -20,8 +24,10 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecorderConfiguration;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecorderManager;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecorderStarterBase;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecordingSummary;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
@@ -104,20 +110,37 @@ public class ProfileFlightRecordAction {
             }
             AzureMessager.getMessager().info(message("webapp.flightRecord.hint.profileCompletedOnAzure"));
             AzureMessager.getMessager().info(message("webapp.flightRecord.hint.downloadingJfr"));
-            final byte[] content = starter.downloadJFRFile(file.getName());
-            if (content != null) {
-                FileUtils.writeByteArrayToFile(file, content);
-                AzureMessager.getMessager().info(message("webapp.flightRecord.hint.downloadingJfrDone"));
-                AzureMessager.getMessager().info(getActionOnJfrFile(file.getAbsolutePath()), message("webapp.flightRecord.hint.profileRecorderComplete"));
-            } else {
+            final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+            starter.downloadJFRFile(file.getName(), file.toPath(), Objects.isNull(indicator) ? null :
+                downloaded -> indicator.setText2(message("webapp.flightRecord.hint.downloadedJfr", FileUtils.byteCountToDisplaySize(downloaded))));
+            if (file.length() == 0) {
                 throw new AzureToolkitRuntimeException(message("webapp.flightRecord.error.jfrDownload.title"), message("webapp.flightRecord.error.jfrDownload.message"));
             }
-
+            AzureMessager.getMessager().info(message("webapp.flightRecord.hint.downloadingJfrDone"));
+            AzureMessager.getMessager().info(getActionOnJfrFile(file.getAbsolutePath()), message("webapp.flightRecord.hint.profileRecorderComplete"));
+            showSummary(file);
         } catch (final IOException e) {
             throw new AzureToolkitRuntimeException(message("webapp.flightRecord.error.profileFlightRecorderFailed.title"), e);
         }
     }
 
+    private void showSummary(File file) {
+        final FlightRecordingSummary summary;
+        try {
+            summary = FlightRecordingSummary.parse(file.toPath());
+        } catch (final IOException | RuntimeException e) {
+            log.warn("failed to summarize JFR file {}", file.getAbsolutePath(), e);
+            return;
+        }
+        if (Objects.isNull(project)) {
+            AzureMessager.getMessager().info(summary.toString(), message("webapp.flightRecord.hint.summary", appService.getName()));
+            return;
+        }
+        final LightVirtualFile summaryFile = new LightVirtualFile(FilenameUtils.getBaseName(file.getName()) + "-summary.txt", summary.toString());
+        summaryFile.setWritable(false);
+        AzureTaskManager.getInstance().runLater(() -> FileEditorManager.getInstance(project).openFile(summaryFile, true));
+    }
+
     private String getActionOnJfrFile(String filePath) {
         if (PlatformUtils.isIdeaUltimate()) {
             return String.format(message("webapp.flightRecord.hint.openJfrIntelliJ"), filePath);
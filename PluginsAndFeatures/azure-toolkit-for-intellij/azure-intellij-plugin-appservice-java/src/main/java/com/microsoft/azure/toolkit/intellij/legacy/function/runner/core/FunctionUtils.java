@@ -79,6 +79,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -89,6 +93,7 @@ import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunc
 @Slf4j
 public class FunctionUtils {
     private static final int MAX_PORT = 65535;
+    private static final int MAX_COPY_THREADS = 8;
 
     private static final String AZURE_FUNCTION_ANNOTATION_CLASS =
             "com.microsoft.azure.functions.annotation.FunctionName";
@@ -297,18 +302,44 @@ public class FunctionUtils {
                 .filter(name -> StringUtils.equalsAnyIgnoreCase(name, AZURE_FUNCTIONS_JAVA_CORE_LIBRARY))
                 .findFirst().orElse(AZURE_FUNCTIONS_JAVA_LIBRARY);
 
-        final File libFolder = new File(stagingFolder.toFile(), "lib");
-        for (final File file : dependencies) {
-            if (!StringUtils.equalsIgnoreCase(getArtifactIdFromFile(file), libraryToExclude)) {
-                if (!file.exists()) {
-                    throw new AzureToolkitRuntimeException(String.format("Dependency artifact (%s) not found, please correct the dependency and try again", file.getAbsolutePath()));
-                }
-                FileUtils.copyFileToDirectory(file, libFolder);
+        final List<File> libraries = dependencies.stream()
+                .filter(file -> !StringUtils.equalsIgnoreCase(getArtifactIdFromFile(file), libraryToExclude))
+                .collect(Collectors.toList());
+        for (final File file : libraries) {
+            if (!file.exists()) {
+                throw new AzureToolkitRuntimeException(String.format("Dependency artifact (%s) not found, please correct the dependency and try again", file.getAbsolutePath()));
             }
         }
+        copyFilesToDirectory(libraries, new File(stagingFolder.toFile(), "lib"));
         return configMap;
     }
 
+    // copy dependencies concurrently, which is IO bound and takes most of the staging time of projects with many dependencies
+    private static void copyFilesToDirectory(@Nonnull final List<File> files, @Nonnull final File folder) throws IOException {
+        FileUtils.forceMkdir(folder);
+        final int threads = Math.max(1, Math.min(MAX_COPY_THREADS, files.size()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final File file : files) {
+                futures.add(executor.submit(() -> {
+                    FileUtils.copyFileToDirectory(file, folder);
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("copying dependencies is interrupted", e);
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     // get artifact based on module
     @Nullable
     private static File getArtifactFromModule(final Module module) {
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.localrun;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * extensions installed by {@code func extensions install} (the {@code bin} folder and {@code extensions.csproj} in
+ * the staging folder), cached by the binding types, {@code host.json} and the Function Core Tools binary. the install
+ * runs a dotnet build which takes tens of seconds, while the staging folder is recreated on every run, so a rerun
+ * with unchanged bindings restores the extensions from the cache instead.
+ */
+@Slf4j
+public class FunctionExtensionCache {
+    private static final String[] ENTRIES = {"bin", "extensions.csproj"};
+
+    private final Path root;
+
+    public FunctionExtensionCache() {
+        this(Paths.get(System.getProperty("java.io.tmpdir"), "azure-toolkit-function-extensions"));
+    }
+
+    public FunctionExtensionCache(@Nonnull final Path root) {
+        this.root = root;
+    }
+
+    @Nonnull
+    public static String fingerprint(@Nonnull final Collection<String> bindingTypes, @Nullable final File hostJson, @Nullable final File func) {
+        final StringBuilder manifest = new StringBuilder();
+        new TreeSet<>(bindingTypes).forEach(type -> manifest.append(type.toLowerCase()).append('\n'));
+        try {
+            if (Objects.nonNull(hostJson) && hostJson.isFile()) {
+                manifest.append(new String(Files.readAllBytes(hostJson.toPath()), StandardCharsets.UTF_8)).append('\n');
+            }
+        } catch (final IOException e) {
+            // an unreadable host.json never matches a cached fingerprint
+            manifest.append(System.nanoTime()).append('\n');
+        }
+        if (Objects.nonNull(func)) {
+            manifest.append(func.getAbsolutePath()).append('|').append(func.length()).append('|').append(func.lastModified());
+        }
+        return DigestUtils.sha256Hex(manifest.toString());
+    }
+
+    /**
+     * copies the cached extensions of {@code fingerprint} into {@code stagingFolder}.
+     *
+     * @return {@code false} if nothing is cached for {@code fingerprint} or the cached extensions can't be restored.
+     */
+    public boolean restore(@Nonnull final String fingerprint, @Nonnull final File stagingFolder) {
+        final File cached = this.root.resolve(fingerprint).toFile();
+        if (!cached.isDirectory()) {
+            return false;
+        }
+        try {
+            for (final String entry : ENTRIES) {
+                final File source = new File(cached, entry);
+                if (source.isDirectory()) {
+                    FileUtils.copyDirectory(source, new File(stagingFolder, entry));
+                } else if (source.isFile()) {
+                    FileUtils.copyFile(source, new File(stagingFolder, entry));
+                }
+            }
+            return true;
+        } catch (final IOException e) {
+            log.info("Failed to restore cached function extensions ({})", fingerprint, e);
+            FileUtils.deleteQuietly(cached);
+            return false;
+        }
+    }
+
+    /**
+     * caches the extensions installed in {@code stagingFolder}, failures are ignored since the cache is optional.
+     */
+    public void save(@Nonnull final String fingerprint, @Nonnull final File stagingFolder) {
+        final File target = this.root.resolve(fingerprint).toFile();
+        final File temp = this.root.resolve(fingerprint + ".tmp").toFile();
+        try {
+            FileUtils.deleteQuietly(temp);
+            FileUtils.forceMkdir(temp);
+            for (final String entry : ENTRIES) {
+                final File source = new File(stagingFolder, entry);
+                if (source.isDirectory()) {
+                    FileUtils.copyDirectory(source, new File(temp, entry));
+                } else if (source.isFile()) {
+                    FileUtils.copyFile(source, new File(temp, entry));
+                }
+            }
+            FileUtils.deleteQuietly(target);
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            log.info("Failed to cache function extensions ({})", fingerprint, e);
+            FileUtils.deleteQuietly(temp);
+        }
+    }
+}
@@ -23,10 +23,10 @@ import com.intellij.execution.runners.ExecutionUtil;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.wm.ToolWindowId;
 import com.intellij.psi.PsiMethod;
 import com.intellij.util.EnvironmentUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.microsoft.azure.toolkit.intellij.common.ReadStreamLineThread;
 import com.microsoft.azure.toolkit.intellij.common.RunProcessHandler;
 import com.microsoft.azure.toolkit.intellij.common.RunProcessHandlerMessenger;
@@ -51,7 +51,6 @@ import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
-import com.microsoft.azure.toolkit.lib.common.utils.CommandUtils;
 import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
 import com.microsoft.azure.toolkit.lib.legacy.function.bindings.BindingEnum;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
@@ -77,8 +76,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -98,7 +97,6 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
     private static final String HOST_JSON = "host.json";
     private static final String EXTENSION_BUNDLE = "extensionBundle";
     private static final String EXTENSION_BUNDLE_ID = "Microsoft.Azure.Functions.ExtensionBundle";
-    private static final Pattern JAVA_VERSION_PATTERN = Pattern.compile("version \"(.*)\"");
     private static final Pattern PORT_EXCEPTION_PATTERN = Pattern.compile("Port \\d+ is unavailable");
     private static final ComparableVersion JAVA_9 = new ComparableVersion("9");
     private static final ComparableVersion FUNC_3 = new ComparableVersion("3");
@@ -109,7 +107,12 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
             "activityTrigger", "entityTrigger");
     private static final String CONNECTION_TITLE = "AzureWebJobsStorage is missing";
     private static final String CONNECTION_DESCRIPTION = "Please set the resource connection for AzureWebJobsStorage.";
+    private static final FunctionExtensionCache EXTENSION_CACHE = new FunctionExtensionCache();
     private boolean isDebuggerLaunched;
+    private boolean isHostStarted;
+    private long startedAt;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private File funcFile;
     private File stagingFolder;
     private Process installProcess;
     private Process process;
@@ -147,15 +150,33 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
     protected Boolean executeSteps(@NotNull RunProcessHandler processHandler, @NotNull Operation operation) throws Exception {
         // Prepare staging Folder
         OperationContext.current().setMessager(getProcessHandlerMessenger());
+        startedAt = System.currentTimeMillis();
+        phases.clear();
+        funcFile = resolveFuncFile();
+        final long validateStartedAt = System.currentTimeMillis();
         validateFunctionRuntime();
+        recordPhase("runtime validation", validateStartedAt);
         stagingFolder = FunctionUtils.getTempStagingFolder();
         addProcessTerminatedListener(processHandler);
         prepareStagingFolder(stagingFolder, processHandler, operation);
+        processHandler.println(getPhasesSummary(), ProcessOutputTypes.SYSTEM);
         // Run Function Host
         runFunctionCli(processHandler, stagingFolder);
         return true;
     }
 
+    private void recordPhase(@Nonnull final String phase, final long phaseStartedAt) {
+        phases.put(phase, System.currentTimeMillis() - phaseStartedAt);
+    }
+
+    @Nonnull
+    private String getPhasesSummary() {
+        final String details = phases.entrySet().stream()
+                .map(entry -> String.format("%s %d ms", entry.getKey(), entry.getValue()))
+                .collect(Collectors.joining(", "));
+        return String.format("Prepared function host in %d ms (%s)", System.currentTimeMillis() - startedAt, details);
+    }
+
     private void applyResourceConnection(Map<String, String> appSettings) {
         if (functionRunConfiguration.isConnectionEnabled()) {
             final Set<Connection<?, ?>> identityConnection = functionRunConfiguration.getConnections().stream()
@@ -185,8 +206,10 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
 
     @AzureOperation(name = "internal/function.validate_runtime")
     private void validateFunctionRuntime() {
-        final ComparableVersion funcVersion = getFuncVersion();
-        final ComparableVersion javaVersion = getJavaVersion();
+        // probing versions starts dotnet and java processes, run them side by side
+        final CompletableFuture<ComparableVersion> javaVersionFuture = CompletableFuture.supplyAsync(FunctionRuntimeProbe::getJavaVersion, AppExecutorUtil.getAppExecutorService());
+        final ComparableVersion funcVersion = FunctionRuntimeProbe.getFuncVersion(this.funcFile);
+        final ComparableVersion javaVersion = javaVersionFuture.join();
         if (funcVersion == null || javaVersion == null) {
             AzureMessager.getMessager().warning(message("function.skip_local_run_validation"));
             return;
@@ -202,9 +225,8 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
         }
     }
 
-    @Nullable
-    @AzureOperation(name = "boundary/function.get_version.func", params = {"this.functionRunConfiguration.getFuncPath()"})
-    private ComparableVersion getFuncVersion() {
+    @Nonnull
+    private File resolveFuncFile() {
         File funcFile = Optional.ofNullable(functionRunConfiguration.getFuncPath()).filter(StringUtils::isNotBlank).map(File::new).orElse(null);
         if (funcFile == null || !funcFile.exists()) {
             final File settingsFuncFile = Optional.ofNullable(Azure.az().config().getFunctionCoreToolsPath()).filter(StringUtils::isNotBlank).map(File::new).orElse(null);
@@ -217,45 +239,22 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
                 throw new AzureToolkitRuntimeException(message("function.run.error.runtimeNotFound"), DOWNLOAD_CORE_TOOLS, CONFIG_CORE_TOOLS);
             }
         }
-        try {
-            final String funcVersion = CommandUtils.exec(String.format("%s -v", funcFile.getName()), funcFile.getParent());
-            return StringUtils.isEmpty(funcVersion) ? null : new ComparableVersion(funcVersion);
-        } catch (final IOException e) {
-            // swallow exception to get func version
-            log.info("Failed to get version of Azure Functions Core Tools", e);
-            return null;
-        }
-    }
-
-    // Get java runtime version following the strategy of function core tools
-    // Get java version of JAVA_HOME first, fall back to use PATH if JAVA_HOME not exists
-    @Nullable
-    @AzureOperation(name = "boundary/function.validate_jre")
-    private static ComparableVersion getJavaVersion() {
-        try {
-            final String javaHome = System.getenv("JAVA_HOME");
-            final String executeFolder = FileUtil.exists(javaHome) ? Paths.get(javaHome, "bin").toString() : null;
-            final String javaVersion = CommandUtils.exec("java -version", executeFolder, true);
-            if (StringUtils.isEmpty(javaVersion)) {
-                return null;
-            }
-            final Matcher matcher = JAVA_VERSION_PATTERN.matcher(javaVersion);
-            return matcher.find() ? new ComparableVersion(matcher.group(1)) : null;
-        } catch (final Throwable e) {
-            // swallow exception to get java version
-            log.info("Failed to get java version", e);
-            return null;
-        }
+        return funcFile;
     }
 
     @AzureOperation(name = "boundary/function.run_cli.folder", params = {"stagingFolder.getName()"})
     private int runFunctionCli(RunProcessHandler processHandler, File stagingFolder)
             throws InterruptedException, ExecutionException {
         isDebuggerLaunched = false;
+        isHostStarted = false;
         final int debugPort = FunctionUtils.findFreePort(DEFAULT_DEBUG_PORT);
         process = getFunctionCliProcess(stagingFolder, debugPort);
         // Redirect function cli output to console
         readInputStreamByLines(process.getInputStream(), inputLine -> {
+            if (isFuncInitialized(inputLine) && !isHostStarted) {
+                isHostStarted = true;
+                processHandler.println(String.format("Function host started in %d ms", System.currentTimeMillis() - startedAt), ProcessOutputTypes.SYSTEM);
+            }
             if (isDebugMode() && isFuncInitialized(inputLine) && !isDebuggerLaunched) {
                 // launch debugger when func ready
                 isDebuggerLaunched = true;
@@ -346,9 +345,12 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
                 .orElseGet(() -> Paths.get(FunctionUtils.getDefaultHostJsonPath(module)));
         final PsiMethod[] methods = ReadAction.compute(() -> FunctionUtils.findFunctionsByAnnotation(module));
         final Path folder = stagingFolder.toPath();
+        String extensionFingerprint = null;
         try {
+            final long stagingStartedAt = System.currentTimeMillis();
             final Map<String, FunctionConfiguration> configMap =
                     FunctionUtils.prepareStagingFolder(folder, hostJsonPath, project, module, methods);
+            recordPhase("staging", stagingStartedAt);
             final List<BindingEnum> functionBindingList = FunctionUtils.getFunctionBindingList(configMap);
             operation.trackProperty(TelemetryConstants.TRIGGER_TYPE, StringUtils.join(functionBindingList, ","));
             final Map<String, String> configurationAppSettings = FunctionUtils.loadAppSettingsFromSecurityStorage(functionRunConfiguration.getAppSettingsKey());
@@ -365,7 +367,15 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
 
             final Set<BindingEnum> bindingClasses = getFunctionBindingEnums(configMap);
             if (isInstallingExtensionNeeded(bindingClasses, processHandler)) {
-                installProcess = getExtensionInstallProcess(stagingFolder);
+                final List<String> bindingTypes = bindingClasses.stream().map(BindingEnum::getType).collect(Collectors.toList());
+                extensionFingerprint = FunctionExtensionCache.fingerprint(bindingTypes, new File(stagingFolder, HOST_JSON), funcFile);
+                final long restoreStartedAt = System.currentTimeMillis();
+                if (EXTENSION_CACHE.restore(extensionFingerprint, stagingFolder)) {
+                    recordPhase("extensions (cached)", restoreStartedAt);
+                    processHandler.println(message("function.run.hint.reuseInstalledExtension"), ProcessOutputTypes.STDOUT);
+                } else {
+                    installProcess = getExtensionInstallProcess(stagingFolder);
+                }
             }
         } catch (final AzureExecutionException | IOException e) {
             final String error = String.format("failed prepare staging folder[%s]", folder);
@@ -385,10 +395,13 @@ public class FunctionRunState extends AzureRunProfileState<Boolean> {
             }
         });
         try {
+            final long installStartedAt = System.currentTimeMillis();
             final int exitCode = installProcess.waitFor();
             if (exitCode != 0) {
                 throw new AzureExecutionException(message("function.run.error.installFuncFailed"));
             }
+            recordPhase("extensions install", installStartedAt);
+            EXTENSION_CACHE.save(extensionFingerprint, stagingFolder);
         } catch (final InterruptedException e) {
             // swallow interrupted exception which is caused by user cancel
         }
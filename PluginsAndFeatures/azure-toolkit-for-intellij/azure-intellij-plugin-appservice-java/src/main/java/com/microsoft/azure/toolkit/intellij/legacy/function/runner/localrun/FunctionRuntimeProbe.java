@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.localrun;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * versions of Function Core Tools and java runtime used by function local run. starting {@code func -v} (a dotnet
+ * app) and {@code java -version} takes seconds, so versions are cached by the canonical path, size and modification
+ * time of the binary, a binary upgraded in place is probed again.
+ */
+@Slf4j
+public class FunctionRuntimeProbe {
+    private static final Pattern JAVA_VERSION_PATTERN = Pattern.compile("version \"(.*)\"");
+    private static final long PROBE_TIMEOUT_SECONDS = 30;
+    private static final Map<String, ComparableVersion> versions = new ConcurrentHashMap<>();
+
+    @Nullable
+    public static ComparableVersion getFuncVersion(@Nonnull final File func) {
+        return getVersion(func, "-v", false);
+    }
+
+    /**
+     * get java runtime version following the strategy of function core tools: java of JAVA_HOME first, fall back to
+     * java in PATH if JAVA_HOME not exists.
+     */
+    @Nullable
+    public static ComparableVersion getJavaVersion() {
+        final File java = findJava();
+        return Objects.isNull(java) ? null : getVersion(java, "-version", true);
+    }
+
+    public static void clear() {
+        versions.clear();
+    }
+
+    @Nullable
+    private static ComparableVersion getVersion(@Nonnull final File binary, @Nonnull final String argument, boolean isJava) {
+        final String key = getKey(binary);
+        final ComparableVersion cached = versions.get(key);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+        final ComparableVersion version = parseVersion(exec(binary, argument, isJava), isJava);
+        // failures are not cached, the binary may be fixed without being changed (e.g. missing dotnet runtime installed)
+        if (Objects.nonNull(version)) {
+            versions.put(key, version);
+        }
+        return version;
+    }
+
+    @Nonnull
+    private static String getKey(@Nonnull final File binary) {
+        File file = binary;
+        try {
+            file = binary.getCanonicalFile();
+        } catch (final IOException e) {
+            // use the path as is
+        }
+        return String.format("%s|%d|%d", file.getAbsolutePath(), file.length(), file.lastModified());
+    }
+
+    @Nullable
+    private static String exec(@Nonnull final File binary, @Nonnull final String argument, boolean mergeError) {
+        try {
+            final Process process = new ProcessBuilder(binary.getAbsolutePath(), argument)
+                    .directory(binary.getParentFile())
+                    .redirectErrorStream(mergeError)
+                    .redirectError(mergeError ? ProcessBuilder.Redirect.PIPE : ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            // read the output aside, a hanging binary (or a child holding its stdout open) must not block the probe
+            final FutureTask<String> output = new FutureTask<>(() -> {
+                try (final InputStream in = process.getInputStream()) {
+                    return IOUtils.toString(in, StandardCharsets.UTF_8);
+                }
+            });
+            final Thread reader = new Thread(output, "function-runtime-probe");
+            reader.setDaemon(true);
+            reader.start();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(PROBE_TIMEOUT_SECONDS);
+            try {
+                if (!process.waitFor(PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    return null;
+                }
+                return output.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (final ExecutionException | TimeoutException e) {
+                log.info("Failed to read version of ({})", binary.getAbsolutePath(), e);
+                return null;
+            } finally {
+                process.destroyForcibly();
+                output.cancel(true);
+            }
+        } catch (final IOException e) {
+            log.info("Failed to get version of ({})", binary.getAbsolutePath(), e);
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Nullable
+    static ComparableVersion parseVersion(@Nullable final String output, boolean isJava) {
+        if (StringUtils.isBlank(output)) {
+            return null;
+        }
+        if (isJava) {
+            final Matcher matcher = JAVA_VERSION_PATTERN.matcher(output);
+            return matcher.find() ? new ComparableVersion(matcher.group(1)) : null;
+        }
+        // func may print notices (e.g. new version available) before the version
+        final String[] lines = StringUtils.split(output.trim(), "\r\n");
+        return new ComparableVersion(lines[lines.length - 1].trim());
+    }
+
+    @Nullable
+    private static File findJava() {
+        final String name = SystemUtils.IS_OS_WINDOWS ? "java.exe" : "java";
+        final String javaHome = System.getenv("JAVA_HOME");
+        if (StringUtils.isNotBlank(javaHome) && new File(javaHome).exists()) {
+            final File java = Paths.get(javaHome, "bin", name).toFile();
+            return java.isFile() ? java : null;
+        }
+        final String path = StringUtils.defaultString(System.getenv("PATH"));
+        for (final String folder : StringUtils.split(path, File.pathSeparator)) {
+            final File java = new File(folder, name);
+            if (java.isFile() && java.canExecute()) {
+                return java;
+            }
+        }
+        return null;
+    }
+}
@@ -12,6 +12,7 @@ import com.microsoft.azure.toolkit.ide.common.action.ResourceCommonActionsContri
 import com.microsoft.azure.toolkit.intellij.common.AzureArtifact;
 import com.microsoft.azure.toolkit.intellij.common.AzureArtifactManager;
 import com.microsoft.azure.toolkit.intellij.common.RunProcessHandler;
+import com.microsoft.azure.toolkit.intellij.common.runconfig.DeploymentReadinessTracker;
 import com.microsoft.azure.toolkit.intellij.connector.*;
 import com.microsoft.azure.toolkit.intellij.connector.dotazure.AzureModule;
 import com.microsoft.azure.toolkit.intellij.connector.dotazure.DotEnvBeforeRunTaskProvider;
@@ -60,6 +61,7 @@ import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -72,8 +74,10 @@ public class WebAppRunState extends AzureRunProfileState<WebAppBase<?, ?, ?>> {
     private static final String LIBS_ROOT = "/home/site/wwwroot/libs/";
     private static final String JAVA_OPTS = "JAVA_OPTS";
     private static final String CATALINA_OPTS = "CATALINA_OPTS";
-    private static final int DEFAULT_DEPLOYMENT_STATUS_REFRESH_INTERVAL = 10;
-    private static final int DEFAULT_DEPLOYMENT_STATUS_MAX_REFRESH_TIMES = 6;
+    // a probe is one immediate status check, the tracker schedules them with backoff.
+    private static final int DEPLOYMENT_STATUS_PROBE_INTERVAL = 0;
+    private static final int DEPLOYMENT_STATUS_PROBE_TIMES = 1;
+    private static final Duration DEPLOYMENT_STATUS_TIMEOUT = Duration.ofSeconds(90);
     private static final String GET_DEPLOYMENT_STATUS_TIMEOUT = "The app is still starting, " +
         "you could start streaming log to check if something wrong in server side.";
 
@@ -216,7 +220,12 @@ public class WebAppRunState extends AzureRunProfileState<WebAppBase<?, ?, ?>> {
         deployWebAppTask.doExecute();
         AzureTaskManager.getInstance().runInBackground("get deployment status", () -> {
             OperationContext.current().setMessager(AzureMessager.getDefaultMessager());
-            if (!deployWebAppTask.waitUntilDeploymentReady(false, DEFAULT_DEPLOYMENT_STATUS_REFRESH_INTERVAL, DEFAULT_DEPLOYMENT_STATUS_MAX_REFRESH_TIMES)) {
+            // single status checks driven by the shared tracker instead of a fixed interval, startup lines in the
+            // log stream trigger an early check.
+            final boolean ready = DeploymentReadinessTracker.waitUntilReady(deployTarget.getId(),
+                () -> deployWebAppTask.waitUntilDeploymentReady(false, DEPLOYMENT_STATUS_PROBE_INTERVAL, DEPLOYMENT_STATUS_PROBE_TIMES),
+                () -> deployTarget.streamingLogs(true), DEPLOYMENT_STATUS_TIMEOUT);
+            if (!ready) {
                 AzureMessager.getMessager().warning(GET_DEPLOYMENT_STATUS_TIMEOUT, null,
                                                     AzureActionManager.getInstance().getAction(AppServiceActionsContributor.START_STREAM_LOG).bind(deployTarget));
             } else {
@@ -5,17 +5,27 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
 
-import com.azure.core.util.FluxUtil;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
 import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
 import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 
 public abstract class FlightRecorderStarterBase {
+    private static final int MAX_DOWNLOAD_ATTEMPTS = 3;
     protected AppServiceAppBase<?, ?, ?> appService;
 
     public FlightRecorderStarterBase(@NotNull AppServiceAppBase<?, ?, ?> appService) {
@@ -33,8 +43,46 @@ public abstract class FlightRecorderStarterBase {
 
     public abstract CommandOutput startFlightRecorder(int pid, int timeInSeconds, String fileName) throws IOException;
 
-    public byte[] downloadJFRFile(String fileName) {
-        return FluxUtil.collectBytesInByteBufferStream(appService.getFileContent(getFinalJfrPath(fileName))).blockOptional()
-                .orElseThrow(() -> new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name())));
+    /**
+     * path of the recording for the kudu vfs api.
+     */
+    protected String getDownloadPath(String fileName) {
+        return getFinalJfrPath(fileName);
+    }
+
+    /**
+     * streams the recording to {@code target} chunk by chunk instead of buffering it in memory. kudu vfs api doesn't
+     * support ranged reads, so an interrupted download is restarted from the beginning, at most {@link #MAX_DOWNLOAD_ATTEMPTS} times.
+     * a canceled download is not retried.
+     */
+    public void downloadJFRFile(String fileName, Path target, @Nullable LongConsumer onProgress) {
+        for (int attempt = 1; ; attempt++) {
+            final AtomicLong downloaded = new AtomicLong();
+            try (final FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                appService.getFileContent(getDownloadPath(fileName)).doOnNext(buffer -> {
+                    try {
+                        while (buffer.hasRemaining()) {
+                            downloaded.addAndGet(channel.write(buffer));
+                        }
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    Optional.ofNullable(onProgress).ifPresent(p -> p.accept(downloaded.get()));
+                }).blockLast();
+                return;
+            } catch (final IOException | RuntimeException e) {
+                if (isCanceled(e)) {
+                    throw e instanceof ProcessCanceledException ? (ProcessCanceledException) e : new ProcessCanceledException(e);
+                }
+                if (attempt >= MAX_DOWNLOAD_ATTEMPTS) {
+                    throw new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name()), e);
+                }
+            }
+        }
+    }
+
+    private static boolean isCanceled(Throwable e) {
+        return Thread.currentThread().isInterrupted() || ExceptionUtils.indexOfThrowable(e, ProcessCanceledException.class) >= 0 ||
+            ExceptionUtils.indexOfThrowable(e, InterruptedException.class) >= 0;
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.Getter;
+import org.apache.commons.io.FileUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * quick hot-spot summary of a JFR recording: top CPU methods, allocation hot spots, GC pauses and lock contention.
+ * events are read one by one from the file, so memory is bounded by the number of distinct methods/classes.
+ */
+@Getter
+public class FlightRecordingSummary {
+    private static final int TOP = 10;
+    private final Map<String, Long> cpuSamples = new HashMap<>();
+    // JDK 16+ records throttled jdk.ObjectAllocationSample events, older JDKs only the TLAB events. both are kept
+    // separately so that recordings containing both are not counted twice.
+    private final Map<String, Long> sampledAllocations = new HashMap<>();
+    private final Map<String, Long> tlabAllocations = new HashMap<>();
+    private final Map<String, long[]> contendedMonitors = new HashMap<>(); // class -> [count, total nanos]
+    private long totalCpuSamples;
+    private long gcCount;
+    private Duration gcTotalPause = Duration.ZERO;
+    private Duration gcLongestPause = Duration.ZERO;
+
+    public static FlightRecordingSummary parse(@Nonnull Path recording) throws IOException {
+        final FlightRecordingSummary summary = new FlightRecordingSummary();
+        try (final RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.accept(file.readEvent());
+            }
+        }
+        return summary;
+    }
+
+    void accept(@Nonnull RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample":
+                this.totalCpuSamples++;
+                this.cpuSamples.merge(Objects.requireNonNullElse(topFrame(event.getStackTrace()), "<unknown>"), 1L, Long::sum);
+                break;
+            case "jdk.ObjectAllocationSample":
+                this.recordAllocation(this.sampledAllocations, event, event.getLong("weight"));
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                this.recordAllocation(this.tlabAllocations, event, event.getLong("tlabSize"));
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                this.recordAllocation(this.tlabAllocations, event, event.getLong("allocationSize"));
+                break;
+            case "jdk.GarbageCollection":
+                final Duration pause = event.hasField("sumOfPauses") ? event.getDuration("sumOfPauses") : event.getDuration();
+                this.gcCount++;
+                this.gcTotalPause = this.gcTotalPause.plus(pause);
+                this.gcLongestPause = pause.compareTo(this.gcLongestPause) > 0 ? pause : this.gcLongestPause;
+                break;
+            case "jdk.JavaMonitorEnter":
+                final RecordedClass monitorClass = event.getClass("monitorClass");
+                final String name = Objects.isNull(monitorClass) ? "<unknown>" : monitorClass.getName();
+                final long[] stat = this.contendedMonitors.computeIfAbsent(name, k -> new long[2]);
+                stat[0]++;
+                stat[1] += event.getDuration().toNanos();
+                break;
+            default:
+        }
+    }
+
+    private void recordAllocation(@Nonnull Map<String, Long> allocations, @Nonnull RecordedEvent event, long bytes) {
+        final RecordedClass objectClass = event.getClass("objectClass");
+        final String type = Objects.isNull(objectClass) ? "<unknown>" : objectClass.getName();
+        final String site = Objects.requireNonNullElse(topFrame(event.getStackTrace()), "<unknown>");
+        allocations.merge(type + " @ " + site, bytes, Long::sum);
+    }
+
+    public Map<String, Long> getAllocations() {
+        return this.sampledAllocations.isEmpty() ? this.tlabAllocations : this.sampledAllocations;
+    }
+
+    public long getTotalAllocatedBytes() {
+        return this.getAllocations().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Nullable
+    private static String topFrame(@Nullable RecordedStackTrace stackTrace) {
+        if (Objects.isNull(stackTrace)) {
+            return null;
+        }
+        return stackTrace.getFrames().stream().filter(RecordedFrame::isJavaFrame).findFirst()
+            .map(RecordedFrame::getMethod)
+            .map(FlightRecordingSummary::format)
+            .orElse(null);
+    }
+
+    private static String format(@Nonnull RecordedMethod method) {
+        return method.getType().getName() + "." + method.getName();
+    }
+
+    private static <V> List<Map.Entry<String, V>> top(Map<String, V> map, Comparator<V> comparator) {
+        return map.entrySet().stream().sorted(Map.Entry.<String, V>comparingByValue(comparator).reversed()).limit(TOP).collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Top CPU methods (%d samples)%n", this.totalCpuSamples));
+        top(this.cpuSamples, Long::compare).forEach(e -> sb.append(String.format("  %5.1f%%  %s%n", 100.0 * e.getValue() / Math.max(1, this.totalCpuSamples), e.getKey())));
+        sb.append(String.format("%nAllocation hot spots (%s allocated)%n", FileUtils.byteCountToDisplaySize(this.getTotalAllocatedBytes())));
+        top(this.getAllocations(), Long::compare).forEach(e -> sb.append(String.format("  %10s  %s%n", FileUtils.byteCountToDisplaySize(e.getValue()), e.getKey())));
+        sb.append(String.format("%nGC pauses%n  count: %d, total: %d ms, longest: %d ms%n", this.gcCount, this.gcTotalPause.toMillis(), this.gcLongestPause.toMillis()));
+        sb.append(String.format("%nLock contention%n"));
+        top(this.contendedMonitors, (a, b) -> Long.compare(a[1], b[1])).forEach(e -> sb.append(String.format("  %6d ms  %5d times  %s%n", e.getValue()[1] / 1_000_000, e.getValue()[0], e.getKey())));
+        return sb.toString();
+    }
+}
@@ -5,12 +5,10 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
 
-import com.azure.core.util.FluxUtil;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.TunnelProxy;
 import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
 import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
-import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
@@ -83,9 +81,9 @@ public class LinuxFlightRecorderStarter extends FlightRecorderStarterBase {
         return Paths.get(HOME_PATH, filename).toString().replaceAll("\\\\", "/");
     }
 
-    public byte[] downloadJFRFile(String fileName) {
+    @Override
+    protected String getDownloadPath(String fileName) {
         // linux kudu vfs api doesn't support absolute path
-        return FluxUtil.collectBytesInByteBufferStream(appService.getFileContent(fileName)).blockOptional()
-                .orElseThrow(() -> new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name())));
+        return fileName;
     }
 }
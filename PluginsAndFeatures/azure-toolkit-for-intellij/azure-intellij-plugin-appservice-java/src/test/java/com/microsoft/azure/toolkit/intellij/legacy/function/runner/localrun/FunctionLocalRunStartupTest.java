@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.localrun;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * startup of function local run against a fake {@code func}, which takes 500 ms to print its version or to install
+ * extensions, like the real one (a dotnet app) takes seconds.
+ */
+public class FunctionLocalRunStartupTest {
+    private static final String FAKE_FUNC = "#!/bin/sh\n" +
+        "echo \"$@\" >> \"$(dirname \"$0\")/invocations.log\"\n" +
+        "sleep 0.5\n" +
+        "if [ \"$1\" = \"-v\" ]; then echo \"4.0.5455\"; exit 0; fi\n" +
+        "mkdir -p bin && echo extension > bin/extension.dll && echo project > extensions.csproj\n";
+    private static final List<String> BINDINGS = Arrays.asList("queueTrigger", "blob");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File func;
+
+    @Before
+    public void setUp() throws IOException {
+        Assume.assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        FunctionRuntimeProbe.clear();
+        this.func = this.folder.newFile("func");
+        FileUtils.writeStringToFile(this.func, FAKE_FUNC, StandardCharsets.UTF_8);
+        Assert.assertTrue(this.func.setExecutable(true));
+    }
+
+    @Test
+    public void probeFuncVersionOnce() throws IOException {
+        final long first = System.nanoTime();
+        Assert.assertEquals(new ComparableVersion("4.0.5455"), FunctionRuntimeProbe.getFuncVersion(this.func));
+        final long firstMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - first);
+
+        final long second = System.nanoTime();
+        Assert.assertEquals(new ComparableVersion("4.0.5455"), FunctionRuntimeProbe.getFuncVersion(this.func));
+        final long secondMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - second);
+
+        Assert.assertTrue("first probe took " + firstMillis + " ms", firstMillis >= 500);
+        Assert.assertTrue("cached probe took " + secondMillis + " ms", secondMillis < 100);
+        Assert.assertEquals(1, invocations().size());
+    }
+
+    @Test
+    public void probeFuncVersionAgainAfterUpgrade() throws IOException {
+        FunctionRuntimeProbe.getFuncVersion(this.func);
+        FileUtils.writeStringToFile(this.func, FAKE_FUNC.replace("4.0.5455", "4.0.5530"), StandardCharsets.UTF_8);
+        Assert.assertTrue(this.func.setLastModified(this.func.lastModified() + 2000));
+
+        Assert.assertEquals(new ComparableVersion("4.0.5530"), FunctionRuntimeProbe.getFuncVersion(this.func));
+        Assert.assertEquals(2, invocations().size());
+    }
+
+    @Test
+    public void restoreExtensionsOfSameBindings() throws Exception {
+        final FunctionExtensionCache cache = new FunctionExtensionCache(this.folder.newFolder("cache").toPath());
+
+        final long first = System.nanoTime();
+        final File firstStaging = stage("first");
+        final long firstMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - first);
+        Assert.assertFalse(cache.restore(fingerprint(firstStaging), firstStaging));
+        installExtensions(firstStaging);
+        cache.save(fingerprint(firstStaging), firstStaging);
+        final long installMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - first) - firstMillis;
+
+        final long second = System.nanoTime();
+        final File secondStaging = stage("second");
+        Assert.assertTrue(cache.restore(fingerprint(secondStaging), secondStaging));
+        final long restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - second);
+
+        Assert.assertTrue("install took " + installMillis + " ms", installMillis >= 500);
+        Assert.assertTrue(String.format("restore took %d ms, install %d ms", restoreMillis, installMillis), restoreMillis < installMillis);
+        Assert.assertEquals("extension", FileUtils.readFileToString(new File(secondStaging, "bin/extension.dll"), StandardCharsets.UTF_8).trim());
+        Assert.assertTrue(new File(secondStaging, "extensions.csproj").isFile());
+        Assert.assertEquals(1, invocations().size());
+    }
+
+    @Test
+    public void installExtensionsAgainIfBindingsChanged() throws Exception {
+        final FunctionExtensionCache cache = new FunctionExtensionCache(this.folder.newFolder("cache").toPath());
+        final File staging = stage("first");
+        installExtensions(staging);
+        cache.save(fingerprint(staging), staging);
+
+        final File other = stage("second");
+        final String fingerprint = FunctionExtensionCache.fingerprint(Arrays.asList("queueTrigger", "cosmosDB"), new File(other, "host.json"), this.func);
+        Assert.assertFalse(cache.restore(fingerprint, other));
+
+        FileUtils.writeStringToFile(new File(other, "host.json"), "{\"version\":\"2.0\",\"logging\":{}}", StandardCharsets.UTF_8);
+        Assert.assertFalse(cache.restore(fingerprint(other), other));
+    }
+
+    @Nonnull
+    private File stage(@Nonnull String name) throws IOException {
+        final File staging = this.folder.newFolder(name);
+        FileUtils.writeStringToFile(new File(staging, "host.json"), "{\"version\":\"2.0\"}", StandardCharsets.UTF_8);
+        return staging;
+    }
+
+    @Nonnull
+    private String fingerprint(@Nonnull File staging) {
+        return FunctionExtensionCache.fingerprint(BINDINGS, new File(staging, "host.json"), this.func);
+    }
+
+    private void installExtensions(@Nonnull File staging) throws Exception {
+        final Process process = new ProcessBuilder(this.func.getAbsolutePath(), "extensions", "install", "--java")
+            .directory(staging).inheritIO().start();
+        Assert.assertEquals(0, process.waitFor());
+    }
+
+    @Nonnull
+    private List<String> invocations() throws IOException {
+        return FileUtils.readLines(new File(this.folder.getRoot(), "invocations.log"), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
+import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
+import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FlightRecorderStarterBaseTest {
+    private static final String PATH = "/home/LogFiles/test.jfr";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private AppServiceAppBase<?, ?, ?> app;
+    private FlightRecorderStarterBase starter;
+    private Path target;
+
+    @Before
+    public void setUp() throws IOException {
+        this.app = mock(AppServiceAppBase.class);
+        this.starter = new FlightRecorderStarterBase(this.app) {
+            @Override
+            public List<ProcessInfo> listProcess() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            String getFinalJfrPath(String fileName) {
+                return "/home/LogFiles/" + fileName;
+            }
+
+            @Override
+            public CommandOutput startFlightRecorder(int pid, int timeInSeconds, String fileName) {
+                return null;
+            }
+        };
+        this.target = this.folder.newFile("test.jfr").toPath();
+    }
+
+    @Test
+    public void testRestartInterruptedDownload() throws IOException {
+        when(this.app.getFileContent(PATH))
+            .thenReturn(Flux.concat(Flux.just(chunk("partial")), Flux.error(new IllegalStateException("connection reset"))))
+            .thenReturn(Flux.just(chunk("recording "), chunk("content")));
+
+        this.starter.downloadJFRFile("test.jfr", this.target, null);
+
+        verify(this.app, times(2)).getFileContent(PATH);
+        Assert.assertEquals("recording content", Files.readString(this.target));
+    }
+
+    @Test
+    public void testGiveUpAfterMaxAttempts() {
+        when(this.app.getFileContent(PATH)).thenReturn(Flux.error(new IllegalStateException("connection reset")));
+
+        Assert.assertThrows(AzureToolkitRuntimeException.class, () -> this.starter.downloadJFRFile("test.jfr", this.target, null));
+        verify(this.app, times(3)).getFileContent(PATH);
+    }
+
+    @Test
+    public void testNotRetryCanceledDownload() {
+        when(this.app.getFileContent(PATH)).thenReturn(Flux.error(new ProcessCanceledException()));
+
+        Assert.assertThrows(ProcessCanceledException.class, () -> this.starter.downloadJFRFile("test.jfr", this.target, null));
+        verify(this.app, times(1)).getFileContent(PATH);
+    }
+
+    private static ByteBuffer chunk(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
+
+import jdk.jfr.Recording;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FlightRecordingSummaryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSummarizeRecording() throws IOException {
+        final Path file = this.folder.getRoot().toPath().resolve("test.jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable("jdk.GarbageCollection");
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "off");
+            recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+            recording.start();
+            allocate();
+            System.gc();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final FlightRecordingSummary summary = FlightRecordingSummary.parse(file);
+
+        Assert.assertTrue(summary.getGcCount() > 0);
+        Assert.assertTrue(summary.getTotalAllocatedBytes() > 0);
+        Assert.assertTrue(summary.toString().contains("GC pauses"));
+    }
+
+    private static void allocate() {
+        final List<byte[]> chunks = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            chunks.add(new byte[64 * 1024]);
+            if (chunks.size() > 16) {
+                chunks.remove(0);
+            }
+        }
+    }
+}
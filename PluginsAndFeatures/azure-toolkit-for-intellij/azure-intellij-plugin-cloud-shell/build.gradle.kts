@@ -40,6 +40,8 @@ dependencies {
         exclude(group = "org.jetbrains.kotlinx", module = "kotlinx-coroutines-core")
     }
 
+    testImplementation("junit:junit:4.13.2")
+
     intellijPlatform {
         bundledPlugin("org.jetbrains.plugins.terminal")
     }
@@ -39,9 +39,7 @@ class UploadToCloudShellAction : AnAction() {
                 title = "Select File(s) To Upload To Azure Cloud Shell"
             }
             FileChooser.chooseFiles(descriptor, project, null, null, object : FileChooser.FileChooserConsumer {
-                override fun consume(files: MutableList<VirtualFile>) = files.forEach {
-                    activeConnector.uploadFile(it.name, it)
-                }
+                override fun consume(files: MutableList<VirtualFile>) = activeConnector.uploadFiles(files)
 
                 override fun cancelled() {
                 }
@@ -7,6 +7,7 @@ package com.microsoft.azure.toolkit.intellij.cloudshell.rest
 import com.intellij.openapi.Disposable
 import com.intellij.openapi.components.Service
 import com.intellij.openapi.components.service
+import com.intellij.openapi.diagnostic.logger
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.util.io.move
@@ -23,8 +24,13 @@ import io.ktor.http.*
 import io.ktor.serialization.kotlinx.json.*
 import io.ktor.utils.io.*
 import io.ktor.utils.io.core.*
+import io.ktor.utils.io.streams.asInput
+import kotlinx.coroutines.delay
 import kotlinx.serialization.ExperimentalSerializationApi
 import kotlinx.serialization.json.Json
+import java.io.FilterInputStream
+import java.io.IOException
+import java.io.InputStream
 import java.nio.file.Path
 import kotlin.io.path.appendBytes
 import kotlin.io.path.createTempFile
@@ -33,6 +39,10 @@ import kotlin.io.path.createTempFile
 class CloudConsoleService : Disposable {
     companion object {
         fun getInstance(project: Project) = project.service<CloudConsoleService>()
+        private val LOG = logger<CloudConsoleService>()
+
+        private const val MAX_UPLOAD_ATTEMPTS = 3
+        private const val UPLOAD_RETRY_DELAY_MS = 1000L
     }
 
     private val contentDispositionHeaderRegex = "(?<=filename=\").*?(?=\")".toRegex()
@@ -154,19 +164,55 @@ class CloudConsoleService : Disposable {
         return response.body<PreviewPortResult>()
     }
 
-    suspend fun uploadFileToTerminal(url: String, fileName: String, file: VirtualFile): Boolean {
-        val response = client.post(url) {
-            setBody(MultiPartFormDataContent(
-                formData {
-                    append("uploading-file", file.contentsToByteArray(), Headers.build {
-                        append(HttpHeaders.ContentType, ContentType.Application.OctetStream)
-                        append(HttpHeaders.ContentDisposition, "filename=\"$fileName\"")
-                    })
+    /**
+     * Uploads [file] to the cloud shell, streaming its content from disk instead of loading it into memory.
+     * The upload endpoint does not support ranged (resumable) uploads, so a transfer that fails with an
+     * I/O error is restarted from the beginning, at most [MAX_UPLOAD_ATTEMPTS] times.
+     */
+    suspend fun uploadFileToTerminal(
+        url: String,
+        fileName: String,
+        file: VirtualFile,
+        onProgress: (bytesSent: Long, totalBytes: Long) -> Unit = { _, _ -> }
+    ): Boolean = uploadFileToTerminal(url, fileName, file.length, { file.inputStream }, onProgress)
+
+    internal suspend fun uploadFileToTerminal(
+        url: String,
+        fileName: String,
+        length: Long,
+        openStream: () -> InputStream,
+        onProgress: (bytesSent: Long, totalBytes: Long) -> Unit
+    ): Boolean {
+        var attempt = 0
+        while (true) {
+            attempt++
+            try {
+                val response = client.post(url) {
+                    setBody(MultiPartFormDataContent(
+                        formData {
+                            // Report the file bytes read for sending, the multipart framing isn't a part of the progress
+                            val provider = InputProvider(length) {
+                                ProgressInputStream(openStream()) { onProgress(it, length) }.asInput()
+                            }
+                            append("uploading-file", provider, Headers.build {
+                                append(HttpHeaders.ContentType, ContentType.Application.OctetStream)
+                                append(HttpHeaders.ContentDisposition, "filename=\"$fileName\"")
+                            })
+                        }
+                    ))
                 }
-            ))
-        }
 
-        return response.status.isSuccess()
+                if (response.status.isSuccess() || attempt >= MAX_UPLOAD_ATTEMPTS || response.status.value < 500) {
+                    return response.status.isSuccess()
+                }
+                LOG.warn("Upload of $fileName failed with status ${response.status}, retrying ($attempt/$MAX_UPLOAD_ATTEMPTS)")
+            } catch (e: IOException) {
+                if (attempt >= MAX_UPLOAD_ATTEMPTS) throw e
+                LOG.warn("Upload of $fileName was interrupted, retrying ($attempt/$MAX_UPLOAD_ATTEMPTS)", e)
+            }
+            onProgress(0, length)
+            delay(UPLOAD_RETRY_DELAY_MS * attempt)
+        }
     }
 
     suspend fun downloadFileFromTerminal(url: String): Path {
@@ -202,4 +248,19 @@ class CloudConsoleService : Disposable {
     }
 
     override fun dispose() = client.close()
+
+    private class ProgressInputStream(stream: InputStream, private val onRead: (Long) -> Unit) : FilterInputStream(stream) {
+        private var bytesRead = 0L
+
+        override fun read(): Int = super.read().also {
+            if (it >= 0) onRead(++bytesRead)
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int = super.read(b, off, len).also {
+            if (it > 0) {
+                bytesRead += it
+                onRead(bytesRead)
+            }
+        }
+    }
 }
\ No newline at end of file
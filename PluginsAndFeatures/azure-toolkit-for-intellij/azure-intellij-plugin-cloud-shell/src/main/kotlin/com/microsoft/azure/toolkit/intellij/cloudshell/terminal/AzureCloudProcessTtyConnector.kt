@@ -11,15 +11,21 @@ import com.intellij.openapi.Disposable
 import com.intellij.openapi.diagnostic.logger
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.platform.ide.progress.withBackgroundProgress
+import com.intellij.platform.util.progress.reportRawProgress
 import com.jediterm.core.util.TermSize
 import com.jediterm.terminal.ProcessTtyConnector
 import com.microsoft.azure.toolkit.intellij.cloudshell.CloudShellService
 import com.microsoft.azure.toolkit.intellij.cloudshell.rest.CloudConsoleService
 import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
 import org.jetbrains.plugins.terminal.cloud.CloudTerminalProcess
 import java.io.IOException
 import java.nio.charset.Charset
+import java.util.concurrent.ConcurrentHashMap
 
 class AzureCloudProcessTtyConnector(
     process: CloudTerminalProcess,
@@ -31,6 +37,7 @@ class AzureCloudProcessTtyConnector(
 ) : ProcessTtyConnector(process, Charset.defaultCharset()), Disposable {
     companion object {
         private val LOG = logger<AzureCloudProcessTtyConnector>()
+        private const val MAX_CONCURRENT_UPLOADS = 4
     }
 
     private val openPreviewPorts = mutableListOf<Int>()
@@ -39,12 +46,51 @@ class AzureCloudProcessTtyConnector(
 
     fun getPreviewPorts() = openPreviewPorts.sorted()
 
-    fun uploadFile(fileName: String, file: VirtualFile) {
+    fun uploadFile(fileName: String, file: VirtualFile) = uploadFiles(listOf(file), mapOf(file to fileName))
+
+    /**
+     * Uploads the given files concurrently (at most [MAX_CONCURRENT_UPLOADS] at a time), reporting the aggregated
+     * progress of all transfers in a single cancellable background task.
+     */
+    fun uploadFiles(files: List<VirtualFile>, fileNames: Map<VirtualFile, String> = emptyMap()) {
+        if (files.isEmpty()) return
         val cloudConsoleService = CloudConsoleService.getInstance(project)
+        val totalBytes = files.sumOf { it.length }.coerceAtLeast(1)
+        val sentBytes = ConcurrentHashMap<VirtualFile, Long>()
+        val semaphore = Semaphore(MAX_CONCURRENT_UPLOADS)
         scope.launch {
-            val result = cloudConsoleService.uploadFileToTerminal(uploadFileToTerminalUrl, fileName, file)
-            if (!result) {
-                LOG.warn("Could not upload file to the cloud terminal")
+            withBackgroundProgress(project, "Uploading ${files.size} file(s) to Azure Cloud Shell...") {
+                reportRawProgress { reporter ->
+                    coroutineScope {
+                        files.forEach { file ->
+                            val fileName = fileNames[file] ?: file.name
+                            launch {
+                                semaphore.withPermit {
+                                    val result = try {
+                                        cloudConsoleService.uploadFileToTerminal(uploadFileToTerminalUrl, fileName, file) { sent, _ ->
+                                            sentBytes[file] = sent
+                                            reporter.fraction(sentBytes.values.sum().toDouble() / totalBytes)
+                                            reporter.details(fileName)
+                                        }
+                                    } catch (e: IOException) {
+                                        LOG.warn("Could not upload file $fileName to the cloud terminal", e)
+                                        false
+                                    }
+                                    if (!result) {
+                                        LOG.warn("Could not upload file $fileName to the cloud terminal")
+                                        Notification(
+                                            "Azure CloudShell",
+                                            "Unable to upload file",
+                                            "Unable to upload file $fileName to Azure Cloud Shell",
+                                            NotificationType.WARNING
+                                        )
+                                            .notify(project)
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
             }
         }
     }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the MIT license.
+ */
+
+package com.microsoft.azure.toolkit.intellij.cloudshell.rest
+
+import com.sun.net.httpserver.HttpServer
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.random.Random
+
+class CloudConsoleServiceUploadTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var server: HttpServer
+    private val service = CloudConsoleService()
+
+    // The multipart request bodies received, and the status codes to fail the coming uploads with
+    private val received = CopyOnWriteArrayList<ByteArray>()
+    private val failures = CopyOnWriteArrayList<Int>()
+    private val requests = AtomicInteger()
+
+    @Before
+    fun startServer() {
+        server = HttpServer.create(InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0)
+        server.createContext("/upload") { exchange ->
+            requests.incrementAndGet()
+            val body = exchange.requestBody.readBytes()
+            val status = failures.removeFirstOrNull() ?: 200
+
+            if (status == 200) {
+                received.add(body)
+            }
+
+            exchange.sendResponseHeaders(status, -1)
+            exchange.close()
+        }
+        server.start()
+    }
+
+    @After
+    fun stopServer() {
+        server.stop(0)
+        service.dispose()
+    }
+
+    private val url get() = "http://127.0.0.1:${server.address.port}/upload"
+
+    private fun createFile(size: Int): File = folder.newFile("artifact.jar").apply {
+        writeBytes(Random(size).nextBytes(size))
+    }
+
+    private fun upload(file: File, progress: MutableList<Long> = mutableListOf()): Boolean = runBlocking {
+        service.uploadFileToTerminal(url, file.name, file.length(), { file.inputStream() }) { sent, total ->
+            Assert.assertEquals(file.length(), total)
+            progress.add(sent)
+        }
+    }
+
+    @Test
+    fun streamFileAsMultipartPart() {
+        val file = createFile(3 * 1024 * 1024)
+
+        Assert.assertTrue(upload(file))
+
+        Assert.assertEquals(1, received.size)
+        val body = String(received[0], Charsets.ISO_8859_1)
+        Assert.assertTrue(body.contains("filename=\"artifact.jar\""))
+        Assert.assertTrue(body.contains(String(file.readBytes(), Charsets.ISO_8859_1)))
+    }
+
+    @Test
+    fun reportPayloadBytesOnly() {
+        val file = createFile(1024 * 1024)
+        val progress = mutableListOf<Long>()
+
+        Assert.assertTrue(upload(file, progress))
+
+        Assert.assertEquals(file.length(), progress.last())
+        Assert.assertTrue(progress.all { it <= file.length() })
+        Assert.assertEquals(progress.sorted(), progress)
+    }
+
+    @Test
+    fun retryServerFailures() {
+        val file = createFile(64 * 1024)
+        val progress = mutableListOf<Long>()
+        failures.addAll(listOf(503, 500))
+
+        Assert.assertTrue(upload(file, progress))
+
+        Assert.assertEquals(3, requests.get())
+        Assert.assertEquals(1, received.size)
+        Assert.assertEquals(file.length(), progress.last())
+    }
+
+    @Test
+    fun giveUpAfterMaxAttempts() {
+        failures.addAll(listOf(503, 503, 503, 503))
+
+        Assert.assertFalse(upload(createFile(1024)))
+        Assert.assertEquals(3, requests.get())
+    }
+
+    @Test
+    fun notRetryClientErrors() {
+        failures.add(413)
+
+        Assert.assertFalse(upload(createFile(1024)))
+        Assert.assertEquals(1, requests.get())
+    }
+}
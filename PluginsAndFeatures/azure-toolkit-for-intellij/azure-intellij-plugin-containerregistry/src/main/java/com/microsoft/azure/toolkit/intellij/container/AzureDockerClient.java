@@ -29,8 +29,11 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.ServerSocket;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -122,13 +125,24 @@ public class AzureDockerClient {
 
     @AzureOperation(name = "boundary/docker.build_image.image|file", params = {"imageNameWithTag", "dockerFile"})
     public void buildImage(String imageNameWithTag, @Nonnull File dockerFile, @Nullable File baseDir, @Nullable BuildImageResultCallback callback) {
-        this.ping();
         baseDir = Optional.ofNullable(baseDir).orElseGet(dockerFile::getParentFile);
-        final String imageId = this.client.buildImageCmd()
-            .withDockerfile(dockerFile)
-            .withBaseDirectory(baseDir)
-            .withTags(Set.of(imageNameWithTag))
-            .exec(Optional.ofNullable(callback).orElseGet(BuildImageResultCallback::new)).awaitImageId();
+        this.buildImage(imageNameWithTag, DockerBuildContext.create(dockerFile, baseDir), callback);
+    }
+
+    /**
+     * builds image with a prepared build context, see {@link DockerBuildContext#create(File, File)}.
+     */
+    @AzureOperation(name = "boundary/docker.build_image_with_context.image|file", params = {"imageNameWithTag", "context.getDockerfilePath()"})
+    public void buildImage(String imageNameWithTag, @Nonnull DockerBuildContext context, @Nullable BuildImageResultCallback callback) {
+        this.ping();
+        try (final InputStream tar = new BufferedInputStream(new FileInputStream(context.getTarFile()))) {
+            final String imageId = this.client.buildImageCmd(tar)
+                .withDockerfilePath(context.getDockerfilePath())
+                .withTags(Set.of(imageNameWithTag))
+                .exec(Optional.ofNullable(callback).orElseGet(BuildImageResultCallback::new)).awaitImageId();
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to read docker build context (%s)", context.getTarFile()), e);
+        }
     }
 
     @AzureOperation(name = "boundary/acr.push_image.image|registry", params = {"targetImageName", "registryUrl"})
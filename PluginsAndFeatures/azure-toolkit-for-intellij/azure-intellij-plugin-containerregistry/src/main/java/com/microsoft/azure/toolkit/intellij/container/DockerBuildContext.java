@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.container;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * build context (tar) of a docker build, computed by the toolkit instead of docker-java so that it can be reused
+ * between builds: files excluded by {@code .dockerignore} are skipped, and the tar is only repacked when the
+ * fingerprint (relative path, size and modification time of every included file) changed since the last build.
+ * the tar is streamed to a temp file, so memory usage doesn't depend on the context size, and moved atomically to
+ * a name derived from the fingerprint, so concurrent builds never read a tar being written. cached tars are evicted
+ * once they are replaced, unused for {@link #MAX_CACHE_AGE_MILLIS}, or beyond {@link #MAX_CACHE_SIZE} in total.
+ */
+@Getter
+public class DockerBuildContext {
+    private static final String DOCKER_IGNORE = ".dockerignore";
+    private static final String CACHE_DIR = "azure-toolkit-docker-context";
+    private static final String TAR_SUFFIX = ".tar";
+    private static final String TEMP_SUFFIX = ".tar.tmp";
+    static final long MAX_CACHE_SIZE = 2L * FileUtils.ONE_GB;
+    static final long MAX_CACHE_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+    // a temp tar older than this is left by a crashed build rather than being written.
+    private static final long MAX_TEMP_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Nonnull
+    private final File tarFile;
+    @Nonnull
+    private final String dockerfilePath;
+    private final int fileCount;
+    private final long contentSize;
+    private final long elapsedMillis;
+    private final boolean reused;
+
+    private DockerBuildContext(@Nonnull File tarFile, @Nonnull String dockerfilePath, int fileCount, long contentSize, long elapsedMillis, boolean reused) {
+        this.tarFile = tarFile;
+        this.dockerfilePath = dockerfilePath;
+        this.fileCount = fileCount;
+        this.contentSize = contentSize;
+        this.elapsedMillis = elapsedMillis;
+        this.reused = reused;
+    }
+
+    @Nonnull
+    public static DockerBuildContext create(@Nonnull File dockerfile, @Nonnull File baseDir) {
+        return create(dockerfile, baseDir, new File(FileUtil.getTempDirectory(), CACHE_DIR).toPath());
+    }
+
+    @Nonnull
+    static DockerBuildContext create(@Nonnull File dockerfile, @Nonnull File baseDir, @Nonnull Path cacheDir) {
+        final long start = System.currentTimeMillis();
+        final Path base = baseDir.toPath().toAbsolutePath().normalize();
+        final Path dockerfilePath = dockerfile.toPath().toAbsolutePath().normalize();
+        final DockerIgnore ignore = DockerIgnore.load(base.resolve(DOCKER_IGNORE));
+        final List<Path> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(base, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(base)) {
+                        final String relative = toRelativePath(base, dir);
+                        // an excluded directory is still walked for the Dockerfile in it, which is always included.
+                        if (ignore.isExcluded(relative) && !ignore.hasExceptions() && !dockerfilePath.startsWith(dir)) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        if (!ignore.isExcluded(relative)) {
+                            files.add(dir);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    final String relative = toRelativePath(base, file);
+                    // like docker cli, Dockerfile and .dockerignore are always sent to the daemon.
+                    if (!ignore.isExcluded(relative) || file.equals(dockerfilePath) || relative.equals(DOCKER_IGNORE)) {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to list files of docker build context (%s)", base), e);
+        }
+        files.sort(Comparator.comparing(p -> toRelativePath(base, p)));
+        final boolean external = !dockerfilePath.startsWith(base);
+        final String dockerfileInContext = external ? ".azure-toolkit." + dockerfilePath.getFileName() : toRelativePath(base, dockerfilePath);
+        if (external) {
+            files.add(dockerfilePath);
+        }
+
+        final StringBuilder manifest = new StringBuilder(dockerfileInContext).append('\n');
+        long size = 0;
+        for (final Path file : files) {
+            final File f = file.toFile();
+            manifest.append(file).append('|').append(f.isDirectory() ? -1 : f.length()).append('|').append(f.lastModified()).append('\n');
+            size += f.isDirectory() ? 0 : f.length();
+        }
+        final String key = DigestUtils.sha256Hex(base + "|" + dockerfilePath).substring(0, 32);
+        final String fingerprint = DigestUtils.sha256Hex(manifest.toString()).substring(0, 32);
+        final File tarFile = cacheDir.resolve(key + "-" + fingerprint + TAR_SUFFIX).toFile();
+        final boolean reused = tarFile.isFile();
+        if (reused) {
+            // the modification time of a cached tar is when it was used last.
+            tarFile.setLastModified(System.currentTimeMillis());
+        } else {
+            writeTar(base, files, dockerfilePath, dockerfileInContext, tarFile);
+        }
+        evict(cacheDir, key, tarFile.toPath(), MAX_CACHE_SIZE, MAX_CACHE_AGE_MILLIS);
+        final int fileCount = (int) files.stream().filter(Files::isRegularFile).count();
+        return new DockerBuildContext(tarFile, dockerfileInContext, fileCount, size, System.currentTimeMillis() - start, reused);
+    }
+
+    private static void writeTar(@Nonnull Path base, @Nonnull List<Path> files, @Nonnull Path dockerfile, @Nonnull String dockerfileInContext, @Nonnull File target) {
+        Path temp = null;
+        try {
+            FileUtils.forceMkdirParent(target);
+            temp = Files.createTempFile(target.toPath().getParent(), StringUtils.removeEnd(target.getName(), TAR_SUFFIX) + "-", TEMP_SUFFIX);
+            try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp));
+                 final TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+                tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+                for (final Path file : files) {
+                    final String name = file.equals(dockerfile) ? dockerfileInContext : toRelativePath(base, file);
+                    final TarArchiveEntry entry = new TarArchiveEntry(file.toFile(), name);
+                    if (Files.isRegularFile(file) && Files.isExecutable(file)) {
+                        entry.setMode(0100755);
+                    }
+                    tar.putArchiveEntry(entry);
+                    if (Files.isRegularFile(file)) {
+                        Files.copy(file, tar);
+                    }
+                    tar.closeArchiveEntry();
+                }
+                tar.finish();
+            }
+            // a concurrent build of the same context may have moved the same content there meanwhile.
+            Files.move(temp, target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            Optional.ofNullable(temp).map(Path::toFile).ifPresent(FileUtils::deleteQuietly);
+            throw new AzureToolkitRuntimeException(String.format("failed to pack docker build context (%s)", base), e);
+        }
+    }
+
+    /**
+     * deletes the tars of older contents of {@code key}, the tars unused for {@code maxAgeMillis}, the temp tars left
+     * by crashed builds and then the least recently used tars until the cache fits in {@code maxSize}. {@code current}
+     * is always kept. deletion is best effort, a tar still being sent by another build may fail to be deleted on windows.
+     */
+    static void evict(@Nonnull Path cacheDir, @Nonnull String key, @Nonnull Path current, long maxSize, long maxAgeMillis) {
+        final File[] cached = Optional.ofNullable(cacheDir.toFile().listFiles(File::isFile)).orElse(new File[0]);
+        final long now = System.currentTimeMillis();
+        final List<File> kept = new ArrayList<>();
+        for (final File file : cached) {
+            final String name = file.getName();
+            final long age = now - file.lastModified();
+            if (file.toPath().equals(current)) {
+                continue;
+            }
+            if (name.endsWith(TEMP_SUFFIX) ? age > MAX_TEMP_AGE_MILLIS : name.startsWith(key + "-") || age > maxAgeMillis) {
+                FileUtils.deleteQuietly(file);
+            } else if (name.endsWith(TAR_SUFFIX)) {
+                kept.add(file);
+            }
+        }
+        long size = current.toFile().length() + kept.stream().mapToLong(File::length).sum();
+        kept.sort(Comparator.comparingLong(File::lastModified));
+        for (final File file : kept) {
+            if (size <= maxSize) {
+                break;
+            }
+            size -= file.length();
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    @Nonnull
+    private static String toRelativePath(@Nonnull Path base, @Nonnull Path path) {
+        return FileUtil.toSystemIndependentName(base.relativize(path).toString());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Build context: %d files, %s (%s in %d ms)", this.fileCount, FileUtils.byteCountToDisplaySize(this.contentSize),
+            this.reused ? "unchanged, reused" : "packed", this.elapsedMillis);
+    }
+
+    /**
+     * <a href="https://docs.docker.com/build/building/context/#dockerignore-files">.dockerignore</a> rules, the last
+     * matching rule wins, and a path is also excluded if one of its parent directories is.
+     */
+    @RequiredArgsConstructor
+    static class DockerIgnore {
+        private final List<Pattern> patterns;
+        private final List<Boolean> exceptions;
+
+        static DockerIgnore load(@Nonnull Path file) {
+            final List<Pattern> patterns = new ArrayList<>();
+            final List<Boolean> exceptions = new ArrayList<>();
+            if (Files.isRegularFile(file)) {
+                try {
+                    for (final String raw : Files.readAllLines(file)) {
+                        String line = raw.trim();
+                        if (line.isEmpty() || line.startsWith("#")) {
+                            continue;
+                        }
+                        final boolean exception = line.startsWith("!");
+                        line = StringUtils.strip(StringUtils.removeStart(line, "!").trim(), "/");
+                        line = FileUtil.toCanonicalPath(line, '/');
+                        if (StringUtils.isNotBlank(line) && !line.equals(".")) {
+                            patterns.add(toRegex(line));
+                            exceptions.add(exception);
+                        }
+                    }
+                } catch (final IOException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to read %s", file), e);
+                }
+            }
+            return new DockerIgnore(patterns, exceptions);
+        }
+
+        boolean hasExceptions() {
+            return this.exceptions.contains(Boolean.TRUE);
+        }
+
+        boolean isExcluded(@Nonnull String relativePath) {
+            boolean excluded = false;
+            for (int i = 0; i < this.patterns.size(); i++) {
+                if (matches(this.patterns.get(i), relativePath)) {
+                    excluded = !this.exceptions.get(i);
+                }
+            }
+            return excluded;
+        }
+
+        private static boolean matches(@Nonnull Pattern pattern, @Nonnull String path) {
+            String current = path;
+            while (true) {
+                if (pattern.matcher(current).matches()) {
+                    return true;
+                }
+                final int index = current.lastIndexOf('/');
+                if (index < 0) {
+                    return false;
+                }
+                current = current.substring(0, index);
+            }
+        }
+
+        /**
+         * go filepath.Match syntax plus {@code **}, which matches any number of directories.
+         */
+        static Pattern toRegex(@Nonnull String glob) {
+            final StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                final char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                            i++;
+                            regex.append("(.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[') {
+                    final int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        final String set = glob.substring(i + 1, end);
+                        regex.append('[').append(set.startsWith("^") ? set : set.replaceFirst("^!", "^")).append(']');
+                        i = end;
+                    }
+                } else if (c == '\\' && i + 1 < glob.length()) {
+                    regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
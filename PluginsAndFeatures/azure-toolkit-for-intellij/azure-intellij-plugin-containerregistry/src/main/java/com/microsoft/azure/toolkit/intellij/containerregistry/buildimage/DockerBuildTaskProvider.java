@@ -26,6 +26,7 @@ import com.intellij.ui.content.ContentFactory;
 import com.microsoft.azure.toolkit.ide.common.icon.AzureIcons;
 import com.microsoft.azure.toolkit.intellij.common.IntelliJAzureIcons;
 import com.microsoft.azure.toolkit.intellij.container.AzureDockerClient;
+import com.microsoft.azure.toolkit.intellij.container.DockerBuildContext;
 import com.microsoft.azure.toolkit.intellij.container.model.DockerImage;
 import com.microsoft.azure.toolkit.intellij.containerregistry.IDockerConfiguration;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
@@ -106,7 +107,10 @@ public class DockerBuildTaskProvider extends BeforeRunTaskProvider<DockerBuildTa
                 createConsoleView(configuration.getProject(), image.getImageName())).join();
             final BuildImageResultCallback callback = createBuildImageResultCallback(consoleView);
             final File baseDir = Optional.ofNullable(image.getBaseDirectory()).map(File::new).orElse(null);
-            dockerClient.buildImage(image.getImageName(), new File(image.getDockerFile()), baseDir, callback);
+            final File dockerFile = new File(image.getDockerFile());
+            final DockerBuildContext context = DockerBuildContext.create(dockerFile, Optional.ofNullable(baseDir).orElseGet(dockerFile::getParentFile));
+            consoleView.print(context + System.lineSeparator(), ConsoleViewContentType.SYSTEM_OUTPUT);
+            dockerClient.buildImage(image.getImageName(), context, callback);
             return true;
         }
 
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.container;
+
+import com.github.dockerjava.api.command.BuildImageResultCallback;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * builds an image against a local stand-in of the docker engine API, which records the build request.
+ */
+public class AzureDockerClientTest {
+    private static final String IMAGE_ID = "0123456789ab";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private HttpServer server;
+    private final AtomicReference<String> buildQuery = new AtomicReference<>();
+    private final AtomicReference<byte[]> buildContext = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    public void testBuildImageWithContext() throws IOException {
+        final Path base = this.folder.newFolder("app").toPath();
+        final File dockerfile = write(base, "docker/Dockerfile", "FROM scratch\nCOPY app.jar /\n").toFile();
+        write(base, "app.jar", "jar");
+        write(base, "target/App.class", "class");
+        write(base, ".dockerignore", "target\ndocker\n");
+        final DockerBuildContext context = DockerBuildContext.create(dockerfile, base.toFile(), this.folder.newFolder("cache").toPath());
+        final AzureDockerClient client = AzureDockerClient.from("tcp://127.0.0.1:" + this.server.getAddress().getPort(), false, null);
+        final BuildImageResultCallback callback = new BuildImageResultCallback();
+
+        client.buildImage("app:latest", context, callback);
+
+        Assert.assertEquals(IMAGE_ID, callback.awaitImageId());
+        Assert.assertTrue(this.buildQuery.get(), this.buildQuery.get().contains("dockerfile=docker%2FDockerfile"));
+        Assert.assertTrue(this.buildQuery.get(), this.buildQuery.get().contains("t=app%3Alatest"));
+        final File received = this.folder.newFile("received.tar");
+        Files.write(received.toPath(), this.buildContext.get());
+        Assert.assertEquals(List.of(".dockerignore", "app.jar", "docker/Dockerfile"), DockerBuildContextTest.entries(received));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final byte[] request = exchange.getRequestBody().readAllBytes();
+        final String response;
+        if (path.endsWith("/_ping")) {
+            response = "OK";
+        } else if (path.endsWith("/build")) {
+            this.buildQuery.set(exchange.getRequestURI().getRawQuery());
+            this.buildContext.set(request);
+            response = "{\"stream\":\"Step 1/2 : FROM scratch\\n\"}\r\n{\"stream\":\"Successfully built " + IMAGE_ID + "\\n\"}\r\n";
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        final byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", path.endsWith("/build") ? "application/json" : "text/plain");
+        exchange.sendResponseHeaders(200, body.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Path write(Path base, String relative, String content) throws IOException {
+        final Path file = base.resolve(relative);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.container;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class DockerBuildContextTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path base;
+    private Path cache;
+    private File dockerfile;
+
+    @Before
+    public void setUp() throws IOException {
+        this.base = this.folder.newFolder("app").toPath();
+        this.cache = this.folder.newFolder("cache").toPath();
+        this.dockerfile = write("Dockerfile", "FROM scratch\nCOPY app.jar /\n").toFile();
+        write("app.jar", "jar");
+        write("target/classes/App.class", "class");
+        write(".dockerignore", "target\n");
+    }
+
+    @Test
+    public void testReuseUnchangedContext() throws IOException {
+        final DockerBuildContext first = DockerBuildContext.create(this.dockerfile, this.base.toFile(), this.cache);
+        final DockerBuildContext second = DockerBuildContext.create(this.dockerfile, this.base.toFile(), this.cache);
+
+        Assert.assertFalse(first.isReused());
+        Assert.assertTrue(second.isReused());
+        Assert.assertEquals(first.getTarFile(), second.getTarFile());
+        Assert.assertEquals(List.of(".dockerignore", "Dockerfile", "app.jar"), entries(second.getTarFile()));
+    }
+
+    @Test
+    public void testRepackChangedContext() throws IOException {
+        final DockerBuildContext first = DockerBuildContext.create(this.dockerfile, this.base.toFile(), this.cache);
+        write("app.jar", "new jar");
+        final DockerBuildContext second = DockerBuildContext.create(this.dockerfile, this.base.toFile(), this.cache);
+        write("lib/dependency.jar", "dependency");
+        final DockerBuildContext third = DockerBuildContext.create(this.dockerfile, this.base.toFile(), this.cache);
+
+        Assert.assertFalse(second.isReused());
+        Assert.assertFalse(third.isReused());
+        Assert.assertNotEquals(first.getTarFile(), second.getTarFile());
+        // the tars of the previous contents are evicted
+        Assert.assertFalse(first.getTarFile().exists());
+        Assert.assertFalse(second.getTarFile().exists());
+        Assert.assertEquals(List.of(".dockerignore", "Dockerfile", "app.jar", "lib/", "lib/dependency.jar"), entries(third.getTarFile()));
+        Assert.assertEquals(1, listCache().size());
+    }
+
+    @Test
+    public void testIgnoreChangesOfExcludedFiles() throws IOException {
+        DockerBuildContext.create(this.dockerfile, this.base.toFile(), this.cache);
+        write("target/classes/Other.class", "class");
+
+        Assert.assertTrue(DockerBuildContext.create(this.dockerfile, this.base.toFile(), this.cache).isReused());
+    }
+
+    @Test
+    public void testIncludeDockerfileInExcludedDirectory() throws IOException {
+        final File nested = write("docker/Dockerfile", "FROM scratch\n").toFile();
+        write("docker/other.txt", "other");
+        write(".dockerignore", "target\ndocker\n");
+
+        final DockerBuildContext context = DockerBuildContext.create(nested, this.base.toFile(), this.cache);
+
+        Assert.assertEquals("docker/Dockerfile", context.getDockerfilePath());
+        Assert.assertEquals(List.of(".dockerignore", "Dockerfile", "app.jar", "docker/Dockerfile"), entries(context.getTarFile()));
+    }
+
+    @Test
+    public void testEvictByAgeAndSize() throws IOException {
+        final Path current = this.cache.resolve("current-1.tar");
+        Files.write(current, new byte[100]);
+        final Path old = this.cache.resolve("old-1.tar");
+        Files.write(old, new byte[10]);
+        old.toFile().setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(8));
+        final Path leastRecentlyUsed = this.cache.resolve("lru-1.tar");
+        Files.write(leastRecentlyUsed, new byte[100]);
+        leastRecentlyUsed.toFile().setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2));
+        final Path recentlyUsed = this.cache.resolve("mru-1.tar");
+        Files.write(recentlyUsed, new byte[100]);
+        recentlyUsed.toFile().setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        final Path crashed = this.cache.resolve("crashed-1-123.tar.tmp");
+        Files.write(crashed, new byte[10]);
+        crashed.toFile().setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2));
+        final Path writing = this.cache.resolve("writing-1-456.tar.tmp");
+        Files.write(writing, new byte[10]);
+
+        DockerBuildContext.evict(this.cache, "current", current, 250, DockerBuildContext.MAX_CACHE_AGE_MILLIS);
+
+        Assert.assertEquals(List.of("current-1.tar", "mru-1.tar", "writing-1-456.tar.tmp"), listCache());
+    }
+
+    private Path write(String relative, String content) throws IOException {
+        final Path file = this.base.resolve(relative);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private List<String> listCache() throws IOException {
+        try (var files = Files.list(this.cache)) {
+            return files.map(f -> f.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    static List<String> entries(File tar) throws IOException {
+        final List<String> names = new ArrayList<>();
+        try (final InputStream in = Files.newInputStream(tar.toPath()); final TarArchiveInputStream tarIn = new TarArchiveInputStream(in)) {
+            TarArchiveEntry entry;
+            while ((entry = tarIn.getNextTarEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+}
@@ -16,6 +16,8 @@ import com.microsoft.azure.toolkit.intellij.containerservice.actions.DownloadKub
 import com.microsoft.azure.toolkit.intellij.containerservice.actions.GetKubuCredentialAction;
 import com.microsoft.azure.toolkit.intellij.containerservice.actions.KubernetesUtils;
 import com.microsoft.azure.toolkit.intellij.containerservice.creation.CreateKubernetesServiceAction;
+import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.common.action.Action;
 import com.microsoft.azure.toolkit.lib.common.action.AzureActionManager;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
@@ -26,8 +28,10 @@ import com.microsoft.azure.toolkit.lib.resource.ResourceGroup;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
 
 import static com.microsoft.azure.toolkit.intellij.containerservice.creation.CreateKubernetesServiceAction.getDefaultConfig;
 
@@ -53,12 +57,22 @@ public class IntelliJContainerServiceActionsContributor implements IActionsContr
         am.registerHandler(ContainerServiceActionsContributor.DOWNLOAD_CONFIG_ADMIN, clusterCondition, (c, e) ->
                 DownloadKubuConfigAction.downloadKubuConfig(c, e.getProject(), true));
 
+        am.registerHandler(ContainerServiceActionsContributor.DOWNLOAD_MERGED_CONFIG_USER, (s, e) -> true, (s, e) ->
+                DownloadKubuConfigAction.downloadMergedKubuConfig(listClusters(), e.getProject()));
+
         if (!KubernetesUtils.isKubernetesPluginEnabled()) {
             am.registerHandler(ContainerServiceActionsContributor.OPEN_KUBERNETES_PLUGIN, clusterCondition,
                     (c, e) -> showKubernetesPluginNotification(c, e.getProject()));
         }
     }
 
+    @Nonnull
+    private static List<KubernetesCluster> listClusters() {
+        return Azure.az(AzureAccount.class).account().getSelectedSubscriptions().stream()
+                .flatMap(s -> Azure.az(AzureContainerService.class).kubernetes(s.getId()).list().stream())
+                .collect(Collectors.toList());
+    }
+
     private void showKubernetesPluginNotification(@Nonnull KubernetesCluster cluster, @Nullable Project project) {
         final String KUBERNETES_PLUGIN_NOT_INSTALLED = "\"Kubernetes\" plugin is not installed.";
         final String NOT_SUPPORT_ERROR_ACTION = "\"Kubernetes\" plugin is only provided in IntelliJ Ultimate edition.";
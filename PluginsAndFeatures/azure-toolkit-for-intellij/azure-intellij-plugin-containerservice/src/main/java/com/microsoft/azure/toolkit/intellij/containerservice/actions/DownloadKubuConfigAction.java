@@ -18,6 +18,7 @@ import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.lib.containerservice.KubernetesCluster;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.FileUtils;
 
 import javax.annotation.Nonnull;
@@ -26,6 +27,8 @@ import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class DownloadKubuConfigAction {
     @AzureOperation(name = "azure/kubernetes.download_config.kubernetes", params = {"cluster.getName()"})
@@ -46,6 +49,47 @@ public class DownloadKubuConfigAction {
         }
     }
 
+    /**
+     * fetches user kubeconfigs of {@code clusters} in parallel and merges them into one file chosen by user.
+     */
+    @AzureOperation(name = "azure/kubernetes.download_merged_config")
+    public static void downloadMergedKubuConfig(@Nonnull List<KubernetesCluster> clusters, @Nonnull Project project) {
+        if (CollectionUtils.isEmpty(clusters)) {
+            AzureMessager.getMessager().warning("No Kubernetes service is found in selected subscriptions.");
+            return;
+        }
+        final File destFile = AzureTaskManager.getInstance().runLater(() -> FileChooser.showFileSaver("Download merged kubernetes configuration", "config-aks.yml")).join();
+        if (destFile == null) {
+            return;
+        }
+        final List<KubeConfigMerger.CredentialProvider> providers = clusters.stream().map(DownloadKubuConfigAction::toUserCredentialProvider).collect(Collectors.toList());
+        try {
+            final KubeConfigMerger.Result result = KubeConfigMerger.getInstance().merge(providers, destFile);
+            final String failures = result.getFailures().isEmpty() ? "" : " Failed clusters: " + String.join(", ", result.getFailures().keySet());
+            AzureMessager.getMessager().info(AzureString.format("Merged kubernetes configuration of %s cluster(s) to %s: %s%s", clusters.size(), destFile.getAbsolutePath(), result, failures),
+                null, getOpenInExplorerAction(project, destFile), getOpenInEditorAction(project, destFile), getOpenKubernetesAction(project, destFile));
+        } catch (final IOException e) {
+            AzureMessager.getMessager().error(e);
+        }
+    }
+
+    @Nonnull
+    private static KubeConfigMerger.CredentialProvider toUserCredentialProvider(@Nonnull KubernetesCluster cluster) {
+        return new KubeConfigMerger.CredentialProvider() {
+            @Nonnull
+            @Override
+            public String getId() {
+                return cluster.getId() + "/user";
+            }
+
+            @Nonnull
+            @Override
+            public byte[] getKubeConfig() {
+                return cluster.getUserKubeConfig();
+            }
+        };
+    }
+
     @Nullable
     private static Action<?> getOpenKubernetesAction(@Nonnull Project project, @Nonnull File file) {
         if (!PluginManagerCore.isPluginInstalled(PluginId.getId(KubernetesUtils.KUBERNETES_PLUGIN_ID))) {
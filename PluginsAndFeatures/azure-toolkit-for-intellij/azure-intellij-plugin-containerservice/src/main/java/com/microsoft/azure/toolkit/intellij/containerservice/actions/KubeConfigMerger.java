@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.containerservice.actions;
+
+import io.kubernetes.client.util.FilePersister;
+import io.kubernetes.client.util.KubeConfig;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * merges kubeconfigs of many clusters into one file. credentials are fetched in parallel and cached (with their
+ * checksums) for {@code ttl}, so merging again only fetches clusters that are new or whose credentials are stale.
+ * users, clusters and contexts are de-duplicated by name (the fetched one wins), entries of other clusters already
+ * in the target file are kept, and the file is only rewritten (atomically) if its content changes.
+ */
+@Slf4j
+public class KubeConfigMerger {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+    private static final int MAX_CONCURRENT_FETCHES = 8;
+    private static final KubeConfigMerger instance = new KubeConfigMerger(DEFAULT_TTL);
+
+    private final Duration ttl;
+    private final Map<String, CachedConfig> cache = new ConcurrentHashMap<>();
+
+    public KubeConfigMerger(@Nonnull Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    @Nonnull
+    public static KubeConfigMerger getInstance() {
+        return instance;
+    }
+
+    /**
+     * fetches kubeconfig of one cluster.
+     */
+    public interface CredentialProvider {
+        /**
+         * unique id of the cluster and credential kind (user/admin), used as cache key.
+         */
+        @Nonnull
+        String getId();
+
+        @Nonnull
+        byte[] getKubeConfig() throws IOException;
+    }
+
+    public void invalidate(@Nonnull String id) {
+        this.cache.remove(id);
+    }
+
+    @Nonnull
+    public Result merge(@Nonnull List<? extends CredentialProvider> providers, @Nonnull File target) throws IOException {
+        final Result result = new Result();
+        final Map<String, byte[]> contents = this.fetch(providers, result);
+
+        final KubeConfig origin = target.isFile() && target.length() > 0 ? load(target) : null;
+        final Map<String, Object> clusters = toMap(Objects.isNull(origin) ? null : origin.getClusters());
+        final Map<String, Object> users = toMap(Objects.isNull(origin) ? null : origin.getUsers());
+        final Map<String, Object> contexts = toMap(Objects.isNull(origin) ? null : origin.getContexts());
+        String currentContext = Objects.isNull(origin) ? null : origin.getCurrentContext();
+        for (final CredentialProvider provider : providers) {
+            final byte[] content = contents.get(provider.getId());
+            if (Objects.isNull(content)) {
+                continue;
+            }
+            final KubeConfig config = KubeConfig.loadKubeConfig(new StringReader(new String(content, StandardCharsets.UTF_8)));
+            renameAdminContexts(config);
+            putAll(clusters, config.getClusters(), result);
+            putAll(users, config.getUsers(), result);
+            putAll(contexts, config.getContexts(), result);
+            currentContext = StringUtils.firstNonBlank(currentContext, config.getCurrentContext());
+        }
+
+        FileUtils.forceMkdirParent(target);
+        // a unique temp file in the target directory, so concurrent merges don't overwrite each other's and the move stays atomic.
+        final File temp = Files.createTempFile(target.getAbsoluteFile().getParentFile().toPath(), "." + target.getName() + "-", ".tmp").toFile();
+        try {
+            new FilePersister(temp).save(new ArrayList<>(contexts.values()), new ArrayList<>(clusters.values()), new ArrayList<>(users.values()),
+                Objects.isNull(origin) ? null : origin.getPreferences(), currentContext);
+            if (target.isFile() && FileUtils.contentEquals(temp, target)) {
+                return result;
+            }
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            result.written = true;
+            return result;
+        } finally {
+            FileUtils.deleteQuietly(temp);
+        }
+    }
+
+    @Nonnull
+    private Map<String, byte[]> fetch(@Nonnull List<? extends CredentialProvider> providers, @Nonnull Result result) {
+        final long now = System.currentTimeMillis();
+        final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+        final List<CredentialProvider> stale = new ArrayList<>();
+        for (final CredentialProvider provider : providers) {
+            final CachedConfig cached = this.cache.get(provider.getId());
+            if (Objects.nonNull(cached) && now - cached.fetchedAt < this.ttl.toMillis()) {
+                contents.put(provider.getId(), cached.content);
+                result.reused++;
+            } else {
+                stale.add(provider);
+            }
+        }
+        if (stale.isEmpty()) {
+            return contents;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_CONCURRENT_FETCHES, stale.size()));
+        try {
+            final List<CompletableFuture<Void>> futures = stale.stream().map(provider -> CompletableFuture.runAsync(() -> {
+                final String id = provider.getId();
+                try {
+                    final byte[] content = provider.getKubeConfig();
+                    final String checksum = DigestUtils.sha256Hex(content);
+                    final CachedConfig previous = this.cache.put(id, new CachedConfig(content, checksum, System.currentTimeMillis()));
+                    if (Objects.nonNull(previous) && !previous.checksum.equals(checksum)) {
+                        result.changed.add(id);
+                    }
+                    contents.put(id, content);
+                } catch (final IOException | RuntimeException e) {
+                    log.debug("failed to fetch kubeconfig of ({})", id, e);
+                    result.failures.put(id, ExceptionUtils.getRootCauseMessage(e));
+                    // fall back to the stale credentials if any, they may still be valid.
+                    final CachedConfig cached = this.cache.get(id);
+                    if (Objects.nonNull(cached)) {
+                        contents.put(id, cached.content);
+                    }
+                }
+            }, executor)).collect(Collectors.toList());
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            result.fetched = stale.size() - result.failures.size();
+        } finally {
+            executor.shutdownNow();
+        }
+        return contents;
+    }
+
+    @Nonnull
+    private static KubeConfig load(@Nonnull File file) throws IOException {
+        try (final Reader reader = new FileReader(file, StandardCharsets.UTF_8)) {
+            return KubeConfig.loadKubeConfig(reader);
+        }
+    }
+
+    /**
+     * same as {@link GetKubuCredentialAction}, admin contexts get a "-admin" suffix so they don't collide with user ones.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void renameAdminContexts(@Nonnull KubeConfig config) {
+        for (final Object o : ObjectUtils.firstNonNull(config.getContexts(), new ArrayList<>())) {
+            if (o instanceof Map && ((Map<?, ?>) o).get("context") instanceof Map) {
+                final Object user = ((Map<?, ?>) ((Map<?, ?>) o).get("context")).get("user");
+                if (StringUtils.startsWith(Objects.toString(user, null), "clusterAdmin")) {
+                    final String name = ((Map<?, ?>) o).get("name") + "-admin";
+                    if (StringUtils.equals(config.getCurrentContext(), Objects.toString(((Map<?, ?>) o).get("name"), null))) {
+                        config.setContext(name);
+                    }
+                    ((Map) o).put("name", name);
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private static Map<String, Object> toMap(@Nullable List<Object> entries) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (final Object entry : ObjectUtils.firstNonNull(entries, new ArrayList<>())) {
+            if (entry instanceof Map) {
+                result.put(Objects.toString(((Map<?, ?>) entry).get("name")), entry);
+            }
+        }
+        return result;
+    }
+
+    private static void putAll(@Nonnull Map<String, Object> merged, @Nullable List<Object> entries, @Nonnull Result result) {
+        for (final Map.Entry<String, Object> entry : toMap(entries).entrySet()) {
+            final Object existing = merged.put(entry.getKey(), entry.getValue());
+            if (Objects.isNull(existing)) {
+                result.added++;
+            } else if (!existing.equals(entry.getValue())) {
+                result.updated++;
+            }
+        }
+    }
+
+    @Getter
+    public static class Result {
+        /**
+         * number of clusters whose credentials are fetched/taken from cache.
+         */
+        private int fetched;
+        private int reused;
+        /**
+         * ids of clusters whose credentials changed since last fetched.
+         */
+        private final List<String> changed = new CopyOnWriteArrayList<>();
+        private final Map<String, String> failures = new ConcurrentHashMap<>();
+        /**
+         * number of users, clusters and contexts added to/updated in the target file.
+         */
+        private int added;
+        private int updated;
+        private boolean written;
+
+        @Override
+        public String toString() {
+            return String.format("%d cluster(s) fetched, %d reused from cache, %d failed; %d entries added, %d updated%s.",
+                this.fetched, this.reused, this.failures.size(), this.added, this.updated, this.written ? "" : ", file unchanged");
+        }
+    }
+
+    private static class CachedConfig {
+        private final byte[] content;
+        private final String checksum;
+        private final long fetchedAt;
+
+        private CachedConfig(@Nonnull byte[] content, @Nonnull String checksum, long fetchedAt) {
+            this.content = content;
+            this.checksum = checksum;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
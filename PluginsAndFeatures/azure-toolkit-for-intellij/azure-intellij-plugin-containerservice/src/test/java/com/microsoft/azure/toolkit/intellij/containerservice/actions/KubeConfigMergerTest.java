@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.containerservice.actions;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class KubeConfigMergerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mergeIntoExistingConfig() throws IOException {
+        final File target = copyOf("existing.yml");
+        final KubeConfigMerger merger = new KubeConfigMerger(KubeConfigMerger.DEFAULT_TTL);
+
+        final KubeConfigMerger.Result result = merger.merge(providers(new AtomicInteger()), target);
+
+        assertSameConfig(resource("merged.yml"), FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+        Assert.assertEquals(3, result.getFetched());
+        Assert.assertEquals(5, result.getAdded());
+        Assert.assertEquals(2, result.getUpdated());
+        Assert.assertTrue(result.isWritten());
+    }
+
+    @Test
+    public void reuseCachedCredentials() throws IOException {
+        final File target = new File(this.folder.getRoot(), ".kube/config");
+        final AtomicInteger fetches = new AtomicInteger();
+        final KubeConfigMerger merger = new KubeConfigMerger(KubeConfigMerger.DEFAULT_TTL);
+        merger.merge(providers(fetches), target);
+        final long modified = target.lastModified();
+
+        final KubeConfigMerger.Result result = merger.merge(providers(fetches), target);
+
+        Assert.assertEquals(3, fetches.get());
+        Assert.assertEquals(0, result.getFetched());
+        Assert.assertEquals(3, result.getReused());
+        Assert.assertFalse(result.isWritten());
+        Assert.assertEquals(modified, target.lastModified());
+        // the temp files are removed whether the target is rewritten or not
+        Assert.assertArrayEquals(new String[]{"config"}, target.getParentFile().list());
+    }
+
+    @Test
+    public void keepStaleCredentialsIfFetchingFails() throws IOException {
+        final File target = copyOf("existing.yml");
+        final KubeConfigMerger merger = new KubeConfigMerger(Duration.ZERO);
+        merger.merge(providers(new AtomicInteger()), target);
+        final String merged = FileUtils.readFileToString(target, StandardCharsets.UTF_8);
+
+        final KubeConfigMerger.Result result = merger.merge(Arrays.asList(
+            provider("aks-a/user", "aks-a.yml", new AtomicInteger()),
+            failing("aks-b/user"),
+            provider("aks-b/admin", "aks-b-admin.yml", new AtomicInteger())), target);
+
+        Assert.assertEquals(2, result.getFetched());
+        Assert.assertEquals(1, result.getFailures().size());
+        Assert.assertTrue(result.getFailures().containsKey("aks-b/user"));
+        Assert.assertFalse(result.isWritten());
+        Assert.assertEquals(merged, FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void fetchInParallel() throws IOException {
+        final File target = new File(this.folder.getRoot(), "config");
+        final List<KubeConfigMerger.CredentialProvider> providers = IntStream.range(0, 8)
+            .mapToObj(i -> slow("aks-" + i, resource("aks-a.yml").replace("aks-a", "aks-" + i)))
+            .collect(Collectors.toList());
+
+        final long start = System.currentTimeMillis();
+        final KubeConfigMerger.Result result = new KubeConfigMerger(KubeConfigMerger.DEFAULT_TTL).merge(providers, target);
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 8 * 300);
+        Assert.assertEquals(8, result.getFetched());
+        Assert.assertEquals(24, result.getAdded());
+    }
+
+    @Nonnull
+    private static List<KubeConfigMerger.CredentialProvider> providers(@Nonnull AtomicInteger fetches) {
+        return Arrays.asList(
+            provider("aks-a/user", "aks-a.yml", fetches),
+            provider("aks-b/user", "aks-b.yml", fetches),
+            provider("aks-b/admin", "aks-b-admin.yml", fetches));
+    }
+
+    @Nonnull
+    private static KubeConfigMerger.CredentialProvider provider(@Nonnull String id, @Nonnull String file, @Nonnull AtomicInteger fetches) {
+        return new FakeCredentialProvider(id, () -> {
+            fetches.incrementAndGet();
+            return resource(file);
+        });
+    }
+
+    @Nonnull
+    private static KubeConfigMerger.CredentialProvider failing(@Nonnull String id) {
+        return new FakeCredentialProvider(id, () -> {
+            throw new IOException("unauthorized");
+        });
+    }
+
+    @Nonnull
+    private static KubeConfigMerger.CredentialProvider slow(@Nonnull String id, @Nonnull String content) {
+        return new FakeCredentialProvider(id, () -> {
+            try {
+                Thread.sleep(300);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return content;
+        });
+    }
+
+    @Nonnull
+    private File copyOf(@Nonnull String name) throws IOException {
+        final File file = this.folder.newFile(name);
+        FileUtils.writeStringToFile(file, resource(name), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Nonnull
+    private static String resource(@Nonnull String name) {
+        try (final InputStream in = KubeConfigMergerTest.class.getResourceAsStream("kubeconfig/" + name)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void assertSameConfig(@Nonnull String expected, @Nonnull String actual) {
+        final Map<String, Object> expectedConfig = new Yaml().load(expected);
+        final Map<String, Object> actualConfig = new Yaml().load(actual);
+        for (final String key : Arrays.asList("current-context", "clusters", "contexts", "users")) {
+            Assert.assertEquals(key, expectedConfig.get(key), actualConfig.get(key));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContentSupplier {
+        String get() throws IOException;
+    }
+
+    private static class FakeCredentialProvider implements KubeConfigMerger.CredentialProvider {
+        private final String id;
+        private final ContentSupplier content;
+
+        private FakeCredentialProvider(@Nonnull String id, @Nonnull ContentSupplier content) {
+            this.id = id;
+            this.content = content;
+        }
+
+        @Nonnull
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        @Nonnull
+        @Override
+        public byte[] getKubeConfig() throws IOException {
+            return this.content.get().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -17,6 +17,8 @@ dependencies {
     implementation("com.microsoft.azure:azure-toolkit-ide-common-lib")
     implementation("com.microsoft.azure:azure-toolkit-ide-cosmos-lib")
     implementation("com.microsoft.azure:azure-toolkit-identity-lib")
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.mockito:mockito-core:3.9.0")
 
     intellijPlatform {
         intellijIdeaUltimate(properties("platformVersion").get())
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.cosmos.actions;
+
+import com.azure.cosmos.CosmosException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.cosmos.ICosmosDocumentContainer;
+import com.mongodb.MongoException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * imports documents from JSON files (a single document, an array of documents or newline delimited documents) and
+ * folders of such files into a cosmos container. files are read with a streaming parser, so only the documents
+ * being written are kept in memory, and writes run on a bounded worker pool, retrying throttled (429) requests with
+ * the server suggested delay or exponential backoff.
+ */
+@Slf4j
+public class CosmosDocumentImporter {
+    public static final Set<String> EXTENSIONS = Set.of("json", "ndjson", "jsonl");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_WORKERS = 4;
+    private static final int MAX_PENDING = MAX_WORKERS * 4;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+    private static final int MAX_ERRORS = 10;
+    private static final int MONGO_TOO_MANY_REQUESTS = 16500;
+
+    private final ICosmosDocumentContainer<?> container;
+    @Nullable
+    private final ProgressIndicator indicator;
+    @Getter
+    private final AtomicInteger imported = new AtomicInteger();
+    @Getter
+    private final AtomicInteger failed = new AtomicInteger();
+    @Getter
+    private final AtomicInteger throttled = new AtomicInteger();
+    @Getter
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong readBytes = new AtomicLong();
+    private long totalBytes;
+    private long startedAt;
+    private long finishedAt;
+
+    public CosmosDocumentImporter(@Nonnull ICosmosDocumentContainer<?> container, @Nullable ProgressIndicator indicator) {
+        this.container = container;
+        this.indicator = indicator;
+    }
+
+    /**
+     * imports documents in {@code sources}, folders are imported recursively.
+     */
+    public void importFiles(@Nonnull List<Path> sources) {
+        final List<Path> files = listFiles(sources);
+        this.totalBytes = files.stream().mapToLong(f -> f.toFile().length()).sum();
+        this.startedAt = System.currentTimeMillis();
+        final ExecutorService workers = Executors.newFixedThreadPool(MAX_WORKERS);
+        final Semaphore pending = new Semaphore(MAX_PENDING); // bounds documents parsed but not yet written
+        try {
+            for (final Path file : files) {
+                final long offset = this.readBytes.get();
+                this.parse(file, (document, position) -> {
+                    pending.acquire();
+                    try {
+                        workers.execute(() -> {
+                            try {
+                                this.importDocument(document, file);
+                            } finally {
+                                pending.release();
+                            }
+                        });
+                    } catch (final RuntimeException e) {
+                        pending.release();
+                        throw e;
+                    }
+                    this.readBytes.set(offset + position);
+                    this.updateProgress();
+                });
+                this.readBytes.set(offset + file.toFile().length());
+            }
+            workers.shutdown();
+            while (!workers.awaitTermination(100, TimeUnit.MILLISECONDS)) {
+                this.checkCanceled();
+                this.updateProgress();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } finally {
+            workers.shutdownNow();
+            this.finishedAt = System.currentTimeMillis();
+        }
+    }
+
+    @Nonnull
+    private static List<Path> listFiles(@Nonnull List<Path> sources) {
+        final List<Path> files = new ArrayList<>();
+        for (final Path source : sources) {
+            if (Files.isDirectory(source)) {
+                try (final Stream<Path> walk = Files.walk(source)) {
+                    walk.filter(Files::isRegularFile)
+                        .filter(f -> EXTENSIONS.contains(FilenameUtils.getExtension(f.toString()).toLowerCase()))
+                        .sorted().forEach(files::add);
+                } catch (final IOException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to list files in folder (%s)", source), e);
+                }
+            } else {
+                files.add(source);
+            }
+        }
+        return files;
+    }
+
+    private void parse(@Nonnull Path file, @Nonnull DocumentConsumer consumer) throws InterruptedException {
+        try (final InputStream in = new BufferedInputStream(Files.newInputStream(file));
+             final JsonParser parser = MAPPER.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            final boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            // a single document and newline delimited documents are both a sequence of root level values.
+            while (Objects.nonNull(token) && token != JsonToken.END_ARRAY) {
+                this.checkCanceled();
+                final JsonNode node = parser.readValueAsTree();
+                if (node instanceof ObjectNode) {
+                    consumer.accept((ObjectNode) node, parser.getCurrentLocation().getByteOffset());
+                } else {
+                    this.fail(file, String.format("expected a JSON object but got %s", node.getNodeType()));
+                }
+                token = parser.nextToken();
+            }
+        } catch (final IOException e) {
+            // documents before the malformed one have been submitted already, continue with the next file.
+            this.fail(file, e.getMessage());
+        }
+    }
+
+    private void importDocument(@Nonnull ObjectNode document, @Nonnull Path file) {
+        for (int attempt = 1; ; attempt++) {
+            if (Thread.currentThread().isInterrupted() || (Objects.nonNull(this.indicator) && this.indicator.isCanceled())) {
+                return;
+            }
+            try {
+                this.container.importDocument(document);
+                this.imported.incrementAndGet();
+                return;
+            } catch (final RuntimeException e) {
+                final Duration retryAfter = getThrottlingDelay(e);
+                if (Objects.isNull(retryAfter) || attempt >= MAX_ATTEMPTS) {
+                    log.debug("failed to import document from ({})", file, e);
+                    this.fail(file, ExceptionUtils.getRootCauseMessage(e));
+                    return;
+                }
+                this.throttled.incrementAndGet();
+                final long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << (attempt - 1));
+                final long delay = Math.max(retryAfter.toMillis(), ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                try {
+                    Thread.sleep(delay);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * delay suggested by the service if {@code e} is caused by throttling (429/"request rate is large"), otherwise
+     * {@code null}.
+     */
+    @Nullable
+    static Duration getThrottlingDelay(@Nonnull Throwable e) {
+        for (final Throwable t : ExceptionUtils.getThrowableList(e)) {
+            if (t instanceof CosmosException && ((CosmosException) t).getStatusCode() == 429) {
+                return Optional.ofNullable(((CosmosException) t).getRetryAfterDuration()).orElse(Duration.ZERO);
+            }
+            if (t instanceof MongoException && ((MongoException) t).getCode() == MONGO_TOO_MANY_REQUESTS) {
+                return Duration.ZERO;
+            }
+        }
+        return null;
+    }
+
+    private void fail(@Nonnull Path file, @Nullable String message) {
+        this.failed.incrementAndGet();
+        if (this.errors.size() < MAX_ERRORS) {
+            this.errors.add(String.format("%s: %s", file.getFileName(), message));
+        }
+    }
+
+    public double getDocumentsPerSecond() {
+        final long end = this.finishedAt > 0 ? this.finishedAt : System.currentTimeMillis();
+        return this.imported.get() * 1000.0 / Math.max(1, end - this.startedAt);
+    }
+
+    @Nonnull
+    public String getSummary() {
+        final String summary = String.format("Imported %d document(s) into container \"%s\" in %.1fs (%.1f docs/s), %d throttled request(s) retried, %d failed.",
+            this.imported.get(), this.container.getName(), (this.finishedAt - this.startedAt) / 1000.0, this.getDocumentsPerSecond(),
+            this.throttled.get(), this.failed.get());
+        return this.errors.isEmpty() ? summary : summary + System.lineSeparator() + String.join(System.lineSeparator(), this.errors);
+    }
+
+    private void checkCanceled() {
+        if (Objects.nonNull(this.indicator)) {
+            this.indicator.checkCanceled();
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ProcessCanceledException();
+        }
+    }
+
+    private void updateProgress() {
+        if (Objects.isNull(this.indicator)) {
+            return;
+        }
+        this.indicator.setIndeterminate(false);
+        this.indicator.setFraction(this.totalBytes == 0 ? 1 : Math.min(1, (double) this.readBytes.get() / this.totalBytes));
+        this.indicator.setText2(String.format("%d imported (%.1f docs/s), %d throttled, %d failed",
+            this.imported.get(), this.getDocumentsPerSecond(), this.throttled.get(), this.failed.get()));
+    }
+
+    @FunctionalInterface
+    private interface DocumentConsumer {
+        void accept(@Nonnull ObjectNode document, long position) throws InterruptedException;
+    }
+}
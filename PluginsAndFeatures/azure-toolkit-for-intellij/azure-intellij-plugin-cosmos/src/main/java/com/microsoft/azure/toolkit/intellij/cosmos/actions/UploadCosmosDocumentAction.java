@@ -1,38 +1,48 @@
 package com.microsoft.azure.toolkit.intellij.cosmos.actions;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.intellij.openapi.fileChooser.FileChooserDescriptor;
-import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
 import com.intellij.openapi.fileChooser.FileChooserDialog;
 import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.operation.OperationBundle;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
-import com.microsoft.azure.toolkit.lib.cosmos.ICosmosDocument;
 import com.microsoft.azure.toolkit.lib.cosmos.ICosmosDocumentContainer;
+import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 public class UploadCosmosDocumentAction {
     public static void importDocument(@Nonnull ICosmosDocumentContainer<?> container, @Nonnull Project project) {
-        final FileChooserDescriptor json = FileChooserDescriptorFactory.createSingleFileDescriptor("json");
-        json.setTitle("Select the document to import");
+        final FileChooserDescriptor json = new FileChooserDescriptor(true, true, false, false, false, true)
+            .withFileFilter(f -> f.isDirectory() || CosmosDocumentImporter.EXTENSIONS.contains(StringUtils.lowerCase(f.getExtension())));
+        json.setTitle("Select the documents or folders to import");
+        json.setDescription("JSON files may contain a single document, an array of documents or one document per line.");
         final VirtualFile[] virtualFiles = AzureTaskManager.getInstance().runLater(() -> {
             final FileChooserDialog fileChooser = FileChooserFactory.getInstance().createFileChooser(json, project, null);
             return fileChooser.choose(project, LocalFileSystem.getInstance().findFileByPath(System.getProperty("user.home")));
         }).join();
         if (virtualFiles != null && virtualFiles.length > 0) {
-            try (final InputStream stream = virtualFiles[0].getInputStream()) {
-                final ObjectNode jsonNodes = new ObjectMapper().readValue(stream, ObjectNode.class);
-                final ICosmosDocument sqlDocument = container.importDocument(jsonNodes);
-            } catch (IOException e) {
-                AzureMessager.getMessager().error(e);
-            }
+            final AzureString title = OperationBundle.description("internal/cosmos.import_documents.container", container.getName());
+            final AzureTask<Void> task = new AzureTask<>(project, title, true, () -> {
+                final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+                final CosmosDocumentImporter importer = new CosmosDocumentImporter(container, indicator);
+                importer.importFiles(Arrays.stream(virtualFiles).map(VirtualFile::toNioPath).collect(Collectors.toList()));
+                if (importer.getFailed().get() > 0) {
+                    AzureMessager.getMessager().warning(importer.getSummary());
+                } else {
+                    AzureMessager.getMessager().success(importer.getSummary());
+                }
+            });
+            AzureTaskManager.getInstance().runInBackground(task);
         }
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.cosmos.actions;
+
+import com.azure.cosmos.CosmosException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.azure.toolkit.lib.cosmos.ICosmosDocument;
+import com.microsoft.azure.toolkit.lib.cosmos.ICosmosDocumentContainer;
+import com.mongodb.MongoException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CosmosDocumentImporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private ICosmosDocumentContainer<?> container;
+
+    @Before
+    public void setUp() {
+        this.container = mock(ICosmosDocumentContainer.class);
+        when(this.container.getName()).thenReturn("container");
+    }
+
+    @Test
+    public void testRetryThrottledRequests() throws IOException {
+        final MongoException throttled = new MongoException(16500, "Request rate is large");
+        doThrow(throttled).doThrow(throttled).doReturn(mock(ICosmosDocument.class)).when(this.container).importDocument(any(ObjectNode.class));
+
+        final CosmosDocumentImporter importer = this.importFile("doc.json", "{\"id\": \"1\"}");
+
+        verify(this.container, times(3)).importDocument(any(ObjectNode.class));
+        Assert.assertEquals(1, importer.getImported().get());
+        Assert.assertEquals(2, importer.getThrottled().get());
+        Assert.assertEquals(0, importer.getFailed().get());
+    }
+
+    @Test
+    public void testNotRetryOtherErrors() throws IOException {
+        doThrow(new IllegalStateException("conflict")).when(this.container).importDocument(any(ObjectNode.class));
+
+        final CosmosDocumentImporter importer = this.importFile("doc.json", "{\"id\": \"1\"}");
+
+        verify(this.container, times(1)).importDocument(any(ObjectNode.class));
+        Assert.assertEquals(0, importer.getThrottled().get());
+        Assert.assertEquals(1, importer.getFailed().get());
+        Assert.assertTrue(importer.getSummary().contains("doc.json: IllegalStateException: conflict"));
+    }
+
+    @Test
+    public void testImportArraysAndNewlineDelimitedDocuments() throws IOException {
+        doReturn(mock(ICosmosDocument.class)).when(this.container).importDocument(any(ObjectNode.class));
+        final Path array = this.write("array.json", "[{\"id\": \"1\"}, {\"id\": \"2\"}, 3]");
+        final Path ndjson = this.write("docs.ndjson", "{\"id\": \"3\"}\n{\"id\": \"4\"}\n{\"id\": \"5\"}\n");
+
+        final CosmosDocumentImporter importer = new CosmosDocumentImporter(this.container, null);
+        importer.importFiles(List.of(array, ndjson));
+
+        Assert.assertEquals(5, importer.getImported().get());
+        Assert.assertEquals(1, importer.getFailed().get());
+    }
+
+    @Test
+    public void testGetThrottlingDelay() {
+        final CosmosException throttled = mock(CosmosException.class);
+        when(throttled.getStatusCode()).thenReturn(429);
+        when(throttled.getRetryAfterDuration()).thenReturn(Duration.ofMillis(250));
+        final CosmosException notFound = mock(CosmosException.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+
+        Assert.assertEquals(Duration.ofMillis(250), CosmosDocumentImporter.getThrottlingDelay(new RuntimeException(throttled)));
+        Assert.assertEquals(Duration.ZERO, CosmosDocumentImporter.getThrottlingDelay(new MongoException(16500, "Request rate is large")));
+        Assert.assertNull(CosmosDocumentImporter.getThrottlingDelay(notFound));
+        Assert.assertNull(CosmosDocumentImporter.getThrottlingDelay(new MongoException(11000, "duplicate key")));
+    }
+
+    private CosmosDocumentImporter importFile(String name, String content) throws IOException {
+        final CosmosDocumentImporter importer = new CosmosDocumentImporter(this.container, null);
+        importer.importFiles(List.of(this.write(name, content)));
+        return importer;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(this.folder.getRoot().toPath().resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
@@ -12,6 +12,9 @@ dependencies {
     implementation("mysql:mysql-connector-java:8.0.29")
     implementation("com.microsoft.sqlserver:mssql-jdbc:9.3.1.jre8-preview")
     implementation("org.postgresql:postgresql:42.4.1")
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.mockito:mockito-core:3.9.0")
+    testImplementation("com.h2database:h2:2.2.224")
     intellijPlatform {
         // Plugin Dependencies. Uses `platformBundledPlugins` property from the gradle.properties file for bundled IntelliJ Platform plugins.
         bundledPlugin("com.intellij.database")
@@ -96,7 +96,7 @@ public class PasswordDialog extends AzureDialog<char[]> implements AzureForm<cha
         final String password = String.valueOf(passwordField.getPassword());
         final Runnable runnable = () -> {
             final DatabaseConnectionUtils.ConnectResult connectResult = DatabaseConnectionUtils
-                    .connectWithPing(this.database.getJdbcUrl(), this.database.getUsername(), password);
+                    .connectWithPing(this.database.getJdbcUrl(), this.database.getUsername(), password, DatabaseConnectionUtils.TEST_CONNECTION_OPTIONS);
             testConnectionActionPanel.setVisible(true);
             testResultTextPane.setVisible(true);
             testResultTextPane.setText(getConnectResultMessage(connectResult));
@@ -115,7 +115,8 @@ public class PasswordDialog extends AzureDialog<char[]> implements AzureForm<cha
         if (result.isConnected()) {
             messageBuilder.append("Connected successfully.").append(System.lineSeparator());
             messageBuilder.append("Version: ").append(result.getServerVersion()).append(System.lineSeparator());
-            messageBuilder.append("Ping cost: ").append(result.getPingCost()).append("ms");
+            messageBuilder.append("Ping cost: ").append(result.getPingCost()).append("ms").append(System.lineSeparator());
+            messageBuilder.append(result.getLatencySummary());
         } else {
             messageBuilder.append("Failed to connect with above parameters.").append(System.lineSeparator());
             messageBuilder.append("Message: ").append(result.getMessage());
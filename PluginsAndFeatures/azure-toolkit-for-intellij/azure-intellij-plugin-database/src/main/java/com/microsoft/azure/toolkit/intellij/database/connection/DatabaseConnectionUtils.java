@@ -5,72 +5,132 @@
 
 package com.microsoft.azure.toolkit.intellij.database.connection;
 
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.database.JdbcUrl;
 import com.microsoft.azuretools.ActionConstants;
 import com.microsoft.azuretools.telemetrywrapper.EventType;
 import com.microsoft.azuretools.telemetrywrapper.EventUtil;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
 
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class DatabaseConnectionUtils {
 
     private static final String SQL_SERVER_URL_PREFIX = "jdbc:sqlserver:";
     private static final String POSTGRE_URL_PREFIX = "jdbc:postgresql:";
+    private static final String MYSQL_URL_PREFIX = "jdbc:mysql:";
     private static final String CONNECTION_ISSUE_MESSAGE = "%s Please follow https://docs.microsoft.com/en-us/azure/mysql/howto-manage-firewall-using-portal " +
         "to create a firewall rule to unblock your local access.";
     private static final int CONNECTION_ERROR_CODE = 9000;
     public static final int ACCESS_DENIED_ERROR_CODE = 1045;
     private static final int CLASS_NOT_FOUND_ERROR_CODE = -1000;
     private static final int UNKNOWN_EXCEPTION_ERROR_CODE = -1;
+    public static final PingOptions TEST_CONNECTION_OPTIONS = PingOptions.builder().pings(5).build();
+    private static final int MAX_IDLE_CONNECTIONS = 2;
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int MAX_PARALLEL_TESTS = 8;
+    // idle connections of recent tests, keyed by url and username, so that repeated tests skip the TLS/login handshake.
+    // a deque is only changed within compute of its key, so that the reaper never drops a connection being released.
+    private static final Map<String, Deque<PooledConnection>> POOL = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService REAPER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "azure-database-idle-connection-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicBoolean REAPER_SCHEDULED = new AtomicBoolean();
+    // passwords of pooled connections are kept as salted digests only.
+    private static final byte[] SALT = new byte[16];
+
+    static {
+        new SecureRandom().nextBytes(SALT);
+    }
 
     public static boolean connect(JdbcUrl url, String username, String password) {
         try {
             Class.forName(getDriverClassName(url));
-            DriverManager.getConnection(url.toString(), username, password);
-            return true;
+            try (final Connection ignored = DriverManager.getConnection(url.toString(), username, password)) {
+                return true;
+            }
         } catch (final ClassNotFoundException | SQLException ignored) {
         }
         return false;
     }
 
     public static ConnectResult connectWithPing(JdbcUrl url, String username, String password) {
+        return connectWithPing(url, username, password, PingOptions.builder().build());
+    }
+
+    /**
+     * connects (reusing a pooled connection if possible) and runs {@link PingOptions#getPings()} round trips to
+     * measure connect and query latency separately.
+     */
+    public static ConnectResult connectWithPing(JdbcUrl url, String username, String password, PingOptions options) {
         int errorCode = 0;
         boolean connected = false;
         String errorMessage = null;
         Long pingCost = null;
         String serverVersion = null;
+        Long connectCost = null;
+        long[] pings = new long[0];
+        boolean reused = false;
         // refresh property
         try {
             Class.forName(getDriverClassName(url));
-            final long start = System.currentTimeMillis();
-            final Connection connection = DriverManager.getConnection(url.toString(), username, password);
-            connected = true;
-            final Statement statement = connection.createStatement();
-            final ResultSet resultSet = statement.executeQuery("select 'hi'");
-            if (resultSet.next()) {
-                final String result = resultSet.getString(1);
-                connected = "hi".equals(result);
-            }
-            pingCost = System.currentTimeMillis() - start;
-            if (StringUtils.startsWith(url.toString(), SQL_SERVER_URL_PREFIX)) {
-                try {
-                    serverVersion = (String) FieldUtils.readField(connection, "sqlServerVersion", true);
-                } catch (final IllegalAccessException e) {
-                    serverVersion = "unknown";
+            final long start = System.nanoTime();
+            final Connection idle = pollIdle(url, username, password);
+            reused = Objects.nonNull(idle);
+            final Connection connection = reused ? idle : open(url, username, password, options);
+            connectCost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            boolean healthy = false;
+            try {
+                pings = new long[Math.max(1, options.getPings())];
+                connected = true;
+                for (int i = 0; i < pings.length && connected; i++) {
+                    final long pingStart = System.nanoTime();
+                    connected = ping(connection, options);
+                    pings[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pingStart);
                 }
-            } else {
-                final DatabaseMetaData meta = connection.getMetaData();
-                serverVersion = meta == null ? "unknown" : String.format("%d.%d", meta.getDatabaseMajorVersion(), meta.getDatabaseMinorVersion());
+                pingCost = connectCost + pings[0];
+                serverVersion = getServerVersion(url, connection);
+                healthy = connected;
+            } finally {
+                release(url, username, password, connection, healthy);
             }
         } catch (final SQLException exception) {
             errorCode = exception.getErrorCode();
@@ -83,7 +143,171 @@ public class DatabaseConnectionUtils {
         EventUtil.logEvent(EventType.info, ActionConstants.parse(ActionConstants.MySQL.TEST_CONNECTION).getServiceName(),
             ActionConstants.parse(ActionConstants.MySQL.TEST_CONNECTION).getOperationName(),
             Collections.singletonMap("result", String.valueOf(connected)));
-        return new ConnectResult(connected, errorMessage, pingCost, serverVersion, errorCode);
+        return new ConnectResult(connected, errorMessage, pingCost, serverVersion, errorCode, connectCost, reused, pings);
+    }
+
+    /**
+     * tests the given databases (e.g. all databases of a server) in parallel, results are in the order of {@code urls}.
+     */
+    public static Map<JdbcUrl, ConnectResult> connectWithPing(List<JdbcUrl> urls, String username, String password, PingOptions options) {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_PARALLEL_TESTS, urls.size())));
+        try {
+            final Map<JdbcUrl, Future<ConnectResult>> futures = new LinkedHashMap<>();
+            urls.forEach(url -> futures.put(url, executor.submit(() -> connectWithPing(url, username, password, options))));
+            final Map<JdbcUrl, ConnectResult> results = new LinkedHashMap<>();
+            for (final Map.Entry<JdbcUrl, Future<ConnectResult>> entry : futures.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().get());
+                } catch (final ExecutionException e) {
+                    results.put(entry.getKey(), new ConnectResult(false, e.getCause().getMessage(), null, null, UNKNOWN_EXCEPTION_ERROR_CODE, null, false, new long[0]));
+                }
+            }
+            return results;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureToolkitRuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean ping(Connection connection, PingOptions options) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) options.getSocketTimeout().toSeconds());
+            try (final ResultSet resultSet = statement.executeQuery("select 'hi'")) {
+                return resultSet.next() && "hi".equals(resultSet.getString(1));
+            }
+        }
+    }
+
+    private static String getServerVersion(JdbcUrl url, Connection connection) throws SQLException {
+        if (StringUtils.startsWith(url.toString(), SQL_SERVER_URL_PREFIX)) {
+            try {
+                return (String) FieldUtils.readField(connection, "sqlServerVersion", true);
+            } catch (final IllegalAccessException e) {
+                return "unknown";
+            }
+        }
+        final DatabaseMetaData meta = connection.getMetaData();
+        return meta == null ? "unknown" : String.format("%d.%d", meta.getDatabaseMajorVersion(), meta.getDatabaseMinorVersion());
+    }
+
+    /**
+     * takes a valid idle pooled connection of the same url/user/password, if there is one.
+     */
+    @Nullable
+    private static Connection pollIdle(JdbcUrl url, String username, String password) {
+        final String key = getPoolKey(url, username);
+        final byte[] digest = digest(password);
+        PooledConnection pooled;
+        while (Objects.nonNull(pooled = pollFirst(key))) {
+            // a connection opened with another password must not be reused, otherwise a wrong password would pass the test.
+            if (MessageDigest.isEqual(pooled.passwordDigest, digest) && !pooled.isExpired(System.currentTimeMillis()) && isValid(pooled.connection)) {
+                return pooled.connection;
+            }
+            close(pooled.connection);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static PooledConnection pollFirst(String key) {
+        final AtomicReference<PooledConnection> polled = new AtomicReference<>();
+        POOL.computeIfPresent(key, (k, idle) -> {
+            polled.set(idle.pollFirst());
+            return idle.isEmpty() ? null : idle;
+        });
+        return polled.get();
+    }
+
+    private static Connection open(JdbcUrl url, String username, String password, PingOptions options) throws SQLException {
+        final Properties props = new Properties();
+        Optional.ofNullable(username).ifPresent(u -> props.setProperty("user", u));
+        Optional.ofNullable(password).ifPresent(p -> props.setProperty("password", p));
+        props.putAll(getTimeoutProperties(url, options));
+        return DriverManager.getConnection(url.toString(), props);
+    }
+
+    private static void release(JdbcUrl url, String username, String password, Connection connection, boolean healthy) {
+        final long now = System.currentTimeMillis();
+        final AtomicBoolean pooled = new AtomicBoolean();
+        POOL.compute(getPoolKey(url, username), (k, existing) -> {
+            final Deque<PooledConnection> idle = Objects.isNull(existing) ? new ArrayDeque<>() : existing;
+            idle.removeIf(c -> c.isExpired(now) && close(c.connection));
+            if (healthy && idle.size() < MAX_IDLE_CONNECTIONS) {
+                idle.offerFirst(new PooledConnection(connection, digest(password), now));
+                pooled.set(true);
+            }
+            return idle.isEmpty() ? null : idle;
+        });
+        if (pooled.get()) {
+            scheduleReaper();
+        } else {
+            close(connection);
+        }
+    }
+
+    private static void scheduleReaper() {
+        if (REAPER_SCHEDULED.compareAndSet(false, true)) {
+            REAPER.scheduleWithFixedDelay(() -> evictExpired(System.currentTimeMillis()), IDLE_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS / 2, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * closes the pooled connections idle for longer than {@link #IDLE_TIMEOUT_MILLIS} at {@code now}.
+     */
+    static void evictExpired(long now) {
+        POOL.keySet().forEach(key -> POOL.computeIfPresent(key, (k, idle) -> {
+            idle.removeIf(c -> c.isExpired(now) && close(c.connection));
+            return idle.isEmpty() ? null : idle;
+        }));
+    }
+
+    private static byte[] digest(@Nullable String password) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(SALT);
+            return digest.digest(StringUtils.defaultString(password).getBytes(StandardCharsets.UTF_8));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new AzureToolkitRuntimeException(e);
+        }
+    }
+
+    /**
+     * driver specific login/socket timeout properties, in the unit each driver expects.
+     */
+    private static Map<String, String> getTimeoutProperties(JdbcUrl url, PingOptions options) {
+        final long login = options.getLoginTimeout().toSeconds();
+        final long socket = options.getSocketTimeout().toSeconds();
+        final String jdbcUrl = url.toString();
+        if (StringUtils.startsWith(jdbcUrl, SQL_SERVER_URL_PREFIX)) {
+            return Map.of("loginTimeout", String.valueOf(login), "socketTimeout", String.valueOf(socket * 1000));
+        } else if (StringUtils.startsWith(jdbcUrl, POSTGRE_URL_PREFIX)) {
+            return Map.of("connectTimeout", String.valueOf(login), "loginTimeout", String.valueOf(login), "socketTimeout", String.valueOf(socket));
+        } else if (StringUtils.startsWith(jdbcUrl, MYSQL_URL_PREFIX)) {
+            return Map.of("connectTimeout", String.valueOf(login * 1000), "socketTimeout", String.valueOf(socket * 1000));
+        }
+        return Map.of();
+    }
+
+    private static String getPoolKey(JdbcUrl url, String username) {
+        return url.toString() + "|" + StringUtils.defaultString(username);
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (final SQLException e) {
+            return false;
+        }
+    }
+
+    private static boolean close(Connection connection) {
+        try {
+            connection.close();
+        } catch (final SQLException ignored) {
+        }
+        return true;
     }
 
     private static String getDriverClassName(JdbcUrl url) {
@@ -105,5 +329,45 @@ public class DatabaseConnectionUtils {
         private final Long pingCost;
         private final String serverVersion;
         private final int errorCode;
+        private final Long connectCost;
+        private final boolean reused;
+        private final long[] pings;
+
+        /**
+         * e.g. "Connect: 120ms, Query (5 pings): min 20ms, avg 22ms, p95 31ms"
+         */
+        public String getLatencySummary() {
+            final String connect = reused ? "Connect: reused pooled connection" : String.format("Connect: %sms", connectCost);
+            if (pings.length == 0) {
+                return connect;
+            }
+            final long[] sorted = pings.clone();
+            Arrays.sort(sorted);
+            final long p95 = sorted[Math.max(0, (int) Math.ceil(sorted.length * 0.95) - 1)];
+            return String.format("%s, Query (%d pings): min %dms, avg %dms, p95 %dms", connect, sorted.length,
+                sorted[0], Math.round(Arrays.stream(sorted).average().orElse(0)), p95);
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class PingOptions {
+        @Builder.Default
+        private final int pings = 1;
+        @Builder.Default
+        private final Duration loginTimeout = Duration.ofSeconds(15);
+        @Builder.Default
+        private final Duration socketTimeout = Duration.ofSeconds(30);
+    }
+
+    @RequiredArgsConstructor
+    private static class PooledConnection {
+        private final Connection connection;
+        private final byte[] passwordDigest;
+        private final long releasedAt;
+
+        boolean isExpired(long now) {
+            return now - releasedAt > IDLE_TIMEOUT_MILLIS;
+        }
     }
 }
@@ -102,11 +102,21 @@ public abstract class SqlDatabaseResourcePanel<T extends IDatabase> implements A
         final String username = usernameComboBox.getValue();
         final String password = String.valueOf(inputPasswordField.getPassword());
         final String title = String.format("Connecting to Database (%s)...", jdbcUrl.getServerHost());
+        final JdbcUrl url = this.jdbcUrl;
+        // the other databases of the selected server are tested along with the target one, in parallel.
+        final Map<JdbcUrl, String> others = getOtherDatabasesOfServer(url);
         AzureTaskManager.getInstance().runInBackground(title, false, () -> {
-            final DatabaseConnectionUtils.ConnectResult connectResult = DatabaseConnectionUtils.connectWithPing(this.jdbcUrl, username, password);
+            final List<JdbcUrl> urls = new ArrayList<>();
+            urls.add(url);
+            urls.addAll(others.keySet());
+            final Map<JdbcUrl, DatabaseConnectionUtils.ConnectResult> results = DatabaseConnectionUtils.connectWithPing(urls, username, password, DatabaseConnectionUtils.TEST_CONNECTION_OPTIONS);
+            final DatabaseConnectionUtils.ConnectResult connectResult = results.get(url);
+            final StringBuilder message = new StringBuilder(getConnectResultMessage(connectResult));
+            others.forEach((other, name) -> Optional.ofNullable(results.get(other)).ifPresent(r -> message.append(System.lineSeparator())
+                .append(String.format("Database \"%s\": %s", name, r.isConnected() ? r.getLatencySummary() : "failed, " + r.getMessage()))));
             // show result info
             testConnectionActionPanel.setVisible(true);
-            testResultTextPane.setText(getConnectResultMessage(connectResult));
+            testResultTextPane.setText(message.toString());
             testResultTextPane.setVisible(true);
             final Icon icon = connectResult.isConnected() ? AllIcons.General.InspectionsOK : AllIcons.General.BalloonError;
             testConnectionActionPanel.getIconLabel().setIcon(icon);
@@ -115,12 +125,28 @@ public abstract class SqlDatabaseResourcePanel<T extends IDatabase> implements A
         });
     }
 
+    /**
+     * jdbc urls (and names) of the other databases of the selected server, if {@code url} targets that server.
+     */
+    private Map<JdbcUrl, String> getOtherDatabasesOfServer(JdbcUrl url) {
+        final IDatabaseServer<T> server = this.databaseComboBox.getServer();
+        final Map<JdbcUrl, String> others = new LinkedHashMap<>();
+        if (Objects.isNull(server) || !Objects.equals(url.getServerHost(), server.getFullyQualifiedDomainName())) {
+            return others;
+        }
+        this.databaseComboBox.getItems().stream()
+            .filter(database -> Objects.nonNull(database.getJdbcUrl()) && !Objects.equals(database.getJdbcUrl().toString(), url.toString()))
+            .forEach(database -> others.put(database.getJdbcUrl(), database.getName()));
+        return others;
+    }
+
     private String getConnectResultMessage(DatabaseConnectionUtils.ConnectResult result) {
         final StringBuilder messageBuilder = new StringBuilder();
         if (result.isConnected()) {
             messageBuilder.append("Connected successfully.").append(System.lineSeparator());
             messageBuilder.append("Version: ").append(result.getServerVersion()).append(System.lineSeparator());
-            messageBuilder.append("Ping cost: ").append(result.getPingCost()).append("ms");
+            messageBuilder.append("Ping cost: ").append(result.getPingCost()).append("ms").append(System.lineSeparator());
+            messageBuilder.append(result.getLatencySummary());
         } else {
             messageBuilder.append("Failed to connect with above parameters.").append(System.lineSeparator());
             messageBuilder.append("Message: ").append(result.getMessage());
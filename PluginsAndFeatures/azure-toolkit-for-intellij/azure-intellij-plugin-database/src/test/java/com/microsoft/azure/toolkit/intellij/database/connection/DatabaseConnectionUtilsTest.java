@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.database.connection;
+
+import com.microsoft.azure.toolkit.lib.database.JdbcUrl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * tests connections, and the pool of their idle connections, against an in-memory H2 database.
+ */
+public class DatabaseConnectionUtilsTest {
+    private static final String USER = "sa";
+    private static final String PASSWORD = "p@ssw0rd";
+
+    private String url;
+    private JdbcUrl jdbcUrl;
+    private Connection observer;
+
+    @Before
+    public void setUp() throws SQLException {
+        this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        this.observer = DriverManager.getConnection(this.url, USER, PASSWORD);
+        this.jdbcUrl = mock(JdbcUrl.class);
+        when(this.jdbcUrl.toString()).thenReturn(this.url);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        DatabaseConnectionUtils.evictExpired(Long.MAX_VALUE);
+        try (final Statement statement = this.observer.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    public void testReuseIdleConnection() {
+        final DatabaseConnectionUtils.ConnectResult first = DatabaseConnectionUtils.connectWithPing(this.jdbcUrl, USER, PASSWORD);
+        final DatabaseConnectionUtils.ConnectResult second = DatabaseConnectionUtils.connectWithPing(this.jdbcUrl, USER, PASSWORD,
+            DatabaseConnectionUtils.PingOptions.builder().pings(3).build());
+
+        Assert.assertTrue(first.getMessage(), first.isConnected());
+        Assert.assertFalse(first.isReused());
+        Assert.assertTrue(second.isConnected());
+        Assert.assertTrue(second.isReused());
+        Assert.assertEquals(3, second.getPings().length);
+    }
+
+    @Test
+    public void testNotReuseConnectionOfAnotherPassword() {
+        Assert.assertTrue(DatabaseConnectionUtils.connectWithPing(this.jdbcUrl, USER, PASSWORD).isConnected());
+
+        final DatabaseConnectionUtils.ConnectResult wrong = DatabaseConnectionUtils.connectWithPing(this.jdbcUrl, USER, "wrong");
+
+        Assert.assertFalse(wrong.isConnected());
+        Assert.assertFalse(wrong.isReused());
+    }
+
+    @Test
+    public void testEvictExpiredConnections() throws SQLException {
+        Assert.assertTrue(DatabaseConnectionUtils.connectWithPing(this.jdbcUrl, USER, PASSWORD).isConnected());
+        Assert.assertEquals(2, this.countSessions());
+
+        DatabaseConnectionUtils.evictExpired(System.currentTimeMillis());
+        Assert.assertEquals(2, this.countSessions());
+
+        DatabaseConnectionUtils.evictExpired(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(2));
+        Assert.assertEquals(1, this.countSessions());
+        Assert.assertFalse(DatabaseConnectionUtils.connectWithPing(this.jdbcUrl, USER, PASSWORD).isReused());
+    }
+
+    @Test
+    public void testConnectDatabasesInParallel() {
+        final JdbcUrl another = mockJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID());
+        // IFEXISTS makes the test of a database not created fail instead of creating it
+        final JdbcUrl missing = mockJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+
+        final Map<JdbcUrl, DatabaseConnectionUtils.ConnectResult> results = DatabaseConnectionUtils.connectWithPing(
+            Arrays.asList(missing, this.jdbcUrl, another), USER, PASSWORD, DatabaseConnectionUtils.PingOptions.builder().pings(2).build());
+
+        Assert.assertEquals(Arrays.asList(missing, this.jdbcUrl, another), Arrays.asList(results.keySet().toArray()));
+        Assert.assertFalse(results.get(missing).isConnected());
+        Assert.assertNotNull(results.get(missing).getMessage());
+        Assert.assertTrue(results.get(this.jdbcUrl).getMessage(), results.get(this.jdbcUrl).isConnected());
+        Assert.assertEquals(2, results.get(this.jdbcUrl).getPings().length);
+        Assert.assertTrue(results.get(another).getMessage(), results.get(another).isConnected());
+    }
+
+    private static JdbcUrl mockJdbcUrl(String url) {
+        final JdbcUrl jdbcUrl = mock(JdbcUrl.class);
+        when(jdbcUrl.toString()).thenReturn(url);
+        return jdbcUrl;
+    }
+
+    private int countSessions() throws SQLException {
+        try (final Statement statement = this.observer.createStatement();
+             final ResultSet resultSet = statement.executeQuery("select count(*) from information_schema.sessions")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -273,7 +273,15 @@ public class LivySparkBatchJobRunConfiguration extends ModuleBasedConfiguration<
                 getSubmitModel().getTableModel().getJobConfigMap());
 
         return ((SparkSubmissionRunner) runner).buildSparkBatchJob(getSubmitModel())
-                .doOnNext(batch -> sparkRemoteBatch = batch);
+                .doOnNext(batch -> sparkRemoteBatch = batch)
+                // Start the helper session uploading the artifact while the artifact is building
+                .doOnNext(batch -> {
+                    if (batch instanceof SparkBatchJob
+                            && ((SparkBatchJob) batch).getJobDeploy() instanceof LivySessionDeploy) {
+                        ((LivySessionDeploy) ((SparkBatchJob) batch).getJobDeploy())
+                                .warmUp(getProject().getLocationHash());
+                    }
+                });
     }
 
     protected String getErrorMessageClusterNull() {
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.common
+
+import com.intellij.ide.AppLifecycleListener
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ProjectManagerListener
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SessionPool
+
+/**
+ * Kill the idle pooled Livy sessions of a project when it's closed, so that they don't hold cluster resources
+ * until the idle timeout. The pools still used by other open projects are kept.
+ */
+class LivySessionPoolProjectListener: ProjectManagerListener, AppLifecycleListener {
+    override fun projectClosed(project: Project) {
+        SessionPool.closeOwnedBy(project.locationHash)
+    }
+
+    override fun appWillBeClosed(isRestart: Boolean) {
+        SessionPool.closeAll()
+    }
+}
@@ -27,14 +27,17 @@ import com.intellij.remote.RemoteProcess
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.common.mvc.IdeSchedulers
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SessionPool
 import rx.Observable
 import java.io.InputStream
 import java.io.OutputStream
 
 class SparkLivySessionProcess(
         private val rxSchedulers: IdeSchedulers,
-        val session: Session
+        private val lease: SessionPool.Lease
 ) : RemoteProcess(), ILogger {
+    val session: Session = lease.session
+
     override fun isDisconnected(): Boolean = session.isStop
 
     override fun getLocalTunnel(remotePort: Int): HostAndPort? = null
@@ -48,7 +51,8 @@ class SparkLivySessionProcess(
     override fun waitFor(): Int = 0
 
     override fun destroy() {
-        session.close()
+        // The console session holds the REPL states and statement IDs, it's never returned to the pool
+        lease.discard()
         outputStream.close()
         errorStream.close()
         inputStream.close()
@@ -69,13 +73,8 @@ class SparkLivySessionProcess(
 
     override fun getInputStream(): InputStream = stdOutStream
 
-    fun start(): Observable<Session> = session.deploy()
-            .subscribeOn(rxSchedulers.processBarVisibleAsync(
-                    "Deploy Livy interactive console artifacts dependencies..."))
-            .observeOn(rxSchedulers.processBarVisibleAsync(
-                    "Create Spark Livy interactive console session..."))
-            .flatMap { it.create() }
-            .flatMap { it.awaitReady(rxSchedulers.processBarVisibleAsync(
-                    "The Spark Livy interactive console session is starting..." )) }
+    // The pooled session is deployed and created in background, a warmed up one is ready at once
+    fun start(): Observable<Session> = lease.awaitReady(rxSchedulers.processBarVisibleAsync(
+                    "The Spark Livy interactive console session is starting..." ))
             .doOnError { destroy() }
 }
\ No newline at end of file
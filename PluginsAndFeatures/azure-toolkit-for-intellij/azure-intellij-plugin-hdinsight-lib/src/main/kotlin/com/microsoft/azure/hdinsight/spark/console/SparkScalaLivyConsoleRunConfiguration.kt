@@ -42,15 +42,19 @@ import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail
 import com.microsoft.azure.hdinsight.sdk.cluster.LivyCluster
 import com.microsoft.azure.hdinsight.sdk.cluster.MfaEspCluster
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SessionPool
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind
 import com.microsoft.azure.hdinsight.spark.common.Deployable
 import com.microsoft.azure.hdinsight.spark.common.SparkSubmitModel
 import com.microsoft.azure.hdinsight.spark.common.SparkSubmitStorageType
 import com.microsoft.azure.hdinsight.spark.run.SparkBatchJobDeployFactory
 import com.microsoft.azure.hdinsight.spark.run.configuration.LivySparkBatchJobRunConfiguration
 import com.microsoft.azure.hdinsight.spark.run.configuration.RunProfileStatePrepare
+import org.apache.commons.codec.digest.DigestUtils
 import org.apache.commons.lang3.exception.ExceptionUtils
 import rx.Observable
+import java.io.File
 import java.net.URI
 import java.util.*
 import java.util.AbstractMap.SimpleImmutableEntry
@@ -109,16 +113,48 @@ open class SparkScalaLivyConsoleRunConfiguration(project: Project,
                     "The Spark cluster is not set. Invoke prepare() method firstly.")
             val artifactDeploy = deployDelegate ?: throw RuntimeConfigurationError(
                     "The Spark deploy delegate is not set. Invoke prepare() method firstly.")
-            val sparkSession = createSession(sparkCluster).apply {
+            val templateSession = createSession(sparkCluster).apply {
                 applyRunConfiguration(sparkCluster, this, artifactDeploy)
             }
 
-            return SparkScalaLivyConsoleRunProfileState(consoleBuilder, sparkSession)
+            if (!batchSubmitModel.isLocalArtifact) {
+                ArtifactUtil.getArtifactWithOutputPaths(project)
+                        .first { artifact -> artifact.name == batchSubmitModel.artifactName }
+                        ?.let { setBuildArtifactBeforeRun(project, this, it) }
+            }
+
+            // The consoles of the same cluster, configurations and artifacts share a pool, so that the next console
+            // starts with the session warmed up after the previous one
+            val options = SessionPool.Options.fromSettings(SessionKind.SPARK)
+                    .sessionFactory(sessionProfileOf(templateSession)) {
+                        createSession(sparkCluster).apply {
+                            // Livy rejects the sessions with duplicated names
+                            createParameters.name("$name ${UUID.randomUUID().toString().substring(0, 8)}")
+                            applyRunConfiguration(sparkCluster, this, artifactDeploy)
+                        }
+                    }
+            // Only the plain sessions authenticate by the cluster's HTTP credential, others by tokens
+            val isBasicAuth = templateSession.javaClass == SparkSession::class.java
+            val pool = SessionPool.of(templateSession.baseUrl,
+                                      if (isBasicAuth) sparkCluster.httpUserName else null,
+                                      if (isBasicAuth) sparkCluster.httpPassword else null,
+                                      options,
+                                      project.locationHash)
+
+            return SparkScalaLivyConsoleRunProfileState(consoleBuilder, pool.take()).also { pool.warmUp() }
         } catch (err: Throwable) {
             throw ExecutionException(err)
         }
     }
 
+    private fun sessionProfileOf(session: SparkSession): String {
+        val artifacts = session.artifactsToDeploy.joinToString("|") {
+            File(it).let { artifact -> "${artifact.absolutePath}:${artifact.lastModified()}:${artifact.length()}" }
+        }
+
+        return DigestUtils.sha256Hex(session.createParameters.build().convertToJson().orElse("") + artifacts)
+    }
+
     open fun createSession(sparkCluster: IClusterDetail): SparkSession {
         val url = URI.create((sparkCluster as? LivyCluster)?.livyConnectionUrl
                 ?: throw RuntimeConfigurationError("Can't prepare Spark interactive session since Livy URL is empty"))
@@ -182,12 +218,6 @@ open class SparkScalaLivyConsoleRunConfiguration(project: Project,
                 session.artifactsToDeploy.add(it)
             }
         }
-
-        if (!batchSubmitModel.isLocalArtifact) {
-            ArtifactUtil.getArtifactWithOutputPaths(project)
-                    .first { artifact -> artifact.name == batchSubmitModel.artifactName }
-                    ?.let { setBuildArtifactBeforeRun(project, this, it) }
-        }
     }
 
     override fun checkRunnerSettings(runner: ProgramRunner<*>,
@@ -29,13 +29,13 @@ import com.intellij.execution.configurations.RunProfileState
 import com.intellij.execution.runners.ProgramRunner
 import com.intellij.execution.ui.ConsoleViewContentType.LOG_ERROR_OUTPUT
 import com.microsoft.azure.hdinsight.common.print
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SessionPool
 import com.microsoft.intellij.rxjava.IdeaSchedulers
 import org.jetbrains.plugins.scala.console.ScalaLanguageConsole
 
 class SparkScalaLivyConsoleRunProfileState(
         private val consoleBuilder: SparkScalaConsoleBuilder,
-        private val session: SparkSession): RunProfileState {
+        private val lease: SessionPool.Lease): RunProfileState {
     private val postStartCodes = """
         val __welcome = List(
             "Spark context available as 'sc' (master = " + sc.master + ", app id = " + sc.getConf.getAppId + ").",
@@ -50,11 +50,11 @@ class SparkScalaLivyConsoleRunProfileState(
     override fun execute(executor: Executor, runner: ProgramRunner<*>): ExecutionResult? {
         val console = consoleBuilder.console
         val progressBarScheduler = IdeaSchedulers(consoleBuilder.project)
-        val livySessionProcess = SparkLivySessionProcess(progressBarScheduler, session)
+        val livySessionProcess = SparkLivySessionProcess(progressBarScheduler, lease)
         val livySessionProcessHandler = SparkLivySessionProcessHandler(livySessionProcess)
 
         console.attachToProcess(livySessionProcessHandler)
-        session.ctrlSubject.subscribe({ typedMessage -> console.print(typedMessage) }, { err ->
+        livySessionProcess.session.ctrlSubject.subscribe({ typedMessage -> console.print(typedMessage) }, { err ->
             livySessionProcessHandler.onProcessTerminated(err)
 
             console.print("Livy interactive session is stopped due to the error $err\n", LOG_ERROR_OUTPUT)
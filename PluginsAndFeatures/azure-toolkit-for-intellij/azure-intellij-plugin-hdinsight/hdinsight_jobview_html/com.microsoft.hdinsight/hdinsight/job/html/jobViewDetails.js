@@ -377,6 +377,28 @@ function generateTaskSummaryLine(task) {
             }, '');
 }
 
+var stageAnalysisColumn = ["severity", "stageId", "title", "impactMillis", "explanation", "taskIds", "executorIds"];
+function renderStageAnalysisFindings(findings) {
+    d3.select('#stageAnalysisTbody')
+        .selectAll('tr')
+        .data(findings)
+        .enter()
+        .append('tr')
+        .attr('align', 'center')
+        .attr('class','ui-widget-content')
+        .selectAll('td')
+        .data(function(finding) {
+            return stageAnalysisColumn.map(function(d) {
+                return Array.isArray(finding[d]) ? finding[d].join(', ') : finding[d];
+            });
+        })
+        .enter()
+        .append('td')
+        .text(function(d) {
+            return d;
+        });
+}
+
 var executorSummaryColumn = ["id","hostPort", "rddBlocks", "memoryUsed","diskUsed","totalDuration", "totalInputBytes", "totalShuffleRead", "totalShuffleWrite","maxMemory"]
 function renderExecutorsOnPage(myData) {
     d3.select("#executorDetailsBody")
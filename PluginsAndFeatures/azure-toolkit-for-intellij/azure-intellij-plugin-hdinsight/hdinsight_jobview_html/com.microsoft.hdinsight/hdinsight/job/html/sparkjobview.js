@@ -67,6 +67,7 @@ function onApplicationListRowSelected(event) {
         $('#summaryTitle').html("Application details");
         $('#basicInformationTitle').html("Basic Application Information");
         d3.selectAll("#stageSummaryTbody tr").remove();
+        d3.selectAll("#stageAnalysisTbody tr").remove();
         d3.selectAll("#taskSummaryTbody tr").remove();
         $('#errorMessage').text("");
         $('#jobOutputTextarea').text("");
@@ -95,6 +96,7 @@ function onApplicationListRowSelected(event) {
 
         renderApplicationGraph();
         renderStageDetails();
+        renderStageAnalysis();
         renderExecutors();
         renderTaskDetails();
         renderYarnLogs();
@@ -350,6 +352,21 @@ function renderStageDetails() {
     }, spark.appId);
 }
 
+function renderStageAnalysis() {
+    if(spark.attemptId === 0) {
+        $("#stage_analysis_info_message").text("No Stage Info");
+        return;
+    }
+    $('#stage_analysis_info_message').text('');
+    getMessageAsync('/applications/stage_analysis', 'spark', function (s) {
+        var analysis = JSON.parse(s);
+        if (analysis.findings.length === 0) {
+            $('#stage_analysis_info_message').text('No skew, straggler, spill, GC or shuffle problem found in ' + analysis.stages.length + ' stage(s)');
+        }
+        renderStageAnalysisFindings(analysis.findings);
+    }, spark.appId);
+}
+
 function renderTaskDetails() {
     getMessageAsync('/applications/tasks_summary','spark', function(s){
         var tasks = JSON.parse(s);
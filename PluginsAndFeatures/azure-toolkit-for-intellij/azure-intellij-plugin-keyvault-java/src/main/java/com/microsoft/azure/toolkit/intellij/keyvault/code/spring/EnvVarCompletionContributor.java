@@ -57,6 +57,7 @@ public class EnvVarCompletionContributor extends CompletionContributor {
     public static final PsiElementPattern.Capture<PsiElement> YAML_VALUE = PlatformPatterns.psiElement(YAMLTokenTypes.TEXT).withSuperParent(2, PlatformPatterns.psiElement(YAMLKeyValue.class)).inFile(APPLICATION_YAML_FILE);
     public static final PsiJavaElementPattern.Capture<PsiElement> ANNOTATION_VALUE = PsiJavaPatterns.psiElement(JavaTokenType.STRING_LITERAL).withParent(literalExpression()).insideAnnotationParam(VALUE_ANNOTATION);
     public static final ElementPattern<PsiElement> KEYVAULT_SECRET_ENV_VAR_PLACES = PlatformPatterns.or(PROPERTY_VALUE, YAML_VALUE, ANNOTATION_VALUE);
+    private static final long COMPLETION_TIMEOUT_MILLIS = 2000;
 
     public EnvVarCompletionContributor() {
         super();
@@ -104,7 +105,11 @@ public class EnvVarCompletionContributor extends CompletionContributor {
                         .withIcon(IntelliJAzureIcons.getIcon(AzureIcons.KeyVault.MODULE)))
                     .forEach(result::addElement);
             } else {
-                vaults.stream().flatMap(v -> Utils.checkCancelled(() -> v.secrets().list()).stream())
+                final KeyVaultSecretCache cache = KeyVaultSecretCache.getInstance(module.getProject());
+                if (parameters.getInvocationCount() > 1) { // explicitly invoked again, reload the secrets.
+                    cache.refresh(vaults);
+                }
+                cache.getSecrets(vaults, COMPLETION_TIMEOUT_MILLIS).stream()
                     .map(s -> LookupElementBuilder.create(String.format("${%s}", s.getName()))
                         .withBoldness(true)
                         .withInsertHandler(new SecretInsertHandler())
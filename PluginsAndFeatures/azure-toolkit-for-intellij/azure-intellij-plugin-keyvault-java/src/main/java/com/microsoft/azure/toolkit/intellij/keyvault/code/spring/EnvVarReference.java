@@ -7,6 +7,7 @@ package com.microsoft.azure.toolkit.intellij.keyvault.code.spring;
 
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReferenceBase;
@@ -34,6 +35,7 @@ import javax.swing.*;
 import java.util.Optional;
 
 public class EnvVarReference extends PsiReferenceBase<PsiElement> {
+    private static final long RESOLVE_TIMEOUT_MILLIS = 1000;
 
     public EnvVarReference(@Nonnull PsiElement element, TextRange rangeInElement, boolean soft) {
         super(element, rangeInElement, soft);
@@ -65,7 +67,9 @@ public class EnvVarReference extends PsiReferenceBase<PsiElement> {
     @Nullable
     private Secret getSecret(final KeyVault v) {
         try {
-            return v.secrets().get(getValue(), v.getResourceGroupName());
+            return KeyVaultSecretCache.getInstance(this.getElement().getProject()).getSecret(v, getValue(), RESOLVE_TIMEOUT_MILLIS);
+        } catch (final ProcessCanceledException e) {
+            throw e;
         } catch (final Throwable e) {
             return null;
         }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.keyvault.code.spring;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.microsoft.azure.toolkit.intellij.connector.Connection;
+import com.microsoft.azure.toolkit.intellij.connector.ConnectionTopics;
+import com.microsoft.azure.toolkit.intellij.keyvault.connection.KeyVaultResourceDefinition;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.keyvault.KeyVault;
+import com.microsoft.azure.toolkit.lib.keyvault.secret.Secret;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * per project cache of secrets in connected key vaults, shared by completion, line markers and annotators so that
+ * they answer from memory instead of listing secrets of every vault on the EDT/highlighting thread.
+ * vaults are listed in parallel on pooled threads, prefetched once a key vault connection is added, and refreshed
+ * in background when older than {@link #TTL_MILLIS} (stale secrets are served meanwhile).
+ * a vault failing to load is not queried again before a backoff, doubled on every consecutive failure from
+ * {@link #MIN_BACKOFF_MILLIS} up to {@link #MAX_BACKOFF_MILLIS}, so highlighting passes don't hammer it.
+ */
+@Slf4j
+public class KeyVaultSecretCache {
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long POLL_MILLIS = 50;
+    private static final long MIN_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private final Project project;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public KeyVaultSecretCache(@Nonnull Project project) {
+        this(project, AppExecutorUtil.getAppExecutorService(), System::currentTimeMillis);
+    }
+
+    KeyVaultSecretCache(@Nonnull Project project, @Nonnull Executor executor, @Nonnull LongSupplier clock) {
+        this.project = project;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    public static KeyVaultSecretCache getInstance(@Nonnull Project project) {
+        return project.getService(KeyVaultSecretCache.class);
+    }
+
+    /**
+     * starts loading secrets of the given vaults in background if they are not cached or stale.
+     */
+    public void prefetch(@Nonnull Collection<KeyVault> vaults) {
+        vaults.forEach(this::getOrLoad);
+    }
+
+    /**
+     * reloads secrets of the given vaults regardless of their age and of previous failures.
+     */
+    public void refresh(@Nonnull Collection<KeyVault> vaults) {
+        vaults.forEach(v -> this.load(v, true));
+    }
+
+    public void invalidate(@Nonnull KeyVault vault) {
+        this.entries.remove(vault.getId());
+    }
+
+    /**
+     * secrets of the given vaults. vaults that have never been loaded are waited for at most {@code timeoutMillis}
+     * in total, secrets of vaults that are still loading after that are omitted.
+     */
+    @Nonnull
+    public List<Secret> getSecrets(@Nonnull List<KeyVault> vaults, long timeoutMillis) {
+        final List<CompletableFuture<List<Secret>>> futures = vaults.stream().map(this::getOrLoad).toList();
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        final List<Secret> result = new ArrayList<>();
+        futures.forEach(f -> result.addAll(await(f, deadline)));
+        return result;
+    }
+
+    /**
+     * secret named {@code name} (case-insensitive, as key vault secret names are) in {@code vault}, or {@code null}
+     * if it doesn't exist or the vault could not be loaded within {@code timeoutMillis}.
+     */
+    @Nullable
+    public Secret getSecret(@Nonnull KeyVault vault, @Nonnull String name, long timeoutMillis) {
+        return this.getSecrets(List.of(vault), timeoutMillis).stream()
+            .filter(s -> s.getName().equalsIgnoreCase(name))
+            .findFirst().orElse(null);
+    }
+
+    private CompletableFuture<List<Secret>> getOrLoad(@Nonnull KeyVault vault) {
+        final Entry entry = this.entries.get(vault.getId());
+        if (Objects.nonNull(entry) && Objects.nonNull(entry.secrets)) {
+            if (this.isStale(entry)) {
+                this.load(vault, false);
+            }
+            return CompletableFuture.completedFuture(entry.secrets);
+        }
+        if (Objects.nonNull(entry) && this.isBackingOff(entry)) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return this.load(vault, false);
+    }
+
+    private CompletableFuture<List<Secret>> load(@Nonnull KeyVault vault, boolean force) {
+        final Entry entry = this.entries.computeIfAbsent(vault.getId(), k -> new Entry());
+        synchronized (entry) {
+            if (Objects.nonNull(entry.loading)) {
+                return entry.loading;
+            }
+            if (!force && (Objects.nonNull(entry.secrets) && !this.isStale(entry) || this.isBackingOff(entry))) {
+                return CompletableFuture.completedFuture(Optional.ofNullable(entry.secrets).orElse(List.of()));
+            }
+            final List<Secret> previous = entry.secrets;
+            final CompletableFuture<List<Secret>> loading = CompletableFuture.supplyAsync(() -> List.copyOf(vault.secrets().list()), this.executor);
+            entry.loading = loading;
+            loading.whenComplete((secrets, e) -> {
+                synchronized (entry) {
+                    entry.loading = null;
+                    if (Objects.isNull(e)) {
+                        entry.secrets = secrets;
+                        entry.loadedAt = this.clock.getAsLong();
+                        entry.failures = 0;
+                    } else {
+                        final long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(entry.failures, 16));
+                        entry.failures++;
+                        entry.retryAt = this.clock.getAsLong() + backoff;
+                        log.debug("failed to list secrets of key vault ({}), retry in {} ms", vault.getName(), backoff, e);
+                    }
+                }
+                if (Objects.isNull(e) && !getNames(secrets).equals(getNames(previous)) && !this.project.isDisposed()) {
+                    // line markers/annotations computed with the previous (or without any) secrets need to be recomputed.
+                    DaemonCodeAnalyzer.getInstance(this.project).restart();
+                }
+            });
+            return loading;
+        }
+    }
+
+    @Nonnull
+    private static Set<String> getNames(@Nullable List<Secret> secrets) {
+        return Optional.ofNullable(secrets).orElse(List.of()).stream().map(Secret::getName).collect(Collectors.toSet());
+    }
+
+    @Nonnull
+    private static List<Secret> await(@Nonnull CompletableFuture<List<Secret>> future, long deadline) {
+        try {
+            while (!future.isDone()) {
+                ProgressManager.checkCanceled();
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return List.of();
+                }
+                try {
+                    return future.get(Math.min(remaining, POLL_MILLIS), TimeUnit.MILLISECONDS);
+                } catch (final TimeoutException ignored) {
+                    // keep polling so that cancellation of completion/highlighting is honoured.
+                }
+            }
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (final ExecutionException e) {
+            return List.of();
+        }
+    }
+
+    private boolean isStale(@Nonnull Entry entry) {
+        return this.clock.getAsLong() - entry.loadedAt > TTL_MILLIS && !this.isBackingOff(entry);
+    }
+
+    private boolean isBackingOff(@Nonnull Entry entry) {
+        return entry.failures > 0 && this.clock.getAsLong() < entry.retryAt;
+    }
+
+    private static class Entry {
+        @Nullable
+        private volatile List<Secret> secrets;
+        private volatile long loadedAt;
+        private volatile int failures;
+        private volatile long retryAt;
+        @Nullable
+        private CompletableFuture<List<Secret>> loading;
+    }
+
+    public static class ConnectionListener implements ConnectionTopics.ConnectionChanged {
+        @Override
+        public void connectionChanged(Project project, Connection<?, ?> connection, ConnectionTopics.Action change) {
+            if (connection.getResource().getDefinition() != KeyVaultResourceDefinition.INSTANCE) {
+                return;
+            }
+            final KeyVaultSecretCache cache = getInstance(project);
+            AzureTaskManager.getInstance().runOnPooledThread(() -> Optional.ofNullable(connection.getResource().getData())
+                .filter(KeyVault.class::isInstance).map(KeyVault.class::cast)
+                .ifPresent(vault -> {
+                    if (change == ConnectionTopics.Action.ADD) {
+                        cache.prefetch(List.of(vault));
+                    } else {
+                        cache.invalidate(vault);
+                    }
+                }));
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.jetbrains.yaml.YAMLUtil;
 import org.jetbrains.yaml.psi.YAMLPsiElement;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -52,6 +53,9 @@ public class PlainTextSecretAnnotator implements Annotator {
                     .map(YAMLUtil::getConfigFullName).orElse("");
             final String value = element.getText();
             final SmartPsiElementPointer<PsiElement> pointer = SmartPointerManager.createPointer(element);
+            if (EnvVarCompletionContributor.isSecretKey(key)) {
+                prefetchSecrets(element);
+            }
             if (EnvVarCompletionContributor.isSecretKey(key) && !EnvVarCompletionContributor.hasEnvVars(value)) {
                 holder.newAnnotation(HighlightSeverity.WARNING, "Secret is in plain text.")
                     .range(element.getTextRange())
@@ -93,17 +97,29 @@ public class PlainTextSecretAnnotator implements Annotator {
                         private void createSecretAndReplace(final Connection<?, ?> connection, @Nonnull Project project, Editor editor, KeyVault vault) {
                             final SecretDraft.Config config = new SecretDraft.Config();
                             config.setValue(value);
-                            SecretCreationActions.createNewSecret(vault, config, s -> WriteCommandAction.runWriteCommandAction(project, () ->
-                                Optional.ofNullable(pointer.getElement()).map(PsiElement::getTextRange).ifPresent(range -> {
-                                    final Document document = editor.getDocument();
-                                    document.replaceString(range.getStartOffset(), range.getEndOffset(), String.format("${%s}", s.getName()));
-                                    PsiDocumentManager.getInstance(project).commitDocument(document);
-                                    AbstractAzureFacetNode.selectConnectedResource(connection, s.getId(), true);
-                                })
-                            ));
+                            SecretCreationActions.createNewSecret(vault, config, s -> {
+                                KeyVaultSecretCache.getInstance(project).refresh(List.of(vault));
+                                WriteCommandAction.runWriteCommandAction(project, () ->
+                                    Optional.ofNullable(pointer.getElement()).map(PsiElement::getTextRange).ifPresent(range -> {
+                                        final Document document = editor.getDocument();
+                                        document.replaceString(range.getStartOffset(), range.getEndOffset(), String.format("${%s}", s.getName()));
+                                        PsiDocumentManager.getInstance(project).commitDocument(document);
+                                        AbstractAzureFacetNode.selectConnectedResource(connection, s.getId(), true);
+                                    }));
+                            });
                         }
                     }).create();
             }
         }
     }
+
+    /**
+     * warms up the secret cache shared with completion and line markers while the user is editing secret properties.
+     */
+    private static void prefetchSecrets(@Nonnull PsiElement element) {
+        Optional.ofNullable(ModuleUtil.findModuleForPsiElement(element)).map(AzureModule::from)
+            .filter(m -> m.hasValidConnections(KeyVaultResourceDefinition.INSTANCE))
+            .ifPresent(m -> AzureTaskManager.getInstance().runOnPooledThread(() ->
+                KeyVaultSecretCache.getInstance(m.getProject()).prefetch(m.getConnectedResources(KeyVaultResourceDefinition.INSTANCE))));
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.keyvault.code.spring;
+
+import com.intellij.openapi.project.Project;
+import com.microsoft.azure.toolkit.lib.keyvault.KeyVault;
+import com.microsoft.azure.toolkit.lib.keyvault.secret.Secret;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * secrets are loaded synchronously from fake vaults, with a fake clock to go through the TTL and the backoff.
+ */
+public class KeyVaultSecretCacheTest {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private KeyVaultSecretCache cache;
+    private KeyVault vault;
+    private Secret secret;
+
+    @Before
+    public void setUp() {
+        final Project project = mock(Project.class);
+        when(project.isDisposed()).thenReturn(true);
+        this.cache = new KeyVaultSecretCache(project, Runnable::run, this.now::get);
+        this.vault = mock(KeyVault.class, RETURNS_DEEP_STUBS);
+        when(this.vault.getId()).thenReturn("/subscriptions/sub/resourceGroups/rg/providers/Microsoft.KeyVault/vaults/vault");
+        when(this.vault.getName()).thenReturn("vault");
+        this.secret = mock(Secret.class);
+        when(this.secret.getName()).thenReturn("db-password");
+    }
+
+    @Test
+    public void testServeCachedSecrets() {
+        when(this.vault.secrets().list()).thenReturn(List.of(this.secret));
+
+        Assert.assertEquals(List.of(this.secret), this.cache.getSecrets(List.of(this.vault), 100));
+        Assert.assertSame(this.secret, this.cache.getSecret(this.vault, "DB-PASSWORD", 100));
+        this.now.addAndGet(TimeUnit.MINUTES.toMillis(1));
+        this.cache.getSecrets(List.of(this.vault), 100);
+
+        verify(this.vault.secrets(), times(1)).list();
+    }
+
+    @Test
+    public void testNotQueryFailingVaultBeforeBackoff() {
+        when(this.vault.secrets().list()).thenThrow(new IllegalStateException("forbidden"));
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(this.cache.getSecrets(List.of(this.vault), 100).isEmpty());
+        }
+        verify(this.vault.secrets(), times(1)).list();
+
+        // the backoff doubles on every consecutive failure
+        this.now.addAndGet(TimeUnit.SECONDS.toMillis(11));
+        this.cache.getSecrets(List.of(this.vault), 100);
+        verify(this.vault.secrets(), times(2)).list();
+        this.now.addAndGet(TimeUnit.SECONDS.toMillis(11));
+        this.cache.getSecrets(List.of(this.vault), 100);
+        verify(this.vault.secrets(), times(2)).list();
+        this.now.addAndGet(TimeUnit.SECONDS.toMillis(10));
+        this.cache.getSecrets(List.of(this.vault), 100);
+        verify(this.vault.secrets(), times(3)).list();
+    }
+
+    @Test
+    public void testRecoverAfterBackoff() {
+        when(this.vault.secrets().list()).thenThrow(new IllegalStateException("unavailable")).thenReturn(List.of(this.secret));
+
+        Assert.assertTrue(this.cache.getSecrets(List.of(this.vault), 100).isEmpty());
+        this.now.addAndGet(TimeUnit.SECONDS.toMillis(11));
+        Assert.assertEquals(List.of(this.secret), this.cache.getSecrets(List.of(this.vault), 100));
+    }
+
+    @Test
+    public void testServeStaleSecretsWhileBackingOff() {
+        when(this.vault.secrets().list()).thenReturn(List.of(this.secret)).thenThrow(new IllegalStateException("unavailable"));
+
+        this.cache.getSecrets(List.of(this.vault), 100);
+        this.now.addAndGet(TimeUnit.MINUTES.toMillis(6));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(List.of(this.secret), this.cache.getSecrets(List.of(this.vault), 100));
+        }
+        verify(this.vault.secrets(), times(2)).list();
+    }
+
+    @Test
+    public void testRefreshIgnoresBackoff() {
+        when(this.vault.secrets().list()).thenThrow(new IllegalStateException("forbidden")).thenReturn(List.of(this.secret));
+
+        this.cache.getSecrets(List.of(this.vault), 100);
+        this.cache.refresh(List.of(this.vault));
+
+        Assert.assertEquals(List.of(this.secret), this.cache.getSecrets(List.of(this.vault), 100));
+    }
+}
@@ -20,6 +20,8 @@ dependencies {
         exclude(group="pull-parser", module="pull-parser")
         exclude(group="net.java.dev.msv", module="xsdlib")
     }
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.mockito:mockito-core:3.9.0")
     intellijPlatform {
         // Plugin Dependencies. Uses `platformBundledPlugins` property from the gradle.properties file for bundled IntelliJ Platform plugins.
         bundledPlugin("org.jetbrains.plugins.terminal")
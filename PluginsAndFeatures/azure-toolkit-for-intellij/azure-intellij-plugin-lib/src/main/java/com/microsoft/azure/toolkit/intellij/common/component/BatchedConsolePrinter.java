@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.component;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import lombok.Getter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * buffers texts printed to a console and appends them in batches (consecutive texts of the same content type are
+ * joined into one print) at a fixed interval, so that the console isn't flooded by one print per message.
+ * the buffer is bounded, the oldest texts are dropped when it's full and the number of dropped ones is printed instead.
+ */
+public class BatchedConsolePrinter implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 5000;
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMillis(200);
+
+    private final BiConsumer<String, ConsoleViewContentType> console;
+    private final int capacity;
+    private final Deque<Chunk> buffer = new ArrayDeque<>();
+    @Getter
+    private long dropped = 0;
+    private long unreportedDropped = 0;
+    private final Disposable flusher;
+
+    public BatchedConsolePrinter(@Nonnull BiConsumer<String, ConsoleViewContentType> console) {
+        this(console, DEFAULT_CAPACITY, DEFAULT_INTERVAL);
+    }
+
+    public BatchedConsolePrinter(@Nonnull BiConsumer<String, ConsoleViewContentType> console, int capacity, @Nonnull Duration interval) {
+        this.console = console;
+        this.capacity = Math.max(1, capacity);
+        this.flusher = Flux.interval(interval, Schedulers.boundedElastic())
+            .onBackpressureDrop()
+            .subscribe(i -> this.flush());
+    }
+
+    public void print(@Nonnull String text, @Nonnull ConsoleViewContentType type) {
+        synchronized (this.buffer) {
+            if (this.buffer.size() >= this.capacity) {
+                this.buffer.pollFirst();
+                this.dropped++;
+                this.unreportedDropped++;
+            }
+            this.buffer.addLast(new Chunk(text, type));
+        }
+    }
+
+    public void flush() {
+        final List<Chunk> chunks;
+        final long dropped;
+        synchronized (this.buffer) {
+            if (this.buffer.isEmpty() && this.unreportedDropped == 0) {
+                return;
+            }
+            chunks = new ArrayList<>(this.buffer);
+            dropped = this.unreportedDropped;
+            this.buffer.clear();
+            this.unreportedDropped = 0;
+        }
+        if (dropped > 0) {
+            this.console.accept(String.format("... %d message(s) are skipped to keep up with the receiving rate ...%n", dropped), ConsoleViewContentType.LOG_WARNING_OUTPUT);
+        }
+        final StringBuilder text = new StringBuilder();
+        ConsoleViewContentType type = null;
+        for (final Chunk chunk : chunks) {
+            if (!Objects.equals(type, chunk.type) && text.length() > 0) {
+                this.console.accept(text.toString(), type);
+                text.setLength(0);
+            }
+            type = chunk.type;
+            text.append(chunk.text);
+        }
+        if (text.length() > 0) {
+            this.console.accept(text.toString(), type);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.flusher.dispose();
+        this.flush();
+    }
+
+    private static class Chunk {
+        private final String text;
+        private final ConsoleViewContentType type;
+
+        private Chunk(@Nonnull String text, @Nonnull ConsoleViewContentType type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+}
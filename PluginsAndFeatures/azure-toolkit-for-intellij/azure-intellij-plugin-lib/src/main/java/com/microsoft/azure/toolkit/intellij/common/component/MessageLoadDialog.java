@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.component;
+
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.TextFieldWithBrowseButton;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.fields.ExpandableTextField;
+import com.intellij.util.ui.FormBuilder;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.swing.*;
+import java.io.File;
+
+public class MessageLoadDialog extends DialogWrapper {
+    private final JBIntSpinner countInput = new JBIntSpinner(1000, 1, 10_000_000, 100);
+    private final JBIntSpinner rateInput = new JBIntSpinner(100, 0, 1_000_000, 10);
+    private final JBIntSpinner batchSizeInput = new JBIntSpinner(10, 1, 500, 1);
+    private final ExpandableTextField templateInput = new ExpandableTextField();
+    private final TextFieldWithBrowseButton fileInput = new TextFieldWithBrowseButton();
+
+    public MessageLoadDialog(@Nullable Project project, @Nonnull MessageLoadSettings settings) {
+        super(project);
+        this.setTitle("Send Messages");
+        this.countInput.setNumber(settings.getCount());
+        this.rateInput.setNumber(settings.getRatePerSecond());
+        this.batchSizeInput.setNumber(settings.getBatchSize());
+        this.templateInput.setText(settings.getTemplate());
+        this.templateInput.setToolTipText(String.format("%s is replaced with the index of the message, %s with the time it's sent (for latency measuring)",
+            MessageLoadSettings.INDEX, MessageLoadSettings.SENT_AT));
+        this.rateInput.setToolTipText("Target messages per second, 0 to send as fast as possible");
+        this.fileInput.setText(settings.getFile() == null ? StringUtils.EMPTY : settings.getFile().getAbsolutePath());
+        this.fileInput.setToolTipText("Send non-empty lines of the file as messages instead of the template");
+        this.fileInput.addBrowseFolderListener("Select Messages File", "Every non-empty line is sent as a message", project,
+            FileChooserDescriptorFactory.createSingleFileDescriptor());
+        this.init();
+    }
+
+    @Override
+    protected JComponent createCenterPanel() {
+        return FormBuilder.createFormBuilder()
+            .addLabeledComponent("Message count:", this.countInput)
+            .addLabeledComponent("Messages per second:", this.rateInput)
+            .addLabeledComponent("Batch size:", this.batchSizeInput)
+            .addLabeledComponent("Message template:", this.templateInput)
+            .addLabeledComponent("Messages file (optional):", this.fileInput)
+            .getPanel();
+    }
+
+    @Nullable
+    @Override
+    protected ValidationInfo doValidate() {
+        final String file = this.fileInput.getText();
+        if (StringUtils.isNotBlank(file) && !new File(file).isFile()) {
+            return new ValidationInfo("File doesn't exist.", this.fileInput);
+        }
+        if (StringUtils.isBlank(file) && StringUtils.isBlank(this.templateInput.getText())) {
+            return new ValidationInfo("Message template is required.", this.templateInput);
+        }
+        return null;
+    }
+
+    @Nonnull
+    public MessageLoadSettings getSettings() {
+        final MessageLoadSettings settings = new MessageLoadSettings();
+        settings.setCount(this.countInput.getNumber());
+        settings.setRatePerSecond(this.rateInput.getNumber());
+        settings.setBatchSize(this.batchSizeInput.getNumber());
+        settings.setTemplate(this.templateInput.getText());
+        settings.setFile(StringUtils.isBlank(this.fileInput.getText()) ? null : new File(this.fileInput.getText()));
+        return settings;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.component;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * sends messages in batches at a target rate: messages of a batch are sent concurrently, and batches are released
+ * at {@code batchSize / ratePerSecond} intervals. when sending is slower than the target rate, ticks are dropped
+ * and batches are sent back to back.
+ */
+@Slf4j
+public class MessageLoadSender {
+    private final Consumer<String> sender;
+    private final MessageThroughputMeter meter;
+    private final Scheduler scheduler;
+
+    /**
+     * @param sender    sends one message, blocking until it's sent.
+     * @param scheduler runs {@code sender}, it should allow {@code batchSize} concurrent workers.
+     */
+    public MessageLoadSender(@Nonnull Consumer<String> sender, @Nonnull MessageThroughputMeter meter, @Nonnull Scheduler scheduler) {
+        this.sender = sender;
+        this.meter = meter;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return emits the number of messages processed (sent or failed) after each batch, completes when all messages are sent.
+     */
+    @Nonnull
+    public Flux<Long> send(@Nonnull MessageLoadSettings settings, @Nonnull List<String> payloads) {
+        final int batchSize = Math.max(1, settings.getBatchSize());
+        Flux<List<Integer>> batches = Flux.range(0, Math.max(0, settings.getCount())).buffer(batchSize);
+        if (settings.getRatePerSecond() > 0) {
+            final Duration period = Duration.ofNanos(Math.max(1, batchSize * 1_000_000_000L / settings.getRatePerSecond()));
+            batches = batches.zipWith(Flux.interval(Duration.ZERO, period).onBackpressureDrop(), (batch, tick) -> batch, 1);
+        }
+        return batches.concatMap(batch -> Flux.fromIterable(batch)
+                .flatMap(index -> Mono.fromRunnable(() -> this.send(payloads.get(index % payloads.size()), index))
+                    .subscribeOn(this.scheduler), batchSize)
+                .then(Mono.just(batch.size())))
+            .scan(0L, (processed, size) -> processed + size)
+            .skip(1);
+    }
+
+    private void send(@Nonnull String payload, long index) {
+        try {
+            this.sender.accept(MessageThroughputMeter.stamp(payload, index));
+            this.meter.recordSent();
+        } catch (final RuntimeException e) {
+            log.debug("failed to send message {}", index, e);
+            this.meter.recordFailed();
+        }
+    }
+}
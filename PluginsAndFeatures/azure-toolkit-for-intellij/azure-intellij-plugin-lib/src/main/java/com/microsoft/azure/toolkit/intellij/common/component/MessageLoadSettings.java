@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.component;
+
+import lombok.Data;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * settings of sending messages in bulk from {@link SenderReceiverPanel}, messages are rendered from {@link #template}
+ * or, if {@link #file} is set, taken from the non-empty lines of the file (repeated until {@link #count} is reached).
+ * <ul>
+ * <li>{@code {{index}}} in messages is replaced with the index of the message</li>
+ * <li>{@code {{sentAt}}} is replaced with a timestamp used to compute end-to-end latency when the message is received</li>
+ * </ul>
+ */
+@Data
+public class MessageLoadSettings {
+    public static final String INDEX = "{{index}}";
+    public static final String SENT_AT = "{{sentAt}}";
+    public static final String DEFAULT_TEMPLATE = "{\"index\": {{index}}, \"sentAt\": \"{{sentAt}}\"}";
+
+    private int count = 1000;
+    /**
+     * target messages per second, {@code <= 0} means as fast as possible.
+     */
+    private int ratePerSecond = 100;
+    /**
+     * messages sent concurrently in one batch.
+     */
+    private int batchSize = 10;
+    @Nonnull
+    private String template = DEFAULT_TEMPLATE;
+    @Nullable
+    private File file;
+
+    @Nonnull
+    public List<String> loadPayloads() throws IOException {
+        if (Objects.isNull(this.file)) {
+            return Collections.singletonList(this.template);
+        }
+        final List<String> lines = FileUtils.readLines(this.file, StandardCharsets.UTF_8).stream()
+            .filter(StringUtils::isNotBlank).collect(Collectors.toList());
+        if (lines.isEmpty()) {
+            throw new IOException(String.format("no message found in file (%s)", this.file.getName()));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.component;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * counts sent/received messages and samples end-to-end latency of received messages stamped by
+ * {@link #stamp(String, long)}. rates are computed between two consecutive {@link #snapshot()}s.
+ */
+public class MessageThroughputMeter {
+    private static final String STAMP_PREFIX = "azure-toolkit-sent-at:";
+    private static final Pattern STAMP = Pattern.compile(Pattern.quote(STAMP_PREFIX) + "(\\d+)");
+    private static final int MAX_SAMPLES = 10000;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    // ring buffer of the latest latency samples in milliseconds.
+    private final long[] samples = new long[MAX_SAMPLES];
+    private int sampleCount = 0;
+    private int sampleIndex = 0;
+    private long lastSnapshotAt = System.nanoTime();
+    private long lastSent = 0;
+    private long lastReceived = 0;
+
+    /**
+     * renders {@code template} for message {@code index}, see {@link MessageLoadSettings}.
+     */
+    @Nonnull
+    public static String stamp(@Nonnull String template, long index) {
+        String message = StringUtils.replace(template, MessageLoadSettings.INDEX, String.valueOf(index));
+        if (message.contains(MessageLoadSettings.SENT_AT)) {
+            message = StringUtils.replace(message, MessageLoadSettings.SENT_AT, STAMP_PREFIX + System.currentTimeMillis());
+        }
+        return message;
+    }
+
+    /**
+     * @return milliseconds since the stamped message was sent, {@code null} if the message is not stamped.
+     */
+    @Nullable
+    public static Long getLatency(@Nonnull String message) {
+        if (!message.contains(STAMP_PREFIX)) {
+            return null;
+        }
+        final Matcher matcher = STAMP.matcher(message);
+        return matcher.find() ? Math.max(0, System.currentTimeMillis() - Long.parseLong(matcher.group(1))) : null;
+    }
+
+    public void recordSent() {
+        this.sent.increment();
+    }
+
+    public void recordFailed() {
+        this.failed.increment();
+    }
+
+    public void recordReceived(@Nonnull String message) {
+        this.received.increment();
+        final Long latency = getLatency(message);
+        if (latency != null) {
+            synchronized (this.samples) {
+                this.samples[this.sampleIndex] = latency;
+                this.sampleIndex = (this.sampleIndex + 1) % MAX_SAMPLES;
+                this.sampleCount = Math.min(MAX_SAMPLES, this.sampleCount + 1);
+            }
+        }
+    }
+
+    public void reset() {
+        this.sent.reset();
+        this.failed.reset();
+        this.received.reset();
+        synchronized (this.samples) {
+            this.sampleCount = 0;
+            this.sampleIndex = 0;
+        }
+        synchronized (this) {
+            this.lastSnapshotAt = System.nanoTime();
+            this.lastSent = 0;
+            this.lastReceived = 0;
+        }
+    }
+
+    @Nonnull
+    public synchronized Snapshot snapshot() {
+        final long now = System.nanoTime();
+        final double seconds = Math.max(1, now - this.lastSnapshotAt) / 1e9;
+        final long sent = this.sent.sum();
+        final long received = this.received.sum();
+        final long[] latencies;
+        synchronized (this.samples) {
+            latencies = Arrays.copyOf(this.samples, this.sampleCount);
+        }
+        Arrays.sort(latencies);
+        final Snapshot snapshot = new Snapshot(sent, this.failed.sum(), received,
+            (sent - this.lastSent) / seconds, (received - this.lastReceived) / seconds,
+            percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99));
+        this.lastSnapshotAt = now;
+        this.lastSent = sent;
+        this.lastReceived = received;
+        return snapshot;
+    }
+
+    private static long percentile(@Nonnull long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        final int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final long sent;
+        private final long failed;
+        private final long received;
+        private final double sendRate;
+        private final double receiveRate;
+        /**
+         * latency percentiles in milliseconds, {@code -1} if no stamped message is received.
+         */
+        private final long p50;
+        private final long p95;
+        private final long p99;
+
+        @Override
+        public String toString() {
+            final String rates = String.format("Sent: %d (%.0f/s)%s    Received: %d (%.0f/s)", this.sent, this.sendRate,
+                this.failed > 0 ? String.format(", %d failed", this.failed) : "", this.received, this.receiveRate);
+            return this.p50 < 0 ? rates : rates + String.format("    Latency: p50 %d ms, p95 %d ms, p99 %d ms", this.p50, this.p95, this.p99);
+        }
+    }
+}
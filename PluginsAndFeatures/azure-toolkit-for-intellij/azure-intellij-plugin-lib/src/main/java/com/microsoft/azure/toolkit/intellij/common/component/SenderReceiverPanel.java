@@ -13,6 +13,7 @@ import com.microsoft.azure.toolkit.intellij.common.AzureActionButton;
 import com.microsoft.azure.toolkit.intellij.common.RunProcessHandler;
 import com.microsoft.azure.toolkit.intellij.common.messager.IntellijAzureMessager;
 import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessage;
 import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
@@ -20,13 +21,20 @@ import com.microsoft.azure.toolkit.lib.resource.message.ISenderReceiver;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class SenderReceiverPanel extends JPanel {
     @Getter
@@ -35,15 +43,26 @@ public class SenderReceiverPanel extends JPanel {
     private ExpandableTextField messageInput;
     private JPanel listenPanel;
     private JPanel sendPanel;
+    private JButton sendLoadBtn;
+    private JLabel statsLabel;
+    private final Project project;
     private final ISenderReceiver instance;
     private final ConsoleView consoleView;
+    private final BatchedConsolePrinter printer;
+    private final MessageThroughputMeter meter = new MessageThroughputMeter();
+    private MessageLoadSettings loadSettings = new MessageLoadSettings();
+    // set on the EDT before subscribing and cleared by whichever of stopping and terminating comes first
+    private final AtomicReference<Disposable> loadSending = new AtomicReference<>();
+    private Disposable statsUpdater;
     @Nullable
     private RunProcessHandler listenProcessHandler;
     private AzureEventBus.EventListener listener;
 
     public SenderReceiverPanel(Project project, ISenderReceiver ServiceBusInstance) {
         super();
+        this.project = project;
         this.consoleView = new ConsoleViewImpl(project, true);
+        this.printer = new BatchedConsolePrinter(this.consoleView::print);
         this.instance = ServiceBusInstance;
         $$$setupUI$$$();
         this.init();
@@ -76,6 +95,9 @@ public class SenderReceiverPanel extends JPanel {
 
     public void dispose() {
         AzureEventBus.off("resource.status_changed.resource", listener);
+        Optional.ofNullable(this.loadSending.getAndSet(null)).ifPresent(Disposable::dispose);
+        this.statsUpdater.dispose();
+        this.printer.close();
     }
 
     private void init() {
@@ -86,7 +108,9 @@ public class SenderReceiverPanel extends JPanel {
                 new GridConstraints(0, 0, 1, 1, 0, GridConstraints.ALIGN_FILL,
                         3, 3, null, null, null, 0));
         this.sendMessageBtn.setEnabled(instance.isSendEnabled());
+        this.sendLoadBtn.setEnabled(instance.isSendEnabled());
         this.initListeners();
+        this.statsUpdater = Flux.interval(Duration.ofSeconds(1)).onBackpressureDrop().subscribe(i -> this.updateStats());
     }
 
     private void initListeners() {
@@ -95,9 +119,11 @@ public class SenderReceiverPanel extends JPanel {
             final Object source = azureEvent.getSource();
             if (source instanceof ISenderReceiver && ((ISenderReceiver) source).getId().equals(this.instance.getId())) {
                 this.sendMessageBtn.setEnabled(instance.isSendEnabled());
+                this.sendLoadBtn.setEnabled(instance.isSendEnabled() || Objects.nonNull(this.loadSending.get()));
             }
         });
         this.sendMessageBtn.addActionListener(e -> sendMessage());
+        this.sendLoadBtn.addActionListener(e -> toggleSendingMessages());
         this.messageInput.addActionListener(e -> sendMessage());
         AzureEventBus.on("resource.status_changed.resource", listener);
     }
@@ -106,13 +132,74 @@ public class SenderReceiverPanel extends JPanel {
         final String message = messageInput.getText();
         messageInput.setText(StringUtils.EMPTY);
         AzureTaskManager.getInstance().runInBackground("send message",() -> {
-            OperationContext.current().setMessager(new ConsoleMessager(consoleView));
+            OperationContext.current().setMessager(new ConsoleMessager(printer, null, false));
             instance.sendMessage(message);
         });
     }
 
+    private void toggleSendingMessages() {
+        final Disposable sending = this.loadSending.get();
+        if (Objects.nonNull(sending)) {
+            sending.dispose();
+            this.onSendingMessagesTerminated(sending, "Sending messages is stopped.");
+            return;
+        }
+        final MessageLoadDialog dialog = new MessageLoadDialog(this.project, this.loadSettings);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+        this.loadSettings = dialog.getSettings();
+        final List<String> payloads;
+        try {
+            payloads = this.loadSettings.loadPayloads();
+        } catch (final IOException e) {
+            AzureMessager.getMessager().error(e);
+            return;
+        }
+        this.meter.reset();
+        // per message results are not printed, otherwise they would flood the console.
+        final ConsoleMessager quiet = new ConsoleMessager(printer, null, true);
+        final MessageLoadSender sender = new MessageLoadSender(message -> {
+            OperationContext.current().setMessager(quiet);
+            instance.sendMessage(message);
+        }, this.meter, Schedulers.boundedElastic());
+        printer.print(String.format("Sending %d messages (%s/s, batch size %d)...%n", this.loadSettings.getCount(),
+            this.loadSettings.getRatePerSecond() > 0 ? this.loadSettings.getRatePerSecond() : "unlimited", this.loadSettings.getBatchSize()), ConsoleViewContentType.SYSTEM_OUTPUT);
+        this.sendLoadBtn.setText("Stop Sending");
+        final Disposable.Swap subscription = Disposables.swap();
+        this.loadSending.set(subscription);
+        subscription.update(sender.send(this.loadSettings, payloads)
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(processed -> {
+            }, e -> this.onSendingMessagesTerminated(subscription, "Failed to send messages: " + e.getMessage()),
+                () -> this.onSendingMessagesTerminated(subscription, "Messages are sent.")));
+    }
+
+    private void onSendingMessagesTerminated(@Nonnull Disposable sending, @Nonnull String message) {
+        if (!this.loadSending.compareAndSet(sending, null)) {
+            return;
+        }
+        final MessageThroughputMeter.Snapshot snapshot = this.meter.snapshot();
+        printer.print(String.format("%s Sent: %d, failed: %d%n", message, snapshot.getSent(), snapshot.getFailed()), ConsoleViewContentType.SYSTEM_OUTPUT);
+        AzureTaskManager.getInstance().runLater(() -> {
+            this.sendLoadBtn.setText("Send Messages...");
+            this.sendLoadBtn.setEnabled(instance.isSendEnabled());
+        });
+    }
+
+    private void updateStats() {
+        final MessageThroughputMeter.Snapshot snapshot = this.meter.snapshot();
+        if (snapshot.getSent() + snapshot.getFailed() + snapshot.getReceived() == 0) {
+            return;
+        }
+        AzureTaskManager.getInstance().runLater(() -> {
+            this.statsLabel.setText(snapshot.toString());
+            this.statsLabel.setVisible(true);
+        });
+    }
+
     private void execute() {
-        final ConsoleMessager messager = new ConsoleMessager(consoleView);
+        final ConsoleMessager messager = new ConsoleMessager(printer, meter, false);
         OperationContext.current().setMessager(messager);
         instance.startReceivingMessage();
     }
@@ -126,31 +213,47 @@ public class SenderReceiverPanel extends JPanel {
     }
 
     private static class ConsoleMessager extends IntellijAzureMessager {
-        private final ConsoleView view;
+        private final BatchedConsolePrinter view;
+        @Nullable
+        private final MessageThroughputMeter meter;
+        private final boolean quiet;
 
-        public ConsoleMessager(ConsoleView view) {
+        /**
+         * @param meter counts received messages if not null.
+         * @param quiet skips info/success/debug messages and doesn't notify warnings/errors.
+         */
+        public ConsoleMessager(@Nonnull BatchedConsolePrinter view, @Nullable MessageThroughputMeter meter, boolean quiet) {
             super();
             this.view = view;
+            this.meter = meter;
+            this.quiet = quiet;
         }
 
         @Override
         public boolean show(IAzureMessage msg) {
             final IAzureMessage raw = msg.getRawMessage();
+            final String message = raw.getMessage().toString();
+            if (Objects.nonNull(meter) && (raw.getType() == IAzureMessage.Type.INFO || raw.getType() == IAzureMessage.Type.SUCCESS)) {
+                meter.recordReceived(message);
+            }
+            if (quiet && (raw.getType() == IAzureMessage.Type.INFO || raw.getType() == IAzureMessage.Type.SUCCESS || raw.getType() == IAzureMessage.Type.DEBUG)) {
+                return true;
+            }
             if (raw.getType() == IAzureMessage.Type.INFO) {
-                view.print(raw.getMessage().toString(), ConsoleViewContentType.SYSTEM_OUTPUT);
+                view.print(message, ConsoleViewContentType.SYSTEM_OUTPUT);
                 return true;
             } else if (raw.getType() == IAzureMessage.Type.SUCCESS) {
-                view.print(raw.getMessage().toString(), ConsoleViewContentType.USER_INPUT);
+                view.print(message, ConsoleViewContentType.USER_INPUT);
                 return true;
             } else if (raw.getType() == IAzureMessage.Type.DEBUG) {
-                view.print(raw.getMessage().toString(), ConsoleViewContentType.LOG_DEBUG_OUTPUT);
+                view.print(message, ConsoleViewContentType.LOG_DEBUG_OUTPUT);
                 return true;
             } else if (raw.getType() == IAzureMessage.Type.WARNING) {
-                view.print(raw.getMessage().toString(), ConsoleViewContentType.LOG_WARNING_OUTPUT);
+                view.print(message, ConsoleViewContentType.LOG_WARNING_OUTPUT);
             } else if (raw.getType() == IAzureMessage.Type.ERROR) {
-                view.print(StringUtils.appendIfMissing(raw.getMessage().toString(), StringUtils.LF), ConsoleViewContentType.ERROR_OUTPUT);
+                view.print(StringUtils.appendIfMissing(message, StringUtils.LF), ConsoleViewContentType.ERROR_OUTPUT);
             }
-            return super.show(msg);
+            return quiet || super.show(msg);
         }
 
     }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR custom event emitted for every profiled {@code @AzureOperation}, so that operations can be correlated with
+ * CPU, allocation and lock events of the same recording.
+ */
+@Name("com.microsoft.azure.toolkit.AzureOperation")
+@Label("Azure Operation")
+@Category({"Azure Toolkit"})
+@Description("Execution of an @AzureOperation")
+@StackTrace(false)
+class AzureOperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Execution Id")
+    String executionId;
+
+    @Label("Parent Execution Id")
+    String parentExecutionId;
+
+    @Label("Type")
+    String type;
+
+    @Label("Outcome")
+    String outcome;
+}
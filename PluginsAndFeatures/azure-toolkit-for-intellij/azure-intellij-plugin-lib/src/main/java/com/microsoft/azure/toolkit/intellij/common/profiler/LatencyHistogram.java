@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.profiler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * lock-free, HDR style (log-linear) latency histogram in microseconds. every power of two is split into
+ * {@link #SUB_BUCKETS} linear sub buckets, which bounds the relative error of reported percentiles to ~6%.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAGNITUDES = 40; // up to ~2^40us, i.e. ~12 days
+    private final AtomicLongArray buckets = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long micros) {
+        final long value = Math.max(0, micros);
+        this.buckets.incrementAndGet(indexOf(value));
+        this.count.increment();
+        this.total.add(value);
+        this.max.accumulate(value);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getMaxMicros() {
+        return this.max.get();
+    }
+
+    public double getMeanMicros() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) this.total.sum() / count;
+    }
+
+    /**
+     * @param percentile in range (0, 100]
+     * @return the upper bound of the bucket containing the given percentile, capped by the recorded max.
+     */
+    public long getPercentileMicros(double percentile) {
+        final long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < this.buckets.length(); i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        final int subBucket = (int) (value >>> (magnitude - 1)) - SUB_BUCKETS;
+        final int index = magnitude * SUB_BUCKETS + subBucket;
+        return Math.min(index, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+
+    static long upperBoundOf(int index) {
+        final int magnitude = index / SUB_BUCKETS;
+        final int subBucket = index % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return subBucket;
+        }
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (magnitude - 1)) - 1;
+    }
+}
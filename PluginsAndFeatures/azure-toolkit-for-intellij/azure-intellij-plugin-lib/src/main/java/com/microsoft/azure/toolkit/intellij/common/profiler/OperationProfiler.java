@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.profiler;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.ProjectActivity;
+import com.intellij.openapi.util.registry.Registry;
+import com.microsoft.azure.toolkit.lib.common.operation.Operation;
+import com.microsoft.azure.toolkit.lib.common.operation.OperationListener;
+import com.microsoft.azure.toolkit.lib.common.operation.OperationManager;
+import kotlin.Unit;
+import kotlin.coroutines.Continuation;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * records wall time, nesting, thread and outcome of every {@code @AzureOperation} into per operation latency
+ * histograms, keeps the slowest root call trees and emits {@link AzureOperationEvent}s to JFR.
+ * the profiler is only registered as an {@link OperationListener} when registry key {@link #ENABLED_KEY} is on,
+ * so it costs nothing when disabled.
+ */
+public class OperationProfiler implements OperationListener {
+    public static final String ENABLED_KEY = "azure.toolkit.profiler.enabled";
+    private static final int MAX_SLOWEST_TREES = 20;
+    private static final int MAX_CHILDREN = 200;
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILURE = "failure";
+
+    private final AtomicBoolean registered = new AtomicBoolean(false);
+    private final Map<String, CallNode> running = new ConcurrentHashMap<>();
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+    private final PriorityQueue<CallNode> slowest = new PriorityQueue<>(Comparator.comparingLong(CallNode::getDurationMicros));
+
+    public static OperationProfiler getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return Registry.is(ENABLED_KEY, false);
+    }
+
+    public void register() {
+        if (this.registered.compareAndSet(false, true)) {
+            OperationManager.getInstance().addListener(this);
+        }
+    }
+
+    @Override
+    public void beforeEnter(Operation operation, Object source) {
+        final String parentExecutionId = Optional.ofNullable(operation.getParent()).map(Operation::getExecutionId).orElse(null);
+        final CallNode node = new CallNode(operation.getId(), operation.getExecutionId(), operation.getType(), Thread.currentThread().getName());
+        final AzureOperationEvent event = new AzureOperationEvent();
+        if (event.isEnabled()) {
+            event.operation = node.operation;
+            event.executionId = node.executionId;
+            event.parentExecutionId = parentExecutionId;
+            event.type = node.type;
+            event.begin();
+            node.event = event;
+        }
+        final CallNode parent = parentExecutionId == null ? null : this.running.get(parentExecutionId);
+        if (parent != null && parent.children.size() < MAX_CHILDREN) {
+            parent.children.add(node);
+            node.root = false;
+        }
+        this.running.put(node.executionId, node);
+    }
+
+    @Override
+    public void afterReturning(Operation operation, Object source) {
+        this.complete(operation, OUTCOME_SUCCESS);
+    }
+
+    @Override
+    public void afterThrowing(Throwable e, Operation operation, Object source) {
+        this.complete(operation, OUTCOME_FAILURE);
+    }
+
+    private void complete(Operation operation, String outcome) {
+        final CallNode node = this.running.remove(operation.getExecutionId());
+        if (node == null) {
+            return;
+        }
+        node.durationMicros = (System.nanoTime() - node.startNanos) / 1000;
+        node.outcome = outcome;
+        final OperationStats stats = this.stats.computeIfAbsent(node.operation, OperationStats::new);
+        stats.histogram.record(node.durationMicros);
+        if (OUTCOME_FAILURE.equals(outcome)) {
+            stats.failures.increment();
+        }
+        if (node.event != null) {
+            node.event.outcome = outcome;
+            node.event.commit();
+            node.event = null;
+        }
+        if (node.root) {
+            synchronized (this.slowest) {
+                this.slowest.offer(node);
+                if (this.slowest.size() > MAX_SLOWEST_TREES) {
+                    this.slowest.poll();
+                }
+            }
+        }
+    }
+
+    /**
+     * stats of all recorded operations, the slowest (by p95) first.
+     */
+    public List<OperationStats> getStats() {
+        return this.stats.values().stream()
+            .sorted(Comparator.comparingLong((OperationStats s) -> s.getPercentileMicros(95)).reversed())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * the slowest root call trees, the slowest first.
+     */
+    public List<CallNode> getSlowestCallTrees() {
+        final List<CallNode> result;
+        synchronized (this.slowest) {
+            result = new ArrayList<>(this.slowest);
+        }
+        result.sort(Comparator.comparingLong(CallNode::getDurationMicros).reversed());
+        return result;
+    }
+
+    public void reset() {
+        this.stats.clear();
+        synchronized (this.slowest) {
+            this.slowest.clear();
+        }
+    }
+
+    public void exportAsJson(@Nonnull File file) throws IOException {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", System.currentTimeMillis());
+        report.put("operations", getStats());
+        report.put("slowestCallTrees", getSlowestCallTrees());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class OperationStats {
+        private final String operation;
+        @JsonIgnore
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        @JsonIgnore
+        private final LongAdder failures = new LongAdder();
+
+        public long getCount() {
+            return this.histogram.getCount();
+        }
+
+        public long getFailureCount() {
+            return this.failures.sum();
+        }
+
+        public double getMeanMicros() {
+            return this.histogram.getMeanMicros();
+        }
+
+        public long getMaxMicros() {
+            return this.histogram.getMaxMicros();
+        }
+
+        public long getPercentileMicros(double percentile) {
+            return this.histogram.getPercentileMicros(percentile);
+        }
+
+        public long getP50Micros() {
+            return getPercentileMicros(50);
+        }
+
+        public long getP95Micros() {
+            return getPercentileMicros(95);
+        }
+
+        public long getP99Micros() {
+            return getPercentileMicros(99);
+        }
+    }
+
+    @Getter
+    public static class CallNode {
+        private final String operation;
+        private final String executionId;
+        private final String type;
+        private final String thread;
+        private final long startedAt = System.currentTimeMillis();
+        private volatile long durationMicros = -1;
+        private volatile String outcome;
+        private final List<CallNode> children = new CopyOnWriteArrayList<>();
+        @JsonIgnore
+        private final transient long startNanos = System.nanoTime();
+        @JsonIgnore
+        private transient boolean root = true;
+        @Nullable
+        @JsonIgnore
+        private transient AzureOperationEvent event;
+
+        CallNode(String operation, String executionId, String type, String thread) {
+            this.operation = operation;
+            this.executionId = executionId;
+            this.type = type;
+            this.thread = thread;
+        }
+    }
+
+    public static class Initializer implements ProjectActivity {
+        @Override
+        public Object execute(@Nonnull Project project, @Nonnull Continuation<? super Unit> continuation) {
+            if (isEnabled()) {
+                OperationProfiler.getInstance().register();
+            }
+            return null;
+        }
+    }
+
+    private static class SingletonHolder {
+        public static final OperationProfiler INSTANCE = new OperationProfiler();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.profiler;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.JBTable;
+import com.intellij.ui.treeStructure.Tree;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nonnull;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.awt.*;
+import java.io.IOException;
+import java.util.List;
+
+public class OperationProfilerToolWindowFactory implements ToolWindowFactory {
+    private static final String[] COLUMNS = {"Operation", "Count", "Failures", "Mean (ms)", "P50 (ms)", "P95 (ms)", "P99 (ms)", "Max (ms)"};
+
+    @Override
+    public boolean shouldBeAvailable(@NotNull Project project) {
+        return OperationProfiler.isEnabled();
+    }
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        final ProfilerPanel panel = new ProfilerPanel(project);
+        final Content content = ContentFactory.getInstance().createContent(panel, null, false);
+        toolWindow.getContentManager().addContent(content);
+        panel.refresh();
+    }
+
+    private static class ProfilerPanel extends JPanel {
+        private final Project project;
+        private final DefaultTableModel tableModel = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        private final DefaultTreeModel treeModel = new DefaultTreeModel(new DefaultMutableTreeNode("Slowest call trees"));
+
+        ProfilerPanel(Project project) {
+            super(new BorderLayout());
+            this.project = project;
+            final JBTable table = new JBTable(this.tableModel);
+            table.setAutoCreateRowSorter(true);
+            final Tree tree = new Tree(this.treeModel);
+            final JBSplitter splitter = new JBSplitter(false, 0.6f);
+            splitter.setFirstComponent(ScrollPaneFactory.createScrollPane(table));
+            splitter.setSecondComponent(ScrollPaneFactory.createScrollPane(tree));
+            this.add(splitter, BorderLayout.CENTER);
+            this.add(createToolbar().getComponent(), BorderLayout.WEST);
+        }
+
+        private ActionToolbar createToolbar() {
+            final DefaultActionGroup group = new DefaultActionGroup();
+            group.add(new DumbAwareAction("Refresh", "Refresh operation latencies", AllIcons.Actions.Refresh) {
+                @Override
+                public void actionPerformed(@Nonnull AnActionEvent e) {
+                    refresh();
+                }
+            });
+            group.add(new DumbAwareAction("Reset", "Clear recorded operation latencies", AllIcons.Actions.GC) {
+                @Override
+                public void actionPerformed(@Nonnull AnActionEvent e) {
+                    OperationProfiler.getInstance().reset();
+                    refresh();
+                }
+            });
+            group.add(new DumbAwareAction("Export as JSON", "Export recorded operation latencies as JSON", AllIcons.ToolbarDecorator.Export) {
+                @Override
+                public void actionPerformed(@Nonnull AnActionEvent e) {
+                    export();
+                }
+            });
+            final ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("AzureOperationProfiler", group, false);
+            toolbar.setTargetComponent(this);
+            return toolbar;
+        }
+
+        void refresh() {
+            final OperationProfiler profiler = OperationProfiler.getInstance();
+            this.tableModel.setRowCount(0);
+            for (final OperationProfiler.OperationStats s : profiler.getStats()) {
+                this.tableModel.addRow(new Object[]{s.getOperation(), s.getCount(), s.getFailureCount(), toMillis(s.getMeanMicros()),
+                    toMillis(s.getP50Micros()), toMillis(s.getP95Micros()), toMillis(s.getP99Micros()), toMillis(s.getMaxMicros())});
+            }
+            final DefaultMutableTreeNode root = (DefaultMutableTreeNode) this.treeModel.getRoot();
+            root.removeAllChildren();
+            profiler.getSlowestCallTrees().forEach(n -> root.add(toTreeNode(n)));
+            this.treeModel.reload();
+        }
+
+        private void export() {
+            final FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Azure Operation Profile", "", "json");
+            final VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, this.project)
+                .save((VirtualFile) null, "azure-operation-profile.json");
+            if (target == null) {
+                return;
+            }
+            try {
+                OperationProfiler.getInstance().exportAsJson(target.getFile());
+            } catch (final IOException e) {
+                AzureMessager.getMessager().error(e, "Failed to export operation profile");
+            }
+        }
+
+        private static DefaultMutableTreeNode toTreeNode(OperationProfiler.CallNode node) {
+            final String label = String.format("%s - %.1f ms [%s, %s]", node.getOperation(), toMillis(node.getDurationMicros()),
+                node.getOutcome(), node.getThread());
+            final DefaultMutableTreeNode result = new DefaultMutableTreeNode(label);
+            final List<OperationProfiler.CallNode> children = node.getChildren();
+            children.forEach(c -> result.add(toTreeNode(c)));
+            return result;
+        }
+
+        private static double toMillis(double micros) {
+            return Math.round(micros / 100.0) / 10.0;
+        }
+    }
+}
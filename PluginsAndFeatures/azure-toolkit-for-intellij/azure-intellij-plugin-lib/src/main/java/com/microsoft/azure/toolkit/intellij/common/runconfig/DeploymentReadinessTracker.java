@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.runconfig;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * waits until a deployment target is ready, shared by all callers waiting for the same deployment to the target.
+ * a new deployment to the target replaces the watcher of the previous one, whose probe checks a stale deployment,
+ * and the callers of the previous deployment get the result of the new one. the target is probed with adaptive backoff (first probes are fast, later ones slow down to 20 seconds),
+ * and lines of its log stream that look like an application startup trigger an immediate probe, so that a fast
+ * deployment is detected in seconds while a slow one still gets the whole timeout.
+ */
+@Slf4j
+public class DeploymentReadinessTracker {
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(5);
+    public static final Pattern DEFAULT_STARTED_PATTERN = Pattern.compile(
+        "(Started \\S+ in [\\d.]+ seconds)|(Server startup in)|(initialized successfully and is ready to serve requests)|(Site started)|(Host started)",
+        Pattern.CASE_INSENSITIVE);
+    private static final Duration INITIAL_INTERVAL = Duration.ofSeconds(2);
+    private static final Duration MAX_INTERVAL = Duration.ofSeconds(20);
+    private static final double BACKOFF_MULTIPLIER = 1.5;
+    private static final Map<String, Watcher> watchers = new ConcurrentHashMap<>();
+
+    /**
+     * waits for a new deployment to the target, which replaces the watcher of the previous deployment if any.
+     *
+     * @see #watch(String, String, BooleanSupplier, Supplier, Duration)
+     */
+    @Nonnull
+    public static CompletableFuture<Boolean> watch(@Nonnull String targetId, @Nonnull BooleanSupplier probe, @Nullable Supplier<Flux<String>> logs, @Nonnull Duration timeout) {
+        return watch(targetId, UUID.randomUUID().toString(), probe, logs, timeout);
+    }
+
+    /**
+     * @param targetId     id of the deployment target.
+     * @param deploymentId id of the deployment to the target, callers waiting for the same deployment share one watcher.
+     * @param probe        returns {@code true} once the target is ready, exceptions are treated as "not ready yet".
+     * @param logs         supplies the log stream of the target, optional.
+     * @return future completed with {@code true} if the target became ready within {@code timeout}, {@code false} otherwise.
+     */
+    @Nonnull
+    public static CompletableFuture<Boolean> watch(@Nonnull String targetId, @Nonnull String deploymentId, @Nonnull BooleanSupplier probe,
+                                                   @Nullable Supplier<Flux<String>> logs, @Nonnull Duration timeout) {
+        return watch(targetId, deploymentId, probe, logs, timeout, INITIAL_INTERVAL, AppExecutorUtil.getAppExecutorService());
+    }
+
+    @Nonnull
+    static CompletableFuture<Boolean> watch(@Nonnull String targetId, @Nonnull String deploymentId, @Nonnull BooleanSupplier probe, @Nullable Supplier<Flux<String>> logs,
+                                            @Nonnull Duration timeout, @Nonnull Duration initialInterval, @Nonnull Executor executor) {
+        final String id = targetId.toLowerCase();
+        final AtomicBoolean created = new AtomicBoolean(false);
+        final AtomicReference<Watcher> replaced = new AtomicReference<>();
+        final Watcher watcher = watchers.compute(id, (k, existing) -> {
+            if (Objects.nonNull(existing) && existing.deploymentId.equals(deploymentId)) {
+                return existing;
+            }
+            replaced.set(existing);
+            created.set(true);
+            return new Watcher(deploymentId);
+        });
+        if (!created.get()) {
+            return watcher.future;
+        }
+        Optional.ofNullable(replaced.get()).ifPresent(previous -> previous.supersede(watcher));
+        executor.execute(() -> {
+            boolean ready = false;
+            try {
+                ready = waitUntilReady(id, watcher, probe, logs, timeout, initialInterval);
+            } finally {
+                // callers coming after this point (e.g. a redeployment) start a new watcher.
+                watchers.remove(id, watcher);
+                if (!watcher.superseded) {
+                    watcher.future.complete(ready);
+                }
+            }
+        });
+        return watcher.future;
+    }
+
+    /**
+     * blocking version of {@link #watch(String, BooleanSupplier, Supplier, Duration)}.
+     */
+    public static boolean waitUntilReady(@Nonnull String targetId, @Nonnull BooleanSupplier probe, @Nullable Supplier<Flux<String>> logs, @Nonnull Duration timeout) {
+        final CompletableFuture<Boolean> future = watch(targetId, probe, logs, timeout);
+        try {
+            // a later deployment may replace the watcher, whose result is waited within our timeout as well.
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (final ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static boolean waitUntilReady(@Nonnull String id, @Nonnull Watcher watcher, @Nonnull BooleanSupplier probe, @Nullable Supplier<Flux<String>> logs,
+                                          @Nonnull Duration timeout, @Nonnull Duration initialInterval) {
+        final long deadline = System.currentTimeMillis() + timeout.toMillis();
+        final BlockingQueue<String> wakeups = watcher.wakeups;
+        final Disposable subscription = tailLogs(id, logs, wakeups);
+        try {
+            long interval = initialInterval.toMillis();
+            while (true) {
+                if (watcher.superseded) {
+                    log.debug("stop probing ({}), deployment ({}) is replaced by a new one", id, watcher.deploymentId);
+                    return false;
+                }
+                if (probe(id, probe)) {
+                    return true;
+                }
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                final String line = wakeups.poll(Math.min(interval, remaining), TimeUnit.MILLISECONDS);
+                if (watcher.superseded) {
+                    continue;
+                }
+                if (Objects.nonNull(line)) {
+                    log.debug("probing ({}) early, startup detected in logs: {}", id, line);
+                    wakeups.clear();
+                } else {
+                    interval = Math.min(MAX_INTERVAL.toMillis(), (long) (interval * BACKOFF_MULTIPLIER));
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (Objects.nonNull(subscription)) {
+                subscription.dispose();
+            }
+        }
+    }
+
+    private static boolean probe(@Nonnull String id, @Nonnull BooleanSupplier probe) {
+        try {
+            return probe.getAsBoolean();
+        } catch (final RuntimeException e) {
+            log.debug("failed to probe readiness of ({})", id, e);
+            return false;
+        }
+    }
+
+    @Nullable
+    private static Disposable tailLogs(@Nonnull String id, @Nullable Supplier<Flux<String>> logs, @Nonnull BlockingQueue<String> wakeups) {
+        if (Objects.isNull(logs)) {
+            return null;
+        }
+        try {
+            final Flux<String> flux = logs.get();
+            if (Objects.isNull(flux)) {
+                return null;
+            }
+            return flux.filter(line -> DEFAULT_STARTED_PATTERN.matcher(line).find())
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(wakeups::offer, e -> log.debug("log stream of ({}) is closed", id, e));
+        } catch (final RuntimeException e) {
+            log.debug("failed to tail logs of ({})", id, e);
+            return null;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Watcher {
+        private final String deploymentId;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private final BlockingQueue<String> wakeups = new LinkedBlockingQueue<>();
+        private volatile boolean superseded;
+
+        /**
+         * stops probing for this deployment, its callers get the result of the new deployment instead.
+         */
+        void supersede(@Nonnull Watcher next) {
+            this.superseded = true;
+            this.wakeups.offer("superseded");
+            next.future.whenComplete((ready, e) -> this.future.complete(Boolean.TRUE.equals(ready)));
+        }
+    }
+}
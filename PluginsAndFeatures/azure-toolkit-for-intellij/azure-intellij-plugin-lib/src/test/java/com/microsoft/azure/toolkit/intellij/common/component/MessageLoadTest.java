@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.component;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MessageLoadTest {
+    private static final int MESSAGES = 50_000;
+
+    @Test(timeout = 10_000)
+    public void receiveWithBatchedAppends() {
+        final AtomicLong printed = new AtomicLong();
+        final AtomicInteger prints = new AtomicInteger();
+        final MessageThroughputMeter meter = new MessageThroughputMeter();
+        final BatchedConsolePrinter printer = new BatchedConsolePrinter((text, type) -> {
+            prints.incrementAndGet();
+            printed.addAndGet(text.chars().filter(c -> c == '\n').count());
+        }, MESSAGES, Duration.ofMillis(50));
+
+        fakeMessageSource().doOnNext(message -> {
+            meter.recordReceived(message);
+            printer.print(message + "\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+        }).blockLast();
+        printer.close();
+
+        final MessageThroughputMeter.Snapshot snapshot = meter.snapshot();
+        Assert.assertEquals(MESSAGES, snapshot.getReceived());
+        Assert.assertEquals(MESSAGES, printed.get());
+        Assert.assertEquals(0, printer.getDropped());
+        // messages are appended in batches instead of one by one.
+        Assert.assertTrue(prints.get() < MESSAGES / 10);
+        Assert.assertTrue(snapshot.getP50() >= 0);
+        Assert.assertTrue(snapshot.getP50() <= snapshot.getP95() && snapshot.getP95() <= snapshot.getP99());
+    }
+
+    @Test(timeout = 10_000)
+    public void dropOldestWhenBufferIsFull() {
+        final StringBuilder console = new StringBuilder();
+        final BatchedConsolePrinter printer = new BatchedConsolePrinter((text, type) -> console.append(text), 1000, Duration.ofHours(1));
+
+        fakeMessageSource().doOnNext(message -> printer.print(message + "\n", ConsoleViewContentType.SYSTEM_OUTPUT)).blockLast();
+        printer.close();
+
+        Assert.assertEquals(MESSAGES - 1000, printer.getDropped());
+        Assert.assertTrue(console.toString().contains(String.format("... %d message(s) are skipped", MESSAGES - 1000)));
+        Assert.assertTrue(console.toString().contains("\"index\": " + (MESSAGES - 1)));
+        Assert.assertFalse(console.toString().contains("\"index\": 0,"));
+    }
+
+    @Test(timeout = 10_000)
+    public void sendAsFastAsPossible() {
+        final AtomicInteger sent = new AtomicInteger();
+        final MessageThroughputMeter meter = new MessageThroughputMeter();
+        final MessageLoadSettings settings = new MessageLoadSettings();
+        settings.setCount(MESSAGES);
+        settings.setRatePerSecond(0);
+        settings.setBatchSize(100);
+
+        final Long processed = new MessageLoadSender(message -> sent.incrementAndGet(), meter, Schedulers.parallel())
+            .send(settings, Collections.singletonList(settings.getTemplate())).blockLast();
+
+        Assert.assertEquals(Long.valueOf(MESSAGES), processed);
+        Assert.assertEquals(MESSAGES, sent.get());
+        Assert.assertEquals(MESSAGES, meter.snapshot().getSent());
+    }
+
+    @Test(timeout = 10_000)
+    public void sendAtTargetRate() {
+        final MessageThroughputMeter meter = new MessageThroughputMeter();
+        final MessageLoadSettings settings = new MessageLoadSettings();
+        settings.setCount(500);
+        settings.setRatePerSecond(5000);
+        settings.setBatchSize(50);
+
+        final long start = System.nanoTime();
+        new MessageLoadSender(message -> {
+        }, meter, Schedulers.parallel()).send(settings, Collections.singletonList("message {{index}}")).blockLast();
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 10 batches, released every 10ms.
+        Assert.assertTrue("sent in " + elapsedMillis + "ms", elapsedMillis >= 80);
+        Assert.assertEquals(500, meter.snapshot().getSent());
+    }
+
+    @Test(timeout = 10_000)
+    public void countFailedSends() {
+        final MessageThroughputMeter meter = new MessageThroughputMeter();
+        final MessageLoadSettings settings = new MessageLoadSettings();
+        settings.setCount(1000);
+        settings.setRatePerSecond(0);
+
+        new MessageLoadSender(message -> {
+            if (message.endsWith("7")) {
+                throw new IllegalStateException("throttled");
+            }
+        }, meter, Schedulers.parallel()).send(settings, Collections.singletonList("message {{index}}")).blockLast();
+
+        final MessageThroughputMeter.Snapshot snapshot = meter.snapshot();
+        Assert.assertEquals(100, snapshot.getFailed());
+        Assert.assertEquals(900, snapshot.getSent());
+    }
+
+    @Test
+    public void latencyOfStampedMessages() {
+        final String message = MessageThroughputMeter.stamp(MessageLoadSettings.DEFAULT_TEMPLATE, 42);
+        Assert.assertTrue(message.startsWith("{\"index\": 42,"));
+        Assert.assertNotNull(MessageThroughputMeter.getLatency("received: " + message));
+        Assert.assertNull(MessageThroughputMeter.getLatency("received: hello"));
+    }
+
+    /**
+     * in-process stand-in of an event hub/service bus receiver, emitting stamped messages as fast as possible.
+     */
+    private static Flux<String> fakeMessageSource() {
+        return Flux.range(0, MESSAGES)
+            .map(i -> MessageThroughputMeter.stamp(MessageLoadSettings.DEFAULT_TEMPLATE, i))
+            .publishOn(Schedulers.parallel());
+    }
+}
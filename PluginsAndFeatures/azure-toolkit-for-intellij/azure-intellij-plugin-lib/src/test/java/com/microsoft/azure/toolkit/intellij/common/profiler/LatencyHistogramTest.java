@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.profiler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class LatencyHistogramTest {
+    private static final int LAST_INDEX = 40 * 16 - 1;
+
+    @Test
+    public void testLinearBucketsBelowSixteen() {
+        for (long value = 0; value < 16; value++) {
+            Assert.assertEquals(value, LatencyHistogram.indexOf(value));
+            Assert.assertEquals(value, LatencyHistogram.upperBoundOf((int) value));
+        }
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        Assert.assertEquals(16, LatencyHistogram.indexOf(16));
+        Assert.assertEquals(31, LatencyHistogram.indexOf(31));
+        Assert.assertEquals(32, LatencyHistogram.indexOf(32));
+        Assert.assertEquals(32, LatencyHistogram.indexOf(33));
+        Assert.assertEquals(33, LatencyHistogram.indexOf(34));
+        Assert.assertEquals(33, LatencyHistogram.upperBoundOf(32));
+        Assert.assertEquals(LAST_INDEX, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testEveryValueFallsInItsBucket() {
+        for (long value = 1; value < 1_000_000; value++) {
+            final int index = LatencyHistogram.indexOf(value);
+            final long upper = LatencyHistogram.upperBoundOf(index);
+            Assert.assertTrue(value + " > " + upper, value <= upper);
+            Assert.assertTrue(value + " <= " + LatencyHistogram.upperBoundOf(index - 1), LatencyHistogram.upperBoundOf(index - 1) < value);
+            // the relative error of a bucket is bounded by 1 / 16
+            Assert.assertTrue(value + " ~ " + upper, upper - value <= value / 16);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.rangeClosed(1, 100).forEach(histogram::record);
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(50.5, histogram.getMeanMicros(), 0.001);
+        Assert.assertEquals(100, histogram.getMaxMicros());
+        Assert.assertEquals(1, histogram.getPercentileMicros(1));
+        Assert.assertEquals(51, histogram.getPercentileMicros(50));
+        Assert.assertEquals(95, histogram.getPercentileMicros(95));
+        Assert.assertEquals(99, histogram.getPercentileMicros(99));
+        Assert.assertEquals(100, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void testPercentileIsCappedByMax() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+
+        // the bucket of 1000 is [992, 1023]
+        Assert.assertEquals(1000, histogram.getPercentileMicros(50));
+        Assert.assertEquals(1000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void testEmptyAndNegative() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getPercentileMicros(99));
+        Assert.assertEquals(0, histogram.getMeanMicros(), 0);
+
+        histogram.record(-5);
+
+        Assert.assertEquals(1, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMaxMicros());
+        Assert.assertEquals(0, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void testConcurrentRecords() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> IntStream.range(0, 10_000).forEach(histogram::record));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Assert.assertEquals(40_000, histogram.getCount());
+        Assert.assertEquals(9_999, histogram.getMaxMicros());
+        Assert.assertEquals(4999.5, histogram.getMeanMicros(), 0.001);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.profiler;
+
+import com.microsoft.azure.toolkit.lib.common.operation.Operation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OperationProfilerTest {
+    private static final int ITERATIONS = 20_000;
+    // generous bound of the time the profiler adds to an operation, so that the test isn't flaky on slow agents.
+    private static final long MAX_OVERHEAD_MICROS = 50;
+
+    @Test
+    public void testRecordNestedOperations() throws InterruptedException {
+        final OperationProfiler profiler = new OperationProfiler();
+        final Operation parent = operation("boundary/app.deploy", null);
+        final Operation child = operation("boundary/app.upload", parent);
+        final Operation failing = operation("boundary/app.restart", parent);
+
+        profiler.beforeEnter(parent, null);
+        profiler.beforeEnter(child, null);
+        TimeUnit.MILLISECONDS.sleep(5);
+        profiler.afterReturning(child, null);
+        profiler.beforeEnter(failing, null);
+        profiler.afterThrowing(new IllegalStateException(), failing, null);
+        profiler.afterReturning(parent, null);
+
+        final List<OperationProfiler.OperationStats> stats = profiler.getStats();
+        Assert.assertEquals(3, stats.size());
+        // the slowest (by p95) first
+        Assert.assertTrue(stats.get(0).getP95Micros() >= TimeUnit.MILLISECONDS.toMicros(5));
+        Assert.assertEquals("boundary/app.restart", stats.get(2).getOperation());
+        Assert.assertEquals(1, stats.stream().filter(s -> s.getOperation().equals("boundary/app.restart")).findAny().orElseThrow().getFailureCount());
+        final List<OperationProfiler.CallNode> trees = profiler.getSlowestCallTrees();
+        Assert.assertEquals(1, trees.size());
+        Assert.assertEquals(2, trees.get(0).getChildren().size());
+        Assert.assertEquals("success", trees.get(0).getOutcome());
+        Assert.assertEquals("failure", trees.get(0).getChildren().get(1).getOutcome());
+
+        profiler.reset();
+
+        Assert.assertTrue(profiler.getStats().isEmpty());
+        Assert.assertTrue(profiler.getSlowestCallTrees().isEmpty());
+    }
+
+    @Test
+    public void testKeepSlowestCallTrees() {
+        final OperationProfiler profiler = new OperationProfiler();
+        for (int i = 0; i < 50; i++) {
+            final Operation root = operation("boundary/app.list", null);
+            profiler.beforeEnter(root, null);
+            profiler.afterReturning(root, null);
+        }
+
+        Assert.assertEquals(50, profiler.getStats().get(0).getCount());
+        final List<OperationProfiler.CallNode> trees = profiler.getSlowestCallTrees();
+        Assert.assertEquals(20, trees.size());
+        for (int i = 1; i < trees.size(); i++) {
+            Assert.assertTrue(trees.get(i - 1).getDurationMicros() >= trees.get(i).getDurationMicros());
+        }
+    }
+
+    @Test
+    public void testOverheadWhenOnAndOff() {
+        final Operation[] operations = new Operation[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            operations[i] = operation("boundary/app.get", null);
+        }
+        final OperationProfiler on = new OperationProfiler();
+        // warm up
+        run(operations, on);
+        run(operations, null);
+        on.reset();
+
+        // the profiler isn't registered as a listener when it's off, so operations run without it.
+        final long offNanos = run(operations, null);
+        final long onNanos = run(operations, on);
+
+        Assert.assertEquals(ITERATIONS, on.getStats().get(0).getCount());
+        final long overheadMicros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, onNanos - offNanos)) / ITERATIONS;
+        Assert.assertTrue(String.format("profiler overhead %d us per operation", overheadMicros), overheadMicros <= MAX_OVERHEAD_MICROS);
+    }
+
+    private static long run(Operation[] operations, @Nullable OperationProfiler profiler) {
+        final long start = System.nanoTime();
+        for (final Operation operation : operations) {
+            if (profiler != null) {
+                profiler.beforeEnter(operation, null);
+            }
+            operation.getId().hashCode();
+            if (profiler != null) {
+                profiler.afterReturning(operation, null);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Operation operation(String id, @Nullable Operation parent) {
+        final Operation operation = mock(Operation.class);
+        final String executionId = UUID.randomUUID().toString();
+        when(operation.getId()).thenReturn(id);
+        when(operation.getExecutionId()).thenReturn(executionId);
+        when(operation.getType()).thenReturn("boundary");
+        when(operation.getParent()).thenReturn(parent);
+        return operation;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.runconfig;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class DeploymentReadinessTrackerTest {
+    private static final Duration FAST = Duration.ofMillis(20);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final String id = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Web/sites/" + UUID.randomUUID();
+    private final String deploymentId = UUID.randomUUID().toString();
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadyAfterProbes() throws Exception {
+        final AtomicInteger probes = new AtomicInteger();
+
+        final boolean ready = this.watch(() -> probes.incrementAndGet() >= 3, Duration.ofSeconds(10), FAST, null).get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(ready);
+        Assert.assertEquals(3, probes.get());
+    }
+
+    @Test
+    public void testNotReadyWithinTimeout() throws Exception {
+        final AtomicInteger probes = new AtomicInteger();
+        final long start = System.currentTimeMillis();
+
+        final boolean ready = this.watch(() -> probes.incrementAndGet() < 0, Duration.ofMillis(500), FAST, null).get(10, TimeUnit.SECONDS);
+
+        Assert.assertFalse(ready);
+        Assert.assertTrue(System.currentTimeMillis() - start >= 500);
+        // the interval grows by 1.5 times after every probe, so there are far fewer probes than at a fixed 20 ms.
+        Assert.assertTrue(String.valueOf(probes.get()), probes.get() < 500 / 20);
+    }
+
+    @Test
+    public void testFailingProbeIsNotReady() throws Exception {
+        final AtomicInteger probes = new AtomicInteger();
+        final BooleanSupplier probe = () -> {
+            if (probes.incrementAndGet() == 1) {
+                throw new IllegalStateException("503 Service Unavailable");
+            }
+            return true;
+        };
+
+        Assert.assertTrue(this.watch(probe, Duration.ofSeconds(10), FAST, null).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, probes.get());
+    }
+
+    @Test
+    public void testShareWatcherOfSameDeployment() throws Exception {
+        final CompletableFuture<Boolean> gate = new CompletableFuture<>();
+        final AtomicInteger probes = new AtomicInteger();
+        final BooleanSupplier probe = () -> {
+            probes.incrementAndGet();
+            return gate.isDone();
+        };
+
+        final CompletableFuture<Boolean> first = this.watch(probe, Duration.ofSeconds(10), FAST, null);
+        final CompletableFuture<Boolean> second = DeploymentReadinessTracker.watch(this.id.toUpperCase(), this.deploymentId, () -> {
+            throw new AssertionError("the second caller shares the watcher of the first one");
+        }, null, Duration.ofSeconds(10), FAST, this.executor);
+        gate.complete(true);
+
+        Assert.assertSame(first, second);
+        Assert.assertTrue(second.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRedeployReplacesWatcher() throws Exception {
+        final AtomicInteger staleProbes = new AtomicInteger();
+        final CompletableFuture<Boolean> first = this.watch(() -> staleProbes.incrementAndGet() < 0, Duration.ofSeconds(10), FAST, null);
+        TimeUnit.MILLISECONDS.sleep(100);
+        final AtomicInteger probes = new AtomicInteger();
+
+        final CompletableFuture<Boolean> second = DeploymentReadinessTracker.watch(this.id, UUID.randomUUID().toString(),
+            () -> probes.incrementAndGet() >= 2, null, Duration.ofSeconds(10), FAST, this.executor);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertTrue(second.get(10, TimeUnit.SECONDS));
+        // the callers of the replaced deployment get the result of the new one.
+        Assert.assertTrue(first.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, probes.get());
+        final int stale = staleProbes.get();
+        TimeUnit.MILLISECONDS.sleep(200);
+        Assert.assertEquals("the replaced watcher stops probing", stale, staleProbes.get());
+    }
+
+    @Test
+    public void testProbeEarlyOnStartupLog() throws Exception {
+        final AtomicInteger probes = new AtomicInteger();
+        final Flux<String> logs = Flux.just("Deploying app.jar", "Started DemoApplication in 3.52 seconds (process running for 4.1)")
+            .delayElements(Duration.ofMillis(200));
+        final long start = System.currentTimeMillis();
+
+        // without the startup line, the second probe would happen after the 30 seconds initial interval.
+        final boolean ready = this.watch(() -> probes.incrementAndGet() >= 2, Duration.ofMinutes(1), Duration.ofSeconds(30), logs).get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(ready);
+        Assert.assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private CompletableFuture<Boolean> watch(BooleanSupplier probe, Duration timeout, Duration initialInterval, Flux<String> logs) {
+        return DeploymentReadinessTracker.watch(this.id, this.deploymentId, probe, logs == null ? null : () -> logs, timeout, initialInterval, this.executor);
+    }
+}
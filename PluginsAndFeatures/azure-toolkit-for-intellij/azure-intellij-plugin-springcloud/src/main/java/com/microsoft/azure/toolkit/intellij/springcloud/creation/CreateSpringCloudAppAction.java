@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.intellij.springcloud.creation;
 import com.intellij.openapi.project.Project;
 import com.microsoft.azure.toolkit.intellij.common.ProjectUtils;
 import com.microsoft.azure.toolkit.intellij.common.utils.JdkUtils;
+import com.microsoft.azure.toolkit.intellij.springcloud.deplolyment.SpringCloudDeploymentConfigurationState;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.common.action.Action;
@@ -26,7 +27,6 @@ import java.util.Objects;
 import java.util.Optional;
 
 public class CreateSpringCloudAppAction {
-    private static final int GET_STATUS_TIMEOUT = 180;
     private static final String GET_DEPLOYMENT_STATUS_TIMEOUT = "Deployment succeeded but the app is still starting, " +
         "you can check the app status from Azure Portal.";
     private static final String NOTIFICATION_TITLE = "Deploy Spring app";
@@ -60,7 +60,7 @@ public class CreateSpringCloudAppAction {
         final boolean hasArtifact = Optional.of(deployment)
             .map(SpringCloudDeploymentDraft::getArtifact)
             .map(IArtifact::getFile).isPresent();
-        if (hasArtifact && !deployment.waitUntilReady(GET_STATUS_TIMEOUT)) {
+        if (hasArtifact && !SpringCloudDeploymentConfigurationState.waitUntilReady(deployment)) {
             AzureMessager.getMessager().warning(GET_DEPLOYMENT_STATUS_TIMEOUT, NOTIFICATION_TITLE);
         }
     }
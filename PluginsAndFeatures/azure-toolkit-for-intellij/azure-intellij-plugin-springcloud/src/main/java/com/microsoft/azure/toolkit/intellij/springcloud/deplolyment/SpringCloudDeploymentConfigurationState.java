@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.toolkit.intellij.springcloud.deplolyment;
 
+import com.azure.resourcemanager.appplatform.models.DeploymentResourceStatus;
 import com.intellij.execution.DefaultExecutionResult;
 import com.intellij.execution.ExecutionResult;
 import com.intellij.execution.Executor;
@@ -19,6 +20,7 @@ import com.intellij.openapi.project.Project;
 import com.microsoft.azure.toolkit.ide.springcloud.SpringCloudActionsContributor;
 import com.microsoft.azure.toolkit.intellij.common.RunProcessHandler;
 import com.microsoft.azure.toolkit.intellij.common.messager.IntellijAzureMessager;
+import com.microsoft.azure.toolkit.intellij.common.runconfig.DeploymentReadinessTracker;
 import com.microsoft.azure.toolkit.intellij.common.runconfig.RunConfigurationUtils;
 import com.microsoft.azure.toolkit.intellij.common.utils.JdkUtils;
 import com.microsoft.azure.toolkit.intellij.connector.dotazure.AzureModule;
@@ -41,24 +43,33 @@ import com.microsoft.azure.toolkit.lib.springcloud.SpringCloudDeployment;
 import com.microsoft.azure.toolkit.lib.springcloud.SpringCloudDeploymentDraft;
 import com.microsoft.azure.toolkit.lib.springcloud.Utils;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static com.microsoft.azure.toolkit.lib.common.messager.AzureMessageBundle.message;
 
 public class SpringCloudDeploymentConfigurationState implements RunProfileState {
     private static final int GET_URL_TIMEOUT = 60;
     private static final int GET_STATUS_TIMEOUT = 180;
+    // instances report the eureka status as a free-form string, which the sdk has no type for. staging deployments
+    // stay OUT_OF_SERVICE, apps not registered to service discovery report N/A.
+    private static final Set<String> READY_DISCOVERY_STATUSES = Set.of("UP", "OUT_OF_SERVICE", "N/A");
     private static final String UPDATE_APP_WARNING = "It may take some moments for the configuration to be applied at server side!";
     private static final String GET_DEPLOYMENT_STATUS_TIMEOUT = "The app is still starting, " +
         "you could start streaming log to check if something wrong in server side.";
@@ -206,7 +217,7 @@ public class SpringCloudDeploymentConfigurationState implements RunProfileState
         AzureTaskManager.getInstance().runInBackground(NOTIFICATION_TITLE, () -> {
             final SpringCloudApp app = springCloudDeployment.getParent();
             final IAzureMessager messager = AzureMessager.getMessager();
-            if (!springCloudDeployment.waitUntilReady(GET_STATUS_TIMEOUT)) {
+            if (!waitUntilReady(springCloudDeployment)) {
                 messager.warning(GET_DEPLOYMENT_STATUS_TIMEOUT, null, getOpenStreamingLogAction(springCloudDeployment));
             } else {
                 messager.success(AzureString.format("App({0}) started successfully", app.getName()), null,
@@ -216,6 +227,26 @@ public class SpringCloudDeploymentConfigurationState implements RunProfileState
         });
     }
 
+    /**
+     * waits (at most {@link #GET_STATUS_TIMEOUT} seconds) until all instances of the deployment are running and
+     * discovered, a wait after a new deployment replaces the watcher of the previous one.
+     */
+    public static boolean waitUntilReady(@Nonnull SpringCloudDeployment deployment) {
+        final Supplier<Flux<String>> logs = () -> Optional.ofNullable(deployment.getLatestInstance())
+            .map(i -> i.streamingLogs(true, 500)).orElse(null);
+        return DeploymentReadinessTracker.waitUntilReady(deployment.getId(), () -> isDeploymentReady(deployment), logs, Duration.ofSeconds(GET_STATUS_TIMEOUT));
+    }
+
+    private static boolean isDeploymentReady(@Nonnull SpringCloudDeployment deployment) {
+        deployment.refresh();
+        final List<SpringCloudAppInstance> instances = deployment.getInstances();
+        if (CollectionUtils.isEmpty(instances)) {
+            return false;
+        }
+        return instances.stream().allMatch(i -> StringUtils.equalsIgnoreCase(i.getStatus(), DeploymentResourceStatus.RUNNING.toString()) &&
+            READY_DISCOVERY_STATUSES.stream().anyMatch(s -> StringUtils.equalsIgnoreCase(i.getDiscoveryStatus(), s)));
+    }
+
     protected Map<String, String> getTelemetryProperties() {
         final Map<String, String> props = new HashMap<>();
         final SpringCloudDeploymentDraft deployment = Objects.requireNonNull(config.getDeployment());
@@ -6,4 +6,6 @@ dependencies {
     implementation("com.microsoft.azure:azure-toolkit-storage-lib")
     implementation("com.microsoft.azure:azure-toolkit-ide-common-lib")
     implementation("com.microsoft.azure:azure-toolkit-ide-storage-lib")
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.mockito:mockito-core:3.9.0")
 }
@@ -39,9 +39,10 @@ import java.awt.datatransfer.StringSelection;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class StorageFileActions {
 
@@ -164,22 +165,9 @@ public class StorageFileActions {
             final FileChooserDescriptor descriptor = new FileChooserDescriptor(true, false, true, true, false, true);
             descriptor.setTitle("Choose Files to Upload");
             final VirtualFile[] files = FileChooser.chooseFiles(descriptor, project, null);
-            final AtomicInteger count = new AtomicInteger(0);
-            for (final VirtualFile virtualFile : files) {
-                final AzureString title = OperationBundle.description("internal/storage.upload_files.source|dir", virtualFile.getName(), file.getName());
-                final AzureTask<Void> task = new AzureTask<>(project, title, false, () -> {
-                    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
-                    indicator.setIndeterminate(true);
-                    final AbstractAzResourceModule<? extends StorageFile, ? extends StorageFile, ?> module = file.getSubFileModule();
-                    final StorageFile.Draft<?, ?> draft = (StorageFile.Draft<?, ?>) module.create(virtualFile.getName(), "");
-                    draft.setSourceFile(Paths.get(virtualFile.getPath()));
-                    draft.createIfNotExist();
-                    count.incrementAndGet();
-                    if (count.get() == files.length) {
-                        AzureMessager.getMessager().success(AzureString.format("Successfully uploaded %s file(s) to directory \"%s\".", files.length, file.getName()));
-                    }
-                });
-                AzureTaskManager.getInstance().runInBackground(task);
+            if (files.length > 0) {
+                final AzureString title = OperationBundle.description("internal/storage.upload_files.source|dir", files.length == 1 ? files[0].getName() : files.length + " files", file.getName());
+                upload(files, file, project, title);
             }
         });
     }
@@ -207,7 +195,46 @@ public class StorageFileActions {
     }
 
     public static void uploadFolder(StorageFile file, Project project) {
+        AzureTaskManager.getInstance().runLater(() -> {
+            final FileChooserDescriptor descriptor = FileChooserDescriptorFactory.createSingleFolderDescriptor();
+            descriptor.setTitle("Choose Folder to Upload");
+            final VirtualFile[] folders = FileChooser.chooseFiles(descriptor, project, null);
+            if (folders.length > 0) {
+                final AzureString title = OperationBundle.description("internal/storage.upload_folder.source|dir", folders[0].getName(), file.getName());
+                upload(folders, file, project, title);
+            }
+        });
+    }
+
+    private static void upload(VirtualFile[] sources, StorageFile target, Project project, AzureString title) {
+        final AzureTask<Void> task = new AzureTask<>(project, title, true, () -> {
+            final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+            final StorageFileTransfer transfer = new StorageFileTransfer(indicator);
+            transfer.upload(Arrays.stream(sources).map(VirtualFile::toNioPath).collect(Collectors.toList()), target);
+            AzureMessager.getMessager().success(AzureString.format("Successfully uploaded %s file(s) to directory \"%s\" (%s unchanged file(s) skipped).",
+                transfer.getTransferred().get(), target.getName(), transfer.getSkipped().get()));
+        });
+        AzureTaskManager.getInstance().runInBackground(task);
+    }
 
+    public static void downloadFolder(StorageFile file, Project project) {
+        final AzureTaskManager manager = AzureTaskManager.getInstance();
+        manager.runLater(() -> {
+            final FileChooserDescriptor fileChooserDescriptor = FileChooserDescriptorFactory.createSingleFolderDescriptor();
+            fileChooserDescriptor.setTitle("Choose Where to Save the Directory");
+            final VirtualFile vf = FileChooser.chooseFile(fileChooserDescriptor, project, null);
+            if (vf != null) {
+                final AzureString title = OperationBundle.description("internal/storage.download_folder.dir|dest", file.getName(), vf.getPath());
+                final AzureTask<Void> task = new AzureTask<>(project, title, true, () -> {
+                    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+                    final StorageFileTransfer transfer = new StorageFileTransfer(indicator);
+                    transfer.download(file, vf.toNioPath());
+                    final File dest = vf.toNioPath().resolve(file.getName()).toFile();
+                    VirtualFileActions.notifyDownloadSuccess(file.getName(), dest, project);
+                });
+                manager.runInBackground(task);
+            }
+        });
     }
 
     public static void downloadFile(StorageFile file, Project project) {
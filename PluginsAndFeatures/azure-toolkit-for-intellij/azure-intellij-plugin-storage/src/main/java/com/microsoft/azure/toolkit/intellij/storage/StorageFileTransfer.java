@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.storage;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
+import com.microsoft.azure.toolkit.lib.storage.blob.BlobFileDraft;
+import com.microsoft.azure.toolkit.lib.storage.blob.IBlobFile;
+import com.microsoft.azure.toolkit.lib.storage.model.StorageFile;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * transfers files and folders between local disk and a blob container/file share directory with a bounded worker
+ * pool, skipping files whose size is unchanged and which weren't modified after their counterpart, and reporting
+ * aggregated progress to the given indicator. changed files overwrite their counterpart.
+ * large files are split into blocks and uploaded in parallel by the storage SDK behind {@link StorageFile.Draft}.
+ */
+@Slf4j
+public class StorageFileTransfer {
+    private static final int MAX_WORKERS = Math.min(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Nullable
+    private final ProgressIndicator indicator;
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong transferredBytes = new AtomicLong();
+    @Getter
+    private final AtomicInteger transferred = new AtomicInteger();
+    @Getter
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final Map<String, StorageFile> directories = new ConcurrentHashMap<>();
+
+    public StorageFileTransfer(@Nullable ProgressIndicator indicator) {
+        this.indicator = indicator;
+    }
+
+    /**
+     * uploads {@code sources} (files or folders, folders are uploaded recursively) into directory {@code target}.
+     */
+    public void upload(@Nonnull List<Path> sources, @Nonnull StorageFile target) {
+        final List<Path[]> files = new ArrayList<>(); // [local file, path relative to target]
+        for (final Path source : sources) {
+            if (Files.isDirectory(source)) {
+                final Path base = source.getParent() == null ? source : source.getParent();
+                try (final Stream<Path> walk = Files.walk(source)) {
+                    walk.filter(Files::isRegularFile).forEach(f -> files.add(new Path[]{f, base.relativize(f)}));
+                } catch (final IOException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to list files in folder (%s)", source), e);
+                }
+            } else {
+                files.add(new Path[]{source, source.getFileName()});
+            }
+        }
+        files.forEach(f -> this.totalBytes.addAndGet(f[0].toFile().length()));
+        this.run(files.stream().map(f -> (Runnable) () -> this.uploadFile(f[0], f[1], target)).collect(Collectors.toList()));
+    }
+
+    /**
+     * downloads {@code source} (a file, or a directory recursively) into local directory {@code target}.
+     */
+    public void download(@Nonnull StorageFile source, @Nonnull Path target) {
+        final List<Object[]> files = new ArrayList<>(); // [remote file, local path]
+        this.listRemote(source, target.resolve(source.getName()), files);
+        files.forEach(f -> this.totalBytes.addAndGet(Math.max(0, ((StorageFile) f[0]).getSize())));
+        this.run(files.stream().map(f -> (Runnable) () -> this.downloadFile((StorageFile) f[0], (Path) f[1])).collect(Collectors.toList()));
+    }
+
+    private void listRemote(@Nonnull StorageFile file, @Nonnull Path local, @Nonnull List<Object[]> result) {
+        this.checkCanceled();
+        if (!file.isDirectory()) {
+            result.add(new Object[]{file, local});
+            return;
+        }
+        for (final StorageFile child : file.getSubFileModule().list()) {
+            this.listRemote(child, local.resolve(child.getName()), result);
+        }
+    }
+
+    private void run(@Nonnull List<Runnable> tasks) {
+        this.updateProgress();
+        final ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_WORKERS, tasks.size())));
+        try {
+            final List<Future<?>> futures = tasks.stream().map(workers::submit).collect(Collectors.toList());
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new AzureToolkitRuntimeException(e.getCause());
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void uploadFile(@Nonnull Path local, @Nonnull Path relative, @Nonnull StorageFile target) {
+        this.checkCanceled();
+        final long size = local.toFile().length();
+        final StorageFile existing = this.findRemote(target, relative);
+        if (isUnchanged(local, existing, false)) {
+            this.skipped.incrementAndGet();
+        } else if (target instanceof IBlobFile) {
+            // blob directories are virtual, the draft of the first path segment creates the whole relative path.
+            final AbstractAzResourceModule<? extends StorageFile, ? extends StorageFile, ?> module = target.getSubFileModule();
+            final BlobFileDraft draft = (BlobFileDraft) module.create(relative.getName(0).toString(), "");
+            draft.setRelativePath(relative.toString());
+            draft.setDirectory(relative.getNameCount() > 1);
+            draft.setSourceFile(local);
+            draft.updateIfExist();
+            this.transferred.incrementAndGet();
+        } else {
+            final StorageFile parent = relative.getNameCount() > 1 ? this.getOrCreateDirectory(target, relative.getParent()) : target;
+            final StorageFile.Draft<?, ?> draft = (StorageFile.Draft<?, ?>) parent.getSubFileModule().create(relative.getFileName().toString(), "");
+            draft.setSourceFile(local);
+            draft.updateIfExist();
+            this.transferred.incrementAndGet();
+        }
+        this.transferredBytes.addAndGet(size);
+        this.updateProgress();
+    }
+
+    private void downloadFile(@Nonnull StorageFile remote, @Nonnull Path local) {
+        this.checkCanceled();
+        final long size = Math.max(0, remote.getSize());
+        if (isUnchanged(local, remote, true)) {
+            this.skipped.incrementAndGet();
+        } else {
+            try {
+                FileUtils.forceMkdirParent(local.toFile());
+            } catch (final IOException e) {
+                throw new AzureToolkitRuntimeException(String.format("failed to create folder for file (%s)", local), e);
+            }
+            remote.download(local);
+            this.transferred.incrementAndGet();
+        }
+        this.transferredBytes.addAndGet(size);
+        this.updateProgress();
+    }
+
+    /**
+     * a file is unchanged if both sides have the same size and the destination was modified after the source, since the
+     * content of a file uploaded/downloaded earlier is written after the source was last modified.
+     */
+    static boolean isUnchanged(@Nonnull Path local, @Nullable StorageFile remote, boolean downloading) {
+        if (Objects.isNull(remote) || remote.isDirectory() || Objects.isNull(remote.getLastModified()) || !Files.isRegularFile(local)) {
+            return false;
+        }
+        try {
+            final Instant localModified = Files.getLastModifiedTime(local).toInstant();
+            final Instant remoteModified = remote.getLastModified().toInstant();
+            final boolean destinationIsNewer = downloading ? !localModified.isBefore(remoteModified) : !remoteModified.isBefore(localModified);
+            return Files.size(local) == remote.getSize() && destinationIsNewer;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private StorageFile findRemote(@Nonnull StorageFile target, @Nonnull Path relative) {
+        try {
+            return target.getFile(relative.toString().replace('\\', '/'));
+        } catch (final RuntimeException e) {
+            log.debug("failed to get remote file ({}) in ({})", relative, target.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * creates (share) directories level by level, caching them so concurrent workers don't create the same one twice.
+     */
+    private StorageFile getOrCreateDirectory(@Nonnull StorageFile root, @Nonnull Path relative) {
+        StorageFile current = root;
+        Path path = null;
+        for (final Path segment : relative) {
+            path = path == null ? segment : path.resolve(segment);
+            final StorageFile parent = current;
+            current = this.directories.computeIfAbsent(path.toString(), k -> {
+                final StorageFile existing = parent.getFile(segment.toString());
+                if (Objects.nonNull(existing)) {
+                    return existing;
+                }
+                final StorageFile.Draft<?, ?> draft = (StorageFile.Draft<?, ?>) parent.getSubFileModule().create(segment.toString(), "");
+                draft.setDirectory(true);
+                draft.createIfNotExist();
+                return (StorageFile) draft;
+            });
+        }
+        return current;
+    }
+
+    private void checkCanceled() {
+        if (Objects.nonNull(this.indicator)) {
+            this.indicator.checkCanceled();
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ProcessCanceledException();
+        }
+    }
+
+    private void updateProgress() {
+        if (Objects.isNull(this.indicator)) {
+            return;
+        }
+        final long total = this.totalBytes.get();
+        final long done = this.transferredBytes.get();
+        this.indicator.setIndeterminate(false);
+        this.indicator.setFraction(total == 0 ? 1 : (double) done / total);
+        this.indicator.setText2(String.format("%s / %s (%d transferred, %d unchanged)",
+            FileUtils.byteCountToDisplaySize(done), FileUtils.byteCountToDisplaySize(total), this.transferred.get(), this.skipped.get()));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.storage;
+
+import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResourceModule;
+import com.microsoft.azure.toolkit.lib.storage.model.StorageFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class StorageFileTransferTest {
+    private static final Instant UPLOADED_AT = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path local;
+    private StorageFile target;
+    private StorageFile remote;
+    private StorageFile.Draft<?, ?> draft;
+
+    @Before
+    public void setUp() throws IOException {
+        this.local = this.folder.newFile("a.txt").toPath();
+        Files.write(this.local, "content".getBytes(StandardCharsets.UTF_8));
+
+        this.remote = mock(StorageFile.class);
+        when(this.remote.getSize()).thenReturn(7L);
+        when(this.remote.getLastModified()).thenReturn(OffsetDateTime.ofInstant(UPLOADED_AT, ZoneOffset.UTC));
+
+        final StorageFile draftFile = mock(StorageFile.class, withSettings().extraInterfaces(StorageFile.Draft.class));
+        this.draft = (StorageFile.Draft<?, ?>) draftFile;
+        final AbstractAzResourceModule<?, ?, ?> module = mock(AbstractAzResourceModule.class);
+        doReturn(draftFile).when(module).create("a.txt", "");
+        this.target = mock(StorageFile.class);
+        doReturn(module).when(this.target).getSubFileModule();
+    }
+
+    @Test
+    public void testUploadMissingFile() {
+        final StorageFileTransfer transfer = this.upload();
+
+        verify(this.draft).setSourceFile(this.local);
+        verify(this.draft).updateIfExist();
+        assertEquals(1, transfer.getTransferred().get());
+    }
+
+    @Test
+    public void testSkipUnchangedFile() throws IOException {
+        Files.setLastModifiedTime(this.local, FileTime.from(UPLOADED_AT.minusSeconds(60)));
+        when(this.target.getFile("a.txt")).thenReturn(this.remote);
+
+        final StorageFileTransfer transfer = this.upload();
+
+        verify(this.draft, never()).updateIfExist();
+        assertEquals(1, transfer.getSkipped().get());
+    }
+
+    @Test
+    public void testOverwriteFileChangedWithSameSize() throws IOException {
+        Files.write(this.local, "changed".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(this.local, FileTime.from(UPLOADED_AT.plusSeconds(60)));
+        when(this.target.getFile("a.txt")).thenReturn(this.remote);
+
+        final StorageFileTransfer transfer = this.upload();
+
+        verify(this.draft).updateIfExist();
+        assertEquals(1, transfer.getTransferred().get());
+        assertEquals(0, transfer.getSkipped().get());
+    }
+
+    @Test
+    public void testIsUnchanged() throws IOException {
+        Files.setLastModifiedTime(this.local, FileTime.from(UPLOADED_AT.minusSeconds(60)));
+        assertTrue(StorageFileTransfer.isUnchanged(this.local, this.remote, false));
+        // the local copy is older than the remote one, so it must be downloaded again
+        assertFalse(StorageFileTransfer.isUnchanged(this.local, this.remote, true));
+
+        when(this.remote.getSize()).thenReturn(8L);
+        assertFalse(StorageFileTransfer.isUnchanged(this.local, this.remote, false));
+        assertFalse(StorageFileTransfer.isUnchanged(this.local, null, false));
+    }
+
+    private StorageFileTransfer upload() {
+        final StorageFileTransfer transfer = new StorageFileTransfer(null);
+        transfer.upload(Collections.singletonList(this.local), this.target);
+        return transfer;
+    }
+}
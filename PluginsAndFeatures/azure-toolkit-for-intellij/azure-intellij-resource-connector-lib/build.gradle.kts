@@ -6,6 +6,8 @@ dependencies {
     implementation("com.microsoft.azure:azure-toolkit-ide-common-lib")
     implementation("io.github.cdimascio:dotenv-java:3.0.0")
     implementation("com.microsoft.azure:azure-toolkit-identity-lib")
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.mockito:mockito-core:3.9.0")
     intellijPlatform {
         // Plugin Dependencies. Uses `platformBundledPlugins` property from the gradle.properties file for bundled IntelliJ Platform plugins.
         bundledPlugin("com.intellij.properties")
@@ -20,6 +20,7 @@ import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeExcep
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -63,6 +64,9 @@ public class AzureModule {
     private VirtualFile profilesXmlFile;
     @Nullable
     private Profile defaultProfile;
+    // parsed `profiles.xml`, read once and then kept in sync by writes of this class and DotAzureFileListener.
+    @Nullable
+    private volatile ProfilesXml profilesXml;
 
     public AzureModule(@Nonnull final Module module) {
         this(module, null);
@@ -75,22 +79,50 @@ public class AzureModule {
             .or(() -> this.getModuleDir().map(d -> d.findChild(DOT_AZURE))).ifPresent(d -> {
                 this.dotAzure = d;
                 this.profilesXmlFile = this.dotAzure.findChild(PROFILES_XML);
-                AzureTaskManager.getInstance().runOnPooledThread(() -> Optional.ofNullable(this.profilesXmlFile).ifPresent(this::loadProfiles));
+                AzureTaskManager.getInstance().runOnPooledThread(() -> Optional.ofNullable(this.profilesXmlFile).ifPresent(f -> this.loadProfiles()));
             });
     }
 
+    private void loadProfiles() {
+        final ProfilesXml xml = this.readProfilesXml();
+        xml.names.forEach(name -> Optional.ofNullable(this.dotAzure).map(d -> d.findChild(name))
+            .map(profileDir -> new Profile(name, profileDir, this))
+            .ifPresent(profile -> this.profiles.put(profile.getName(), profile)));
+        this.defaultProfile = Optional.ofNullable(xml.defaultProfile).map(this.profiles::get).orElse(null);
+    }
+
+    @Nonnull
     @SneakyThrows(value = {IOException.class, JDOMException.class})
-    private void loadProfiles(@Nonnull final VirtualFile profilesXmlFile) {
-        if (!profilesXmlFile.exists() || profilesXmlFile.contentsToByteArray().length < 1) {
+    private ProfilesXml readProfilesXml() {
+        ProfilesXml xml = ProfilesXml.EMPTY;
+        final VirtualFile file = this.profilesXmlFile;
+        if (Objects.nonNull(file) && file.exists() && file.contentsToByteArray().length > 0) {
+            final Element profilesEle = JDOMUtil.load(file.toNioPath());
+            final List<String> names = profilesEle.getChildren().stream().map(e -> e.getAttributeValue("name")).filter(Objects::nonNull).toList();
+            xml = new ProfilesXml(names, profilesEle.getAttributeValue(ATTR_DEFAULT_PROFILE), profilesEle.getAttributeValue(ATTR_DEFAULT_PROFILE, DEFAULT_PROFILE_NAME));
+        }
+        this.profilesXml = xml;
+        return xml;
+    }
+
+    /**
+     * re-reads `profiles.xml` after it's changed (e.g. by VCS), keeping loaded profiles that are still listed.
+     */
+    void reloadProfiles() {
+        if (Objects.isNull(this.dotAzure) || !this.dotAzure.isValid()) {
             return;
         }
-        final Element profilesEle = JDOMUtil.load(Objects.requireNonNull(profilesXmlFile).toNioPath());
-        final VirtualFile dotAzure = Objects.requireNonNull(this.dotAzure);
-        profilesEle.getChildren().stream().map(e -> e.getAttributeValue("name"))
-            .forEach(name -> Optional.ofNullable(this.dotAzure).map(d -> d.findChild(name))
-                .map(profileDir -> new Profile(name, profileDir, this))
-                .ifPresent(profile -> this.profiles.put(profile.getName(), profile)));
-        this.defaultProfile = Optional.ofNullable(profilesEle.getAttributeValue(ATTR_DEFAULT_PROFILE)).map(this.profiles::get).orElse(null);
+        this.profilesXmlFile = this.dotAzure.findChild(PROFILES_XML);
+        final ProfilesXml xml = this.readProfilesXml();
+        this.profiles.keySet().removeIf(name -> !xml.names.contains(name));
+        this.defaultProfile = Optional.ofNullable(xml.defaultProfile).map(this::getProfile).orElse(null);
+    }
+
+    /**
+     * drops the parsed `.env` of profile {@code profileName}, called when the file is changed.
+     */
+    void invalidateDotEnv(@Nonnull String profileName) {
+        Optional.ofNullable(this.profiles.get(profileName)).ifPresent(Profile::invalidateDotEnv);
     }
 
     @Nonnull
@@ -104,7 +136,7 @@ public class AzureModule {
                 final VirtualFile dotGitIgnore = dotAzure.findOrCreateChildData(this, DOT_GITIGNORE);
                 dotGitIgnore.setBinaryContent((DOT_ENV + "\n" + RESOURCES_FILE + "\n" + TARGETS_FILE).getBytes());
                 this.profilesXmlFile = dotAzure.findOrCreateChildData(this, PROFILES_XML);
-                Optional.of(this.profilesXmlFile).ifPresent(this::loadProfiles);
+                this.loadProfiles();
                 this.dotAzure.refresh(true, false);
             } catch (final IOException e) {
                 throw new AzureToolkitRuntimeException(e);
@@ -171,19 +203,15 @@ public class AzureModule {
             JDOMUtil.load(profilesXmlFile.toNioPath());
         profilesEle.addContent(new Element("profile").setAttribute("name", profile.getName()));
         JDOMUtil.write(profilesEle, this.profilesXmlFile.toNioPath());
+        this.profilesXml = null;
     }
 
     @Nullable
-    @SneakyThrows(value = {JDOMException.class, IOException.class})
     private String getDefaultProfileName() {
         if (Objects.nonNull(this.defaultProfile)) {
             return this.defaultProfile.getName();
         }
-        if (Objects.isNull(this.profilesXmlFile) || !this.profilesXmlFile.exists() || this.profilesXmlFile.contentsToByteArray().length < 1) {
-            return null;
-        }
-        final Element profilesEle = JDOMUtil.load(this.profilesXmlFile.toNioPath());
-        return profilesEle.getAttributeValue(ATTR_DEFAULT_PROFILE, DEFAULT_PROFILE_NAME);
+        return Optional.ofNullable(this.profilesXml).orElseGet(this::readProfilesXml).defaultProfileOrDefault;
     }
 
     @SneakyThrows(value = {JDOMException.class, IOException.class})
@@ -193,6 +221,7 @@ public class AzureModule {
         profilesEle.setAttribute(ATTR_DEFAULT_PROFILE, profile.getName());
         profilesEle.setAttribute("version", "1");
         JDOMUtil.write(profilesEle, this.profilesXmlFile.toNioPath());
+        this.profilesXml = null;
         this.defaultProfile = profile;
     }
 
@@ -373,4 +402,21 @@ public class AzureModule {
     public Project getProject() {
         return this.module.getProject();
     }
+
+    /**
+     * azure modules that have been created for modules of the given {@code project}, without creating new ones.
+     */
+    static List<AzureModule> getLoadedModules(@Nonnull Project project) {
+        return modules.values().stream().filter(m -> m.getProject() == project).toList();
+    }
+
+    @RequiredArgsConstructor
+    private static class ProfilesXml {
+        static final ProfilesXml EMPTY = new ProfilesXml(Collections.emptyList(), null, null);
+        private final List<String> names;
+        @Nullable
+        private final String defaultProfile;
+        @Nullable
+        private final String defaultProfileOrDefault;
+    }
 }
@@ -50,6 +50,8 @@ public class ConnectionManager {
     public static final String FIELD_ID = "id";
     private static Map<String, ConnectionDefinition<?, ?>> definitions = null;
     private final Set<Connection<?, ?>> connections = new LinkedHashSet<>();
+    // immutable copy of connections, swapped on every change so that code insight can read it without locking/copying.
+    private volatile List<Connection<?, ?>> snapshot = List.of();
     @Getter
     private final Profile profile;
     private VirtualFile connectionsFile;
@@ -120,23 +122,25 @@ public class ConnectionManager {
     public synchronized void addConnection(Connection<?, ?> connection) {
         connection.setProfile(this.profile);
         connections.add(connection);
+        this.snapshot = List.copyOf(connections);
     }
 
     @AzureOperation(name = "internal/connector.remove_connection")
     public synchronized void removeConnection(Connection<?, ?> connection) {
         connections.removeIf(c -> StringUtils.equals(connection.getId(), c.getId()));
+        this.snapshot = List.copyOf(connections);
     }
 
     public List<Connection<?, ?>> getConnections() {
-        return new ArrayList<>(connections);
+        return this.snapshot;
     }
 
     public List<Connection<?, ?>> getConnectionsByResourceId(String id) {
-        return connections.stream().filter(e -> StringUtils.equals(id, e.getResource().getId())).collect(Collectors.toList());
+        return this.snapshot.stream().filter(e -> StringUtils.equals(id, e.getResource().getId())).collect(Collectors.toList());
     }
 
     public List<Connection<?, ?>> getConnectionsByConsumerId(String id) {
-        return connections.stream().filter(e -> StringUtils.equals(id, e.getConsumer().getId())).collect(Collectors.toList());
+        return this.snapshot.stream().filter(e -> StringUtils.equals(id, e.getConsumer().getId())).collect(Collectors.toList());
     }
 
     @Nullable
@@ -171,16 +175,23 @@ public class ConnectionManager {
         final Element connectionsEle = JDOMUtil.load(connectionsFile.toNioPath());
         final Profile profile = this.getProfile();
         final ResourceManager resourceManager = profile.getResourceManager();
-        this.connections.clear();
+        // connections are read aside and published at once, readers never see a partially loaded list.
+        final Set<Connection<?, ?>> loaded = new LinkedHashSet<>();
         for (final Element connectionEle : connectionsEle.getChildren()) {
             final String name = connectionEle.getAttributeValue(FIELD_TYPE);
             final ConnectionDefinition<?, ?> definition = ConnectionManager.getDefinitionOrDefault(name);
             try {
-                Optional.ofNullable(definition).map(d -> d.read(resourceManager, connectionEle)).ifPresent(this::addConnection);
+                Optional.ofNullable(definition).map(d -> d.read(resourceManager, connectionEle)).ifPresent(connection -> {
+                    connection.setProfile(profile);
+                    loaded.add(connection);
+                });
             } catch (final Exception e) {
                 log.warn(String.format("error occurs when load a resource connection of type '%s'", name), e);
             }
         }
+        this.connections.clear();
+        this.connections.addAll(loaded);
+        this.snapshot = List.copyOf(loaded);
     }
 
     @SuppressWarnings("rawtypes")
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.connector.dotazure;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.PathUtil;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+
+import static com.microsoft.azure.toolkit.intellij.connector.dotazure.AzureModule.DOT_ENV;
+import static com.microsoft.azure.toolkit.intellij.connector.dotazure.AzureModule.PROFILES_XML;
+
+/**
+ * keeps the parsed `profiles.xml` and `.env` files of loaded {@link AzureModule}s in sync with changes made outside
+ * of the toolkit, e.g. by VCS or manual editing.
+ */
+@RequiredArgsConstructor
+public class DotAzureFileListener implements BulkFileListener {
+    private final Project project;
+
+    @Override
+    public void after(@Nonnull List<? extends VFileEvent> events) {
+        for (final VFileEvent event : events) {
+            final String path = event.getPath();
+            final String name = PathUtil.getFileName(path);
+            if (!PROFILES_XML.equals(name) && !DOT_ENV.equals(name)) {
+                continue;
+            }
+            final String parent = PathUtil.getParentPath(path);
+            for (final AzureModule module : AzureModule.getLoadedModules(this.project)) {
+                final String dotAzure = module.getDotAzureDir().map(VirtualFile::getPath).orElse(null);
+                if (Objects.isNull(dotAzure)) {
+                    continue;
+                }
+                if (PROFILES_XML.equals(name) && StringUtils.equals(parent, dotAzure)) {
+                    AzureTaskManager.getInstance().runOnPooledThread(module::reloadProfiles);
+                } else if (DOT_ENV.equals(name) && StringUtils.equals(PathUtil.getParentPath(parent), dotAzure)) {
+                    module.invalidateDotEnv(PathUtil.getFileName(parent));
+                }
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.lib.identities.Identity;
 import io.github.cdimascio.dotenv.internal.DotenvParser;
 import io.github.cdimascio.dotenv.internal.DotenvReader;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import org.apache.commons.io.FileUtils;
@@ -46,6 +47,7 @@ import static com.microsoft.azure.toolkit.intellij.connector.dotazure.AzureModul
 
 @Getter
 public class Profile {
+    private static final String CONNECTION_ID_MARK = "# connection.id=";
     public static final String IDENTITY_PERMISSION_MESSAGE = "The managed identity <a href=\"%s\">%s</a> (%s) doesn't have enough permission to access resource <a href=\"%s\">%s</a>.";
     @Nonnull
     private final String name;
@@ -61,6 +63,9 @@ public class Profile {
     private final DeploymentTargetManager deploymentTargetManager;
     @Nullable
     private VirtualFile dotEnvFile;
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private volatile Map<String, List<Pair<String, String>>> generatedEnvVariables;
 
     public Profile(@Nonnull String name, @Nonnull VirtualFile profileDir, @Nonnull AzureModule module) {
         this.name = name;
@@ -187,6 +192,7 @@ public class Profile {
             }
         }
         FileUtils.write(this.dotEnvFile.toNioPath().toFile(), lines.stream().collect(Collectors.joining(System.lineSeparator())) + System.lineSeparator(), StandardCharsets.UTF_8);
+        this.generatedEnvVariables = null;
     }
 
     @SneakyThrows(IOException.class)
@@ -202,6 +208,7 @@ public class Profile {
             try {
                 final String envVariables = generateEnvLines(module.getProject(), connection).stream().collect(Collectors.joining(System.lineSeparator()));
                 Files.writeString(this.dotEnvFile.toNioPath(), envVariables + System.lineSeparator() + System.lineSeparator(), StandardOpenOption.APPEND);
+                this.generatedEnvVariables = null;
                 this.profileDir.refresh(true, true);
                 final String message = String.format("The connection between %s and %s has been successfully created/updated.", connection.getResource().getName(), connection.getConsumer().getName());
                 AzureMessager.getMessager().success(message);
@@ -218,26 +225,49 @@ public class Profile {
     }
 
     @Nonnull
-    @SneakyThrows(IOException.class)
     public List<Pair<String, String>> getGeneratedEnvironmentVariables(@Nonnull Connection<?, ?> connection) {
         if (Objects.isNull(this.dotEnvFile) || !this.dotEnvFile.isValid()) {
             return Collections.emptyList();
         }
-        final List<String> lines = Files.readAllLines(this.dotEnvFile.toNioPath());
-        final String startMark = "# connection.id=" + connection.getId();
-        boolean started = false;
-        final List<String> generated = new ArrayList<>();
+        return this.getGeneratedEnvironmentVariables().getOrDefault(connection.getId(), Collections.emptyList());
+    }
+
+    /**
+     * generated variables of all connections (connection id -> variables), parsed from {@code .env} once and kept
+     * until the file is changed, so that code insight never reads the file on hot paths.
+     */
+    @Nonnull
+    @SneakyThrows(IOException.class)
+    private Map<String, List<Pair<String, String>>> getGeneratedEnvironmentVariables() {
+        Map<String, List<Pair<String, String>>> result = this.generatedEnvVariables;
+        if (Objects.nonNull(result)) {
+            return result;
+        }
+        final List<String> lines = Files.readAllLines(Objects.requireNonNull(this.dotEnvFile).toNioPath());
+        final Map<String, List<Pair<String, String>>> parsed = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<Pair<String, String>> current = null;
         for (final String line : lines) {
-            started = started || line.equalsIgnoreCase(startMark);
-            final boolean ended = started && !line.equalsIgnoreCase(startMark) && (StringUtils.isBlank(line.trim()) || line.trim().startsWith("# connection.id="));
-            if (started && !ended && !line.equalsIgnoreCase(startMark) && StringUtils.isNotBlank(line)) {
-                generated.add(line);
-            }
-            if (ended) {
-                break;
+            final String trimmed = line.trim();
+            if (StringUtils.startsWithIgnoreCase(trimmed, CONNECTION_ID_MARK)) {
+                current = parsed.computeIfAbsent(trimmed.substring(CONNECTION_ID_MARK.length()), k -> new ArrayList<>());
+            } else if (StringUtils.isBlank(trimmed)) {
+                current = null;
+            } else if (Objects.nonNull(current) && line.contains("=")) {
+                final String[] pair = line.split("=", 2);
+                current.add(Pair.of(pair[0], pair[1]));
             }
         }
-        return generated.stream().map(g -> g.split("=", 2)).map(a -> Pair.of(a[0], a[1])).toList();
+        result = Collections.unmodifiableMap(parsed);
+        this.generatedEnvVariables = result;
+        return result;
+    }
+
+    /**
+     * drops the parsed {@code .env}, called when the file is changed.
+     */
+    void invalidateDotEnv() {
+        this.dotEnvFile = this.profileDir.isValid() ? this.profileDir.findChild(DOT_ENV) : null;
+        this.generatedEnvVariables = null;
     }
 
     public List<Connection<?, ?>> getConnections() {
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.connector.dotazure;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.microsoft.azure.toolkit.intellij.connector.Connection;
+import com.microsoft.azure.toolkit.intellij.connector.Resource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * lookups done by code insight (completion, annotators and line markers) on a profile with hundreds of connections,
+ * while connections are added and removed concurrently.
+ */
+public class ConnectionManagerBenchmarkTest {
+    private static final int MODULES = 200;
+    private static final int CONNECTIONS_PER_MODULE = 3;
+    private static final int LOOKUPS = 200_000;
+    // generous bound, a lookup scans an in-memory list of 600 connections and takes a few microseconds.
+    private static final long MAX_AVERAGE_LOOKUP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private ConnectionManager manager;
+
+    @Before
+    public void setUp() {
+        final Profile profile = mock(Profile.class);
+        final VirtualFile profileDir = mock(VirtualFile.class);
+        when(profile.getProfileDir()).thenReturn(profileDir);
+        this.manager = new ConnectionManager(profile);
+        for (int m = 0; m < MODULES; m++) {
+            for (int c = 0; c < CONNECTIONS_PER_MODULE; c++) {
+                this.manager.addConnection(connection("connection-" + m + "-" + c, "resource-" + c, "module-" + m));
+            }
+        }
+    }
+
+    @Test
+    public void testLookupWhileConnectionsChange() throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; running.get(); i++) {
+                final Connection<?, ?> connection = connection("extra-" + i, "resource-extra", "module-extra");
+                this.manager.addConnection(connection);
+                this.manager.removeConnection(connection);
+            }
+        });
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            final List<Connection<?, ?>> byConsumer = this.manager.getConnectionsByConsumerId("module-" + (i % MODULES));
+            Assert.assertEquals(CONNECTIONS_PER_MODULE, byConsumer.size());
+            final int total = this.manager.getConnections().size();
+            Assert.assertTrue(total == MODULES * CONNECTIONS_PER_MODULE || total == MODULES * CONNECTIONS_PER_MODULE + 1);
+        }
+        final long average = (System.nanoTime() - start) / LOOKUPS;
+        running.set(false);
+        writer.get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(String.format("average lookup took %d ns", average), average < MAX_AVERAGE_LOOKUP_NANOS);
+        Assert.assertEquals(MODULES, this.manager.getConnectionsByResourceId("resource-0").size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Connection<?, ?> connection(String id, String resourceId, String consumerId) {
+        final Resource<Object> resource = mock(Resource.class);
+        when(resource.getId()).thenReturn(resourceId);
+        final Resource<Object> consumer = mock(Resource.class);
+        when(consumer.getId()).thenReturn(consumerId);
+        final Connection<Object, Object> connection = new Connection<>(id);
+        connection.setResource(resource);
+        connection.setConsumer(consumer);
+        return connection;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.microsoft.azure.hdinsight.common.task
+
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.Mockito.doReturn
+import org.mockito.Mockito.mock
+import java.time.Duration
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+class MultiRestTaskScenario {
+    var httpServerMock: MockHttpService? = null
+    var cluster: IClusterDetail? = null
+    var task: MultiRestTask? = null
+    var future: Future<List<String>>? = null
+    var results: List<String> = emptyList()
+    var error: Throwable? = null
+    var elapsedMillis: Long = 0
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+        cluster = mock(IClusterDetail::class.java)
+        doReturn("mock-cluster").`when`(cluster)!!.name
+        doReturn("admin").`when`(cluster)!!.httpUserName
+        doReturn("password").`when`(cluster)!!.httpPassword
+    }
+
+    @After
+    fun tearDown() {
+        ClusterHttpClients.closeAll()
+    }
+
+    @Given("^setup a mock cluster service for paths '(.+)' of 1 to (\\d+) responding '(.+)' after (\\d+) ms$")
+    fun mockClusterService(pathTemplate: String, count: Int, response: String, delayMillis: Int) {
+        (1..count).forEach {
+            httpServerMock!!.stubWithDelay("GET", pathTemplate.replace("{i}", "$it"), 200,
+                    response.replace("{i}", "$it"), delayMillis)
+        }
+    }
+
+    @And("^get paths '(.+)' of 1 to (\\d+) with a multi REST task( with timeout (\\d+) ms)?$")
+    fun getPaths(pathTemplate: String, count: Int, withTimeout: String?, timeoutMillis: Long?) {
+        val paths = (1..count).map { httpServerMock!!.completeUrl(pathTemplate.replace("{i}", "$it")) }
+        task = MultiRestTask(cluster!!, paths, timeoutMillis?.let { Duration.ofMillis(it) }, null)
+
+        val start = System.nanoTime()
+        try {
+            results = task!!.call()
+        } catch (err: Exception) {
+            error = err
+        }
+        elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+    }
+
+    @And("^submit a multi REST task for paths '(.+)' of 1 to (\\d+) and cancel it after (\\d+) ms$")
+    fun submitAndCancel(pathTemplate: String, count: Int, cancelAfterMillis: Long) {
+        val paths = (1..count).map { httpServerMock!!.completeUrl(pathTemplate.replace("{i}", "$it")) }
+        task = MultiRestTask(cluster!!, paths, null, null)
+        future = TaskExecutor.submit(task!!)
+
+        Thread.sleep(cancelAfterMillis)
+        future!!.cancel(true)
+    }
+
+    @Then("^check the results are '(.+)' of 1 to (\\d+) in order$")
+    fun checkResults(responseTemplate: String, count: Int) {
+        assertThat(error).isNull()
+        assertThat(results).containsExactlyElementsOf((1..count).map { responseTemplate.replace("{i}", "$it") })
+    }
+
+    @Then("^check the multi REST task took (less|more) than (\\d+) ms$")
+    fun checkElapsed(comparison: String, millis: Long) {
+        if (comparison == "less") {
+            assertThat(elapsedMillis).isLessThan(millis)
+        } else {
+            assertThat(elapsedMillis).isGreaterThanOrEqualTo(millis)
+        }
+    }
+
+    @Then("^check the multi REST task recorded (\\d+) request timings of at least (\\d+) ms$")
+    fun checkTimings(count: Int, millis: Long) {
+        val timings = task!!.timings
+
+        assertThat(timings).hasSize(count)
+        assertThat(timings).allSatisfy {
+            assertThat(it.statusCode).isEqualTo(200)
+            assertThat(it.elapsedMillis).isGreaterThanOrEqualTo(millis)
+        }
+    }
+
+    @Then("^check the multi REST task failed with (.+)$")
+    fun checkError(errorClass: String) {
+        assertThat(error).isNotNull
+        assertThat(error!!.javaClass.simpleName).isEqualTo(errorClass)
+    }
+
+    @Then("^check the path '(.+)' is got within (\\d+) ms$")
+    fun checkPathIsGot(path: String, millis: Long) {
+        assertThat(future!!.isCancelled).isTrue()
+
+        val start = System.nanoTime()
+        val result = RestTask(cluster!!, httpServerMock!!.completeUrl(path), null).call()
+
+        assertThat(result).isNotEmpty()
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(millis)
+    }
+}
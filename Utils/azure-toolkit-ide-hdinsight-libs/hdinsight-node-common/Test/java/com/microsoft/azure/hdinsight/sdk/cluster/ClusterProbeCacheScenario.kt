@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.microsoft.azure.hdinsight.sdk.cluster
+
+import com.google.gson.Gson
+import com.microsoft.azure.hdinsight.common.CommonConst
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.ClusterOperationNewAPIImpl
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType
+import com.microsoft.azure.toolkit.lib.common.model.Subscription
+import com.microsoft.tooling.msservices.components.DefaultLoader
+import com.microsoft.tooling.msservices.helpers.IDEHelper
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.doReturn
+import org.mockito.Mockito.mock
+import rx.Observable
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class ClusterProbeCacheScenario {
+    private val applicationProperties = mutableMapOf<String, String>()
+    private val clusters = mutableMapOf<String, ClusterRawInfo>()
+    private val listCalls = AtomicInteger()
+    private val probeCalls = AtomicInteger()
+    private var subscription: Subscription? = null
+    private var revalidateAfter: Duration = ClusterProbeCache.DEFAULT_REVALIDATE_AFTER
+    private var account: String? = "user@contoso.com"
+    private var listed: List<ClusterDetail> = emptyList()
+
+    inner class FakeClusterOperation : ClusterOperationImpl() {
+        override fun listCluster(subscription: Subscription): List<ClusterRawInfo> {
+            listCalls.incrementAndGet()
+            return clusters.values.toList()
+        }
+    }
+
+    @Before
+    fun setUp() {
+        val ideHelper = mock(IDEHelper::class.java)
+        doAnswer { applicationProperties[it.getArgument(0)] }.`when`(ideHelper).getApplicationProperty(anyString())
+        doAnswer { applicationProperties.containsKey(it.getArgument(0)) }.`when`(ideHelper).isApplicationPropertySet(anyString())
+        doAnswer { applicationProperties[it.getArgument(0)] = it.getArgument(1) }.`when`(ideHelper).setApplicationProperty(anyString(), anyString())
+        DefaultLoader.setIdeHelper(ideHelper)
+
+        applicationProperties[CommonConst.ENABLE_HDINSIGHT_NEW_SDK] = "true"
+        subscription = mock(Subscription::class.java)
+        doReturn("sub1").`when`(subscription)!!.name
+    }
+
+    @Given("^HDInsight Spark cluster '(.+)' with ETag '(.+)' and role '(.+)' in the subscription$")
+    fun addCluster(name: String, etag: String, role: String) {
+        val json = """{"id":"/subscriptions/sub1/resourceGroups/rg/providers/Microsoft.HDInsight/clusters/$name",
+            "name":"$name","etag":"$etag","properties":{"osType":"Linux","clusterDefinition":{"kind":"SPARK"},
+            "computeProfile":{"roles":[{"name":"headnode","targetInstanceCount":2},{"name":"$role","targetInstanceCount":1}]}}}"""
+        clusters[name] = Gson().fromJson(json, ClusterRawInfo::class.java)
+    }
+
+    @And("^the cluster probe outcomes are revalidated after (\\d+) seconds$")
+    fun setRevalidateAfter(seconds: Long) {
+        revalidateAfter = Duration.ofSeconds(seconds)
+    }
+
+    @And("^sign in as '(.+)'$")
+    fun signIn(name: String) {
+        account = name
+    }
+
+    @And("^sign out$")
+    fun signOut() {
+        account = null
+    }
+
+    @And("^refresh the HDInsight clusters with a new cluster manager$")
+    fun refreshClusters() {
+        // a new manager and cache per refresh, as if the IDE is restarted, only the application properties are kept
+        val manager = ClusterManager(
+                ClusterProbeCache(CommonConst.HDINSIGHT_CLUSTER_PROBE_CACHE, revalidateAfter) { account },
+                { FakeClusterOperation() },
+                { newApiOperation() })
+
+        listed = manager.getHDInsightClustersWithSpecificType(listOf(subscription!!), "Linux")
+                .toBlocking()
+                .single()
+    }
+
+    @Then("^check the clusters were listed (\\d+) times and probed (\\d+) times$")
+    fun checkCalls(lists: Int, probes: Int) {
+        assertThat(listCalls.get()).isEqualTo(lists)
+        assertThat(probeCalls.get()).isEqualTo(probes)
+    }
+
+    @Then("^check the clusters were probed (\\d+) times after waiting (\\d+) seconds$")
+    fun checkProbesAfterWaiting(probes: Int, seconds: Long) {
+        val deadline = System.currentTimeMillis() + seconds * 1000
+        while (probeCalls.get() < probes && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50)
+        }
+
+        assertThat(probeCalls.get()).isEqualTo(probes)
+    }
+
+    @Then("^check the listed cluster '(.+)' is (MfaClusterDetail|ClusterDetail) of role type (OWNER|READER)$")
+    fun checkCluster(name: String, detailClass: String, roleType: String) {
+        val cluster = listed.first { it.name == name }
+
+        assertThat(cluster.javaClass.simpleName).isEqualTo(detailClass)
+        assertThat(cluster.isRoleTypeReader).isEqualTo(roleType == "READER")
+    }
+
+    private fun newApiOperation(): ClusterOperationNewAPIImpl {
+        val operation = mock(ClusterOperationNewAPIImpl::class.java)
+        val roleType = arrayOfNulls<HDInsightUserRoleType>(1)
+        doAnswer { roleType[0] = it.getArgument(0); null }.`when`(operation).setRoleType(any())
+        doAnswer { roleType[0] }.`when`(operation).roleType
+        doAnswer {
+            probeCalls.incrementAndGet()
+            roleType[0] = if ((it.getArgument(0) as ClusterRawInfo).name.startsWith("reader"))
+                HDInsightUserRoleType.READER
+            else
+                HDInsightUserRoleType.OWNER
+            Observable.just(true)
+        }.`when`(operation).isProbeGetConfigurationSucceed(any())
+
+        return operation
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import java.net.URI
+import java.time.Duration
+
+class SessionPoolScenario {
+    var httpServerMock: MockHttpService? = null
+    var pool: SessionPool? = null
+    var replaced: SessionPool? = null
+    var results: MutableList<Map<String, String>> = mutableListOf()
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun tearDown() {
+        pool?.close()
+        SessionPool.closeAll()
+    }
+
+    @Given("^setup a mock livy service for session pool with (.+) request '(.+)' to return '(.+)' with status code (\\d+)$")
+    fun mockLivyService(action: String, serviceUrl: String, response: String, statusCode: Int) {
+        httpServerMock!!.stub(action, serviceUrl, statusCode, response)
+    }
+
+    @And("^create a livy Spark interactive session pool of size (\\d+) with idle timeout (\\d+) seconds$")
+    fun newSessionPool(size: Int, idleTimeoutSeconds: Long) {
+        pool = SessionPool(URI.create(httpServerMock!!.completeUrl("/")), null, null, SessionKind.SPARK,
+                size, Duration.ofSeconds(idleTimeoutSeconds))
+    }
+
+    @Given("^get the shared livy Spark interactive session pool of user '(.+)' with password '(.+)'$")
+    fun getSharedSessionPool(username: String, password: String) {
+        replaced = pool
+        pool = sharedPool(username, password)
+    }
+
+    @Then("^check the shared livy session pool of user '(.+)' with password '(.+)' is the same one$")
+    fun checkSharedPoolReused(username: String, password: String) {
+        assertThat(sharedPool(username, password)).isSameAs(pool)
+        assertThat(pool!!.isClosed).isFalse()
+    }
+
+    @Then("^check the replaced livy session pool is closed$")
+    fun checkReplacedPoolClosed() {
+        assertThat(replaced!!.isClosed).isTrue()
+    }
+
+    @Then("^check the shared livy session pool is closed$")
+    fun checkSharedPoolClosed() {
+        assertThat(pool!!.isClosed).isTrue()
+    }
+
+    @And("^close all shared livy session pools$")
+    fun closeAllPools() {
+        SessionPool.closeAll()
+    }
+
+    private fun sharedPool(username: String, password: String): SessionPool =
+            SessionPool.of(URI.create(httpServerMock!!.completeUrl("/")), username, password, SessionKind.SPARK)
+
+    @Given("^get the shared livy Spark interactive session pool of size (\\d+) owned by '(.+)'$")
+    fun getOwnedSessionPool(size: Int, owner: String) {
+        replaced = pool
+        pool = ownedPool(size, owner)
+    }
+
+    @Then("^check the shared livy session pool of size (\\d+) owned by '(.+)' is the same one$")
+    fun checkOwnedPoolReused(size: Int, owner: String) {
+        assertThat(ownedPool(size, owner)).isSameAs(pool)
+        assertThat(pool!!.isClosed).isFalse()
+    }
+
+    @And("^close the shared livy session pools owned by '(.+)'$")
+    fun closePoolsOwnedBy(owner: String) {
+        SessionPool.closeOwnedBy(owner)
+    }
+
+    @Then("^check the shared livy session pool is open$")
+    fun checkSharedPoolOpen() {
+        assertThat(pool!!.isClosed).isFalse()
+    }
+
+    private fun ownedPool(size: Int, owner: String): SessionPool =
+            SessionPool.of(URI.create(httpServerMock!!.completeUrl("/")), null, null,
+                           SessionPool.Options(SessionKind.SPARK).size(size), owner)
+
+    @And("^warm up the livy session pool and wait for (\\d+) seconds$")
+    fun warmUpPool(waitSeconds: Long) {
+        pool!!.warmUp()
+        Thread.sleep(Duration.ofSeconds(waitSeconds).toMillis())
+    }
+
+    @And("^take a session from the pool and discard it once ready$")
+    fun takeAndDiscard() {
+        val lease = pool!!.take()
+
+        lease.awaitReady(null).toBlocking().single()
+        lease.discard()
+    }
+
+    @And("^lease a session from the pool to run the codes '(.+)' for (\\d+) times$")
+    fun leaseAndRunCodes(codes: String, times: Int) {
+        repeat(times) {
+            val lease = pool!!.lease().toBlocking().single()
+
+            try {
+                results.add(lease.runCodes(codes).toBlocking().single())
+            } finally {
+                lease.close()
+            }
+        }
+    }
+
+    @Then("^check the livy session pool has created (\\d+) sessions? and has (\\d+) idle sessions?$")
+    fun checkPoolCounts(createdExpect: Int, idleExpect: Int) {
+        assertThat(pool!!.createdCount).isEqualTo(createdExpect)
+        assertThat(pool!!.idleCount).isEqualTo(idleExpect)
+    }
+
+    @Then("^check all statement results from the pooled sessions should be '(.+)'$")
+    fun checkResults(outputExpect: String) {
+        assertThat(results).isNotEmpty
+        results.forEach { assertThat(it["text/plain"]).isEqualTo(outputExpect) }
+    }
+
+    @Then("^check the pooled session '(.+)' is killed after waiting (\\d+) seconds$")
+    fun checkIdleSessionKilled(urlExpect: String, waitSeconds: Long) {
+        Thread.sleep(Duration.ofSeconds(waitSeconds).toMillis())
+
+        WireMock.verify(WireMock.deleteRequestedFor(urlEqualTo(urlExpect)))
+        assertThat(pool!!.idleCount).isEqualTo(0)
+    }
+}
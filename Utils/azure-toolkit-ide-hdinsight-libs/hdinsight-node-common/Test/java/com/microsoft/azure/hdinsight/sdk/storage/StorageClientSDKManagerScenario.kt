@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.equalTo
+import com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.apache.commons.lang3.exception.ExceptionUtils
+import org.assertj.core.api.Assertions.assertThat
+import java.io.ByteArrayInputStream
+import java.util.Calendar
+
+class StorageClientSDKManagerScenario {
+    // The well-known development storage account key of Azurite
+    private val accountKey = "Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw=="
+    var httpServerMock: MockHttpService? = null
+    var error: Throwable? = null
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+        error = null
+    }
+
+    @Given("^setup a mock blob service with (.+) request '(.+)' to return '(.*)' with status code (\\d+)$")
+    fun mockBlobService(action: String, serviceUrl: String, response: String, statusCode: Int) {
+        httpServerMock!!.stubWithHeader(action, serviceUrl, statusCode, response, mapOf(
+                "ETag" to "\"0x8D8F8F8F8F8F8F8\"",
+                "Last-Modified" to "Mon, 19 Oct 2026 00:00:00 GMT",
+                "Content-Type" to "application/xml"))
+    }
+
+    @And("^upload the content '(.+)' to the blob '(.+)' of the container '(.+)'$")
+    fun uploadContent(content: String, blob: String, container: String) {
+        val connectionString = "DefaultEndpointsProtocol=http;AccountName=devstoreaccount1;AccountKey=$accountKey;" +
+                "BlobEndpoint=${httpServerMock!!.completeUrl("/devstoreaccount1")}"
+        val blobContainer = BlobContainer(container, httpServerMock!!.completeUrl("/devstoreaccount1/$container"),
+                "", Calendar.getInstance(), "")
+        val bytes = content.toByteArray()
+
+        try {
+            StorageClientSDKManager.getManager().uploadBlobFileContent(
+                    connectionString, blobContainer, blob, ByteArrayInputStream(bytes), null, 4096, bytes.size.toLong())
+        } catch (ex: AzureCmdException) {
+            error = ex
+        }
+    }
+
+    @Then("^check the upload succeeded$")
+    fun checkUploadSucceeded() {
+        assertThat(error).isNull()
+    }
+
+    @Then("^check the upload failed with '(.+)'$")
+    fun checkUploadFailed(errorCode: String) {
+        assertThat(error).isInstanceOf(AzureCmdException::class.java)
+        assertThat(ExceptionUtils.getStackTrace(error)).contains(errorCode)
+    }
+
+    @Then("^check the blob '(.+)' was put only if not existing$")
+    fun checkPutIfNoneMatch(blobUrl: String) {
+        WireMock.verify(WireMock.putRequestedFor(urlEqualTo(blobUrl)).withHeader("If-None-Match", equalTo("*")))
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.AbfsUri;
+import com.microsoft.azure.hdinsight.common.MessageInfoType;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.HttpClients;
+import rx.subjects.PublishSubject;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Warning;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ArtifactDeployCoordinatorScenario {
+    private static final String DATANODE_PATH = "/datanode";
+
+    // The local stand-in of WebHDFS and ADLS Gen2 REST APIs
+    private HttpServer storageServer;
+
+    private final Map<String, byte[]> storedFiles = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> appendedFiles = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> uploadCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failuresToInject = new ConcurrentHashMap<>();
+    private final Set<String> artifactsToTruncate = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger storingCount = new AtomicInteger();
+    private final AtomicInteger maxStoringCount = new AtomicInteger();
+    private volatile long storeDelayMillis = 0;
+
+    private File artifactsDir;
+    private final List<File> artifacts = new ArrayList<>();
+    private final List<SparkLogLine> logs = Collections.synchronizedList(new ArrayList<>());
+    private Deployable deployable;
+    private List<String> uploadedPaths;
+    private Throwable deployError;
+
+    @Given("^start a local WebHDFS and ADLS Gen2 storage stand-in$")
+    public void startStorageServer() throws IOException {
+        storageServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        storageServer.setExecutor(Executors.newCachedThreadPool());
+        storageServer.createContext("/", exchange -> {
+            try {
+                serve(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        storageServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        // The hooks run for the scenarios of all features
+        if (storageServer != null) {
+            storageServer.stop(0);
+        }
+
+        if (artifactsDir != null) {
+            FileUtils.deleteQuietly(artifactsDir);
+        }
+    }
+
+    @Given("^create (\\d+) local artifacts of (\\d+) KB each$")
+    public void createArtifacts(int count, int kilobytes) throws IOException {
+        artifactsDir = Files.createTempDirectory("artifacts").toFile();
+        final Random random = new Random(count);
+
+        for (int i = 1; i <= count; i++) {
+            final byte[] content = new byte[kilobytes * 1024];
+            random.nextBytes(content);
+
+            final File artifact = new File(artifactsDir, "artifact-" + i + ".jar");
+            FileUtils.writeByteArrayToFile(artifact, content);
+            artifacts.add(artifact);
+        }
+    }
+
+    @Given("^the storage stand-in takes (\\d+) ms to store each artifact$")
+    public void delayStoring(long millis) {
+        storeDelayMillis = millis;
+    }
+
+    @Given("^the storage stand-in fails (\\d+) uploads of artifact '(.+)'$")
+    public void failUploads(int count, String name) {
+        failuresToInject.put(name, new AtomicInteger(count));
+    }
+
+    @Given("^the storage stand-in truncates the first upload of artifact '(.+)'$")
+    public void truncateUpload(String name) {
+        artifactsToTruncate.add(name);
+    }
+
+    @When("^deploy the artifacts to WebHDFS with parallelism (\\d+) and (\\d+) retries$")
+    public void deployToWebHdfs(int parallelism, int retries) {
+        deployable = new WebHDFSDeploy(
+                mock(IClusterDetail.class),
+                new HttpObservable(),
+                String.format("http://127.0.0.1:%d/webhdfs/v1/SparkSubmission/", getPort()));
+
+        deploy(parallelism, retries);
+    }
+
+    @When("^deploy the artifacts to ADLS Gen2 with parallelism (\\d+) and (\\d+) retries$")
+    public void deployToAdlsGen2(int parallelism, int retries) {
+        // Route the requests to the ADLS Gen2 account to the local stand-in
+        final HttpObservable http = new HttpObservable().setHttpClient(HttpClients.custom()
+                .setRoutePlanner((target, request, context) -> new HttpRoute(new HttpHost("127.0.0.1", getPort(), "http")))
+                .setMaxConnPerRoute(parallelism * 2)
+                .setMaxConnTotal(parallelism * 2)
+                .build());
+
+        deployable = new ADLSGen2Deploy(http, "https://account.dfs.core.windows.net/fs/SparkSubmission/");
+
+        deploy(parallelism, retries);
+    }
+
+    @Then("^check all artifacts are stored with their content$")
+    public void checkStoredArtifacts() throws IOException {
+        assertThat(deployError).isNull();
+        assertThat(uploadedPaths).hasSameSizeAs(artifacts);
+
+        for (int i = 0; i < artifacts.size(); i++) {
+            final String storedPath = getStoredPath(uploadedPaths.get(i));
+
+            assertThat(storedPath).endsWith("/" + artifacts.get(i).getName());
+            assertThat(storedFiles.get(storedPath))
+                    .as("The content of %s", storedPath)
+                    .isEqualTo(FileUtils.readFileToByteArray(artifacts.get(i)));
+        }
+    }
+
+    @Then("^check at most (\\d+) artifacts were stored concurrently$")
+    public void checkMaxConcurrency(int max) {
+        assertThat(maxStoringCount.get()).isLessThanOrEqualTo(max);
+    }
+
+    @Then("^check more than (\\d+) artifact was stored concurrently$")
+    public void checkMinConcurrency(int min) {
+        assertThat(maxStoringCount.get()).isGreaterThan(min);
+    }
+
+    @Then("^check artifact '(.+)' was uploaded (\\d+) times?$")
+    public void checkUploadCount(String name, int count) {
+        assertThat(uploadCounts.getOrDefault(name, new AtomicInteger()).get()).isEqualTo(count);
+    }
+
+    @Then("^check the deploy log has (\\d+) retry warnings?$")
+    public void checkRetryWarnings(int count) {
+        assertThat(getLogMessages(Warning))
+                .filteredOn(message -> message.contains(", retry "))
+                .hasSize(count);
+    }
+
+    @Then("^check the deploy log has the throughput of (\\d+) artifacts$")
+    public void checkThroughputLog(int count) {
+        assertThat(getLogMessages(Info))
+                .anyMatch(message -> message.startsWith("Uploaded " + count + " artifact(s) of ")
+                        && message.endsWith("/s)"));
+    }
+
+    @Then("^check the deploy fails with the message containing '(.+)'$")
+    public void checkDeployError(String message) {
+        assertThat(uploadedPaths).isNull();
+        assertThat(deployError).isNotNull();
+        assertThat(deployError.getMessage()).contains(message);
+    }
+
+    private void deploy(int parallelism, int retries) {
+        final PublishSubject<SparkLogLine> logSubject = PublishSubject.create();
+        logSubject.subscribe(logs::add);
+
+        try {
+            uploadedPaths = new ArtifactDeployCoordinator(deployable, logSubject)
+                    .setParallelism(parallelism)
+                    .setRetriesMax(retries)
+                    .setRetryDelayMillis(10)
+                    .deploy(artifacts)
+                    .timeout(60, TimeUnit.SECONDS)
+                    .toBlocking()
+                    .single();
+        } catch (RuntimeException err) {
+            deployError = err;
+        }
+    }
+
+    private List<String> getLogMessages(MessageInfoType type) {
+        final List<String> messages = new ArrayList<>();
+
+        synchronized (logs) {
+            logs.stream()
+                    .filter(line -> line.getMessageInfoType() == type)
+                    .forEach(line -> messages.add(line.getRawLog()));
+        }
+
+        return messages;
+    }
+
+    private String getStoredPath(String uploadedPath) {
+        return deployable instanceof ADLSGen2Deploy
+                ? AbfsUri.parse(uploadedPath).getUrl().getPath()
+                : URI.create(uploadedPath).getPath();
+    }
+
+    private int getPort() {
+        return storageServer.getAddress().getPort();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().getPath();
+        final String query = StringUtils.defaultString(exchange.getRequestURI().getRawQuery());
+        final byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+
+        if (path.startsWith(DATANODE_PATH)) {
+            // WebHDFS: the redirected CREATE with the file content
+            respond(exchange, store(path.substring(DATANODE_PATH.length()), body, 201), null);
+        } else if (query.contains("op=MKDIRS")) {
+            respond(exchange, 200, "{\"boolean\":true}");
+        } else if (query.contains("op=CREATE")) {
+            exchange.getResponseHeaders().set(
+                    "Location", String.format("http://127.0.0.1:%d%s%s?op=CREATE", getPort(), DATANODE_PATH, path));
+            respond(exchange, 307, null);
+        } else if (query.contains("op=GETFILESTATUS")) {
+            final byte[] stored = storedFiles.get(path);
+
+            if (stored == null) {
+                respond(exchange, 404, null);
+            } else {
+                respond(exchange, 200, String.format("{\"FileStatus\":{\"length\":%d,\"type\":\"FILE\"}}", stored.length));
+            }
+        } else if (query.contains("resource=directory") || query.contains("resource=file")) {
+            respond(exchange, 201, null);
+        } else if (query.contains("action=append")) {
+            appendedFiles.put(path, body);
+            respond(exchange, 202, null);
+        } else if (query.contains("action=flush")) {
+            final byte[] appended = appendedFiles.remove(path);
+
+            respond(exchange, appended == null ? 400 : store(path, appended, 200), null);
+        } else if (method.equals("HEAD")) {
+            final byte[] stored = storedFiles.get(path);
+
+            if (stored == null) {
+                respond(exchange, 404, null);
+            } else {
+                // The stand-in server doesn't expect a body after the Content-Length of HEAD, don't reuse the connection
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(stored.length));
+                exchange.getResponseHeaders().set("Connection", "close");
+                respond(exchange, 200, null);
+            }
+        } else {
+            respond(exchange, 400, null);
+        }
+    }
+
+    private int store(String path, byte[] content, int successCode) {
+        final String name = path.substring(path.lastIndexOf('/') + 1);
+        uploadCounts.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+
+        maxStoringCount.accumulateAndGet(storingCount.incrementAndGet(), Math::max);
+        try {
+            TimeUnit.MILLISECONDS.sleep(storeDelayMillis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        } finally {
+            storingCount.decrementAndGet();
+        }
+
+        final AtomicInteger failures = failuresToInject.get(name);
+        if (failures != null && failures.getAndDecrement() > 0) {
+            return 500;
+        }
+
+        storedFiles.put(path, artifactsToTruncate.remove(name) ? Arrays.copyOf(content, content.length - 1) : content);
+
+        return successCode;
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(code, -1);
+            return;
+        }
+
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.common
+
+import com.jcraft.jsch.JSch
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.apache.sshd.common.config.keys.KeyUtils
+import org.apache.sshd.common.session.Session
+import org.apache.sshd.common.session.SessionListener
+import org.apache.sshd.server.SshServer
+import org.apache.sshd.server.auth.password.PasswordAuthenticator
+import org.apache.sshd.server.forward.AcceptAllForwardingFilter
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider
+import org.assertj.core.api.Assertions.assertThat
+import java.io.BufferedReader
+import java.io.InputStreamReader
+import java.io.PrintWriter
+import java.net.InetAddress
+import java.net.ServerSocket
+import java.net.Socket
+import java.nio.file.Files
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class SshTunnelManagerScenario {
+    private val user = "debugger"
+    private val password = "P@ssw0rd"
+    private val loopback = "127.0.0.1"
+
+    private var sshServer: SshServer? = null
+    private val acceptedConnections = AtomicInteger()
+    private val echoServers = mutableListOf<ServerSocket>()
+    private val tunnelManager = SshTunnelManager(1000, 3)
+    private val debugSessions = mutableListOf<SparkBatchDebugSession>()
+    // "<debug session index>|<echo server port>" to the local port forwarded to the echo server
+    private val forwardedPorts = ConcurrentHashMap<String, Int>()
+    private var forwardedPortsBeforeDrop: Map<String, Int> = emptyMap()
+
+    @Before
+    fun setUp() {
+        acceptedConnections.set(0)
+    }
+
+    @After
+    fun tearDown() {
+        debugSessions.forEach { it.close() }
+        tunnelManager.closeAll()
+        sshServer?.stop(true)
+        echoServers.forEach { it.close() }
+    }
+
+    @Given("^start an embedded SSH server with (\\d+) echo servers behind it$")
+    fun startSshServer(echoServerCount: Int) {
+        val hostKey = Files.createTempFile("ssh-tunnel-test-host", ".key").apply { Files.delete(this) }
+        val server = SshServer.setUpDefaultServer()
+
+        server.host = loopback
+        server.port = 0
+        server.keyPairProvider = SimpleGeneratorHostKeyProvider(hostKey).apply { algorithm = KeyUtils.EC_ALGORITHM }
+        server.passwordAuthenticator = PasswordAuthenticator { u, p, _ -> u == user && p == password }
+        server.forwardingFilter = AcceptAllForwardingFilter.INSTANCE
+        server.addSessionListener(object : SessionListener {
+            override fun sessionCreated(session: Session?) {
+                acceptedConnections.incrementAndGet()
+            }
+        })
+        server.start()
+        sshServer = server
+
+        repeat(echoServerCount) {
+            val echoServer = ServerSocket(0, 50, InetAddress.getByName(loopback))
+            echoServers.add(echoServer)
+
+            thread(isDaemon = true) {
+                while (!echoServer.isClosed) {
+                    val socket = try { echoServer.accept() } catch (ignored: Exception) { break }
+
+                    thread(isDaemon = true) {
+                        socket.use {
+                            val reader = BufferedReader(InputStreamReader(it.getInputStream()))
+                            val writer = PrintWriter(it.getOutputStream(), true)
+                            reader.lineSequence().forEach { line -> writer.println(line) }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @And("^open (\\d+) debug sessions to the embedded SSH server$")
+    fun openDebugSessions(count: Int) {
+        repeat(count) {
+            val jsch = JSch()
+            val debugSession = SparkBatchDebugSession(jsch, jsch.getSession(user, loopback, sshServer!!.port))
+                    .setPassword(password)
+                    .open(tunnelManager)
+
+            debugSessions.add(debugSession)
+        }
+    }
+
+    @And("^forward all echo servers through each debug session concurrently$")
+    fun forwardEchoServers() {
+        val executor = Executors.newFixedThreadPool(16)
+
+        try {
+            val forwards = debugSessions.flatMapIndexed { index, debugSession ->
+                echoServers.map { echoServer ->
+                    Callable {
+                        val localPort = debugSession
+                                .forwardToRemotePort(loopback, echoServer.localPort)
+                                .getForwardedLocalPort(loopback, echoServer.localPort)
+
+                        forwardedPorts["$index|${echoServer.localPort}"] = localPort
+                    }
+                }
+            }
+
+            executor.invokeAll(forwards).forEach { it.get(30, TimeUnit.SECONDS) }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @And("^drop the connections at the embedded SSH server$")
+    fun dropConnections() {
+        val connected = debugSessions.first().portForwardingSession
+        forwardedPortsBeforeDrop = HashMap(forwardedPorts)
+
+        sshServer!!.activeSessions.forEach { it.close(true) }
+
+        val deadline = System.currentTimeMillis() + 10_000
+        while (connected.isConnected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50)
+        }
+
+        assertThat(connected.isConnected).isFalse()
+    }
+
+    @And("^close (\\d+) of the debug sessions$")
+    fun closeDebugSessions(count: Int) {
+        repeat(count) {
+            debugSessions.removeAt(0).close()
+        }
+    }
+
+    @Then("^check all forwarded ports echo$")
+    fun checkForwardedPortsEcho() {
+        assertThat(forwardedPorts).hasSize(debugSessions.size * echoServers.size)
+
+        forwardedPorts.values.toSet().forEach { localPort ->
+            Socket(loopback, localPort).use {
+                val writer = PrintWriter(it.getOutputStream(), true)
+                val reader = BufferedReader(InputStreamReader(it.getInputStream()))
+
+                writer.println("ping $localPort")
+                assertThat(reader.readLine()).isEqualTo("ping $localPort")
+            }
+        }
+    }
+
+    @Then("^check each echo server is forwarded to one local port$")
+    fun checkEchoServerForwardedOnce() {
+        echoServers.forEach { echoServer ->
+            val localPorts = forwardedPorts.filterKeys { it.endsWith("|${echoServer.localPort}") }.values.toSet()
+
+            assertThat(localPorts).hasSize(1)
+        }
+    }
+
+    @Then("^check the forwarded local ports are kept$")
+    fun checkForwardedPortsKept() {
+        assertThat(forwardedPorts).isEqualTo(forwardedPortsBeforeDrop)
+    }
+
+    @Then("^check the embedded SSH server accepted (\\d+) connections?$")
+    fun checkAcceptedConnections(count: Int) {
+        assertThat(acceptedConnections.get()).isEqualTo(count)
+    }
+
+    @Then("^check the SSH tunnel manager has (\\d+) tunnels?$")
+    fun checkTunnelCount(count: Int) {
+        assertThat(tunnelManager.tunnelCount).isEqualTo(count)
+    }
+
+    @Then("^check the embedded SSH server has no connection within (\\d+) ms$")
+    fun checkNoConnection(millis: Long) {
+        val deadline = System.currentTimeMillis() + millis
+        while (sshServer!!.activeSessions.isNotEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50)
+        }
+
+        assertThat(sshServer!!.activeSessions).isEmpty()
+    }
+}
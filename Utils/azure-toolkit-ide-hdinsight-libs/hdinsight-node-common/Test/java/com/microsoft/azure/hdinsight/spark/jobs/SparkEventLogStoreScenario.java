@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.sql.SqlExecution;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SparkEventLogStoreScenario {
+    private static final long START_TIME = 1_600_000_000_000L;
+    private static final long INPUT_BYTES_PER_TASK = 1024;
+
+    private Path workDir;
+    private SparkEventLogStore store;
+    private Map<String, File> eventLogs;
+    private int downloadCount;
+    private int taskCount;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("SparkEventLogStoreScenario");
+        eventLogs = new HashMap<>();
+        downloadCount = 0;
+        store = createStore();
+    }
+
+    @After
+    public void cleanUp() {
+        FileUtils.deleteQuietly(workDir.toFile());
+    }
+
+    @Given("^a Spark event log of application '(.+)' with (\\d+) jobs of (\\d+) stages of (\\d+) tasks on (\\d+) executors$")
+    public void createEventLog(String appId, int jobCount, int stageCount, int taskCountPerStage, int executorCount) throws Throwable {
+        createEventLog(appId, jobCount, stageCount, taskCountPerStage, executorCount, false);
+    }
+
+    @Given("^a truncated Spark event log of application '(.+)' with (\\d+) jobs of (\\d+) stages of (\\d+) tasks on (\\d+) executors$")
+    public void createTruncatedEventLog(String appId, int jobCount, int stageCount, int taskCountPerStage, int executorCount) throws Throwable {
+        createEventLog(appId, jobCount, stageCount, taskCountPerStage, executorCount, true);
+    }
+
+    @When("^ingest Spark application '(.+)' of cluster '(.+)'$")
+    public void ingest(String appId, String clusterName) throws Throwable {
+        store.ingest(createKey(clusterName, appId));
+    }
+
+    @When("^restart the Spark event log store without network$")
+    public void restartWithoutNetwork() {
+        store = new SparkEventLogStore(workDir.resolve("store"), (key, file) -> {
+            throw new HDIException("The Spark history server isn't reachable");
+        });
+    }
+
+    @Then("^Spark application '(.+)' of cluster '(.+)' should be indexed as '(.+)' with (\\d+) jobs, (\\d+) stages, (\\d+) tasks and (\\d+) executors$")
+    public void checkIndex(String appId, String clusterName, String appName, int jobCount, int stageCount, int taskCount, int executorCount) throws Throwable {
+        final ApplicationKey key = createKey(clusterName, appId);
+        final Application application = store.getApplication(key);
+
+        assertThat(store.isIndexed(key)).isTrue();
+        assertThat(application.getId()).isEqualTo(appId);
+        assertThat(application.getName()).isEqualTo(appName);
+        assertThat(application.getAttempts()).hasSize(1);
+        assertThat(application.getAttempts().get(0).getCompleted()).isEqualTo("true");
+        assertThat(store.getJobs(key)).hasSize(jobCount);
+        assertThat(store.getJobStartEventLogs(key)).hasSize(jobCount);
+        assertThat(store.getStages(key)).hasSize(stageCount);
+        assertThat(store.getTasks(key)).hasSize(taskCount);
+        // The driver is listed with the executors
+        assertThat(store.getExecutors(key)).hasSize(executorCount + 1);
+    }
+
+    @Then("^all jobs of Spark application '(.+)' of cluster '(.+)' should succeed with (\\d+) tasks completed each$")
+    public void checkJobs(String appId, String clusterName, int taskCountPerJob) throws Throwable {
+        final List<Job> jobs = store.getJobs(createKey(clusterName, appId));
+
+        assertThat(jobs).allSatisfy(job -> {
+            assertThat(job.getStatus()).isEqualTo("SUCCEEDED");
+            assertThat(job.getNumTasks()).isEqualTo(taskCountPerJob);
+            assertThat(job.getNumCompletedTasks()).isEqualTo(taskCountPerJob);
+            assertThat(job.getNumFailedTasks()).isZero();
+            assertThat(job.getNumSkippedStages()).isZero();
+            assertThat(job.getCompletionTime()).endsWith("GMT");
+        });
+        // The latest first, same as Spark history server
+        assertThat(jobs.get(0).getJobId()).isEqualTo(jobs.size() - 1);
+    }
+
+    @Then("^all stages of Spark application '(.+)' of cluster '(.+)' should complete with (\\d+) tasks each$")
+    public void checkStages(String appId, String clusterName, int taskCountPerStage) throws Throwable {
+        final List<Stage> stages = store.getStages(createKey(clusterName, appId));
+
+        assertThat(stages).allSatisfy(stage -> {
+            assertThat(stage.getStatus()).isEqualTo("COMPLETE");
+            assertThat(stage.getNumCompleteTasks()).isEqualTo(taskCountPerStage);
+            assertThat(stage.getInputBytes()).isEqualTo(taskCountPerStage * INPUT_BYTES_PER_TASK);
+            assertThat(stage.getFirstTaskLaunchedTime()).isNotNull();
+        });
+    }
+
+    @Then("^the executors of Spark application '(.+)' of cluster '(.+)' should run (\\d+) tasks in total$")
+    public void checkExecutors(String appId, String clusterName, int taskCount) throws Throwable {
+        final ApplicationKey key = createKey(clusterName, appId);
+        final List<Executor> executors = store.getExecutors(key);
+        final List<Task> tasks = store.getTasks(key);
+
+        assertThat(executors.stream().mapToLong(Executor::getCompletedTasks).sum()).isEqualTo(taskCount);
+        assertThat(executors.stream().mapToLong(Executor::getTotalInputBytes).sum()).isEqualTo(taskCount * INPUT_BYTES_PER_TASK);
+        assertThat(executors.stream().filter(executor -> !executor.getId().equals("driver")))
+                .allSatisfy(executor -> {
+                    assertThat(executor.getTotalCores()).isEqualTo(4);
+                    assertThat(executor.getMaxMemory()).isGreaterThan(0);
+                    assertThat(executor.getExecutorLogs().getStdout()).contains(executor.getId());
+                });
+        assertThat(tasks.stream().mapToLong(task -> task.getTaskMetrics().getInputMetrics().getBytesRead()).sum())
+                .isEqualTo(taskCount * INPUT_BYTES_PER_TASK);
+    }
+
+    @Then("^Spark application '(.+)' of cluster '(.+)' should have (\\d+) completed SQL executions of (\\d+) jobs each$")
+    public void checkSqlExecutions(String appId, String clusterName, int sqlCount, int jobCountPerSql) throws Throwable {
+        final List<SqlExecution> sqlExecutions = store.getSqlExecutions(createKey(clusterName, appId));
+
+        assertThat(sqlExecutions).hasSize(sqlCount);
+        assertThat(sqlExecutions).allSatisfy(sql -> {
+            assertThat(sql.getStatus()).isEqualTo("COMPLETED");
+            assertThat(sql.getSuccessJobIds()).hasSize(jobCountPerSql);
+            assertThat(sql.getDuration()).isGreaterThan(0);
+        });
+    }
+
+    @Then("^the event logs should be downloaded (\\d+) times?$")
+    public void checkDownloadCount(int expected) {
+        assertThat(downloadCount).isEqualTo(expected);
+    }
+
+    @Then("^ingesting Spark application '(.+)' of cluster '(.+)' should fail$")
+    public void checkIngestFailure(String appId, String clusterName) {
+        final ApplicationKey key = createKey(clusterName, appId);
+
+        assertThatThrownBy(() -> store.ingest(key)).isInstanceOf(HDIException.class);
+        assertThat(store.isIndexed(key)).isFalse();
+    }
+
+    @Then("^the indexed applications of cluster '(.+)' should be:$")
+    public void checkIndexedApplications(String clusterName, List<String> expected) {
+        assertThat(store.getIndexedApplications(clusterName).stream().map(Application::getId).collect(Collectors.toList()))
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Then("^there should be no indexed applications of cluster '(.+)'$")
+    public void checkNoIndexedApplications(String clusterName) {
+        assertThat(store.getIndexedApplications(clusterName)).isEmpty();
+    }
+
+    private SparkEventLogStore createStore() {
+        return new SparkEventLogStore(workDir.resolve("store"), (key, file) -> {
+            final File eventLog = eventLogs.get(key.getAppId());
+
+            if (eventLog == null) {
+                throw new HDIException("No event logs of " + key.getAppId());
+            }
+
+            downloadCount++;
+            FileUtils.copyFile(eventLog, file);
+        });
+    }
+
+    private ApplicationKey createKey(String clusterName, String appId) {
+        final IClusterDetail cluster = mock(IClusterDetail.class);
+        when(cluster.getName()).thenReturn(clusterName);
+        when(cluster.getConnectionUrl()).thenReturn("https://" + clusterName + ".azurehdinsight.net");
+
+        return new ApplicationKey(cluster, appId);
+    }
+
+    private void createEventLog(String appId, int jobCount, int stageCount, int taskCountPerStage, int executorCount, boolean truncated) throws IOException {
+        final File zip = workDir.resolve(appId + ".zip").toFile();
+        long time = START_TIME;
+        int stageId = 0;
+
+        taskCount = 0;
+
+        try (final ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zip.toPath()))) {
+            zipOut.putNextEntry(new ZipEntry(appId + "_1"));
+
+            final Writer writer = new OutputStreamWriter(zipOut, StandardCharsets.UTF_8);
+
+            writeLine(writer, "{\"Event\":\"SparkListenerLogStart\",\"Spark Version\":\"2.4.4\"}");
+            writeLine(writer, String.format("{\"Event\":\"SparkListenerBlockManagerAdded\",\"Block Manager ID\":{\"Executor ID\":\"driver\",\"Host\":\"hn0\",\"Port\":41517},\"Maximum Memory\":1000000,\"Timestamp\":%d}", time));
+            writeLine(writer, String.format("{\"Event\":\"SparkListenerApplicationStart\",\"App Name\":\"%s-name\",\"App ID\":\"%s\",\"Timestamp\":%d,\"User\":\"livy\",\"App Attempt ID\":\"1\"}", appId, appId, time));
+
+            for (int executor = 1; executor <= executorCount; executor++) {
+                writeLine(writer, String.format("{\"Event\":\"SparkListenerExecutorAdded\",\"Timestamp\":%d,\"Executor ID\":\"%d\",\"Executor Info\":{\"Host\":\"wn%d\",\"Total Cores\":4,\"Log Urls\":{\"stdout\":\"http://wn%d:30060/node/containerlogs/container_%d/livy/stdout\",\"stderr\":\"http://wn%d:30060/node/containerlogs/container_%d/livy/stderr\"}}}",
+                                                time, executor, executor, executor, executor, executor, executor));
+                writeLine(writer, String.format("{\"Event\":\"SparkListenerBlockManagerAdded\",\"Block Manager ID\":{\"Executor ID\":\"%d\",\"Host\":\"wn%d\",\"Port\":40000},\"Maximum Memory\":2000000,\"Timestamp\":%d}",
+                                                executor, executor, time));
+            }
+
+            for (int jobId = 0; jobId < jobCount; jobId++) {
+                final StringBuilder stageInfos = new StringBuilder();
+                final StringBuilder stageIds = new StringBuilder();
+
+                for (int stage = 0; stage < stageCount; stage++) {
+                    stageInfos.append(stage == 0 ? "" : ",")
+                              .append(String.format("{\"Stage ID\":%d,\"Stage Attempt ID\":0,\"Stage Name\":\"count at Job%d.scala:%d\",\"Number of Tasks\":%d,\"Parent IDs\":[],\"Details\":\"\",\"Accumulables\":[]}",
+                                                    stageId + stage, jobId, stage, taskCountPerStage));
+                    stageIds.append(stage == 0 ? "" : ",").append(stageId + stage);
+                }
+
+                writeLine(writer, String.format("{\"Event\":\"org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionStart\",\"executionId\":%d,\"description\":\"query %d\",\"details\":\"\",\"physicalPlanDescription\":\"== Physical Plan ==\",\"time\":%d}",
+                                                jobId, jobId, ++time));
+                writeLine(writer, String.format("{\"Event\":\"SparkListenerJobStart\",\"Job ID\":%d,\"Submission Time\":%d,\"Stage Infos\":[%s],\"Stage IDs\":[%s],\"Properties\":{\"spark.sql.execution.id\":\"%d\"}}",
+                                                jobId, ++time, stageInfos, stageIds, jobId));
+
+                for (int stage = 0; stage < stageCount; stage++, stageId++) {
+                    writeLine(writer, String.format("{\"Event\":\"SparkListenerStageSubmitted\",\"Stage Info\":{\"Stage ID\":%d,\"Stage Attempt ID\":0,\"Stage Name\":\"count at Job%d.scala:%d\",\"Number of Tasks\":%d,\"Details\":\"\",\"Submission Time\":%d},\"Properties\":{}}",
+                                                    stageId, jobId, stage, taskCountPerStage, ++time));
+
+                    for (int index = 0; index < taskCountPerStage; index++) {
+                        final int executor = 1 + taskCount % executorCount;
+                        final long launchTime = ++time;
+
+                        writeLine(writer, String.format("{\"Event\":\"SparkListenerTaskEnd\",\"Stage ID\":%d,\"Stage Attempt ID\":0,\"Task Type\":\"ResultTask\",\"Task End Reason\":{\"Reason\":\"Success\"},"
+                                                                + "\"Task Info\":{\"Task ID\":%d,\"Index\":%d,\"Attempt\":0,\"Launch Time\":%d,\"Executor ID\":\"%d\",\"Host\":\"wn%d\",\"Locality\":\"PROCESS_LOCAL\",\"Speculative\":false,\"Getting Result Time\":0,\"Finish Time\":%d,\"Failed\":false,\"Killed\":false,\"Accumulables\":[]},"
+                                                                + "\"Task Metrics\":{\"Executor Deserialize Time\":3,\"Executor Deserialize CPU Time\":2000,\"Executor Run Time\":10,\"Executor CPU Time\":9000,\"Result Size\":1500,\"JVM GC Time\":1,\"Result Serialization Time\":0,\"Memory Bytes Spilled\":0,\"Disk Bytes Spilled\":0,"
+                                                                + "\"Shuffle Read Metrics\":{\"Remote Blocks Fetched\":0,\"Local Blocks Fetched\":0,\"Fetch Wait Time\":0,\"Remote Bytes Read\":0,\"Local Bytes Read\":0,\"Total Records Read\":0},"
+                                                                + "\"Shuffle Write Metrics\":{\"Shuffle Bytes Written\":0,\"Shuffle Write Time\":0,\"Shuffle Records Written\":0},"
+                                                                + "\"Input Metrics\":{\"Bytes Read\":%d,\"Records Read\":10},\"Output Metrics\":{\"Bytes Written\":0,\"Records Written\":0},\"Updated Blocks\":[]}}",
+                                                        stageId, taskCount, index, launchTime, executor, executor, launchTime + 10, INPUT_BYTES_PER_TASK));
+                        taskCount++;
+                    }
+
+                    writeLine(writer, String.format("{\"Event\":\"SparkListenerStageCompleted\",\"Stage Info\":{\"Stage ID\":%d,\"Stage Attempt ID\":0,\"Stage Name\":\"count at Job%d.scala:%d\",\"Number of Tasks\":%d,\"Details\":\"\",\"Submission Time\":%d,\"Completion Time\":%d}}",
+                                                    stageId, jobId, stage, taskCountPerStage, time, ++time));
+                }
+
+                writeLine(writer, String.format("{\"Event\":\"SparkListenerJobEnd\",\"Job ID\":%d,\"Completion Time\":%d,\"Job Result\":{\"Result\":\"JobSucceeded\"}}", jobId, ++time));
+                writeLine(writer, String.format("{\"Event\":\"org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionEnd\",\"executionId\":%d,\"time\":%d}", jobId, ++time));
+            }
+
+            writeLine(writer, String.format("{\"Event\":\"SparkListenerApplicationEnd\",\"Timestamp\":%d}", ++time));
+
+            if (truncated) {
+                writer.write("{\"Event\":\"SparkListenerTaskEnd\",\"Stage ID\":");
+            }
+
+            writer.flush();
+            zipOut.closeEntry();
+        }
+
+        eventLogs.put(appId, zip);
+    }
+
+    private static void writeLine(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs.analysis;
+
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SparkStageAnalyzerScenario {
+    private static final long MB = 1024 * 1024;
+
+    private List<Stage> stages;
+    private List<Task> tasks;
+    private StageAnalysis analysis;
+    private long analysisMillis;
+
+    @Before
+    public void setUp() {
+        stages = new ArrayList<>();
+        tasks = new ArrayList<>();
+    }
+
+    @Given("^a Spark stage (\\d+) '(.+)' of (\\d+) tasks on (\\d+) executors reading (\\d+) MB of shuffle data in (\\d+) ms each$")
+    public void createStage(int stageId, String name, int taskCount, int executorCount, long megabytes, long runTime) throws Throwable {
+        stages.addAll(ObjectConvertUtils.convertJsonToList(String.format(
+                "[{\"status\":\"COMPLETE\",\"stageId\":%d,\"attemptId\":0,\"numCompleteTasks\":%d,\"name\":\"%s\"}]",
+                stageId, taskCount, name), Stage.class).orElseThrow(IOException::new));
+
+        // Tasks in the REST JSON form of /applications/{appId}/stages/{stageId}/{attemptId}/taskList
+        final StringBuilder json = new StringBuilder("[");
+        final int firstTaskId = tasks.size();
+        for (int i = 0; i < taskCount; i++) {
+            json.append(i == 0 ? "" : ",").append(String.format(
+                    "{\"taskId\":\"%d\",\"index\":\"%d\",\"attempt\":\"0\",\"launchTime\":\"2020-09-13T12:26:40.000GMT\"," +
+                            "\"executorId\":\"%d\",\"host\":\"wn%d\",\"taskLocality\":\"NODE_LOCAL\",\"speculative\":\"false\"," +
+                            "\"taskMetrics\":{\"executorDeserializeTime\":10,\"executorRunTime\":%d,\"resultSize\":2048," +
+                            "\"jvmGcTime\":0,\"resultSerializationTime\":0,\"memoryBytesSpilled\":0,\"diskBytesSpilled\":0," +
+                            "\"shuffleReadMetrics\":{\"remoteBlocksFetched\":4,\"localBlocksFetched\":1,\"fetchWaitTime\":0," +
+                            "\"remoteBytesRead\":%d,\"localBytesRead\":%d,\"recordsRead\":1000}}}",
+                    firstTaskId + i, i, i % executorCount, i % executorCount, runTime,
+                    megabytes * MB / 2, megabytes * MB / 2));
+        }
+        json.append("]");
+
+        final List<Task> stageTasks = ObjectConvertUtils.convertJsonToList(json.toString(), Task.class)
+                .orElseThrow(IOException::new);
+        // As JobViewCacheManager does for the tasks fetched of a stage
+        stageTasks.forEach(task -> task.setStageId(stageId));
+        tasks.addAll(stageTasks);
+    }
+
+    @Given("^(\\d+) tasks of stage (\\d+) read (\\d+) MB of shuffle data in (\\d+) ms$")
+    public void updateTasks(int taskCount, int stageId, long megabytes, long runTime) {
+        getTasks(stageId).stream().limit(taskCount).forEach(task -> {
+            task.getTaskMetrics().setExecutorRunTime(runTime);
+            task.getTaskMetrics().getShuffleReadMetrics().setRemoteBytesRead(megabytes * MB);
+            task.getTaskMetrics().getShuffleReadMetrics().setLocalBytesRead(0);
+        });
+    }
+
+    @Given("^(\\d+) tasks of stage (\\d+) spill (\\d+) MB to disk$")
+    public void spillTasks(int taskCount, int stageId, long megabytes) {
+        getTasks(stageId).stream().limit(taskCount).forEach(task -> {
+            task.getTaskMetrics().setMemoryBytesSpilled(megabytes * MB * 4);
+            task.getTaskMetrics().setDiskBytesSpilled(megabytes * MB);
+        });
+    }
+
+    @Given("^the tasks of stage (\\d+) spend (\\d+)% of their run time in GC$")
+    public void collectGarbage(int stageId, int percentage) {
+        getTasks(stageId).forEach(task ->
+                task.getTaskMetrics().setJvmGcTime(task.getTaskMetrics().getExecutorRunTime() * percentage / 100));
+    }
+
+    @Given("^the tasks of stage (\\d+) on executor '(.+)' read (\\d+) MB of shuffle data$")
+    public void updateExecutorTasks(int stageId, String executorId, long megabytes) {
+        getTasks(stageId).stream()
+                .filter(task -> task.getExecutorId().equals(executorId))
+                .forEach(task -> task.getTaskMetrics().getShuffleReadMetrics().setRemoteBytesRead(megabytes * MB));
+    }
+
+    @When("^analyze the Spark stages$")
+    public void analyze() {
+        final long start = System.nanoTime();
+        analysis = new SparkStageAnalyzer().analyze(stages, tasks);
+        analysisMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Then("^the stage findings should be:$")
+    public void checkFindings(List<Map<String, String>> expected) {
+        final List<Map<String, String>> actual = analysis.getFindings().stream()
+                .map(finding -> {
+                    final Map<String, String> row = new LinkedHashMap<>();
+                    row.put("type", finding.getType().name());
+                    row.put("severity", finding.getSeverity().name());
+                    row.put("stageId", String.valueOf(finding.getStageId()));
+                    row.put("tasks", String.valueOf(finding.getTaskIds().size()));
+                    row.put("executors", String.valueOf(finding.getExecutorIds().size()));
+                    return row;
+                })
+                .collect(Collectors.toList());
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Then("^there should be no stage finding$")
+    public void checkNoFinding() {
+        assertThat(analysis.getFindings()).isEmpty();
+    }
+
+    @Then("^the finding (\\d+) should list tasks '(.+)'$")
+    public void checkFindingTasks(int index, String taskIds) {
+        assertThat(String.join(",", analysis.getFindings().get(index - 1).getTaskIds())).isEqualTo(taskIds);
+    }
+
+    @Then("^the finding (\\d+) should list executors '(.+)'$")
+    public void checkFindingExecutors(int index, String executorIds) {
+        assertThat(String.join(",", analysis.getFindings().get(index - 1).getExecutorIds())).isEqualTo(executorIds);
+    }
+
+    @Then("^the finding (\\d+) should be named after stage '(.+)'$")
+    public void checkFindingStageName(int index, String stageName) {
+        assertThat(analysis.getFindings().get(index - 1).getStageName()).isEqualTo(stageName);
+    }
+
+    @Then("^the task durations of stage (\\d+) should range from (\\d+) ms with a median of (\\d+) ms to (\\d+) ms$")
+    public void checkDuration(int stageId, long min, long median, long max) {
+        final StageStatistics statistics = analysis.getStages().stream()
+                .filter(stage -> stage.getStageId() == stageId)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+
+        assertThat(statistics.getDuration().getMin()).isEqualTo(min);
+        assertThat(statistics.getDuration().getMedian()).isEqualTo(median);
+        assertThat(statistics.getDuration().getMax()).isEqualTo(max);
+    }
+
+    @Then("^the analysis should take less than (\\d+) ms$")
+    public void checkAnalysisTime(long millis) {
+        assertThat(analysisMillis).isLessThan(millis);
+    }
+
+    private List<Task> getTasks(int stageId) {
+        return tasks.stream()
+                .filter(task -> task.getStageId() == stageId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.run;
+
+import com.microsoft.azure.hdinsight.common.mvc.IdeSchedulers;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.cluster.LivyCluster;
+import com.microsoft.azure.hdinsight.sdk.cluster.YarnCluster;
+import com.microsoft.azure.hdinsight.spark.common.Deployable;
+import com.microsoft.azure.hdinsight.spark.common.SparkBatchJob;
+import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
+import com.microsoft.azure.hdinsight.spark.common.SparkSubmissionParameter;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import io.cucumber.java.After;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.io.FileUtils;
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class SparkBatchJobRemoteProcessScenario {
+    private static final int BATCH_ID = 7;
+
+    // The classes doing the work of a Spark batch job, a thread running them after cancel is leaked
+    private static final List<String> JOB_CLASS_PREFIXES = Arrays.asList(
+            "com.microsoft.azure.hdinsight.spark.common.SparkBatch",
+            "com.microsoft.azure.hdinsight.spark.common.ArtifactDeployCoordinator",
+            "com.microsoft.azure.hdinsight.spark.run.SparkBatchJobRemoteProcess",
+            "com.microsoft.azure.hdinsight.spark.run.SparkJobLog",
+            "com.microsoft.azure.hdinsight.sdk.common.HttpObservable");
+
+    private LivyStandIn livy;
+
+    // Run the IDE background tasks on an executor not interrupting the cancelled ones, as IntelliJ does
+    private final ThreadPoolExecutor ideExecutor =
+            new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.SECONDS, new SynchronousQueue<>());
+
+    private final IdeSchedulers schedulers = new IdeSchedulers() {
+        @Override
+        public Scheduler processBarVisibleAsync(@NotNull String title) {
+            return Schedulers.from(ideExecutor);
+        }
+
+        @Override
+        public Scheduler processBarVisibleSync(@NotNull String title) {
+            return Schedulers.immediate();
+        }
+
+        @Override
+        public Scheduler dispatchUIThread() {
+            return Schedulers.immediate();
+        }
+
+        @Override
+        public Scheduler dispatchPooledThread() {
+            return Schedulers.io();
+        }
+    };
+
+    private long deployDelayMillis = 0;
+    private File artifact;
+    private Set<Thread> threadsBusyBefore;
+    private SparkBatchJobRemoteProcess process;
+    private final List<SparkBatchJobSubmissionEvent> events = new CopyOnWriteArrayList<>();
+    private int requestCountAtCancel;
+
+    @After
+    public void tearDown() {
+        // The hooks run for the scenarios of all features
+        if (process != null) {
+            process.destroy();
+        }
+
+        if (livy != null) {
+            livy.close();
+        }
+
+        ideExecutor.shutdownNow();
+        FileUtils.deleteQuietly(artifact);
+    }
+
+    @Given("^start a local Livy stand-in with the batch in state '(.+)'$")
+    public void startLivy(String state) throws IOException {
+        threadsBusyBefore = getThreadsBusyForJobs();
+        livy = new LivyStandIn(state);
+    }
+
+    @Given("^the Livy stand-in has the batch in state '(.+)'$")
+    public void setBatchState(String state) {
+        livy.state = state;
+    }
+
+    @Given("^the Livy stand-in assigns the batch application '(.+)'$")
+    public void assignApplication(String appId) {
+        livy.appId = appId;
+    }
+
+    @Given("^the Livy stand-in takes (\\d+) ms to respond a submission$")
+    public void delaySubmission(long millis) {
+        livy.submissionDelayMillis = millis;
+    }
+
+    @Given("^the artifact takes (\\d+) ms to deploy$")
+    public void delayDeploy(long millis) {
+        deployDelayMillis = millis;
+    }
+
+    @When("^run a Spark batch job on the Livy stand-in$")
+    public void runJob() throws IOException {
+        artifact = File.createTempFile("artifact", ".jar");
+
+        final IClusterDetail cluster = mock(IClusterDetail.class,
+                                            withSettings().extraInterfaces(LivyCluster.class, YarnCluster.class));
+        when(cluster.getHttpUserName()).thenReturn("admin");
+        when(cluster.getHttpPassword()).thenReturn("password");
+        when(((LivyCluster) cluster).getLivyBatchUrl()).thenReturn(livy.getUrl() + "/batches");
+        when(((YarnCluster) cluster).getYarnNMConnectionUrl()).thenReturn(livy.getUrl() + "/yarnui/ws/v1/cluster/apps/");
+
+        final Deployable deploy = (src, logSubject) ->
+                Observable.just("wasbs://container@account.blob.core.windows.net/SparkSubmission/" + src.getName())
+                          .delay(deployDelayMillis, TimeUnit.MILLISECONDS);
+
+        final SparkBatchJob job = new SparkBatchJob(
+                cluster, new SparkSubmissionParameter(), SparkBatchSubmission.getInstance(), deploy);
+
+        process = new SparkBatchJobRemoteProcess(
+                schedulers, job, artifact.getAbsolutePath(), "Stand-in job", PublishSubject.create());
+        process.getEventSubject().subscribe(events::add, err -> {});
+        process.start();
+    }
+
+    @When("^wait until the Livy stand-in got (\\d+) (\\w+) requests?$")
+    public void waitForRequests(int count, String method) {
+        assertThat(waitFor(() -> livy.getRequestCount(method) >= count, 10_000))
+                .as("%d %s requests received", count, method)
+                .isTrue();
+    }
+
+    @When("^cancel the Spark batch job( 3 times concurrently)?$")
+    public void cancelJob(String concurrently) throws InterruptedException {
+        requestCountAtCancel = livy.getRequestCount(null);
+
+        if (concurrently == null) {
+            process.destroy();
+            return;
+        }
+
+        final CountDownLatch ready = new CountDownLatch(1);
+        final ExecutorService cancellers = Executors.newFixedThreadPool(3);
+
+        for (int i = 0; i < 3; i++) {
+            cancellers.submit(() -> {
+                ready.await();
+                process.destroy();
+                return null;
+            });
+        }
+
+        ready.countDown();
+        cancellers.shutdown();
+        assertThat(cancellers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Then("^check the Spark batch job is destroyed within (\\d+) ms$")
+    public void checkDestroyed(long millis) {
+        assertThat(waitFor(() -> process.isDestroyed() && process.isDisconnected(), millis)).isTrue();
+    }
+
+    @Then("^check the Spark batch job is killed$")
+    public void checkKilledEvent() {
+        assertThat(events).filteredOn(event -> event instanceof SparkBatchJobKilledEvent).hasSize(1);
+    }
+
+    @Then("^check the Livy stand-in got (\\d+) (\\w+) requests?$")
+    public void checkRequests(int count, String method) {
+        assertThat(livy.getRequestCount(method)).as("%s requests", method).isEqualTo(count);
+    }
+
+    @Then("^check the Livy stand-in gets no more than (\\d+) requests? in (\\d+) ms after cancel$")
+    public void checkNoMoreRequests(int count, long millis) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(millis);
+
+        assertThat(livy.getRequestCount(null) - requestCountAtCancel).isLessThanOrEqualTo(count);
+    }
+
+    @Then("^check no thread works for the Spark batch job within (\\d+) ms$")
+    public void checkNoThreadLeaked(long millis) {
+        final boolean isReleased = waitFor(
+                () -> ideExecutor.getActiveCount() == 0 && getThreadsBusyForJobs().equals(threadsBusyBefore), millis);
+
+        assertThat(isReleased)
+                .as("No thread works for the job, but got:\n%s", describeThreads(getThreadsBusyForJobs()))
+                .isTrue();
+    }
+
+    @Then("^check no connection to the Livy stand-in is open within (\\d+) ms$")
+    public void checkNoConnectionLeaked(long millis) {
+        assertThat(waitFor(() -> livy.openConnections.get() == 0, millis))
+                .as("%d connections open", livy.openConnections.get())
+                .isTrue();
+    }
+
+    private static boolean waitFor(BooleanSupplier condition, long millis) {
+        final long deadline = System.currentTimeMillis() + millis;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+
+            try {
+                TimeUnit.MILLISECONDS.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Set<Thread> getThreadsBusyForJobs() {
+        return Thread.getAllStackTraces().entrySet().stream()
+                .filter(threadStack -> threadStack.getKey() != Thread.currentThread())
+                .filter(threadStack -> Arrays.stream(threadStack.getValue()).anyMatch(frame ->
+                        JOB_CLASS_PREFIXES.stream().anyMatch(prefix -> frame.getClassName().startsWith(prefix))))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private static String describeThreads(Set<Thread> threads) {
+        return threads.stream()
+                .map(thread -> thread.getName() + "\n\tat " + Arrays.stream(thread.getStackTrace())
+                        .map(StackTraceElement::toString)
+                        .collect(Collectors.joining("\n\tat ")))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * A local Livy stand-in serving one batch, on a plain server socket to count the open client connections.
+     */
+    private static class LivyStandIn implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService connectionExecutor = Executors.newCachedThreadPool();
+        private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+        private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+        private final AtomicInteger openConnections = new AtomicInteger();
+        private volatile String state;
+        private volatile String appId;
+        private volatile long submissionDelayMillis = 0;
+
+        LivyStandIn(String state) throws IOException {
+            this.state = state;
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+            connectionExecutor.submit(() -> {
+                while (!serverSocket.isClosed()) {
+                    final Socket socket;
+
+                    try {
+                        socket = serverSocket.accept();
+                    } catch (IOException ignored) {
+                        return;
+                    }
+
+                    openConnections.incrementAndGet();
+                    sockets.add(socket);
+                    connectionExecutor.submit(() -> serve(socket));
+                }
+            });
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + serverSocket.getLocalPort();
+        }
+
+        int getRequestCount(String method) {
+            return method == null
+                    ? requestCounts.values().stream().mapToInt(AtomicInteger::get).sum()
+                    : requestCounts.getOrDefault(method, new AtomicInteger()).get();
+        }
+
+        private void serve(Socket socket) {
+            try (Socket ignored = socket;
+                 BufferedReader reader = new BufferedReader(
+                         new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1))) {
+                final OutputStream output = socket.getOutputStream();
+                String requestLine;
+
+                // Serve the requests of the kept alive connection until the client closes it
+                while ((requestLine = reader.readLine()) != null) {
+                    if (requestLine.isEmpty()) {
+                        continue;
+                    }
+
+                    int contentLength = 0;
+                    String header;
+                    while ((header = reader.readLine()) != null && !header.isEmpty()) {
+                        if (header.toLowerCase().startsWith("content-length:")) {
+                            contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+                        }
+                    }
+
+                    reader.skip(contentLength);
+
+                    final String[] methodPath = requestLine.split(" ");
+                    final String response = respond(methodPath[0], methodPath[1].split("\\?")[0]);
+                    final byte[] body = response.substring(4).getBytes(StandardCharsets.UTF_8);
+
+                    output.write(String.format("HTTP/1.1 %s\r\nContent-Type: application/json\r\nContent-Length: %d\r\n\r\n",
+                                               response.substring(0, 3), body.length)
+                                       .getBytes(StandardCharsets.ISO_8859_1));
+                    output.write(body);
+                    output.flush();
+                }
+            } catch (IOException ignored) {
+                // The connection is closed
+            } finally {
+                sockets.remove(socket);
+                openConnections.decrementAndGet();
+            }
+        }
+
+        // Respond the status code and the body, separated by a space
+        private String respond(String method, String path) {
+            requestCounts.computeIfAbsent(method, key -> new AtomicInteger()).incrementAndGet();
+
+            final String batchPath = "/batches/" + BATCH_ID;
+
+            if (method.equals("POST") && path.equals("/batches")) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(submissionDelayMillis);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return "201 " + getBatch();
+            } else if (method.equals("GET") && path.equals(batchPath)) {
+                return "200 " + getBatch();
+            } else if (method.equals("GET") && path.equals(batchPath + "/log")) {
+                return "200 {\"id\":" + BATCH_ID + ",\"from\":0,\"total\":0,\"log\":[]}";
+            } else if (method.equals("DELETE") && path.equals(batchPath)) {
+                state = "dead";
+                return "200 {\"msg\":\"deleted\"}";
+            }
+
+            return "404 {}";
+        }
+
+        private String getBatch() {
+            return String.format("{\"id\":%d,\"state\":\"%s\",\"appId\":%s,\"appInfo\":{},\"log\":[]}",
+                                 BATCH_ID, state, appId == null ? "null" : "\"" + appId + "\"");
+        }
+
+        @Override
+        public void close() {
+            try {
+                serverSocket.close();
+            } catch (IOException ignored) {
+            }
+
+            new ArrayList<>(sockets).forEach(socket -> {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            });
+
+            connectionExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.run
+
+import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob
+import io.cucumber.java.After
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.ArgumentMatchers.anyLong
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.mock
+import rx.Observable
+import java.io.ByteArrayOutputStream
+import java.time.Duration
+import java.util.AbstractMap.SimpleImmutableEntry
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class SparkJobLogMultiplexerScenario {
+    // The fake YARN container log server, container log URL to the log bytes written so far
+    private val containerLogs = ConcurrentHashMap<String, ByteArrayOutputStream>()
+    private val fetchingCount = AtomicInteger()
+    private val maxFetchingCount = AtomicInteger()
+    private val job = mock(ISparkBatchJob::class.java)
+
+    private var multiplexer: SparkJobLogMultiplexer? = null
+    private val streams = mutableListOf<SparkJobExecutorLogInputStream>()
+    private val received = ConcurrentHashMap<String, ByteArrayOutputStream>()
+    private var maxBufferedSize = 0L
+    private var fetchCountBeforeIdle = 0L
+    private var writer: Thread? = null
+
+    init {
+        // Serves the log like YARN: bytes from the offset, decoded as text, a multi-byte character cut by the end
+        // becomes replacement characters
+        doAnswer {
+            val url = it.getArgument<String>(0)
+            val offset = it.getArgument<Long>(2)
+            val size = it.getArgument<Int>(3)
+
+            val fetching = fetchingCount.incrementAndGet()
+            maxFetchingCount.accumulateAndGet(fetching) { a, b -> maxOf(a, b) }
+
+            try {
+                Thread.sleep(20)
+
+                val log = containerLogs[url]?.toByteArray() ?: ByteArray(0)
+                val end = if (size <= 0) log.size else minOf(log.size.toLong(), offset + size).toInt()
+
+                if (offset >= end) {
+                    Observable.empty()
+                } else {
+                    Observable.just(SimpleImmutableEntry(String(log, offset.toInt(), end - offset.toInt(), Charsets.UTF_8), offset))
+                }
+            } finally {
+                fetchingCount.decrementAndGet()
+            }
+        }.`when`(job).getContainerLog(anyString(), anyString(), anyLong(), anyInt())
+    }
+
+    @After
+    fun tearDown() {
+        streams.forEach { it.close() }
+    }
+
+    @Given("^a fake YARN log server with (\\d+) containers writing (\\d+) lines each$")
+    fun writeContainerLogs(containerCount: Int, lineCount: Int) {
+        (1..containerCount).forEach { container ->
+            val log = ByteArrayOutputStream()
+            (1..lineCount).forEach { line -> log.write(logLine(container, line).toByteArray(Charsets.UTF_8)) }
+            containerLogs[containerUrl(container)] = log
+        }
+    }
+
+    @Given("^a fake YARN log server with (\\d+) containers writing (\\d+) lines with malformed bytes each$")
+    fun writeMalformedContainerLogs(containerCount: Int, lineCount: Int) {
+        (1..containerCount).forEach { container ->
+            val log = ByteArrayOutputStream()
+            (1..lineCount).forEach { line ->
+                log.write(logLine(container, line).trimEnd('\n').toByteArray(Charsets.UTF_8))
+                // Bytes never valid in UTF-8, and a lone continuation byte
+                log.write(byteArrayOf(0xFF.toByte(), 0xFE.toByte(), 0x80.toByte(), '\n'.code.toByte()))
+            }
+            // Malformed bytes at the end of the log aren't followed by anything
+            log.write(0xFF)
+            containerLogs[containerUrl(container)] = log
+        }
+    }
+
+    @And("^the containers write (\\d+) more lines each in (\\d+) ms$")
+    fun appendContainerLogs(lineCount: Int, millis: Long) {
+        writer = thread(isDaemon = true) {
+            (1..lineCount).forEach { line ->
+                containerLogs.forEach { (url, log) ->
+                    log.write(logLine(url.substringAfterLast('_').toInt(), 10_000 + line).toByteArray(Charsets.UTF_8))
+                }
+                Thread.sleep(millis / lineCount)
+            }
+        }
+    }
+
+    @And("^attach stdout streams of all containers to a log multiplexer polling every (\\d+) to (\\d+) ms with (\\d+) bytes buffer$")
+    fun attachStreams(minMillis: Long, maxMillis: Long, bufferLimit: Long) {
+        multiplexer = SparkJobLogMultiplexer(Duration.ofMillis(minMillis), Duration.ofMillis(maxMillis), bufferLimit)
+
+        containerLogs.keys.sorted().forEach { url ->
+            val stream = SparkJobExecutorLogInputStream("stdout", url)
+            stream.attachJob(job, multiplexer!!)
+            streams.add(stream)
+        }
+    }
+
+    @And("^wait (\\d+) ms without reading the streams$")
+    fun waitWithoutReading(millis: Long) {
+        val deadline = System.currentTimeMillis() + millis
+        while (System.currentTimeMillis() < deadline) {
+            maxBufferedSize = maxOf(maxBufferedSize, multiplexer!!.bufferedSize)
+            Thread.sleep(10)
+        }
+    }
+
+    @And("^read the streams like consoles for up to (\\d+) ms until all logs are received$")
+    fun readStreams(millis: Long) {
+        val deadline = System.currentTimeMillis() + millis
+        val readers = streams.map { stream ->
+            thread(isDaemon = true) {
+                val output = received.computeIfAbsent(stream.logUrl) { ByteArrayOutputStream() }
+                val bytes = ByteArray(4096)
+                // The log received is decoded, each malformed byte becomes a replacement character of 3 bytes
+                var expectedSize = -1
+
+                while (System.currentTimeMillis() < deadline) {
+                    if (writer?.isAlive != true) {
+                        if (expectedSize < 0) {
+                            expectedSize = containerLogs[stream.logUrl]!!.toString(Charsets.UTF_8).toByteArray(Charsets.UTF_8).size
+                        }
+
+                        if (output.size() >= expectedSize) {
+                            break
+                        }
+                    }
+
+                    if (stream.available() > 0) {
+                        output.write(bytes, 0, stream.read(bytes))
+                    }
+                }
+            }
+        }
+
+        readers.forEach { it.join() }
+    }
+
+    @And("^record the fetch count and wait (\\d+) ms$")
+    fun recordFetchCount(millis: Long) {
+        fetchCountBeforeIdle = multiplexer!!.fetchCount
+        Thread.sleep(millis)
+    }
+
+    @Then("^check all logs are received byte by byte$")
+    fun checkLogsReceived() {
+        containerLogs.forEach { (url, log) ->
+            assertThat(received[url]?.toString(Charsets.UTF_8)).isEqualTo(log.toString(Charsets.UTF_8))
+        }
+    }
+
+    @Then("^check at most (\\d+) logs were fetched at the same time$")
+    fun checkConcurrentFetches(count: Int) {
+        assertThat(maxFetchingCount.get()).isLessThanOrEqualTo(count)
+    }
+
+    @Then("^check the buffered logs never exceeded (\\d+) bytes$")
+    fun checkBufferedSize(bufferLimit: Long) {
+        assertThat(maxBufferedSize).isGreaterThan(0)
+        assertThat(maxBufferedSize).isLessThanOrEqualTo(bufferLimit)
+    }
+
+    @Then("^check the idle containers were fetched at most (\\d+) times each$")
+    fun checkIdleFetchCount(count: Int) {
+        assertThat(multiplexer!!.fetchCount - fetchCountBeforeIdle).isLessThanOrEqualTo(count.toLong() * streams.size)
+    }
+
+    @Then("^check the multiplexer stops polling once the streams are closed$")
+    fun checkStopped() {
+        streams.forEach { it.close() }
+
+        assertThat(multiplexer!!.streamCount).isEqualTo(0)
+        assertThat(multiplexer!!.bufferedSize).isEqualTo(0)
+    }
+
+    private fun containerUrl(container: Int) = "http://10.0.0.%d:8042/node/containerlogs/container_1_0001_01_%06d".format(container % 250 + 1, container)
+
+    private fun logLine(container: Int, line: Int) = "容器 $container 第 $line 行: Executor task finished ✓\n"
+}
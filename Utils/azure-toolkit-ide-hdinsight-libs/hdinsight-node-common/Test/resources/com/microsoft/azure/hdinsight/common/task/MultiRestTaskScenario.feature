@@ -0,0 +1,25 @@
+Feature: Cluster REST Task Tests
+
+  Background:
+    Given setup a mock cluster service for paths '/ws/v1/history/jobs/{i}' of 1 to 12 responding '{"job":{i}}' after 500 ms
+    And setup a mock cluster service for paths '/ws/v1/history/slow/{i}' of 1 to 6 responding '{"slow":{i}}' after 5000 ms
+
+  Scenario: MultiRestTask gets the paths in parallel and keeps their order
+    Given get paths '/ws/v1/history/jobs/{i}' of 1 to 6 with a multi REST task
+    Then check the results are '{"job":{i}}' of 1 to 6 in order
+    And check the multi REST task took less than 1500 ms
+    And check the multi REST task recorded 6 request timings of at least 500 ms
+
+  Scenario: MultiRestTask bounds the concurrent requests against one host
+    Given get paths '/ws/v1/history/jobs/{i}' of 1 to 12 with a multi REST task
+    Then check the results are '{"job":{i}}' of 1 to 12 in order
+    And check the multi REST task took more than 1000 ms
+
+  Scenario: MultiRestTask fails once the timeout is exceeded
+    Given get paths '/ws/v1/history/slow/{i}' of 1 to 2 with a multi REST task with timeout 1000 ms
+    Then check the multi REST task failed with TimeoutException
+    And check the multi REST task took less than 2500 ms
+
+  Scenario: Cancelling a MultiRestTask aborts its requests and frees the connections
+    Given submit a multi REST task for paths '/ws/v1/history/slow/{i}' of 1 to 6 and cancel it after 300 ms
+    Then check the path '/ws/v1/history/jobs/1' is got within 2000 ms
@@ -0,0 +1,44 @@
+Feature: HDInsight Cluster Probe Cache Tests
+
+  Background:
+    Given HDInsight Spark cluster 'esp-cluster' with ETag 'etag-1' and role 'idbrokernode' in the subscription
+    And HDInsight Spark cluster 'reader-cluster' with ETag 'etag-1' and role 'workernode' in the subscription
+
+  Scenario: Cluster probe outcomes are reused across refreshes
+    Given refresh the HDInsight clusters with a new cluster manager
+    Then check the clusters were listed 1 times and probed 2 times
+    And refresh the HDInsight clusters with a new cluster manager
+    Then check the clusters were listed 2 times and probed 2 times
+    Then check the listed cluster 'esp-cluster' is MfaClusterDetail of role type OWNER
+    Then check the listed cluster 'reader-cluster' is ClusterDetail of role type READER
+
+  Scenario: Clusters changed are probed again
+    Given refresh the HDInsight clusters with a new cluster manager
+    And HDInsight Spark cluster 'reader-cluster' with ETag 'etag-2' and role 'workernode' in the subscription
+    And refresh the HDInsight clusters with a new cluster manager
+    Then check the clusters were listed 2 times and probed 3 times
+
+  Scenario: Stale cluster probe outcomes are used and revalidated in background
+    Given the cluster probe outcomes are revalidated after 0 seconds
+    And refresh the HDInsight clusters with a new cluster manager
+    Then check the clusters were listed 1 times and probed 2 times
+    And refresh the HDInsight clusters with a new cluster manager
+    Then check the listed cluster 'esp-cluster' is MfaClusterDetail of role type OWNER
+    Then check the clusters were probed 4 times after waiting 5 seconds
+
+  Scenario: Cluster probe outcomes are kept per account
+    Given refresh the HDInsight clusters with a new cluster manager
+    And sign in as 'reader@contoso.com'
+    And refresh the HDInsight clusters with a new cluster manager
+    Then check the clusters were listed 2 times and probed 4 times
+    And sign in as 'user@contoso.com'
+    And refresh the HDInsight clusters with a new cluster manager
+    Then check the clusters were listed 3 times and probed 4 times
+
+  Scenario: Nothing is cached without a signed-in account
+    Given sign out
+    And refresh the HDInsight clusters with a new cluster manager
+    And refresh the HDInsight clusters with a new cluster manager
+    Then check the clusters were listed 2 times and probed 4 times
+    Then check the listed cluster 'esp-cluster' is MfaClusterDetail of role type OWNER
+    Then check the listed cluster 'reader-cluster' is ClusterDetail of role type READER
@@ -0,0 +1,56 @@
+Feature: Livy Interactive Session Pool Tests
+
+  Background:
+    Given setup a mock livy service for session pool with POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
+    And setup a mock livy service for session pool with GET request '/sessions/6' to return '{"id":6,"appId":"application_1517029729598_0086","owner":null,"proxyUser":null,"state":"idle","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
+    And setup a mock livy service for session pool with POST request '/sessions/6/statements' to return '{"id":0,"state":"waiting","output":null}' with status code 200
+    And setup a mock livy service for session pool with GET request '/sessions/6/statements/0' to return '{"id":0,"state":"available","output":{"status":"ok","execution_count":0,"data":{"text/plain":"Hello World!"}}}' with status code 200
+    And setup a mock livy service for session pool with DELETE request '/sessions/6' to return '{}' with status code 200
+
+  Scenario: SessionPool.lease() reuses the released session
+    Given create a livy Spark interactive session pool of size 1 with idle timeout 600 seconds
+    And lease a session from the pool to run the codes 'println("Hello World!")' for 3 times
+    Then check all statement results from the pooled sessions should be 'Hello World!'
+    Then check the livy session pool has created 1 session and has 1 idle session
+
+  Scenario: SessionPool kills the session idle longer than the timeout
+    Given create a livy Spark interactive session pool of size 1 with idle timeout 1 seconds
+    And lease a session from the pool to run the codes 'println("Hello World!")' for 1 times
+    Then check the pooled session '/sessions/6' is killed after waiting 3 seconds
+
+  Scenario: SessionPool.of() replaces the shared pool once the password is updated
+    Given get the shared livy Spark interactive session pool of user 'admin' with password 'old'
+    Then check the shared livy session pool of user 'admin' with password 'old' is the same one
+    And get the shared livy Spark interactive session pool of user 'admin' with password 'new'
+    Then check the replaced livy session pool is closed
+    And check the shared livy session pool of user 'admin' with password 'new' is the same one
+    And close all shared livy session pools
+    Then check the shared livy session pool is closed
+
+  Scenario: SessionPool.warmUp() starts a session ahead of the lease
+    Given create a livy Spark interactive session pool of size 1 with idle timeout 600 seconds
+    And warm up the livy session pool and wait for 1 seconds
+    Then check the livy session pool has created 1 session and has 1 idle session
+    And lease a session from the pool to run the codes 'println("Hello World!")' for 1 times
+    Then check all statement results from the pooled sessions should be 'Hello World!'
+    Then check the livy session pool has created 1 session and has 1 idle session
+
+  Scenario: SessionPool.take() gives a session to discard rather than return
+    Given create a livy Spark interactive session pool of size 1 with idle timeout 600 seconds
+    And take a session from the pool and discard it once ready
+    Then check the livy session pool has created 1 session and has 0 idle session
+    And check the pooled session '/sessions/6' is killed after waiting 1 seconds
+
+  Scenario: SessionPool.closeOwnedBy() keeps the shared pool still used by other owners
+    Given get the shared livy Spark interactive session pool of size 1 owned by 'projectA'
+    Then check the shared livy session pool of size 1 owned by 'projectB' is the same one
+    And close the shared livy session pools owned by 'projectA'
+    Then check the shared livy session pool is open
+    And close the shared livy session pools owned by 'projectB'
+    Then check the shared livy session pool is closed
+
+  Scenario: SessionPool.of() replaces the shared pool once its options are updated
+    Given get the shared livy Spark interactive session pool of size 1 owned by 'projectA'
+    And get the shared livy Spark interactive session pool of size 2 owned by 'projectA'
+    Then check the replaced livy session pool is closed
+    And check the shared livy session pool of size 2 owned by 'projectA' is the same one
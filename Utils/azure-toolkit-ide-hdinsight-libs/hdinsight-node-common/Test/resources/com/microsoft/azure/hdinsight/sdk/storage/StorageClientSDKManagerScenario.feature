@@ -0,0 +1,12 @@
+Feature: Storage Client SDK Manager Tests
+
+  Scenario: uploadBlobFileContent() creates a new blob
+    Given setup a mock blob service with PUT request '/devstoreaccount1/jars/app.jar' to return '' with status code 201
+    And upload the content 'Hello World!' to the blob 'app.jar' of the container 'jars'
+    Then check the upload succeeded
+    And check the blob '/devstoreaccount1/jars/app.jar' was put only if not existing
+
+  Scenario: uploadBlobFileContent() doesn't overwrite an existing blob
+    Given setup a mock blob service with PUT request '/devstoreaccount1/jars/app.jar' to return '<?xml version="1.0" encoding="utf-8"?><Error><Code>BlobAlreadyExists</Code><Message>The specified blob already exists.</Message></Error>' with status code 409
+    And upload the content 'Hello World!' to the blob 'app.jar' of the container 'jars'
+    Then check the upload failed with 'BlobAlreadyExists'
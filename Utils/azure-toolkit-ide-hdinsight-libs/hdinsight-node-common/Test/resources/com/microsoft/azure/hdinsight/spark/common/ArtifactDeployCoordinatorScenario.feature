@@ -0,0 +1,48 @@
+Feature: ArtifactDeployCoordinator Testing
+
+  Background:
+    Given start a local WebHDFS and ADLS Gen2 storage stand-in
+
+  Scenario: ArtifactDeployCoordinator uploads artifacts to WebHDFS in parallel
+    Given create 8 local artifacts of 64 KB each
+    And the storage stand-in takes 200 ms to store each artifact
+    When deploy the artifacts to WebHDFS with parallelism 4 and 2 retries
+    Then check all artifacts are stored with their content
+    And check at most 4 artifacts were stored concurrently
+    And check more than 1 artifact was stored concurrently
+    And check the deploy log has 0 retry warnings
+    And check the deploy log has the throughput of 8 artifacts
+
+  Scenario: ArtifactDeployCoordinator uploads artifacts to ADLS Gen2 in parallel
+    Given create 8 local artifacts of 64 KB each
+    And the storage stand-in takes 200 ms to store each artifact
+    When deploy the artifacts to ADLS Gen2 with parallelism 4 and 2 retries
+    Then check all artifacts are stored with their content
+    And check at most 4 artifacts were stored concurrently
+    And check more than 1 artifact was stored concurrently
+    And check the deploy log has the throughput of 8 artifacts
+
+  Scenario: ArtifactDeployCoordinator retries the failed uploads of an artifact only
+    Given create 4 local artifacts of 16 KB each
+    And the storage stand-in fails 2 uploads of artifact 'artifact-3.jar'
+    When deploy the artifacts to WebHDFS with parallelism 2 and 2 retries
+    Then check all artifacts are stored with their content
+    And check artifact 'artifact-3.jar' was uploaded 3 times
+    And check artifact 'artifact-1.jar' was uploaded 1 time
+    And check the deploy log has 2 retry warnings
+
+  Scenario: ArtifactDeployCoordinator retries the upload not matching the artifact size
+    Given create 4 local artifacts of 16 KB each
+    And the storage stand-in truncates the first upload of artifact 'artifact-2.jar'
+    When deploy the artifacts to ADLS Gen2 with parallelism 2 and 2 retries
+    Then check all artifacts are stored with their content
+    And check artifact 'artifact-2.jar' was uploaded 2 times
+    And check artifact 'artifact-4.jar' was uploaded 1 time
+    And check the deploy log has 1 retry warning
+
+  Scenario: ArtifactDeployCoordinator fails the deploy once an artifact runs out of retries
+    Given create 3 local artifacts of 16 KB each
+    And the storage stand-in fails 5 uploads of artifact 'artifact-1.jar'
+    When deploy the artifacts to ADLS Gen2 with parallelism 3 and 2 retries
+    Then check the deploy fails with the message containing 'unexpected code 500'
+    And check artifact 'artifact-1.jar' was uploaded 3 times
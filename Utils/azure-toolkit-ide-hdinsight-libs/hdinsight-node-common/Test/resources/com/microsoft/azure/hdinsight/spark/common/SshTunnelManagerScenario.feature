@@ -0,0 +1,30 @@
+Feature: SSH Tunnel Manager Tests
+
+  Background:
+    Given start an embedded SSH server with 24 echo servers behind it
+
+  Scenario: Debug sessions to one SSH endpoint share one connection for all forwards
+    Given open 3 debug sessions to the embedded SSH server
+    And forward all echo servers through each debug session concurrently
+    Then check all forwarded ports echo
+    And check each echo server is forwarded to one local port
+    And check the embedded SSH server accepted 1 connection
+    And check the SSH tunnel manager has 1 tunnel
+
+  Scenario: A dropped SSH connection is reconnected with the forwarded ports kept
+    Given open 2 debug sessions to the embedded SSH server
+    And forward all echo servers through each debug session concurrently
+    And drop the connections at the embedded SSH server
+    And forward all echo servers through each debug session concurrently
+    Then check all forwarded ports echo
+    And check the forwarded local ports are kept
+    And check the embedded SSH server accepted 2 connections
+
+  Scenario: The SSH connection is closed once all debug sessions are closed
+    Given open 3 debug sessions to the embedded SSH server
+    And forward all echo servers through each debug session concurrently
+    And close 2 of the debug sessions
+    Then check the SSH tunnel manager has 1 tunnel
+    And close 1 of the debug sessions
+    Then check the SSH tunnel manager has 0 tunnels
+    And check the embedded SSH server has no connection within 5000 ms
@@ -0,0 +1,37 @@
+Feature: SparkEventLogStore Testing
+
+  Scenario: SparkEventLogStore indexes jobs, stages, tasks, executors and SQL executions of an event log
+    Given a Spark event log of application 'application_1600000000000_0001' with 3 jobs of 2 stages of 50 tasks on 4 executors
+    When ingest Spark application 'application_1600000000000_0001' of cluster 'spark-cluster'
+    Then Spark application 'application_1600000000000_0001' of cluster 'spark-cluster' should be indexed as 'application_1600000000000_0001-name' with 3 jobs, 6 stages, 300 tasks and 4 executors
+    And all jobs of Spark application 'application_1600000000000_0001' of cluster 'spark-cluster' should succeed with 100 tasks completed each
+    And all stages of Spark application 'application_1600000000000_0001' of cluster 'spark-cluster' should complete with 50 tasks each
+    And the executors of Spark application 'application_1600000000000_0001' of cluster 'spark-cluster' should run 300 tasks in total
+    And Spark application 'application_1600000000000_0001' of cluster 'spark-cluster' should have 3 completed SQL executions of 1 jobs each
+
+  Scenario: SparkEventLogStore ingests a large event log
+    Given a Spark event log of application 'application_1600000000000_0002' with 10 jobs of 4 stages of 1000 tasks on 50 executors
+    When ingest Spark application 'application_1600000000000_0002' of cluster 'spark-cluster'
+    Then Spark application 'application_1600000000000_0002' of cluster 'spark-cluster' should be indexed as 'application_1600000000000_0002-name' with 10 jobs, 40 stages, 40000 tasks and 50 executors
+    And the executors of Spark application 'application_1600000000000_0002' of cluster 'spark-cluster' should run 40000 tasks in total
+
+  Scenario: SparkEventLogStore serves an ingested application offline without downloading it again
+    Given a Spark event log of application 'application_1600000000000_0003' with 2 jobs of 1 stages of 10 tasks on 2 executors
+    And a Spark event log of application 'application_1600000000000_0004' with 1 jobs of 1 stages of 10 tasks on 2 executors
+    When ingest Spark application 'application_1600000000000_0003' of cluster 'spark-cluster'
+    And ingest Spark application 'application_1600000000000_0004' of cluster 'spark-cluster'
+    And ingest Spark application 'application_1600000000000_0003' of cluster 'spark-cluster'
+    Then the event logs should be downloaded 2 times
+    When restart the Spark event log store without network
+    And ingest Spark application 'application_1600000000000_0003' of cluster 'spark-cluster'
+    Then Spark application 'application_1600000000000_0003' of cluster 'spark-cluster' should be indexed as 'application_1600000000000_0003-name' with 2 jobs, 2 stages, 20 tasks and 2 executors
+    And the indexed applications of cluster 'spark-cluster' should be:
+      | application_1600000000000_0004 |
+      | application_1600000000000_0003 |
+    And there should be no indexed applications of cluster 'other-cluster'
+    And ingesting Spark application 'application_1600000000000_0005' of cluster 'spark-cluster' should fail
+
+  Scenario: SparkEventLogStore skips the truncated last line of an event log
+    Given a truncated Spark event log of application 'application_1600000000000_0006' with 1 jobs of 2 stages of 10 tasks on 2 executors
+    When ingest Spark application 'application_1600000000000_0006' of cluster 'spark-cluster'
+    Then Spark application 'application_1600000000000_0006' of cluster 'spark-cluster' should be indexed as 'application_1600000000000_0006-name' with 1 jobs, 2 stages, 20 tasks and 2 executors
@@ -0,0 +1,60 @@
+Feature: SparkStageAnalyzer Testing
+
+  Scenario: SparkStageAnalyzer finds no problem in a uniform stage
+    Given a Spark stage 1 'map at WordCount.scala:12' of 200 tasks on 10 executors reading 16 MB of shuffle data in 2000 ms each
+    When analyze the Spark stages
+    Then there should be no stage finding
+    And the task durations of stage 1 should range from 2000 ms with a median of 2000 ms to 2000 ms
+
+  Scenario: SparkStageAnalyzer finds stragglers not explained by the data read
+    Given a Spark stage 2 'count at WordCount.scala:20' of 100 tasks on 10 executors reading 16 MB of shuffle data in 2000 ms each
+    And 2 tasks of stage 2 read 16 MB of shuffle data in 40000 ms
+    And 1 tasks of stage 2 read 16 MB of shuffle data in 50000 ms
+    When analyze the Spark stages
+    Then the stage findings should be:
+      | type      | severity | stageId | tasks | executors |
+      | STRAGGLER | CRITICAL | 2       | 2     | 2         |
+    And the finding 1 should list tasks '0,1'
+    And the finding 1 should list executors '0,1'
+    And the finding 1 should be named after stage 'count at WordCount.scala:20'
+    And the task durations of stage 2 should range from 2000 ms with a median of 2000 ms to 50000 ms
+
+  Scenario: SparkStageAnalyzer ranks the findings of stages by severity and impact
+    Given a Spark stage 1 'map at WordCount.scala:12' of 200 tasks on 10 executors reading 16 MB of shuffle data in 2000 ms each
+    And 3 tasks of stage 1 read 512 MB of shuffle data in 60000 ms
+    And a Spark stage 2 'count at WordCount.scala:20' of 100 tasks on 10 executors reading 16 MB of shuffle data in 2000 ms each
+    And 2 tasks of stage 2 read 16 MB of shuffle data in 40000 ms
+    When analyze the Spark stages
+    Then the stage findings should be:
+      | type              | severity | stageId | tasks | executors |
+      | SKEWED_PARTITION  | CRITICAL | 1       | 3     | 0         |
+      | STRAGGLER         | CRITICAL | 2       | 2     | 2         |
+      | SHUFFLE_IMBALANCE | WARNING  | 1       | 0     | 3         |
+
+  Scenario: SparkStageAnalyzer finds disk spill and GC pressure
+    Given a Spark stage 3 'join at Report.scala:42' of 100 tasks on 10 executors reading 16 MB of shuffle data in 10000 ms each
+    And 60 tasks of stage 3 spill 8 MB to disk
+    And the tasks of stage 3 spend 15% of their run time in GC
+    When analyze the Spark stages
+    Then the stage findings should be:
+      | type        | severity | stageId | tasks | executors |
+      | DISK_SPILL  | CRITICAL | 3       | 10    | 0         |
+      | GC_PRESSURE | WARNING  | 3       | 10    | 0         |
+
+  Scenario: SparkStageAnalyzer finds shuffle imbalance across executors
+    Given a Spark stage 4 'groupBy at Report.scala:50' of 100 tasks on 4 executors reading 16 MB of shuffle data in 2000 ms each
+    And the tasks of stage 4 on executor '0' read 48 MB of shuffle data
+    When analyze the Spark stages
+    Then the stage findings should be:
+      | type              | severity | stageId | tasks | executors |
+      | SHUFFLE_IMBALANCE | WARNING  | 4       | 0     | 1         |
+    And the finding 1 should list executors '0'
+
+  Scenario: SparkStageAnalyzer analyzes a large stage in bounded time
+    Given a Spark stage 5 'map at Etl.scala:8' of 100000 tasks on 100 executors reading 16 MB of shuffle data in 2000 ms each
+    And 5 tasks of stage 5 read 16 MB of shuffle data in 90000 ms
+    When analyze the Spark stages
+    Then the stage findings should be:
+      | type      | severity | stageId | tasks | executors |
+      | STRAGGLER | CRITICAL | 5       | 5     | 5         |
+    And the analysis should take less than 5000 ms
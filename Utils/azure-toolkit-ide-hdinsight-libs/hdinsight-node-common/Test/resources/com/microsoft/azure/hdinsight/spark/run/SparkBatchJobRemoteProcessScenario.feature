@@ -0,0 +1,56 @@
+Feature: SparkBatchJobRemoteProcess Testing
+
+  Background:
+    Given start a local Livy stand-in with the batch in state 'starting'
+
+  Scenario: SparkBatchJobRemoteProcess kills the running job once and stops polling at cancel
+    Given the Livy stand-in assigns the batch application 'application_1_0001'
+    And the Livy stand-in has the batch in state 'running'
+    When run a Spark batch job on the Livy stand-in
+    And wait until the Livy stand-in got 3 GET requests
+    And cancel the Spark batch job
+    Then check the Spark batch job is destroyed within 2000 ms
+    And check the Spark batch job is killed
+    And check the Livy stand-in got 1 DELETE request
+    And check the Livy stand-in gets no more than 1 request in 1500 ms after cancel
+    And check no thread works for the Spark batch job within 2000 ms
+    And check no connection to the Livy stand-in is open within 2000 ms
+
+  Scenario: SparkBatchJobRemoteProcess stops waiting for the starting job at cancel
+    When run a Spark batch job on the Livy stand-in
+    And wait until the Livy stand-in got 1 GET request
+    And cancel the Spark batch job
+    Then check the Spark batch job is destroyed within 2000 ms
+    And check the Livy stand-in got 1 DELETE request
+    And check no thread works for the Spark batch job within 2000 ms
+    And check no connection to the Livy stand-in is open within 2000 ms
+
+  Scenario: SparkBatchJobRemoteProcess submits nothing if cancelled while deploying
+    Given the artifact takes 1000 ms to deploy
+    When run a Spark batch job on the Livy stand-in
+    And cancel the Spark batch job
+    Then check the Spark batch job is destroyed within 2000 ms
+    And check the Livy stand-in gets no more than 0 requests in 1500 ms after cancel
+    And check the Livy stand-in got 0 POST requests
+    And check the Livy stand-in got 0 DELETE requests
+    And check no thread works for the Spark batch job within 2000 ms
+
+  Scenario: SparkBatchJobRemoteProcess kills the batch submitted in flight at cancel
+    Given the Livy stand-in takes 1000 ms to respond a submission
+    When run a Spark batch job on the Livy stand-in
+    And wait until the Livy stand-in got 1 POST request
+    And cancel the Spark batch job
+    Then check the Spark batch job is destroyed within 3000 ms
+    And check the Spark batch job is killed
+    And check the Livy stand-in got 1 DELETE request
+    And check no thread works for the Spark batch job within 2000 ms
+    And check no connection to the Livy stand-in is open within 2000 ms
+
+  Scenario: SparkBatchJobRemoteProcess kills the job once for repeated cancels
+    When run a Spark batch job on the Livy stand-in
+    And wait until the Livy stand-in got 1 GET request
+    And cancel the Spark batch job 3 times concurrently
+    Then check the Spark batch job is destroyed within 2000 ms
+    And check the Spark batch job is killed
+    And check the Livy stand-in got 1 DELETE request
+    And check no thread works for the Spark batch job within 2000 ms
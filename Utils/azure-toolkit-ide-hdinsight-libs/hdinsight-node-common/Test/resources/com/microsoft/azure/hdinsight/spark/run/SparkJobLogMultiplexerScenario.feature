@@ -0,0 +1,32 @@
+Feature: Spark Job Log Multiplexer Tests
+
+  Scenario: Logs of hundreds of containers are fetched with bounded concurrency and exact offsets
+    Given a fake YARN log server with 300 containers writing 20 lines each
+    And attach stdout streams of all containers to a log multiplexer polling every 200 to 2000 ms with 4194304 bytes buffer
+    And the containers write 10 more lines each in 1000 ms
+    And read the streams like consoles for up to 30000 ms until all logs are received
+    Then check all logs are received byte by byte
+    And check at most 6 logs were fetched at the same time
+    And check the multiplexer stops polling once the streams are closed
+
+  Scenario: Idle container logs are polled less and less often
+    Given a fake YARN log server with 20 containers writing 5 lines each
+    And attach stdout streams of all containers to a log multiplexer polling every 100 to 1600 ms with 4194304 bytes buffer
+    And read the streams like consoles for up to 10000 ms until all logs are received
+    And record the fetch count and wait 3000 ms
+    Then check the idle containers were fetched at most 6 times each
+
+  Scenario: Logs not read by the consoles are bounded by the buffer
+    Given a fake YARN log server with 50 containers writing 200 lines each
+    And attach stdout streams of all containers to a log multiplexer polling every 100 to 1000 ms with 65536 bytes buffer
+    And wait 2000 ms without reading the streams
+    Then check the buffered logs never exceeded 65536 bytes
+    And read the streams like consoles for up to 30000 ms until all logs are received
+    And check all logs are received byte by byte
+
+  Scenario: Logs with malformed bytes are fetched to the end without drifting
+    Given a fake YARN log server with 10 containers writing 20 lines with malformed bytes each
+    And attach stdout streams of all containers to a log multiplexer polling every 100 to 400 ms with 64 bytes buffer
+    And read the streams like consoles for up to 30000 ms until all logs are received
+    Then check all logs are received byte by byte
+    And check the multiplexer stops polling once the streams are closed
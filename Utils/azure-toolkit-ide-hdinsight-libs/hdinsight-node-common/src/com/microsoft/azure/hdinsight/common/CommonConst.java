@@ -43,6 +43,9 @@ public class CommonConst {
 
     public static final String ENABLE_HDINSIGHT_NEW_SDK = "Enable.HDInsight.New.SDK";
     public static final String HDINSIGHT_ADDITIONAL_CLUSTERS = "com.microsoft.azure.hdinsight.AdditionalClusters";
+    public static final String HDINSIGHT_CLUSTER_PROBE_CACHE = "com.microsoft.azure.hdinsight.ClusterProbeCache";
+    public static final String LIVY_SESSION_POOL_SIZE = "com.microsoft.azure.hdinsight.LivySessionPool.Size";
+    public static final String LIVY_SESSION_POOL_IDLE_TIMEOUT_MINUTES = "com.microsoft.azure.hdinsight.LivySessionPool.IdleTimeoutMinutes";
     public static final String HDINSIGHT_ADDITIONAL_MFA_CLUSTERS = "com.microsoft.azure.hdinsight.AdditionalMfaClusters";
     public static final String HDINSIGHT_LIVY_LINK_CLUSTERS = "com.microsoft.azure.hdinsight.LivyLinkClusters";
     public static final String SQL_BIG_DATA_LIVY_LINK_CLUSTERS = "com.microsoft.azure.sqlbigdata.SqlBigDataLivyLinkClusters";
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.common.task;
+
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pooled HTTP clients of clusters shared by the REST tasks, one per cluster.
+ *
+ * Connections are kept alive between tasks, and at most {@link #MAX_CONNECTIONS_PER_HOST} requests are in flight
+ * against one host, the others wait for a free connection.
+ */
+public class ClusterHttpClients {
+    public static final int MAX_CONNECTIONS_PER_HOST = 6;
+    private static final int MAX_CONNECTIONS = 64;
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int SOCKET_TIMEOUT_MS = 60_000;
+    private static final Logger logger = Logger.getLogger(ClusterHttpClients.class.getName());
+    private static final Map<String, PooledClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Get the pooled client of the cluster, a new one is created if the cluster credential changed.
+     */
+    @NotNull
+    public static CloseableHttpClient get(@NotNull IClusterDetail clusterDetail) {
+        String username = null;
+        String password = null;
+        try {
+            username = clusterDetail.getHttpUserName();
+            password = clusterDetail.getHttpPassword();
+        } catch (HDIException e) {
+            logger.log(Level.WARNING, "Can't get the credential of cluster " + clusterDetail.getName(), e);
+        }
+
+        final String credential = username + ":" + Objects.hashCode(password);
+        final String user = username;
+        final String pass = password;
+        final PooledClient pooled = clients.compute(clusterDetail.getName(), (name, existing) -> {
+            if (existing != null && existing.credential.equals(credential)) {
+                return existing;
+            }
+
+            if (existing != null) {
+                close(existing.client);
+            }
+
+            return new PooledClient(credential, createClient(user, pass));
+        });
+
+        return pooled.client;
+    }
+
+    /**
+     * Close all pooled clients, the in-flight requests are aborted.
+     */
+    public static void closeAll() {
+        clients.values().forEach(pooled -> close(pooled.client));
+        clients.clear();
+    }
+
+    private static CloseableHttpClient createClient(final String username, final String password) {
+        final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        if (username != null) {
+            credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(username, password));
+        }
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                .setSocketTimeout(SOCKET_TIMEOUT_MS)
+                .setConnectionRequestTimeout(SOCKET_TIMEOUT_MS)
+                .build();
+
+        // with system properties, the client builder sizes its pool by `http.maxConnections`, so the pool is built here
+        final Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build();
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_HOST);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setDefaultCredentialsProvider(credentialsProvider)
+                .build();
+    }
+
+    private static void close(final CloseableHttpClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Failed to close the cluster HTTP client", e);
+        }
+    }
+
+    private static class PooledClient {
+        private final String credential;
+        private final CloseableHttpClient client;
+
+        PooledClient(final String credential, final CloseableHttpClient client) {
+            this.credential = credential;
+            this.client = client;
+        }
+    }
+}
@@ -6,57 +6,104 @@
 package com.microsoft.azure.hdinsight.common.task;
 
 import com.google.common.util.concurrent.FutureCallback;
-import com.microsoft.azure.hdinsight.common.HttpResponseWithoutHeader;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
-import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
+/**
+ * Get the paths of a cluster in parallel, the results are in the order of paths.
+ *
+ * The requests share the pooled client of the cluster, so the concurrency against one host is bounded by
+ * {@link ClusterHttpClients#MAX_CONNECTIONS_PER_HOST}. The task fails with the first failed request, or with
+ * TimeoutException if the requests aren't done within the timeout, and the remaining requests are aborted.
+ */
 public class MultiRestTask extends Task<List<String>> {
     protected final IClusterDetail clusterDetail;
     protected final List<String> paths;
-    private final CredentialsProvider credentialsProvider =  new BasicCredentialsProvider();
+    @Nullable
+    private final Duration timeout;
+    private volatile List<RestTask> requests = Collections.emptyList();
+    private final List<ListenableFuture<String>> futures = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean cancelled = false;
 
     public MultiRestTask(@NotNull IClusterDetail clusterDetail, @NotNull List<String> paths, @NotNull FutureCallback<List<String>> callback) {
+        this(clusterDetail, paths, null, callback);
+    }
+
+    public MultiRestTask(@NotNull IClusterDetail clusterDetail,
+                         @NotNull List<String> paths,
+                         @Nullable Duration timeout,
+                         @Nullable FutureCallback<List<String>> callback) {
         super(callback);
         this.clusterDetail = clusterDetail;
         this.paths = paths;
-        try {
-            credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(clusterDetail.getHttpUserName(), clusterDetail.getHttpPassword()));
-        } catch (HDIException e) {
-            e.printStackTrace();
-        }
+        this.timeout = timeout;
     }
 
     @Override
     public List<String> call() throws Exception {
-        CloseableHttpClient httpclient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCredentialsProvider(credentialsProvider).build();
-        List<String> results = new ArrayList<>();
-        for(String path: paths) {
-            HttpGet httpGet = new HttpGet(path);
-            httpGet.addHeader("Content-Type", "application/json");
-            CloseableHttpResponse response = httpclient.execute(httpGet);
-            int code = response.getStatusLine().getStatusCode();
-            if(code == 200 || code == 201) {
-                results.add(EntityUtils.toString(response.getEntity()));
-            } else {
-                throw new HDIException(response.getStatusLine().getReasonPhrase(), code);
+        final long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+        requests = paths.stream()
+                .map(path -> new RestTask(clusterDetail, path, null))
+                .collect(Collectors.toList());
+
+        for (RestTask request : requests) {
+            futures.add(TaskExecutor.submitRequest(request));
+        }
+
+        if (cancelled) {
+            cancelRequests();
+        }
+
+        try {
+            final List<String> results = new ArrayList<>(paths.size());
+            for (ListenableFuture<String> future : futures) {
+                results.add(timeout == null ? future.get() : future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
             }
+
+            return results;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException(String.format("Requests to %s aren't done in %d ms", clusterDetail.getName(), timeout.toMillis()));
+        } finally {
+            cancelRequests();
+            logger.fine(String.format("%d requests to %s: %s", requests.size(), clusterDetail.getName(), getTimings()));
         }
+    }
 
-        return results;
+    @Override
+    public void cancel() {
+        cancelled = true;
+        cancelRequests();
+    }
+
+    /**
+     * @return the timings of the requests sent, in the order of paths
+     */
+    @NotNull
+    public List<RestTask.Timing> getTimings() {
+        return requests.stream()
+                .map(RestTask::getTiming)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void cancelRequests() {
+        synchronized (futures) {
+            // no-op for the done ones
+            futures.forEach(future -> future.cancel(true));
+        }
     }
 }
@@ -8,58 +8,76 @@ package com.microsoft.azure.hdinsight.common.task;
 import com.google.common.util.concurrent.FutureCallback;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
-import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
 import com.microsoft.azure.hdinsight.common.HttpResponseWithoutHeader;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.HttpEntity;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 
 public class RestTask extends Task<String> {
 
     protected final IClusterDetail clusterDetail;
     protected final String path;
-    private final CredentialsProvider credentialsProvider =  new BasicCredentialsProvider();
+    private volatile HttpGet request;
+    private volatile boolean cancelled = false;
+    private volatile Timing timing;
 
-    public RestTask(@NotNull IClusterDetail clusterDetail, @NotNull String path, @NotNull FutureCallback<String> callback) {
+    public RestTask(@NotNull IClusterDetail clusterDetail, @NotNull String path, @Nullable FutureCallback<String> callback) {
         super(callback);
         this.clusterDetail = clusterDetail;
         this.path = path;
-        try {
-            credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(clusterDetail.getHttpUserName(), clusterDetail.getHttpPassword()));
-        } catch (HDIException e) {
-            e.printStackTrace();
-        }
     }
 
     @Override
     public String call() throws Exception {
-        CloseableHttpClient httpclient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCredentialsProvider(credentialsProvider).build();
         HttpGet httpGet = new HttpGet(path);
         httpGet.addHeader("Content-Type", "application/json");
+        request = httpGet;
+        if (cancelled) {
+            throw new CancellationException("Request " + path + " is cancelled");
+        }
 
-        CloseableHttpResponse response = httpclient.execute(httpGet);
-        HttpResponseWithoutHeader header = getResultFromHttpResponse(response);
-        if(header.getStatusCode() == 200 || header.getStatusCode() == 201) {
-            return header.getMessage();
-        } else {
-            throw new HDIException(header.getReason(), header.getStatusCode());
+        final long start = System.nanoTime();
+        int statusCode = -1;
+        try (CloseableHttpResponse response = ClusterHttpClients.get(clusterDetail).execute(httpGet)) {
+            HttpResponseWithoutHeader header = getResultFromHttpResponse(response);
+            statusCode = header.getStatusCode();
+            if (statusCode == 200 || statusCode == 201) {
+                return header.getMessage();
+            } else {
+                throw new HDIException(header.getReason(), statusCode);
+            }
+        } finally {
+            timing = new Timing(path, statusCode, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            logger.fine(timing.toString());
         }
     }
 
+    @Override
+    public void cancel() {
+        cancelled = true;
+        final HttpGet httpGet = request;
+        if (httpGet != null) {
+            httpGet.abort();
+        }
+    }
+
+    /**
+     * @return the timing of the request, NULL if it's not sent
+     */
+    @Nullable
+    public Timing getTiming() {
+        return timing;
+    }
+
     private static HttpResponseWithoutHeader getResultFromHttpResponse(@NotNull CloseableHttpResponse response) throws IOException {
         int code = response.getStatusLine().getStatusCode();
         String reason = response.getStatusLine().getReasonPhrase();
@@ -82,4 +100,36 @@ public class RestTask extends Task<String> {
 
         return result.toString();
     }
+
+    public static class Timing {
+        private final String path;
+        private final int statusCode;
+        private final long elapsedMillis;
+
+        Timing(@NotNull String path, int statusCode, long elapsedMillis) {
+            this.path = path;
+            this.statusCode = statusCode;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return the HTTP status code, -1 if the request failed without response
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("GET %s: %d in %d ms", path, statusCode, elapsedMillis);
+        }
+    }
 }
@@ -21,6 +21,12 @@ public abstract class Task<V> implements Callable<V> {
             this.callback = callback;
     }
 
+    /**
+     * Abort the in-flight work of the task, called by {@link TaskExecutor} once the future of the task is cancelled.
+     */
+    public void cancel() {
+    }
+
     public static final FutureCallback<Object> EMPTY_CALLBACK = new FutureCallback<Object>() {
         @Override
         public void onSuccess(Object o) {
@@ -9,16 +9,66 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 
+import java.time.Duration;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class TaskExecutor {
-    private static ListeningExecutorService executors = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    private static final int MAX_TASK_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    // requests fanned out by tasks have their own threads, a task waiting for its requests never starves them
+    private static final int MAX_REQUEST_THREADS = 32;
+
+    private static ListeningExecutorService executors = newBoundedExecutor("hdinsight-task-%d", MAX_TASK_THREADS);
+    private static final ListeningExecutorService requestExecutors = newBoundedExecutor("hdinsight-request-%d", MAX_REQUEST_THREADS);
+    private static final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("hdinsight-task-deadline").setDaemon(true).build());
 
     public static <T> ListenableFuture<T> submit(@NotNull Task<T> task) {
         final ListenableFuture<T> listenableFuture = executors.submit(task);
-        Futures.addCallback(listenableFuture, task.callback, MoreExecutors.directExecutor());
+        cancelTaskWith(listenableFuture, task);
+        if (task.callback != null) {
+            Futures.addCallback(listenableFuture, task.callback, MoreExecutors.directExecutor());
+        }
+        return listenableFuture;
+    }
+
+    /**
+     * Submit the task which is cancelled if not done within the timeout, the callback gets a CancellationException then.
+     */
+    public static <T> ListenableFuture<T> submit(@NotNull Task<T> task, @NotNull Duration timeout) {
+        final ListenableFuture<T> listenableFuture = submit(task);
+        deadlines.schedule(() -> listenableFuture.cancel(true), timeout.toMillis(), TimeUnit.MILLISECONDS);
         return listenableFuture;
     }
+
+    /**
+     * Submit a request of a task, without callback.
+     */
+    static <T> ListenableFuture<T> submitRequest(@NotNull Task<T> request) {
+        final ListenableFuture<T> listenableFuture = requestExecutors.submit(request);
+        cancelTaskWith(listenableFuture, request);
+        return listenableFuture;
+    }
+
+    private static void cancelTaskWith(@NotNull ListenableFuture<?> future, @NotNull Task<?> task) {
+        // interrupting the thread doesn't abort a blocking socket read, the task has to do it
+        future.addListener(() -> {
+            if (future.isCancelled()) {
+                task.cancel();
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static ListeningExecutorService newBoundedExecutor(@NotNull String nameFormat, int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return MoreExecutors.listeningDecorator(executor);
+    }
 }
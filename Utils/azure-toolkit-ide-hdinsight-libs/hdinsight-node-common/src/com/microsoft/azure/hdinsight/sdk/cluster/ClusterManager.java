@@ -9,8 +9,10 @@ import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.ClusterOperationNewAPIImpl;
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType;
 import com.microsoft.azure.hdinsight.sdk.common.AuthType;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
+import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
 import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
@@ -20,6 +22,8 @@ import rx.schedulers.Schedulers;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class ClusterManager implements ILogger {
     // Singleton Instance
@@ -37,7 +41,28 @@ public class ClusterManager implements ILogger {
         return instance;
     }
 
+    @NotNull
+    private final ClusterProbeCache probeCache;
+    @NotNull
+    private final Function<Subscription, ClusterOperationImpl> clusterOperationFactory;
+    @NotNull
+    private final Function<Subscription, ClusterOperationNewAPIImpl> newApiOperationFactory;
+    // IDs of clusters being revalidated in background
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
     private ClusterManager() {
+        this(new ClusterProbeCache(), subscription -> new ClusterOperationImpl(), ClusterOperationNewAPIImpl::new);
+
+        // The probe outcomes of the signed-out account are of no use and tell its role types, drop them all
+        AzureEventBus.on("account.logged_out.account", new AzureEventBus.EventListener(event -> probeCache.clear()));
+    }
+
+    ClusterManager(@NotNull ClusterProbeCache probeCache,
+                   @NotNull Function<Subscription, ClusterOperationImpl> clusterOperationFactory,
+                   @NotNull Function<Subscription, ClusterOperationNewAPIImpl> newApiOperationFactory) {
+        this.probeCache = probeCache;
+        this.clusterOperationFactory = clusterOperationFactory;
+        this.newApiOperationFactory = newApiOperationFactory;
     }
 
     private List<ClusterRawInfo> deduplicateClusters(@NotNull List<ClusterRawInfo> clusters) {
@@ -55,6 +80,10 @@ public class ClusterManager implements ILogger {
     /**
      * get hdinsight detailed cluster info list with specific cluster type: Spark and RServer
      *
+     * The probe outcomes of clusters are cached by cluster ID and ETag, so a refresh only lists the clusters of each
+     * subscription, the cached outcomes older than {@link ClusterProbeCache#DEFAULT_REVALIDATE_AFTER} are used and
+     * revalidated in background.
+     *
      * @param subscriptions
      * @return detailed cluster info list with specific cluster type
      */
@@ -64,7 +93,7 @@ public class ClusterManager implements ILogger {
         return Observable.from(subscriptions)
                 .flatMap(subscriptionDetail ->
                         Observable.fromCallable(() ->
-                                new ClusterOperationImpl().listCluster(subscriptionDetail))
+                                clusterOperationFactory.apply(subscriptionDetail).listCluster(subscriptionDetail))
                                 // Run time-consuming list clusters job in IO thread
                                 .subscribeOn(Schedulers.io())
                                 // Remove duplicate clusters that share the same cluster name
@@ -79,19 +108,23 @@ public class ClusterManager implements ILogger {
                                                 && StringUtils.equalsIgnoreCase(rawOsType, osType);
                                 })
                                 .flatMap(clusterRawInfo -> {
-                                    ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
-                                    if (isHDInsightNewSDKEnabled()) {
-                                        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
-                                                // Run the time-consuming probe job concurrently in IO thread
-                                                .subscribeOn(Schedulers.io())
-                                                .map(isProbeSucceed -> isProbeSucceed
-                                                        ? (isMfaEspCluster(clusterRawInfo)
-                                                            ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
-                                                            : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
-                                                        : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    } else {
-                                        return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
+                                    if (!isHDInsightNewSDKEnabled()) {
+                                        return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, clusterOperationFactory.apply(subscriptionDetail)));
+                                    }
+
+                                    ClusterProbeCache.Entry cached = probeCache.get(clusterRawInfo);
+                                    if (cached != null && cached.isProbed()) {
+                                        if (probeCache.isRevalidationNeeded(cached)) {
+                                            revalidate(subscriptionDetail, clusterRawInfo);
+                                        }
+
+                                        return Observable.just(createClusterDetail(subscriptionDetail, clusterRawInfo, cached));
                                     }
+
+                                    return probe(subscriptionDetail, clusterRawInfo)
+                                            // Run the time-consuming probe job concurrently in IO thread
+                                            .subscribeOn(Schedulers.io())
+                                            .map(probed -> createClusterDetail(subscriptionDetail, clusterRawInfo, probed));
                                 })
                 )
                 .doOnNext(clusterDetail -> {
@@ -101,7 +134,59 @@ public class ClusterManager implements ILogger {
                             clusterDetail.getName());
                     log().info(debugMsg);
                 })
-                .toList();
+                .toList()
+                .doOnNext(clusters -> probeCache.save());
+    }
+
+    private ClusterDetail createClusterDetail(@NotNull Subscription subscription,
+                                              @NotNull ClusterRawInfo clusterRawInfo,
+                                              @NotNull ClusterProbeCache.Entry probed) {
+        if (!probed.isNewApiAvailable()) {
+            return new ClusterDetail(subscription, clusterRawInfo, clusterOperationFactory.apply(subscription));
+        }
+
+        ClusterOperationNewAPIImpl clusterOperation = newApiOperationFactory.apply(subscription);
+        if (probed.getRoleType() != null) {
+            // The role type is set by the probe, restore it for the cached outcome
+            clusterOperation.setRoleType(probed.getRoleType());
+        }
+
+        return probed.isMfaEsp()
+                ? new MfaClusterDetail(subscription, clusterRawInfo, clusterOperation)
+                : new ClusterDetail(subscription, clusterRawInfo, clusterOperation);
+    }
+
+    private Observable<ClusterProbeCache.Entry> probe(@NotNull Subscription subscription, @NotNull ClusterRawInfo clusterRawInfo) {
+        ClusterOperationNewAPIImpl probeClusterNewApiOperation = newApiOperationFactory.apply(subscription);
+
+        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
+                .map(isProbeSucceed -> {
+                    boolean isMfaEsp = isProbeSucceed && isMfaEspCluster(clusterRawInfo);
+                    HDInsightUserRoleType roleType = probeClusterNewApiOperation.getRoleType();
+
+                    // The cache is only written here, it keeps nothing without a signed-in account
+                    ClusterProbeCache.Entry probed = new ClusterProbeCache.Entry(clusterRawInfo.getEtag());
+                    probed.setProbeResult(isProbeSucceed, roleType, isMfaEsp);
+                    probeCache.update(clusterRawInfo, entry -> entry.setProbeResult(isProbeSucceed, roleType, isMfaEsp));
+
+                    return probed;
+                });
+    }
+
+    private void revalidate(@NotNull Subscription subscription, @NotNull ClusterRawInfo clusterRawInfo) {
+        if (!revalidating.add(clusterRawInfo.getId())) {
+            return;
+        }
+
+        probe(subscription, clusterRawInfo)
+                .subscribeOn(Schedulers.io())
+                .doOnTerminate(() -> revalidating.remove(clusterRawInfo.getId()))
+                .subscribe(
+                        probed -> {
+                            probeCache.save();
+                            log().debug("Revalidated the probe outcome of HDInsight cluster " + clusterRawInfo.getName());
+                        },
+                        err -> log().warn("Can't revalidate HDInsight cluster " + clusterRawInfo.getName(), err));
     }
 
     public boolean isHDInsightNewSDKEnabled() {
@@ -125,10 +210,18 @@ public class ClusterManager implements ILogger {
             return rolesOption.get().stream().anyMatch(role -> role.getName().equalsIgnoreCase("idbrokernode"));
         }
 
+        ClusterProbeCache.Entry cached = probeCache.get(rawInfo);
+        if (cached != null && cached.getAuthType() != null) {
+            return cached.getAuthType() == AuthType.AADAuth;
+        }
+
         // Fallback way is to challenge the authentication type
         try {
-            return SparkBatchSubmission.getInstance().probeAuthType(
-                    ClusterManagerEx.getInstance().getClusterConnectionString(rawInfo.getName())) == AuthType.AADAuth;
+            AuthType authType = SparkBatchSubmission.getInstance().probeAuthType(
+                    ClusterManagerEx.getInstance().getClusterConnectionString(rawInfo.getName()));
+            probeCache.update(rawInfo, entry -> entry.setAuthType(authType));
+
+            return authType == AuthType.AADAuth;
         } catch (IOException ex) {
             log().warn("Can't probe HDInsight cluster authentication type: " + rawInfo.getId(), ex);
 
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.cluster;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.microsoft.azure.hdinsight.common.CommonConst;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType;
+import com.microsoft.azure.hdinsight.sdk.common.AuthType;
+import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Probe outcomes of HDInsight clusters (new API availability, role type, authentication type and ESP/MFA status),
+ * persisted in the application properties and keyed by the signed-in account and cluster resource ID, since the role
+ * type depends on the role assignments of the account. An outcome is only valid for the ETag of the cluster it was
+ * probed with, any change of the cluster makes it probed again. Nothing is cached without a signed-in account.
+ */
+public class ClusterProbeCache implements ILogger {
+    public static final Duration DEFAULT_REVALIDATE_AFTER = Duration.ofHours(1);
+    private static final Gson gson = new Gson();
+
+    @NotNull
+    private final String propertyKey;
+    @NotNull
+    private final Duration revalidateAfter;
+    @NotNull
+    private final Supplier<String> accountSupplier;
+    @Nullable
+    private Map<String, Entry> entries = null;
+
+    public ClusterProbeCache() {
+        this(CommonConst.HDINSIGHT_CLUSTER_PROBE_CACHE, DEFAULT_REVALIDATE_AFTER, ClusterProbeCache::getSignedInAccount);
+    }
+
+    /**
+     * @param accountSupplier supplies the signed-in account name, NULL if not signed in
+     */
+    public ClusterProbeCache(@NotNull String propertyKey,
+                             @NotNull Duration revalidateAfter,
+                             @NotNull Supplier<String> accountSupplier) {
+        this.propertyKey = propertyKey;
+        this.revalidateAfter = revalidateAfter;
+        this.accountSupplier = accountSupplier;
+    }
+
+    /**
+     * @return the probe outcome of the cluster with the same ETag, NULL if not probed
+     */
+    @Nullable
+    public synchronized Entry get(@NotNull ClusterRawInfo clusterRawInfo) {
+        final String key = getKey(clusterRawInfo);
+        if (key == null) {
+            return null;
+        }
+
+        final Entry entry = getEntries().get(key);
+
+        return entry != null && StringUtils.equals(entry.etag, clusterRawInfo.getEtag()) ? entry.copy() : null;
+    }
+
+    /**
+     * Update the probe outcome of the cluster, the outcome of an older ETag is dropped.
+     */
+    public synchronized void update(@NotNull ClusterRawInfo clusterRawInfo, @NotNull Consumer<Entry> updater) {
+        final String key = getKey(clusterRawInfo);
+        if (key == null) {
+            return;
+        }
+
+        final Entry existing = getEntries().get(key);
+        final Entry entry = existing != null && StringUtils.equals(existing.etag, clusterRawInfo.getEtag())
+                ? existing
+                : new Entry(clusterRawInfo.getEtag());
+
+        updater.accept(entry);
+        getEntries().put(key, entry);
+    }
+
+    public boolean isRevalidationNeeded(@NotNull Entry entry) {
+        return System.currentTimeMillis() - entry.probedAt > revalidateAfter.toMillis();
+    }
+
+    public synchronized void save() {
+        try {
+            DefaultLoader.getIdeHelper().setApplicationProperty(propertyKey, gson.toJson(getEntries()));
+        } catch (Exception ex) {
+            log().warn("Failed to save HDInsight cluster probe cache", ex);
+        }
+    }
+
+    public synchronized void clear() {
+        getEntries().clear();
+        save();
+    }
+
+    private Map<String, Entry> getEntries() {
+        if (entries == null) {
+            entries = load();
+        }
+
+        return entries;
+    }
+
+    private Map<String, Entry> load() {
+        try {
+            final String json = DefaultLoader.getIdeHelper().getApplicationProperty(propertyKey);
+            if (StringUtils.isNotBlank(json)) {
+                final Map<String, Entry> loaded = gson.fromJson(json, new TypeToken<HashMap<String, Entry>>() {
+                }.getType());
+
+                if (loaded != null) {
+                    return loaded;
+                }
+            }
+        } catch (JsonSyntaxException ex) {
+            log().warn("Dropped the malformed HDInsight cluster probe cache", ex);
+        } catch (Exception ex) {
+            log().warn("Failed to load HDInsight cluster probe cache", ex);
+        }
+
+        return new HashMap<>();
+    }
+
+    @Nullable
+    private String getKey(@NotNull ClusterRawInfo clusterRawInfo) {
+        final String account = accountSupplier.get();
+
+        return StringUtils.isBlank(account)
+                ? null
+                : StringUtils.lowerCase(account) + "|" + StringUtils.lowerCase(clusterRawInfo.getId());
+    }
+
+    @Nullable
+    private static String getSignedInAccount() {
+        try {
+            final AzureAccount az = Azure.az(AzureAccount.class);
+
+            return az.isLoggedIn() ? az.account().getUsername() : null;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    public static class Entry {
+        @Nullable
+        private String etag;
+        private boolean newApiAvailable;
+        @Nullable
+        private HDInsightUserRoleType roleType;
+        private boolean mfaEsp;
+        @Nullable
+        private AuthType authType;
+        private long probedAt;
+
+        Entry(@Nullable String etag) {
+            this.etag = etag;
+        }
+
+        Entry copy() {
+            final Entry copy = new Entry(etag);
+            copy.newApiAvailable = newApiAvailable;
+            copy.roleType = roleType;
+            copy.mfaEsp = mfaEsp;
+            copy.authType = authType;
+            copy.probedAt = probedAt;
+
+            return copy;
+        }
+
+        /**
+         * @return whether the new API probe was done, an entry may only hold the authentication type probed
+         */
+        public boolean isProbed() {
+            return probedAt > 0;
+        }
+
+        public boolean isNewApiAvailable() {
+            return newApiAvailable;
+        }
+
+        @Nullable
+        public HDInsightUserRoleType getRoleType() {
+            return roleType;
+        }
+
+        public boolean isMfaEsp() {
+            return mfaEsp;
+        }
+
+        @Nullable
+        public AuthType getAuthType() {
+            return authType;
+        }
+
+        public void setProbeResult(boolean newApiAvailable, @Nullable HDInsightUserRoleType roleType, boolean mfaEsp) {
+            this.newApiAvailable = newApiAvailable;
+            this.roleType = roleType;
+            this.mfaEsp = mfaEsp;
+            this.probedAt = System.currentTimeMillis();
+        }
+
+        public void setAuthType(@Nullable AuthType authType) {
+            this.authType = authType;
+        }
+    }
+}
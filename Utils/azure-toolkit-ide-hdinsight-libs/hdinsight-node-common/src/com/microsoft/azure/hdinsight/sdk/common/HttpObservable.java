@@ -24,6 +24,7 @@ import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.conn.ssl.DefaultHostnameVerifier;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -49,6 +50,7 @@ import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static rx.exceptions.Exceptions.propagate;
 
@@ -356,32 +358,47 @@ public class HttpObservable implements ILogger {
                                                      @Nullable final HttpEntity entity,
                                                      final List<NameValuePair> parameters,
                                                      final List<Header> addOrReplaceHeaders) {
-        return Observable.fromCallable(() -> {
-            URIBuilder builder = new URIBuilder(httpRequest.getURI());
-
-            // Add parameters
-            builder.setParameters(getDefaultParameters());
-
-            Optional.ofNullable(parameters)
-                    .filter(pairs -> !pairs.isEmpty())
-                    .ifPresent(builder::addParameters);
-
-            httpRequest.setURI(builder.build());
-
-            // Set the default headers and update Headers
-            httpRequest.setHeaders(getDefaultHeaders());
-            Optional.ofNullable(addOrReplaceHeaders)
-                    .ifPresent(headers -> headers.forEach(httpRequest::setHeader));
-
-            // Set entity for non-entity
-            if (httpRequest instanceof HttpEntityEnclosingRequestBase && entity != null) {
-                ((HttpEntityEnclosingRequestBase)httpRequest).setEntity(entity);
-
-                // Update the content type by entity
-                httpRequest.setHeader(entity.getContentType());
-            }
-
-            return getHttpClient().execute(httpRequest, getHttpContext());
+        return Observable.defer(() -> {
+            // Abort the request in flight once unsubscribed, to release its connection without waiting for the response
+            final AtomicBoolean isInFlight = new AtomicBoolean(false);
+
+            return Observable.fromCallable(() -> {
+                URIBuilder builder = new URIBuilder(httpRequest.getURI());
+
+                // Add parameters
+                builder.setParameters(getDefaultParameters());
+
+                Optional.ofNullable(parameters)
+                        .filter(pairs -> !pairs.isEmpty())
+                        .ifPresent(builder::addParameters);
+
+                httpRequest.setURI(builder.build());
+
+                // Set the default headers and update Headers
+                httpRequest.setHeaders(getDefaultHeaders());
+                Optional.ofNullable(addOrReplaceHeaders)
+                        .ifPresent(headers -> headers.forEach(httpRequest::setHeader));
+
+                // Set entity for non-entity
+                if (httpRequest instanceof HttpEntityEnclosingRequestBase && entity != null) {
+                    ((HttpEntityEnclosingRequestBase)httpRequest).setEntity(entity);
+
+                    // Update the content type by entity
+                    httpRequest.setHeader(entity.getContentType());
+                }
+
+                isInFlight.set(true);
+
+                try {
+                    return getHttpClient().execute(httpRequest, getHttpContext());
+                } finally {
+                    isInFlight.set(false);
+                }
+            }).doOnUnsubscribe(() -> {
+                if (isInFlight.get()) {
+                    httpRequest.abort();
+                }
+            });
         });
     }
 
@@ -452,6 +469,7 @@ public class HttpObservable implements ILogger {
                 .doOnNext(resp -> {
                     int statusCode = resp.getStatusLine().getStatusCode();
                     if (statusCode != validStatueCode) {
+                        HttpClientUtils.closeQuietly(resp);
                         Exceptions.propagate(new UnknownServiceException(
                                 String.format("Exceute request with unexpected code %s and resp %s", statusCode, resp)
                         ));
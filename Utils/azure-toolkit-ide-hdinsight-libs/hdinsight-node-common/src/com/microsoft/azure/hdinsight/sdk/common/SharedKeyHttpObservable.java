@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -70,12 +71,14 @@ public class SharedKeyHttpObservable extends HttpObservable {
             // cannot be added to default header group in case of duplication.
             headerGroup.addHeader(new BasicHeader("Content-Length", String.valueOf(entity.getContentLength())));
         }
-        ofNullable(addOrReplaceHeaders).orElse(emptyList()).forEach(headerGroup::addHeader);
+        ofNullable(addOrReplaceHeaders).orElse(emptyList()).forEach(headerGroup::updateHeader);
         String key = cred.generateSharedKey(httpRequest, headerGroup, ofNullable(parameters).orElse(emptyList()));
 
-        getDefaultHeaderGroup().updateHeader(new BasicHeader("Authorization", key));
+        // Set the signature to the request rather than the default headers, which are shared by concurrent requests
+        final List<Header> headers = new ArrayList<>(ofNullable(addOrReplaceHeaders).orElse(emptyList()));
+        headers.add(new BasicHeader("Authorization", key));
 
-        return super.request(httpRequest, entity, ofNullable(parameters).orElse(emptyList()), ofNullable(addOrReplaceHeaders).orElse(emptyList()));
+        return super.request(httpRequest, entity, ofNullable(parameters).orElse(emptyList()), headers);
     }
 
     @Override
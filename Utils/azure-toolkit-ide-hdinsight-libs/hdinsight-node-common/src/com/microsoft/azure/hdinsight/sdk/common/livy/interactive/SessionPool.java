@@ -0,0 +1,548 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.microsoft.azure.hdinsight.common.CommonConst;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func0;
+import rx.schedulers.Schedulers;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of pre-warmed Livy interactive sessions of one kind for one Livy endpoint.
+ *
+ * Starting a Livy session means starting a YARN application, which takes 30 - 90 seconds. The pool keeps up to
+ * {@code size} sessions started (or starting) ahead by {@link #warmUp()}, and sessions are returned to the pool after
+ * use, so that a caller leasing a session usually gets one that is already idle. The kept sessions are killed once
+ * they have been idle longer than {@code idleTimeout} to free cluster resources.
+ *
+ * The shared pools got by {@link #of(URI, String, String, Options, Object)} are closed once all their owners (such as
+ * the projects using them) are gone, see {@link #closeOwnedBy(Object)}.
+ */
+public class SessionPool implements AutoCloseable, ILogger {
+    public static final int DEFAULT_SIZE = 1;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+    private static final Duration MAX_REAP_INTERVAL = Duration.ofSeconds(30);
+    private static final Map<String, SessionPool> pools = new ConcurrentHashMap<>();
+
+    private final URI baseUrl;
+    @Nullable
+    private final String username;
+    @Nullable
+    private final String password;
+    private final SessionKind kind;
+    private final int size;
+    private final Duration idleTimeout;
+    private final Options options;
+    private final Set<Object> owners = ConcurrentHashMap.newKeySet();
+    private final Deque<PooledSession> idle = new ArrayDeque<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private final Scheduler.Worker reaper = Schedulers.computation().createWorker();
+    private boolean closed = false;
+
+    /**
+     * Create a Livy interactive session pool.
+     *
+     * @param baseUrl     the connect URL of Livy, ending with '/'
+     * @param username    the username of Basic Authentication, leave NULL for other authentication methods
+     * @param password    the password of Basic Authentication, leave NULL for other authentication methods
+     * @param kind        the kind of sessions in the pool
+     * @param size        the maximum number of idle sessions kept, and started by {@link #warmUp()}
+     * @param idleTimeout the time after which an unused session is killed
+     */
+    public SessionPool(final URI baseUrl,
+                       final @Nullable String username,
+                       final @Nullable String password,
+                       final SessionKind kind,
+                       final int size,
+                       final Duration idleTimeout) {
+        this(baseUrl, username, password, new Options(kind).size(size).idleTimeout(idleTimeout));
+    }
+
+    /**
+     * Create a Livy interactive session pool.
+     *
+     * @param baseUrl  the connect URL of Livy, ending with '/'
+     * @param username the username of Basic Authentication, leave NULL for other authentication methods
+     * @param password the password of Basic Authentication, leave NULL for other authentication methods
+     * @param options  the kind, size, idle timeout and session factory of the pool
+     */
+    public SessionPool(final URI baseUrl,
+                       final @Nullable String username,
+                       final @Nullable String password,
+                       final Options options) {
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.password = password;
+        this.options = options;
+        this.kind = options.getKind();
+        this.size = options.getSize();
+        this.idleTimeout = options.getIdleTimeout();
+
+        final long reapMillis = Math.max(1, Math.min(idleTimeout.toMillis() / 2, MAX_REAP_INTERVAL.toMillis()));
+        this.reaper.schedulePeriodically(this::killIdleSessions, reapMillis, reapMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the shared pool of the Livy endpoint and session kind, with the size and idle timeout of the settings.
+     */
+    public static SessionPool of(final URI baseUrl,
+                                 final @Nullable String username,
+                                 final @Nullable String password,
+                                 final SessionKind kind) {
+        return of(baseUrl, username, password, Options.fromSettings(kind), null);
+    }
+
+    /**
+     * Get the shared pool of the Livy endpoint, session kind and profile. The pool of the same endpoint and user with
+     * another password or options is closed and replaced, since its sessions were created with the credential or
+     * options before updated.
+     *
+     * @param owner the owner using the pool, such as a project, which releases it by {@link #closeOwnedBy(Object)}.
+     *              The pool is kept until the idle timeout or {@link #closeAll()} if no owner is given.
+     */
+    public static SessionPool of(final URI baseUrl,
+                                 final @Nullable String username,
+                                 final @Nullable String password,
+                                 final Options options,
+                                 final @Nullable Object owner) {
+        final String key = String.join("|",
+                                       baseUrl.toString(), String.valueOf(username), options.getKind().getKind(), options.getProfile());
+        final List<SessionPool> replaced = new ArrayList<>();
+
+        final SessionPool pool = pools.compute(key, (k, existing) -> {
+            final SessionPool kept;
+
+            if (existing != null && !existing.isClosed() && Objects.equals(existing.password, password)
+                    && existing.options.isSameAs(options)) {
+                kept = existing;
+            } else {
+                if (existing != null) {
+                    replaced.add(existing);
+                }
+
+                kept = new SessionPool(baseUrl, username, password, options);
+            }
+
+            if (owner != null) {
+                kept.owners.add(owner);
+            }
+
+            return kept;
+        });
+
+        replaced.forEach(SessionPool::close);
+
+        return pool;
+    }
+
+    /**
+     * Release the shared pools from the owner, the pools left without owners are closed and their idle sessions
+     * are killed. The pools of other owners are kept.
+     */
+    public static void closeOwnedBy(final Object owner) {
+        final List<SessionPool> released = new ArrayList<>();
+
+        pools.keySet().forEach(key -> pools.computeIfPresent(key, (k, pool) -> {
+            if (pool.owners.remove(owner) && pool.owners.isEmpty()) {
+                released.add(pool);
+
+                return null;
+            }
+
+            return pool;
+        }));
+
+        released.forEach(SessionPool::close);
+    }
+
+    /**
+     * Close all shared pools and kill their idle sessions.
+     */
+    public static void closeAll() {
+        pools.values().forEach(SessionPool::close);
+        pools.clear();
+    }
+
+    public SessionKind getKind() {
+        return kind;
+    }
+
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Start sessions in background until {@code size} sessions are idle or starting.
+     */
+    public synchronized void warmUp() {
+        while (!closed && idle.size() < size) {
+            idle.addLast(startSession());
+        }
+    }
+
+    /**
+     * Take a session without waiting for it to be ready, for the callers binding the session at once, such as the
+     * streams of a console. The session is ready to run statements once {@link Lease#awaitReady(Scheduler)} emits.
+     * The leased session must be released by {@link Lease#close()} or {@link Lease#discard()}.
+     *
+     * @return the lease of an idle or starting session
+     */
+    public Lease take() {
+        return new Lease(takeOrStart());
+    }
+
+    /**
+     * Lease a session that is ready to run statements, an idle pooled session is preferred over starting a new one.
+     * The leased session must be released by {@link Lease#close()}.
+     *
+     * @return the lease Observable
+     */
+    public Observable<Lease> lease() {
+        return Observable.defer(() -> {
+                    final Lease lease = take();
+                    final AtomicBoolean handled = new AtomicBoolean(false);
+
+                    return lease.awaitReady(null)
+                            .map(session -> {
+                                handled.set(true);
+                                return lease;
+                            })
+                            .doOnError(err -> {
+                                if (handled.compareAndSet(false, true)) {
+                                    discard(lease.pooled);
+                                }
+                            })
+                            // the caller gave up waiting, keep the session warming for the next one
+                            .doOnUnsubscribe(() -> {
+                                if (handled.compareAndSet(false, true)) {
+                                    giveBack(lease.pooled);
+                                }
+                            });
+                })
+                // a pooled session may have been killed or timed out at server side, try once with a new one
+                .retry(1);
+    }
+
+    /**
+     * Lease a session, run the codes and release the session.
+     *
+     * @param codes the codes to run
+     * @return the statement output data Observable
+     */
+    public Observable<Map<String, String>> runCodes(final String codes) {
+        return lease().flatMap(lease -> Observable.using(() -> lease,
+                                                         it -> it.getSession().runCodes(codes),
+                                                         Lease::close));
+    }
+
+    private synchronized PooledSession takeOrStart() {
+        if (closed) {
+            throw new IllegalStateException("The Livy session pool of " + baseUrl + " is closed.");
+        }
+
+        final PooledSession pooled = idle.pollFirst();
+
+        return pooled != null ? pooled : startSession();
+    }
+
+    private PooledSession startSession() {
+        final Func0<? extends Session> sessionFactory = options.getSessionFactory();
+        final Session session = sessionFactory != null
+                                ? sessionFactory.call()
+                                : new KindSession(String.format("Azure Toolkit %s session %s", kind.getKind(), UUID.randomUUID().toString().substring(0, 8)),
+                                                  baseUrl, kind, username, password);
+        final PooledSession pooled = new PooledSession(session);
+        created.incrementAndGet();
+        log().debug("Start Livy " + kind.getKind() + " session " + session.getName() + " for pool of " + baseUrl);
+
+        return pooled;
+    }
+
+    private synchronized void release(final PooledSession pooled) {
+        final Session session = pooled.session;
+
+        if (closed || idle.size() >= size || !session.isStatementRunnable()) {
+            discard(pooled);
+            return;
+        }
+
+        pooled.lastUsed = System.currentTimeMillis();
+        idle.addFirst(pooled);
+    }
+
+    private synchronized void giveBack(final PooledSession pooled) {
+        if (closed || idle.size() >= size) {
+            discard(pooled);
+            return;
+        }
+
+        idle.addFirst(pooled);
+    }
+
+    private synchronized void killIdleSessions() {
+        final long now = System.currentTimeMillis();
+        final List<PooledSession> expired = new ArrayList<>();
+
+        for (final Iterator<PooledSession> it = idle.iterator(); it.hasNext(); ) {
+            final PooledSession pooled = it.next();
+
+            if (now - pooled.lastUsed > idleTimeout.toMillis()) {
+                it.remove();
+                expired.add(pooled);
+            }
+        }
+
+        expired.forEach(this::discard);
+    }
+
+    private void discard(final PooledSession pooled) {
+        // Kill the session once it's created at server side, a session failed to create has nothing to kill
+        pooled.ready
+              .observeOn(Schedulers.io())
+              .subscribe(session -> {
+                             session.close();
+                             log().debug("Killed Livy session " + session.getName());
+                         },
+                         err -> {
+                             log().debug("Livy session " + pooled.session.getName() + " wasn't created. " + err);
+                             pooled.session.getCtrlSubject().onCompleted();
+                         });
+    }
+
+    @Override
+    public void close() {
+        final List<PooledSession> sessions;
+
+        synchronized (this) {
+            closed = true;
+            sessions = new ArrayList<>(idle);
+            idle.clear();
+        }
+
+        reaper.unsubscribe();
+        sessions.forEach(this::discard);
+    }
+
+    private static class PooledSession {
+        private final Session session;
+        private final Observable<Session> ready;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledSession(final Session session) {
+            this.session = session;
+            // Start deploying the artifacts and creating the session right away, the creation response (with session
+            // ID) is cached for the readiness checks of the lease
+            this.ready = session.deploy()
+                                .flatMap(Session::create)
+                                .subscribeOn(Schedulers.io())
+                                .cache();
+            this.ready.subscribe(s -> {}, err -> {});
+        }
+    }
+
+    /**
+     * A session leased from the pool, which returns to the pool when closed.
+     */
+    public class Lease implements AutoCloseable {
+        private final PooledSession pooled;
+        private boolean released = false;
+
+        Lease(final PooledSession pooled) {
+            this.pooled = pooled;
+        }
+
+        @NotNull
+        public Session getSession() {
+            return pooled.session;
+        }
+
+        public Observable<Map<String, String>> runCodes(final String codes) {
+            return getSession().runCodes(codes);
+        }
+
+        /**
+         * Wait for the session to be ready to run statements.
+         *
+         * @param scheduler the scheduler to poll the session state, the default delay scheduler if NULL
+         * @return the ready session Observable
+         */
+        public Observable<Session> awaitReady(final @Nullable Scheduler scheduler) {
+            return pooled.ready
+                    .flatMap(session -> session.awaitReady(scheduler))
+                    .last();
+        }
+
+        /**
+         * Return the session to the pool for the following leases.
+         */
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                release(pooled);
+            }
+        }
+
+        /**
+         * Kill the session rather than returning it to the pool, for the session holding the states of its user.
+         */
+        public synchronized void discard() {
+            if (!released) {
+                released = true;
+                SessionPool.this.discard(pooled);
+            }
+        }
+    }
+
+    /**
+     * The kind, size, idle timeout and session factory of a pool.
+     */
+    public static class Options {
+        private final SessionKind kind;
+        private int size = DEFAULT_SIZE;
+        private Duration idleTimeout = DEFAULT_IDLE_TIMEOUT;
+        private String profile = "";
+        @Nullable
+        private Func0<? extends Session> sessionFactory = null;
+
+        public Options(final SessionKind kind) {
+            this.kind = kind;
+        }
+
+        /**
+         * Create the options of the kind, with the size and idle timeout set in the application properties
+         * {@link CommonConst#LIVY_SESSION_POOL_SIZE} and {@link CommonConst#LIVY_SESSION_POOL_IDLE_TIMEOUT_MINUTES}.
+         */
+        public static Options fromSettings(final SessionKind kind) {
+            final Options options = new Options(kind);
+            readIntSetting(CommonConst.LIVY_SESSION_POOL_SIZE).ifPresent(options::size);
+            readIntSetting(CommonConst.LIVY_SESSION_POOL_IDLE_TIMEOUT_MINUTES)
+                    .ifPresent(minutes -> options.idleTimeout(Duration.ofMinutes(Math.max(1, minutes))));
+
+            return options;
+        }
+
+        /**
+         * @param size the maximum number of idle sessions kept, and started by {@link #warmUp()}, 0 to start
+         *             sessions only when leased
+         */
+        public Options size(final int size) {
+            this.size = Math.max(0, size);
+            return this;
+        }
+
+        public Options idleTimeout(final Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Create the sessions by the factory instead of the plain sessions of the kind, such as the sessions with the
+         * referenced jars and configurations of a run configuration. The factory should give each session a unique
+         * name, since Livy rejects the sessions with duplicated names.
+         *
+         * @param profile identifies the sessions created by the factory, pools of different profiles aren't shared
+         */
+        public Options sessionFactory(final String profile, final Func0<? extends Session> sessionFactory) {
+            this.profile = profile;
+            this.sessionFactory = sessionFactory;
+            return this;
+        }
+
+        public SessionKind getKind() {
+            return kind;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public String getProfile() {
+            return profile;
+        }
+
+        @Nullable
+        public Func0<? extends Session> getSessionFactory() {
+            return sessionFactory;
+        }
+
+        boolean isSameAs(final Options other) {
+            return kind == other.kind
+                    && size == other.size
+                    && idleTimeout.equals(other.idleTimeout)
+                    && profile.equals(other.profile);
+        }
+
+        private static Optional<Integer> readIntSetting(final String key) {
+            try {
+                return Optional.ofNullable(DefaultLoader.getIdeHelper().getApplicationProperty(key))
+                               .filter(StringUtils::isNotBlank)
+                               .map(value -> Integer.valueOf(value.trim()));
+            } catch (final Exception ignored) {
+                // Not set, malformed, or no IDE helper in the context
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Interactive session of the pool kind.
+     */
+    static class KindSession extends Session {
+        private final SessionKind kind;
+
+        KindSession(final String name,
+                    final URI baseUrl,
+                    final SessionKind kind,
+                    final @Nullable String username,
+                    final @Nullable String password) {
+            super(name, baseUrl, new CreateParameters(kind).name(name), username, password);
+
+            this.kind = kind;
+        }
+
+        @Override
+        public SessionKind getKind() {
+            return kind;
+        }
+    }
+}
@@ -36,6 +36,10 @@ public class Attempt implements IConvertible {
         return appSparkVersion;
     }
 
+    public void setAppSparkVersion(String appSparkVersion){
+        this.appSparkVersion = appSparkVersion;
+    }
+
     public String getStartTime ()
     {
         return startTime;
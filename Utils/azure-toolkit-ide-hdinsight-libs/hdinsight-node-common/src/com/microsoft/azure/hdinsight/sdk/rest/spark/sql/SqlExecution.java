@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.sql;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.microsoft.azure.hdinsight.sdk.rest.IConvertible;
+
+/**
+ * A spark SQL execution resource contains information about a SQL query run by an application.
+ *
+ * Based on Spark 3.0.0, refer to http://spark.apache.org/docs/latest/monitoring.html
+ *
+ *   http://[spark http address:port]/applications/[app-id]/sql
+ *
+ * HTTP Operations Supported
+ *   GET
+ *
+ * Query Parameters Supported
+ *   None
+ */
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SqlExecution implements IConvertible {
+    private long id;
+    private String status;
+    private String description;
+    private String planDescription;
+    private String submissionTime;
+    private long duration;
+    private int[] runningJobIds;
+    private int[] successJobIds;
+    private int[] failedJobIds;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getPlanDescription() {
+        return planDescription;
+    }
+
+    public void setPlanDescription(String planDescription) {
+        this.planDescription = planDescription;
+    }
+
+    public String getSubmissionTime() {
+        return submissionTime;
+    }
+
+    public void setSubmissionTime(String submissionTime) {
+        this.submissionTime = submissionTime;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public int[] getRunningJobIds() {
+        return runningJobIds;
+    }
+
+    public void setRunningJobIds(int[] runningJobIds) {
+        this.runningJobIds = runningJobIds;
+    }
+
+    public int[] getSuccessJobIds() {
+        return successJobIds;
+    }
+
+    public void setSuccessJobIds(int[] successJobIds) {
+        this.successJobIds = successJobIds;
+    }
+
+    public int[] getFailedJobIds() {
+        return failedJobIds;
+    }
+
+    public void setFailedJobIds(int[] failedJobIds) {
+        this.failedJobIds = failedJobIds;
+    }
+}
@@ -43,6 +43,11 @@ public class Task {
 
     private String[] accumulatorUpdates;
 
+    // Not in the REST resource, the stage the task belongs to is set once fetched
+    private int stageId;
+
+    private int stageAttemptId;
+
     public String getAttempt ()
     {
         return attempt;
@@ -142,4 +147,24 @@ public class Task {
     {
         this.accumulatorUpdates = accumulatorUpdates;
     }
+
+    public int getStageId ()
+    {
+        return stageId;
+    }
+
+    public void setStageId (int stageId)
+    {
+        this.stageId = stageId;
+    }
+
+    public int getStageAttemptId ()
+    {
+        return stageAttemptId;
+    }
+
+    public void setStageAttemptId (int stageAttemptId)
+    {
+        this.stageAttemptId = stageAttemptId;
+    }
 }
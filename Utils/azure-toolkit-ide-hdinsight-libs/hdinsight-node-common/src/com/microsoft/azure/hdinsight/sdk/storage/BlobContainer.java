@@ -8,6 +8,7 @@ package com.microsoft.azure.hdinsight.sdk.storage;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 
 import java.util.Calendar;
+import java.util.function.Supplier;
 
 public class BlobContainer {
     private boolean loading;
@@ -15,7 +16,8 @@ public class BlobContainer {
     private String uri;
     private String eTag;
     private Calendar lastModified;
-    private String publicReadAccessType;
+    private volatile String publicReadAccessType;
+    private Supplier<String> publicReadAccessTypeLoader;
 
     public BlobContainer(@NotNull String name,
                          @NotNull String uri,
@@ -29,6 +31,22 @@ public class BlobContainer {
         this.publicReadAccessType = publicReadAccessType;
     }
 
+    /**
+     * Create a blob container whose public read access type is loaded on the first {@link #getPublicReadAccessType()},
+     * since it needs a request per container.
+     */
+    public BlobContainer(@NotNull String name,
+                         @NotNull String uri,
+                         @NotNull String eTag,
+                         @NotNull Calendar lastModified,
+                         @NotNull Supplier<String> publicReadAccessTypeLoader) {
+        this.name = name;
+        this.uri = uri;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.publicReadAccessTypeLoader = publicReadAccessTypeLoader;
+    }
+
     public boolean isLoading() {
         return loading;
     }
@@ -71,11 +89,16 @@ public class BlobContainer {
 
     @NotNull
     public String getPublicReadAccessType() {
+        if (publicReadAccessType == null && publicReadAccessTypeLoader != null) {
+            publicReadAccessType = publicReadAccessTypeLoader.get();
+        }
+
         return publicReadAccessType;
     }
 
     public void setPublicReadAccessType(@NotNull String publicReadAccessType) {
         this.publicReadAccessType = publicReadAccessType;
+        this.publicReadAccessTypeLoader = null;
     }
 
     @Override
@@ -5,8 +5,8 @@
 
 package com.microsoft.azure.hdinsight.sdk.storage;
 
-import com.azure.core.http.policy.HttpLogDetailLevel;
 import com.azure.core.http.policy.HttpLogOptions;
+import com.azure.core.util.Context;
 import com.azure.core.util.logging.ClientLogger;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
@@ -15,6 +15,11 @@ import com.azure.storage.blob.BlobServiceClientBuilder;
 import com.azure.storage.blob.models.BlobContainerAccessPolicies;
 import com.azure.storage.blob.models.BlobContainerItem;
 import com.azure.storage.blob.models.BlobContainerItemProperties;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.models.PublicAccessType;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.azure.storage.common.implementation.Constants;
 import com.azure.storage.common.implementation.connectionstring.StorageAuthenticationSettings;
 import com.azure.storage.common.implementation.connectionstring.StorageConnectionString;
 import com.azure.storage.common.implementation.connectionstring.StorageEndpoint;
@@ -33,9 +38,13 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 public class StorageClientSDKManager {
+    private static final long DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_UPLOAD_CONCURRENCY = 8;
+    private static final Map<String, BlobServiceClient> blobServiceClients = new ConcurrentHashMap<>();
     private static StorageClientSDKManager apiManager;
 
     private StorageClientSDKManager() {
@@ -111,18 +120,13 @@ public class StorageClientSDKManager {
                     }
                 }
 
-                String publicReadAccessType = "";
-                BlobContainerAccessPolicies blobContainerPermissions = containerClient.getAccessPolicy();
-
-                if (blobContainerPermissions != null && blobContainerPermissions.getBlobAccessType() != null) {
-                    publicReadAccessType = blobContainerPermissions.getBlobAccessType().toString();
-                }
-
-                bcList.add(new BlobContainer(Strings.nullToEmpty(container.getName()),
-                        uri,
-                        eTag,
-                        lastModified,
-                        publicReadAccessType));
+                // The listing has the public access type already, only fall back to the access policy request when
+                // it's missing, and only once the type is asked for
+                final PublicAccessType publicAccess = properties == null ? null : properties.getPublicAccess();
+                bcList.add(publicAccess != null
+                        ? new BlobContainer(Strings.nullToEmpty(container.getName()), uri, eTag, lastModified, publicAccess.toString())
+                        : new BlobContainer(Strings.nullToEmpty(container.getName()), uri, eTag, lastModified,
+                                            () -> getPublicReadAccessType(containerClient)));
             }
 
             return bcList;
@@ -132,11 +136,34 @@ public class StorageClientSDKManager {
 
     }
 
+    @NotNull
+    private static String getPublicReadAccessType(@NotNull BlobContainerClient containerClient) {
+        try {
+            BlobContainerAccessPolicies blobContainerPermissions = containerClient.getAccessPolicy();
+
+            if (blobContainerPermissions != null && blobContainerPermissions.getBlobAccessType() != null) {
+                return blobContainerPermissions.getBlobAccessType().toString();
+            }
+        } catch (Exception ignored) {
+            // The access policy needs account key or owner permission, report no public access as before
+        }
+
+        return "";
+    }
+
+    /**
+     * Upload the content to a block blob in blocks of {@code maxBlockSize} bytes, which are uploaded in parallel.
+     * The upload fails if the blob exists already, it's never overwritten.
+     *
+     * @param processBlock called with the total bytes uploaded so far
+     * @param maxBlockSize the block size, contents not larger than it are uploaded in one request
+     * @param length the length of the content
+     */
     public void uploadBlobFileContent(@NotNull String connectionString,
                                       @NotNull BlobContainer blobContainer,
                                       @NotNull String filePath,
                                       @NotNull InputStream content,
-                                      CallableSingleArg<Void, Long> processBlock,
+                                      @Nullable CallableSingleArg<Void, Long> processBlock,
                                       long maxBlockSize,
                                       long length)
             throws AzureCmdException {
@@ -146,7 +173,29 @@ public class StorageClientSDKManager {
 
             BlobContainerClient container = client.getBlobContainerClient(containerName);
             final BlobClient blob = container.getBlobClient(filePath);
-            blob.upload(content, length);
+            final long blockSize = maxBlockSize > 0 ? maxBlockSize : DEFAULT_BLOCK_SIZE;
+            final ParallelTransferOptions transferOptions = new ParallelTransferOptions()
+                    .setBlockSizeLong(blockSize)
+                    .setMaxSingleUploadSizeLong(blockSize)
+                    .setMaxConcurrency(MAX_UPLOAD_CONCURRENCY);
+
+            if (processBlock != null) {
+                transferOptions.setProgressListener(uploadedBytes -> {
+                    try {
+                        processBlock.call(uploadedBytes);
+                    } catch (Exception ignored) {
+                        // A failed progress report doesn't fail the upload
+                    }
+                });
+            }
+
+            // Same as BlobClient.upload(content, length), which doesn't overwrite an existing blob
+            final BlobRequestConditions ifNotExists = new BlobRequestConditions().setIfNoneMatch(Constants.HeaderConstants.ETAG_WILDCARD);
+            blob.uploadWithResponse(new BlobParallelUploadOptions(content, length)
+                                            .setParallelTransferOptions(transferOptions)
+                                            .setRequestConditions(ifNotExists),
+                                    null,
+                                    Context.NONE);
         } catch (Throwable t) {
             throw new AzureCmdException("Error uploading the Blob File content", t);
         }
@@ -156,8 +205,18 @@ public class StorageClientSDKManager {
         return StorageAccoutUtils.getEndpointSuffix();
     }
 
+    /**
+     * Get the blob service client of the connection string, clients are cached since each one has its own HTTP
+     * pipeline and connection pool.
+     *
+     * HTTP logging follows the environment variable AZURE_HTTP_LOG_DETAIL_LEVEL and is off by default, logging the
+     * bodies buffers every request and response, uploads included.
+     */
     @NotNull
     public static BlobServiceClient getCloudBlobClient(@NotNull String connectionString) {
-        return new BlobServiceClientBuilder().httpLogOptions(new HttpLogOptions().setLogLevel(HttpLogDetailLevel.BODY_AND_HEADERS)).connectionString(connectionString).buildClient();
+        return blobServiceClients.computeIfAbsent(connectionString, it -> new BlobServiceClientBuilder()
+                .httpLogOptions(new HttpLogOptions())
+                .connectionString(it)
+                .buildClient());
     }
 }
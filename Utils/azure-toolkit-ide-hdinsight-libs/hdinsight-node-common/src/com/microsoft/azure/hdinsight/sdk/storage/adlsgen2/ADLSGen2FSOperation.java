@@ -14,8 +14,10 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
@@ -33,6 +35,8 @@ public class ADLSGen2FSOperation {
     public static final String DEFAULT_UMASK = "0000";
     public static final String PERMISSIONS_HEADER = "x-ms-permissions";
     public static final String UMASK_HEADER = "x-ms-umask";
+    private static final Header OCTET_STREAM_CONTENT_TYPE = new BasicHeader("Content-Type", "application/octet-stream");
+    private static final Header JSON_CONTENT_TYPE = new BasicHeader("Content-Type", "application/json");
 
     private HttpObservable http;
 
@@ -87,7 +91,7 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createDirReqParams, headers, 201)
-                   .map(ignore -> true);
+                   .map(ADLSGen2FSOperation::closeAndReturnTrue);
     }
 
     public Observable<Boolean> createFile(String filePath) {
@@ -107,7 +111,7 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createFileReqParams, headers, 201)
-                .map(ignore -> true);
+                .map(ADLSGen2FSOperation::closeAndReturnTrue);
     }
 
     public Observable<Boolean> uploadData(String destFilePath, File src) {
@@ -115,6 +119,17 @@ public class ADLSGen2FSOperation {
                 .flatMap(len -> flushData(destFilePath, len));
     }
 
+    /**
+     * Get the size of a file
+     *
+     * @param filePath the file URL
+     * @return Observable: the file size in bytes
+     */
+    public Observable<Long> getFileSize(String filePath) {
+        return http.head(filePath, Collections.emptyList(), Collections.emptyList())
+                .map(resp -> Long.parseLong(resp.findHeader("Content-Length")));
+    }
+
     public Observable<RemoteFile> list(String rootPath, String relativePath) {
         this.listReqBuilder = new ADLSGen2ParamsBuilder()
                 .enableRecursive(false)
@@ -138,10 +153,13 @@ public class ADLSGen2FSOperation {
             long len = entity.getContentLength();
 
             HttpPatch req = new HttpPatch(filePath);
-            http.setContentType("application/octet-stream");
 
-            return http.executeReqAndCheckStatus(req, entity, this.appendReqParams, Collections.emptyList(), 202)
-                    .map(ignore -> len);
+            // Set the content type per request since the HTTP client may be shared by concurrent uploads
+            return http.executeReqAndCheckStatus(req, entity, this.appendReqParams, ImmutableList.of(OCTET_STREAM_CONTENT_TYPE), 202)
+                    .map(resp -> {
+                        HttpClientUtils.closeQuietly(resp);
+                        return len;
+                    });
         } catch (FileNotFoundException e) {
             throw new RuntimeException(new IllegalArgumentException("Can not find the aritifact"));
         } catch (IOException e) {
@@ -152,9 +170,13 @@ public class ADLSGen2FSOperation {
     private Observable<Boolean> flushData(String filePath, long flushLen) {
         HttpPatch req = new HttpPatch(filePath);
         List<NameValuePair> flushReqParams = this.flushReqParamsBuilder.setPosition(flushLen).build();
-        http.setContentType("application/json");
+        return http.executeReqAndCheckStatus(req, null, flushReqParams, ImmutableList.of(JSON_CONTENT_TYPE), 200)
+                .map(ADLSGen2FSOperation::closeAndReturnTrue);
+    }
 
-        return http.executeReqAndCheckStatus(req, null, flushReqParams, Collections.emptyList(), 200)
-                .map(ignore -> true);
+    // Release the connection for the following requests, the HTTP client may be shared by concurrent uploads
+    private static boolean closeAndReturnTrue(CloseableHttpResponse resp) {
+        HttpClientUtils.closeQuietly(resp);
+        return true;
     }
 }
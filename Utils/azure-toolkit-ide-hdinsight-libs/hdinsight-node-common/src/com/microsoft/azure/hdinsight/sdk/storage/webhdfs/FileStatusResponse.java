@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.webhdfs;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The response of WebHDFS GETFILESTATUS operation
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FileStatusResponse {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class FileStatus {
+        @JsonProperty(value = "length")
+        private long length;
+
+        @JsonProperty(value = "type")
+        private String type;
+
+        public long getLength() {
+            return length;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+
+    @JsonProperty(value = "FileStatus")
+    private FileStatus fileStatus;
+
+    public FileStatus getFileStatus() {
+        return fileStatus;
+    }
+}
@@ -81,6 +81,12 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
                  .map(ignored -> AbfsUri.parse(filePath).getUri().toString());
     }
 
+    @Override
+    public Observable<Long> getDeployedSize(String uploadedPath) {
+        return Observable.defer(() ->
+                new ADLSGen2FSOperation(this.http).getFileSize(AbfsUri.parse(uploadedPath).getUrl().toString()));
+    }
+
     public static String getForbiddenErrorHints(String fileSystemRootPath) {
         final String signInUserEmail = Azure.az(AzureAccount.class).account().getUsername();
         return " Please verify if\n"
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+import rx.Observer;
+import rx.Scheduler;
+import rx.observers.SerializedObserver;
+import rx.schedulers.Schedulers;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Warning;
+import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
+
+/**
+ * Deploy the artifacts of a Spark job, the main artifact and the local referenced jars and files, concurrently
+ * through a {@link Deployable}. Each artifact is retried on its own failure and its size is verified after
+ * uploading if the storage can tell.
+ */
+public class ArtifactDeployCoordinator implements ILogger {
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_RETRIES_MAX = 2;
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 1000;
+
+    @NotNull
+    private final Deployable deployable;
+
+    @NotNull
+    private final Observer<SparkLogLine> logSubject;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private int retriesMax = DEFAULT_RETRIES_MAX;
+
+    private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+
+    @NotNull
+    private Scheduler scheduler = Schedulers.io();
+
+    public ArtifactDeployCoordinator(@NotNull Deployable deployable, @NotNull Observer<SparkLogLine> logSubject) {
+        this.deployable = deployable;
+        // The artifacts are deployed and log in parallel
+        this.logSubject = new SerializedObserver<>(logSubject);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the most artifacts uploaded at the same time
+     */
+    public ArtifactDeployCoordinator setParallelism(int parallelism) {
+        this.parallelism = Math.max(parallelism, 1);
+        return this;
+    }
+
+    public int getRetriesMax() {
+        return retriesMax;
+    }
+
+    /**
+     * Set the retries of an artifact failing to upload or verify, the delay grows linearly between retries
+     */
+    public ArtifactDeployCoordinator setRetriesMax(int retriesMax) {
+        this.retriesMax = Math.max(retriesMax, 0);
+        return this;
+    }
+
+    public long getRetryDelayMillis() {
+        return retryDelayMillis;
+    }
+
+    public ArtifactDeployCoordinator setRetryDelayMillis(long retryDelayMillis) {
+        this.retryDelayMillis = retryDelayMillis;
+        return this;
+    }
+
+    @NotNull
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Set the scheduler to run the blocking uploads on
+     */
+    public ArtifactDeployCoordinator setScheduler(@NotNull Scheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Deploy the artifacts concurrently
+     *
+     * @param artifacts the local artifacts to deploy
+     * @return Observable: the upload paths, in the order of the artifacts
+     * Observable Error: the error of the first artifact failing all its tries
+     */
+    @NotNull
+    public Observable<List<String>> deploy(@NotNull List<File> artifacts) {
+        return Observable.defer(() -> {
+            final long startNanos = System.nanoTime();
+            final long totalBytes = artifacts.stream().mapToLong(File::length).sum();
+
+            return Observable.range(0, artifacts.size())
+                    .flatMap(i -> deployWithRetries(artifacts.get(i))
+                                    .map(path -> new SimpleImmutableEntry<>(i, path)),
+                             parallelism)
+                    .toList()
+                    .map(indexedPaths -> {
+                        final String[] paths = new String[artifacts.size()];
+                        indexedPaths.forEach(indexedPath -> paths[indexedPath.getKey()] = indexedPath.getValue());
+
+                        return Arrays.asList(paths);
+                    })
+                    .doOnNext(paths -> logThroughput(
+                            paths.size(), totalBytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+        });
+    }
+
+    @NotNull
+    private Observable<String> deployWithRetries(@NotNull File artifact) {
+        return Observable.defer(() -> deployable.deploy(artifact, logSubject))
+                .last()
+                .flatMap(path -> verifySize(artifact, path))
+                .retryWhen(errors -> errors
+                        .zipWith(Observable.range(1, retriesMax + 1), SimpleImmutableEntry::new)
+                        .flatMap(errorTry -> {
+                            final Throwable err = errorTry.getKey();
+                            final int retry = errorTry.getValue();
+
+                            if (retry > retriesMax) {
+                                return Observable.error(err);
+                            }
+
+                            log().warn("Retry " + retry + " uploading artifact " + artifact.getName(), err);
+                            logSubject.onNext(new SparkLogLine(TOOL, Warning, String.format(
+                                    "Failed to upload %s (%s), retry %d of %d...",
+                                    artifact.getName(), err.getMessage(), retry, retriesMax)));
+
+                            return Observable.timer(retryDelayMillis * retry, TimeUnit.MILLISECONDS, scheduler);
+                        }))
+                .subscribeOn(scheduler);
+    }
+
+    @NotNull
+    private Observable<String> verifySize(@NotNull File artifact, @NotNull String uploadedPath) {
+        final long expectedSize = artifact.length();
+
+        return deployable.getDeployedSize(uploadedPath)
+                .onErrorResumeNext(err -> {
+                    // The upload succeeded, not being able to query its size doesn't fail it
+                    log().warn("Can't get the size of uploaded artifact " + uploadedPath + " to verify it", err);
+                    return Observable.empty();
+                })
+                .flatMap(size -> size == expectedSize
+                        ? Observable.just(uploadedPath)
+                        : Observable.error(new IOException(String.format(
+                                "The uploaded artifact %s has %d bytes rather than %d bytes of %s",
+                                uploadedPath, size, expectedSize, artifact.getAbsolutePath()))))
+                .switchIfEmpty(Observable.just(uploadedPath));
+    }
+
+    private void logThroughput(int artifactCount, long totalBytes, long elapsedMillis) {
+        final long bytesPerSecond = totalBytes * 1000 / Math.max(elapsedMillis, 1);
+        final String message = String.format("Uploaded %d artifact(s) of %s in %.1f seconds (%s/s)",
+                                             artifactCount,
+                                             FileUtils.byteCountToDisplaySize(totalBytes),
+                                             elapsedMillis / 1000.0,
+                                             FileUtils.byteCountToDisplaySize(bytesPerSecond));
+
+        log().info(message);
+        logSubject.onNext(new SparkLogLine(TOOL, Info, message));
+    }
+
+    /**
+     * Get the local file of a referenced jar or file to deploy
+     *
+     * @param path the referenced path, a local one is a file URI or an existing local file
+     * @return the local file, or null if the path refers to a remote storage
+     */
+    @Nullable
+    public static File getLocalFile(@Nullable String path) {
+        if (StringUtils.isBlank(path)) {
+            return null;
+        }
+
+        if (StringUtils.startsWithIgnoreCase(path, "file:")) {
+            try {
+                return new File(URI.create(path));
+            } catch (IllegalArgumentException ignored) {
+                return null;
+            }
+        }
+
+        final File file = new File(path);
+
+        return file.isAbsolute() && file.isFile() ? file : null;
+    }
+}
@@ -21,4 +21,15 @@ public interface Deployable {
      * Observable Error: IOException;
      */
     Observable<String> deploy(File src, Observer<SparkLogLine> logSubject);
+
+    /**
+     * Get the size of a deployed artifact, to verify the upload
+     *
+     * @param uploadedPath the upload path returned by {@link #deploy(File, Observer)}
+     * @return Observable: the artifact size in bytes, or empty if the storage can't tell
+     * Observable Error: IOException;
+     */
+    default Observable<Long> getDeployedSize(String uploadedPath) {
+        return Observable.empty();
+    }
 }
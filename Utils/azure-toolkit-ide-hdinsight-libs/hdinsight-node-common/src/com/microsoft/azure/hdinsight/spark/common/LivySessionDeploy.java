@@ -5,12 +5,15 @@
 
 package com.microsoft.azure.hdinsight.spark.common;
 
+import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import rx.Observable;
 import rx.Observer;
+import rx.schedulers.Schedulers;
 
 import java.io.File;
 import java.util.AbstractMap;
@@ -28,4 +31,16 @@ public class LivySessionDeploy implements Deployable, ILogger {
                        .map(AbstractMap.SimpleImmutableEntry::getValue)
                        .toObservable();
     }
+
+    /**
+     * Start the helper session to upload the artifact in background, so that it's ready once the artifact is built.
+     *
+     * @param owner the owner of the helper session, such as the project, which releases it when closed
+     */
+    public void warmUp(final @Nullable Object owner) {
+        Observable.fromCallable(() -> ClusterManagerEx.getInstance().getClusterDetailByName(clusterName))
+                  .subscribeOn(Schedulers.io())
+                  .subscribe(cluster -> cluster.ifPresent(it -> JobUtils.warmUpHDFSUploadSession(it, owner)),
+                             err -> log().warn("Failed to warm up the helper session of cluster " + clusterName, err));
+    }
 }
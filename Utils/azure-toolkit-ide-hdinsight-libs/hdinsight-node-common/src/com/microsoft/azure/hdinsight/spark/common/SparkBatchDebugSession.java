@@ -10,6 +10,7 @@ import com.jcraft.jsch.*;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.StringUtils;
@@ -21,16 +22,26 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.UnknownServiceException;
 import java.util.Arrays;
+import java.util.Properties;
 import java.util.regex.Pattern;
 
 /*
  * Spark Batch Job debug session with SSH tunnel
  */
 public class SparkBatchDebugSession implements ILogger{
+    private static final Properties SESSION_CONFIG = new Properties() {{
+        put("StrictHostKeyChecking", "no");
+        put("MaxAuthTries", "2");
+    }};
+
     @NotNull
     private final DebugUserInfo debugUserInfo;
     @NotNull
     private Session portForwardingSession;
+    @Nullable
+    private SshTunnelManager.Tunnel tunnel;
+    @Nullable
+    private String credentialKey;
     private JSch jsch;
     private Subscription logSubscription;
     private SparkBatchRemoteDebugJobSshAuth auth;
@@ -125,9 +136,40 @@ public class SparkBatchDebugSession implements ILogger{
      */
     @NotNull
     public Session getPortForwardingSession() {
+        if (tunnel != null) {
+            try {
+                return tunnel.getSession();
+            } catch (JSchException ex) {
+                log().warn("Can't reconnect the SSH tunnel to " + tunnel.getEndpoint() + ". " + ex);
+            }
+        }
+
         return portForwardingSession;
     }
 
+    /**
+     * Getter of the shared SSH tunnel, which is acquired by {@link #open()}
+     *
+     * @return the tunnel, NULL if the session isn't opened
+     */
+    @Nullable
+    public SshTunnelManager.Tunnel getTunnel() {
+        return tunnel;
+    }
+
+    /**
+     * Get the key to share the SSH tunnel by, sessions of the same user, host, port and credential share one tunnel
+     *
+     * @return the tunnel key
+     */
+    @NotNull
+    String getTunnelKey() {
+        Session session = this.portForwardingSession;
+
+        return session.getUserName() + "@" + session.getHost() + ":" + session.getPort()
+                + (credentialKey == null ? "" : "/" + credentialKey);
+    }
+
     /**
      * Specify the private key file for establish SSH connection
      *
@@ -212,32 +254,60 @@ public class SparkBatchDebugSession implements ILogger{
     }
 
     /**
-     * Close the SSH port forwarding session
+     * Close the SSH port forwarding session, the shared tunnel is released once even if closed repeatedly
      *
      * @return the current instance for chain calling
      */
-    public SparkBatchDebugSession close() {
+    public synchronized SparkBatchDebugSession close() {
         if (getLogSubscription() != null) {
             getLogSubscription().unsubscribe();
         }
 
-        this.getPortForwardingSession().disconnect();
+        if (tunnel != null) {
+            tunnel.close();
+            tunnel = null;
+        } else {
+            this.portForwardingSession.disconnect();
+        }
 
         return this;
     }
 
     /**
-     * Open the SSH port forwarding session
+     * Open the SSH port forwarding session, which is the SSH tunnel shared with other sessions to the same endpoint
      *
      * @return the current instance for chain calling
      * @throws JSchException JSch operation exceptions
      */
     public SparkBatchDebugSession open() throws JSchException {
-        this.getPortForwardingSession().connect();
+        return open(SshTunnelManager.getInstance());
+    }
+
+    SparkBatchDebugSession open(@NotNull SshTunnelManager tunnelManager) throws JSchException {
+        if (tunnel == null) {
+            tunnel = tunnelManager.acquire(getTunnelKey(), this::createSession);
+        }
 
         return this;
     }
 
+    /**
+     * Create a new session to the same endpoint as the port forwarding session, for the tunnel to (re)connect with
+     *
+     * @return a new session not connected
+     * @throws JSchException JSch operation exceptions
+     */
+    @NotNull
+    private Session createSession() throws JSchException {
+        Session template = this.portForwardingSession;
+        Session session = this.getJsch().getSession(template.getUserName(), template.getHost(), template.getPort());
+
+        session.setConfig(SESSION_CONFIG);
+        session.setUserInfo(this.debugUserInfo);
+
+        return session;
+    }
+
     /**
      * Create an ephemeral Forward to remote host and port
      *
@@ -247,6 +317,12 @@ public class SparkBatchDebugSession implements ILogger{
      * @throws JSchException JSch operation exceptions
      */
     public SparkBatchDebugSession forwardToRemotePort(String remoteHost, int remotePort) throws JSchException {
+        if (tunnel != null) {
+            tunnel.forward(remoteHost, remotePort);
+
+            return this;
+        }
+
         // 0 means to select the local automatically
         this.getPortForwardingSession().setPortForwardingL(0, remoteHost, remotePort);
 
@@ -265,6 +341,17 @@ public class SparkBatchDebugSession implements ILogger{
     public int getForwardedLocalPort(String remoteHost, int remotePort)
             throws JSchException,
                    UnknownServiceException {
+        if (tunnel != null) {
+            Integer forwarded = tunnel.getForwardedLocalPort(remoteHost, remotePort);
+
+            if (forwarded == null) {
+                throw new UnknownServiceException(
+                        "No local forwarded port found for " + remoteHost + ":" + remotePort);
+            }
+
+            return forwarded;
+        }
+
         String localPort = Arrays.stream(this.getPortForwardingSession().getPortForwardingL())
                 .filter((forwarding) -> forwarding.matches("\\d+:" + remoteHost + ":" + remotePort))
                 .findFirst()
@@ -287,12 +374,7 @@ public class SparkBatchDebugSession implements ILogger{
         JSch jsch = new JSch();
         Session session = jsch.getSession(user, host);
 
-        java.util.Properties config = new java.util.Properties() {{
-            put("StrictHostKeyChecking", "no");
-            put("MaxAuthTries", "2");
-        }};
-
-        session.setConfig(config);
+        session.setConfig(SESSION_CONFIG);
 
         return new SparkBatchDebugSession(jsch, session);
     }
@@ -310,9 +392,12 @@ public class SparkBatchDebugSession implements ILogger{
         switch (auth.getSshAuthType()) {
             case UseKeyFile:
                 session.setPrivateKeyFile(auth.getSshKeyFile());
+                session.credentialKey = "key:" + auth.getSshKeyFile().getAbsolutePath();
                 break;
             case UsePassword:
                 session.setPassword(auth.getSshPassword());
+                // Hash the password rather than keep it in the key, sessions with different passwords don't share a tunnel
+                session.credentialKey = "password:" + DigestUtils.sha256Hex(StringUtils.defaultString(auth.getSshPassword()));
                 break;
             default:
                 throw new SparkBatchRemoteDebugJobSshAuth.UnknownSSHAuthTypeException(
@@ -30,6 +30,7 @@ import rx.Observable;
 import rx.Observer;
 import rx.Subscriber;
 import rx.subjects.PublishSubject;
+import rx.subscriptions.Subscriptions;
 
 import java.io.File;
 import java.io.IOException;
@@ -37,9 +38,11 @@ import java.net.URI;
 import java.net.UnknownServiceException;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Error;
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.*;
@@ -162,6 +165,12 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     @Nullable
     private final Deployable jobDeploy;
 
+    /**
+     * The kill request issued, shared by all callers to kill the job once
+     */
+    @Nullable
+    private Observable<? extends ISparkBatchJob> killing;
+
     public SparkBatchJob(
             SparkSubmissionParameter submissionParameter,
             SparkBatchSubmission sparkBatchSubmission) {
@@ -403,13 +412,17 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     }
 
     /**
-     * Kill the batch job specified by ID
+     * Kill the batch job specified by ID, the kill request is issued once and the following calls get its result
      *
      * @return the current instance for chain calling
      */
     @Override
-    public Observable<? extends ISparkBatchJob> killBatchJob() {
-        return Observable.fromCallable(() -> {
+    public synchronized Observable<? extends ISparkBatchJob> killBatchJob() {
+        if (killing != null) {
+            return killing;
+        }
+
+        killing = Observable.fromCallable(() -> {
             if (getConnectUri() == null) {
                 throw new SparkJobNotConfiguredException("Can't get Spark job connection URI, " +
                         "please configure Spark cluster which the Spark job will be submitted.");
@@ -425,7 +438,14 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
             }
 
             return this;
-        });
+        }).doOnError(err -> {
+            // Allow to kill again
+            synchronized (this) {
+                killing = null;
+            }
+        }).cache();
+
+        return killing;
     }
 
     @NotNull
@@ -803,12 +823,16 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                 "yarn diagnostics:"));
 
         return Observable.create(ob -> {
+            // Stop fetching as soon as the subscriber unsubscribes, rather than after the retry interval
+            final CountDownLatch unsubscribed = new CountDownLatch(1);
+            ob.add(Subscriptions.create(unsubscribed::countDown));
+
             try {
                 final int maxLinesPerGet = 128;
                 int linesGot;
                 boolean isFetching = true;
 
-                while (isFetching) {
+                while (isFetching && !ob.isUnsubscribed()) {
                     final int start = nextLivyLogOffset;
                     final boolean isAppIdAllocated = !this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
                             .lastOrDefault(true);
@@ -839,9 +863,8 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
 
                     // Retry interval
                     if (linesGot == 0) {
-                        isFetching = "starting".equals(this.getState()) && !isAppIdAllocated;
-
-                        sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
+                        isFetching = "starting".equals(this.getState()) && !isAppIdAllocated
+                                && !unsubscribed.await(this.getDelaySeconds(), TimeUnit.SECONDS);
                     }
                 }
             } catch (final IOException ex) {
@@ -896,6 +919,10 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
         }
 
         return Observable.create((Subscriber<? super SimpleImmutableEntry<String, String>> ob) -> {
+            // Stop polling as soon as the subscriber unsubscribes
+            final CountDownLatch unsubscribed = new CountDownLatch(1);
+            ob.add(Subscriptions.create(unsubscribed::countDown));
+
             try {
                 boolean isJobActive;
                 SparkBatchJobState state = SparkBatchJobState.NOT_STARTED;
@@ -921,7 +948,9 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
 
 
                     // Retry interval
-                    sleep(1000);
+                    if (unsubscribed.await(1, TimeUnit.SECONDS)) {
+                        return;
+                    }
                 } while (isJobActive);
 
                 ob.onNext(new SimpleImmutableEntry<>(state.toString(), diagnostics));
@@ -1077,13 +1106,49 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     @Override
     public Observable<? extends ISparkBatchJob> deploy(@NotNull String artifactPath) {
         assert jobDeploy != null : "jobDeploy should not be null";
-        return jobDeploy.deploy(new File(artifactPath), getCtrlSubject())
-                .map(redirectPath -> {
-                    getSubmissionParameter().setFilePath(redirectPath);
+
+        // Upload the local referenced jars and files together with the artifact
+        final SparkSubmissionParameter parameter = getSubmissionParameter();
+        final List<File> artifacts = new ArrayList<>();
+        artifacts.add(new File(artifactPath));
+        addLocalFiles(parameter.getReferencedJars(), artifacts);
+        addLocalFiles(parameter.getReferencedFiles(), artifacts);
+
+        return new ArtifactDeployCoordinator(jobDeploy, getCtrlSubject())
+                .deploy(artifacts)
+                .map(uploadedPaths -> {
+                    final Map<File, String> uploadedPathsByFile = new HashMap<>();
+                    for (int i = 0; i < artifacts.size(); i++) {
+                        uploadedPathsByFile.put(artifacts.get(i), uploadedPaths.get(i));
+                    }
+
+                    parameter.setFilePath(uploadedPaths.get(0));
+                    parameter.setReferencedJars(replaceLocalFiles(parameter.getReferencedJars(), uploadedPathsByFile));
+                    parameter.setReferencedFiles(replaceLocalFiles(parameter.getReferencedFiles(), uploadedPathsByFile));
                     return this;
                 });
     }
 
+    private static void addLocalFiles(@Nullable List<String> paths, @NotNull List<File> artifacts) {
+        Optional.ofNullable(paths).orElse(Collections.emptyList()).stream()
+                .map(ArtifactDeployCoordinator::getLocalFile)
+                .filter(file -> file != null && !artifacts.contains(file))
+                .forEach(artifacts::add);
+    }
+
+    @Nullable
+    private static List<String> replaceLocalFiles(@Nullable List<String> paths, @NotNull Map<File, String> uploadedPathsByFile) {
+        if (paths == null) {
+            return null;
+        }
+
+        return paths.stream()
+                .map(path -> Optional.ofNullable(ArtifactDeployCoordinator.getLocalFile(path))
+                        .map(uploadedPathsByFile::get)
+                        .orElse(path))
+                .collect(Collectors.toList());
+    }
+
     /**
      * New RxAPI: Submit the job
      *
@@ -228,7 +228,10 @@ public class SparkBatchSubmission implements ILogger {
     public HttpResponse negotiateAuthMethodWithResp(String connectUrl) throws IOException {
         List<Header> additionHeader = new ArrayList<>();
         additionHeader.add(new BasicHeader("User-Agent", "Mozilla/5"));
-        return getHttpResponseViaGet(connectUrl, getHttpClientWithoutCredentialAndRedirect(), additionHeader);
+
+        try (CloseableHttpClient httpclient = getHttpClientWithoutCredentialAndRedirect()) {
+            return getHttpResponseViaGet(connectUrl, httpclient, additionHeader);
+        }
     }
 
     public HttpResponse getHttpResponseViaGet(String connectUrl, CloseableHttpClient httpclient, List<Header> additionHeaders) throws IOException {
@@ -250,12 +253,13 @@ public class SparkBatchSubmission implements ILogger {
     }
 
     public HttpResponse getHttpResponseViaGet(String connectUrl) throws IOException {
-        return getHttpResponseViaGet(connectUrl, getHttpClient(), null);
+        // Close the client per request to release its connections, the job polling may be cancelled any time
+        try (CloseableHttpClient httpclient = getHttpClient()) {
+            return getHttpResponseViaGet(connectUrl, httpclient, null);
+        }
     }
 
     public HttpResponse getHttpResponseViaHead(String connectUrl) throws IOException {
-        CloseableHttpClient httpclient = getHttpClient();
-
         HttpHead httpHead = new HttpHead(connectUrl);
         httpHead.addHeader("Content-Type", "application/json");
         httpHead.addHeader("User-Agent", getUserAgentPerRequest(true));
@@ -270,7 +274,8 @@ public class SparkBatchSubmission implements ILogger {
                         .setSocketTimeout(3 * 1000)
                         .build());
 
-        try (CloseableHttpResponse response = httpclient.execute(httpHead)) {
+        try (CloseableHttpClient httpclient = getHttpClient();
+             CloseableHttpResponse response = httpclient.execute(httpHead)) {
             return StreamUtil.getResultFromHttpResponse(response);
         }
     }
@@ -316,14 +321,14 @@ public class SparkBatchSubmission implements ILogger {
     public HttpResponse createBatchSparkJob(String connectUrl,
                                             SparkSubmissionParameter submissionParameter)
             throws IOException {
-        CloseableHttpClient httpclient = getHttpClient();
         HttpPost httpPost = new HttpPost(connectUrl);
         httpPost.addHeader("Content-Type", "application/json");
         httpPost.addHeader("User-Agent", getUserAgentPerRequest(true));
         httpPost.addHeader("X-Requested-By", "ambari");
         StringEntity postingString = new StringEntity(submissionParameter.serializeToJson());
         httpPost.setEntity(postingString);
-        try (CloseableHttpResponse response = httpclient.execute(httpPost)) {
+        try (CloseableHttpClient httpclient = getHttpClient();
+             CloseableHttpResponse response = httpclient.execute(httpPost)) {
             return StreamUtil.getResultFromHttpResponse(response);
         }
     }
@@ -347,13 +352,13 @@ public class SparkBatchSubmission implements ILogger {
      * @throws IOException
      */
     public HttpResponse killBatchJob(String connectUrl, int batchId)throws IOException {
-        CloseableHttpClient httpclient = getHttpClient();
         HttpDelete httpDelete = new HttpDelete(connectUrl + "/" + batchId);
         httpDelete.addHeader("User-Agent", getUserAgentPerRequest(true));
         httpDelete.addHeader("Content-Type", "application/json");
         httpDelete.addHeader("X-Requested-By", "ambari");
 
-        try (CloseableHttpResponse response = httpclient.execute(httpDelete)) {
+        try (CloseableHttpClient httpclient = getHttpClient();
+             CloseableHttpResponse response = httpclient.execute(httpDelete)) {
             return StreamUtil.getResultFromHttpResponse(response);
         }
     }
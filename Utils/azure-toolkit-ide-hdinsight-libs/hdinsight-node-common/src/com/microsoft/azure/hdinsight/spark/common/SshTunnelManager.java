@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The manager of SSH tunnels to cluster SSH endpoints.
+ *
+ * Debugging a Spark job forwards one local port to the driver and one to each executor to debug, all through the
+ * cluster head node. The manager keeps one SSH connection per endpoint, shared by all debug sessions to it, and
+ * forwards are multiplexed as channels of that connection. The connection is kept alive by SSH keepalive messages,
+ * reconnected when it's found broken, and disconnected when the last debug session releases it.
+ */
+public class SshTunnelManager implements ILogger {
+    public static final int DEFAULT_KEEPALIVE_INTERVAL_MILLIS = 30_000;
+    public static final int DEFAULT_KEEPALIVE_COUNT_MAX = 3;
+
+    private static final SshTunnelManager instance = new SshTunnelManager();
+
+    private final Map<String, Tunnel> tunnels = new HashMap<>();
+    private final int keepAliveIntervalMillis;
+    private final int keepAliveCountMax;
+
+    public SshTunnelManager() {
+        this(DEFAULT_KEEPALIVE_INTERVAL_MILLIS, DEFAULT_KEEPALIVE_COUNT_MAX);
+    }
+
+    /**
+     * Create a SSH tunnel manager.
+     *
+     * @param keepAliveIntervalMillis the interval of keepalive messages sent to an idle SSH server
+     * @param keepAliveCountMax       the number of keepalive messages not replied before the connection is dropped
+     */
+    public SshTunnelManager(final int keepAliveIntervalMillis, final int keepAliveCountMax) {
+        this.keepAliveIntervalMillis = keepAliveIntervalMillis;
+        this.keepAliveCountMax = keepAliveCountMax;
+    }
+
+    public static SshTunnelManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * The factory of new (not connected) SSH sessions to an endpoint, called for the first connection and reconnections.
+     */
+    @FunctionalInterface
+    public interface SessionFactory {
+        @NotNull
+        Session create() throws JSchException;
+    }
+
+    /**
+     * Acquire the tunnel of the endpoint, connecting it if it isn't connected yet. The tunnel must be released by
+     * {@link Tunnel#close()}.
+     *
+     * @param endpoint the key of the endpoint, tunnels are shared by the key, so it should identify the credential too
+     * @param factory  the factory of sessions to the endpoint, only used when a new connection is needed
+     * @return the connected tunnel
+     * @throws JSchException failed to connect to the endpoint
+     */
+    @NotNull
+    public Tunnel acquire(@NotNull final String endpoint, @NotNull final SessionFactory factory) throws JSchException {
+        final Tunnel tunnel;
+
+        synchronized (this) {
+            tunnel = tunnels.computeIfAbsent(endpoint, key -> new Tunnel(key, factory));
+            tunnel.refCount++;
+        }
+
+        try {
+            // Connect out of the manager lock, a slow handshake mustn't block tunnels to other endpoints
+            tunnel.ensureConnected();
+        } catch (final JSchException | RuntimeException err) {
+            release(tunnel);
+            throw err;
+        }
+
+        return tunnel;
+    }
+
+    public synchronized int getTunnelCount() {
+        return tunnels.size();
+    }
+
+    /**
+     * Disconnect all tunnels, regardless of the debug sessions using them.
+     */
+    public void closeAll() {
+        final Tunnel[] all;
+
+        synchronized (this) {
+            all = tunnels.values().toArray(new Tunnel[0]);
+            tunnels.clear();
+        }
+
+        for (final Tunnel tunnel : all) {
+            tunnel.disconnect();
+        }
+    }
+
+    private void release(@NotNull final Tunnel tunnel) {
+        synchronized (this) {
+            if (--tunnel.refCount > 0) {
+                return;
+            }
+
+            tunnels.remove(tunnel.endpoint, tunnel);
+        }
+
+        tunnel.disconnect();
+    }
+
+    /**
+     * A shared SSH connection to an endpoint with its local port forwards.
+     */
+    public class Tunnel implements AutoCloseable {
+        @NotNull
+        private final String endpoint;
+        @NotNull
+        private final SessionFactory factory;
+        // Remote "host:port" to the local port forwarded to it
+        private final Map<String, Integer> forwards = new LinkedHashMap<>();
+        @Nullable
+        private Session session;
+        private int connectCount = 0;
+        // Guarded by the manager
+        private int refCount = 0;
+        private boolean closed = false;
+
+        Tunnel(@NotNull final String endpoint, @NotNull final SessionFactory factory) {
+            this.endpoint = endpoint;
+            this.factory = factory;
+        }
+
+        @NotNull
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /**
+         * Get the connected session of the tunnel, reconnecting it if the connection is broken.
+         *
+         * @return the connected session
+         * @throws JSchException failed to reconnect
+         */
+        @NotNull
+        public synchronized Session getSession() throws JSchException {
+            return ensureConnected();
+        }
+
+        /**
+         * Get the number of connections made, more than 1 means the tunnel has been reconnected.
+         */
+        public synchronized int getConnectCount() {
+            return connectCount;
+        }
+
+        /**
+         * Forward a local ephemeral port to the remote host and port, a forwarded one is reused.
+         *
+         * @param remoteHost the remote host in SSH server network
+         * @param remotePort the remote port of host
+         * @return the local port
+         * @throws JSchException JSch operation exceptions
+         */
+        public synchronized int forward(@NotNull final String remoteHost, final int remotePort) throws JSchException {
+            final Session connected = ensureConnected();
+            final String remote = remoteHost + ":" + remotePort;
+            final Integer forwarded = forwards.get(remote);
+
+            if (forwarded != null) {
+                return forwarded;
+            }
+
+            // 0 means to select the local port automatically
+            final int localPort = connected.setPortForwardingL(0, remoteHost, remotePort);
+            forwards.put(remote, localPort);
+
+            return localPort;
+        }
+
+        @Nullable
+        public synchronized Integer getForwardedLocalPort(@NotNull final String remoteHost, final int remotePort) {
+            return forwards.get(remoteHost + ":" + remotePort);
+        }
+
+        @NotNull
+        public synchronized Map<String, Integer> getForwards() {
+            return new LinkedHashMap<>(forwards);
+        }
+
+        @NotNull
+        synchronized Session ensureConnected() throws JSchException {
+            if (closed) {
+                throw new JSchException("The SSH tunnel to " + endpoint + " is closed");
+            }
+
+            if (session != null && session.isConnected()) {
+                return session;
+            }
+
+            if (session != null) {
+                log().info("The SSH tunnel to " + endpoint + " is disconnected, reconnecting");
+
+                // Free the local ports now, the broken session may not have closed its listeners yet
+                for (final int localPort : forwards.values()) {
+                    try {
+                        session.delPortForwardingL(localPort);
+                    } catch (final JSchException ignored) {
+                        // Closed already
+                    }
+                }
+
+                session.disconnect();
+            }
+
+            final Session created = factory.create();
+            created.setServerAliveInterval(keepAliveIntervalMillis);
+            created.setServerAliveCountMax(keepAliveCountMax);
+            created.connect();
+            connectCount++;
+
+            // Restore the forwards on the same local ports, so that attached debuggers can reconnect to them
+            for (final Map.Entry<String, Integer> forward : forwards.entrySet()) {
+                final int separator = forward.getKey().lastIndexOf(':');
+                final String remoteHost = forward.getKey().substring(0, separator);
+                final int remotePort = Integer.parseInt(forward.getKey().substring(separator + 1));
+
+                try {
+                    created.setPortForwardingL(forward.getValue(), remoteHost, remotePort);
+                } catch (final JSchException err) {
+                    log().warn("Can't forward the local port " + forward.getValue() + " to " + forward.getKey()
+                                       + " again, forward a new one. " + err);
+                    forward.setValue(created.setPortForwardingL(0, remoteHost, remotePort));
+                }
+            }
+
+            session = created;
+
+            return created;
+        }
+
+        synchronized void disconnect() {
+            closed = true;
+            forwards.clear();
+
+            if (session != null) {
+                session.disconnect();
+                session = null;
+            }
+        }
+
+        /**
+         * Release the tunnel, the connection is disconnected once all acquirers released it.
+         */
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
@@ -8,15 +8,18 @@ package com.microsoft.azure.hdinsight.spark.common;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.FileStatusResponse;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.entity.BufferedHttpEntity;
@@ -33,6 +36,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownServiceException;
 import java.util.List;
+import java.util.Optional;
 
 public class WebHDFSDeploy implements Deployable, ILogger {
     @NotNull
@@ -47,6 +51,9 @@ public class WebHDFSDeploy implements Deployable, ILogger {
     @NotNull
     private final List<NameValuePair> uploadReqParams;
 
+    @NotNull
+    private final List<NameValuePair> fileStatusReqParams;
+
     @NotNull
     public String destinationRootPath;
 
@@ -62,6 +69,8 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 .setPermission("777")
                 .build();
 
+        this.fileStatusReqParams = new WebHdfsParamsBuilder("GETFILESTATUS").build();
+
         this.http = http;
         http.setDefaultRequestConfig(RequestConfig.custom().setExpectContinueEnabled(true).build());
     }
@@ -83,6 +92,9 @@ public class WebHDFSDeploy implements Deployable, ILogger {
         return http.request(req, null, this.createDirReqParams, null)
                 .doOnNext(
                         resp -> {
+                            // Release the connection for the following requests, artifacts may be uploaded in parallel
+                            HttpClientUtils.closeQuietly(resp);
+
                             if (resp.getStatusLine().getStatusCode() != 200) {
                                 Exceptions.propagate(new UnknownServiceException("Can not create directory to save artifact using webHDFS storage type"));
                             }
@@ -90,7 +102,11 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 )
                 .map(ignored -> new HttpPut(dest.resolve(src.getName()).toString()))
                 .flatMap(put -> http.request(put, null, this.uploadReqParams, null))
-                .map(resp -> resp.getFirstHeader("Location").getValue())
+                .map(resp -> {
+                    HttpClientUtils.closeQuietly(resp);
+
+                    return Optional.ofNullable(resp.getFirstHeader("Location")).map(Header::getValue).orElse(null);
+                })
                 .doOnNext(redirectedUri -> {
                     if (StringUtils.isBlank(redirectedUri)) {
                         Exceptions.propagate(new UnknownServiceException("Can not get valid redirect uri using webHDFS storage type"));
@@ -105,7 +121,16 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                                 ContentType.APPLICATION_OCTET_STREAM);
                         reqEntity.setChunked(true);
 
-                        return http.request(put, new BufferedHttpEntity(reqEntity), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null);
+                        return http.request(put, new BufferedHttpEntity(reqEntity), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null)
+                                .doOnNext(resp -> {
+                                    HttpClientUtils.closeQuietly(resp);
+
+                                    // Fail the upload to retry it
+                                    if (resp.getStatusLine().getStatusCode() >= 300) {
+                                        Exceptions.propagate(new UnknownServiceException(
+                                                "Can not upload artifact using webHDFS storage type: " + resp.getStatusLine()));
+                                    }
+                                });
                     } catch (IOException ex) {
                         throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
                     }
@@ -119,6 +144,18 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 });
     }
 
+    @Override
+    public Observable<Long> getDeployedSize(String uploadedPath) {
+        try {
+            final String filePath = new URIBuilder(uploadedPath).removeQuery().build().toString();
+
+            return http.get(filePath, this.fileStatusReqParams, null, FileStatusResponse.class)
+                    .map(resp -> resp.getFileStatus().getLength());
+        } catch (URISyntaxException ex) {
+            return Observable.error(new IllegalArgumentException("Can not get valid artifact upload path " + uploadedPath, ex));
+        }
+    }
+
     @Nullable
     public String getArtifactUploadedPath(String rootPath) throws URISyntaxException {
         final List<NameValuePair> params = new WebHdfsParamsBuilder("OPEN").build();
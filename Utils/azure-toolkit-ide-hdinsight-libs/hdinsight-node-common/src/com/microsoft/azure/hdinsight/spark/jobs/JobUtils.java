@@ -22,8 +22,10 @@ import com.microsoft.azure.hdinsight.sdk.cluster.MfaEspCluster;
 import com.microsoft.azure.hdinsight.sdk.common.AuthenticationException;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SessionPool;
 import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileBase64BufferedOutputStream;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.sdk.storage.implementation.HDStorageAccount;
@@ -626,6 +628,39 @@ public class JobUtils {
                 uniqueFolderId, sftpFileToEmulator(buildJarPath, folderPath, selectedClusterDetail));
     }
 
+    private static SessionPool getHDFSUploadSessionPool(final IClusterDetail clusterDetail,
+                                                        final @Nullable Object owner) throws HDIException {
+        final URI livyUri = clusterDetail instanceof LivyCluster ?
+                            URI.create(((LivyCluster) clusterDetail).getLivyConnectionUrl()) :
+                            URI.create(clusterDetail.getConnectionUrl());
+
+        return SessionPool.of(livyUri,
+                              clusterDetail.getHttpUserName(),
+                              clusterDetail.getHttpPassword(),
+                              SessionPool.Options.fromSettings(SessionKind.SPARK),
+                              owner);
+    }
+
+    /**
+     * Start the Spark helper session to upload artifacts to HDFS in background, such as while the artifacts are
+     * building, so that the upload needn't wait for the session to start.
+     *
+     * @param clusterDetail the cluster to upload artifacts to
+     * @param owner the owner of the pooled session, such as the project, which releases it when closed
+     */
+    public static void warmUpHDFSUploadSession(final IClusterDetail clusterDetail, final @Nullable Object owner) {
+        // Only the clusters without a storage account upload artifacts through the helper session
+        if (clusterDetail.isEmulator() || clusterDetail.getStorageAccount() != null) {
+            return;
+        }
+
+        try {
+            getHDFSUploadSessionPool(clusterDetail, owner).warmUp();
+        } catch (final Exception ex) {
+            LOGGER.warn("Failed to warm up the Spark helper session of cluster " + clusterDetail.getName(), ex);
+        }
+    }
+
     public static String uploadFileToHDFSBase(IClusterDetail selectedClusterDetail,
                                               String buildJarPath,
                                               @Nullable Observer<SimpleImmutableEntry<MessageInfoType, String>> legacyLogSubject,
@@ -636,22 +671,17 @@ public class JobUtils {
         final File srcJarFile = new File(buildJarPath);
         final URI destUri = URI.create(String.format("/SparkSubmission/%s/%s", getFormatPathByDate(), srcJarFile.getName()));
 
-        final String username = selectedClusterDetail.getHttpUserName();
-        final String password = selectedClusterDetail.getHttpPassword();
-        final String sessionName = "Helper session to upload " + destUri.toString();
-
-        final URI livyUri = selectedClusterDetail instanceof LivyCluster ?
-                            URI.create(((LivyCluster) selectedClusterDetail).getLivyConnectionUrl()) :
-                            URI.create(selectedClusterDetail.getConnectionUrl());
-
-        ctrlInfo(legacyLogSubject, newLogSubject, "Create Spark helper interactive session...");
+        ctrlInfo(legacyLogSubject, newLogSubject, "Lease Spark helper interactive session...");
 
         try {
-            return Observable.using(() -> new SparkSession(sessionName, livyUri, username, password),
-                                    SparkSession::create,
-                                    SparkSession::close)
-                             .map(sparkSession -> {
-                                 sparkSession.getCtrlSubject()
+            // The helper session is leased from the warm pool of the cluster, it's returned to the pool after
+            // uploading, so that the following uploads needn't wait for a new session to start
+            return getHDFSUploadSessionPool(selectedClusterDetail, null)
+                             .lease()
+                             .flatMap(lease -> Observable.using(() -> lease, Observable::just, SessionPool.Lease::close))
+                             .map(lease -> {
+                                 final Session sparkSession = lease.getSession();
+                                 final Subscription logSubscription = sparkSession.getCtrlSubject()
                                              .subscribe(logLine -> ctrlInfo(legacyLogSubject, newLogSubject,
                                                                             logLine.getRawLog()),
                                                         err -> ctrlError(legacyLogSubject, newLogSubject, err),
@@ -677,6 +707,8 @@ public class JobUtils {
                                  } catch (IOException ioEx) {
                                      throw propagate(new HDIException(String.format("Failed to upload file %s.",
                                                                                     destUri), ioEx));
+                                 } finally {
+                                     logSubscription.unsubscribe();
                                  }
                                  ctrlInfo(legacyLogSubject, newLogSubject, String.format("Uploaded to %s.", destUri));
 
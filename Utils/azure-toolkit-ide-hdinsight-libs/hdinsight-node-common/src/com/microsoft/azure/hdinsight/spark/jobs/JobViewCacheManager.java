@@ -10,27 +10,45 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azure.hdinsight.sdk.rest.AttemptWithAppId;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.sql.SqlExecution;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
+import com.microsoft.azure.hdinsight.spark.jobs.analysis.SparkStageAnalyzer;
+import com.microsoft.azure.hdinsight.spark.jobs.analysis.StageAnalysis;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
+/**
+ * The caches of the job view resources. Resources of completed applications are served from the local event log
+ * store, see {@link SparkEventLogStore}, others are requested from Spark history server and YARN.
+ */
 public class JobViewCacheManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobViewCacheManager.class);
+
     private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
             .build(new CacheLoader<ApplicationKey, List<Job>>() {
                 @Override
                 public List<Job> load(ApplicationKey key) throws Exception {
+                    if (isIndexedLocally(key)) {
+                        return SparkEventLogStore.getInstance().getJobs(key);
+                    }
+
                     return SparkRestUtil.getLastAttemptJobsFromApp(key);
                 }
             });
@@ -41,6 +59,10 @@ public class JobViewCacheManager {
             .build(new CacheLoader<ApplicationKey, List<Stage>>() {
                 @Override
                 public List<Stage> load(ApplicationKey key) throws Exception {
+                    if (isIndexedLocally(key)) {
+                        return SparkEventLogStore.getInstance().getStages(key);
+                    }
+
                     return SparkRestUtil.getAllStageFromApp(key);
                 }
             });
@@ -51,6 +73,10 @@ public class JobViewCacheManager {
             .build(new CacheLoader<ApplicationKey, List<Executor>>() {
                 @Override
                 public List<Executor> load(ApplicationKey key) throws Exception {
+                    if (isIndexedLocally(key)) {
+                        return SparkEventLogStore.getInstance().getExecutors(key);
+                    }
+
                     return SparkRestUtil.getAllExecutorFromApp(key);
                 }
             });
@@ -61,7 +87,7 @@ public class JobViewCacheManager {
             .build(new CacheLoader<String, List<Application>>() {
                 @Override
                 public List<Application> load(String key) throws Exception {
-                    return SparkRestUtil.getSparkApplications(JobViewManager.getCluster(key));
+                    return getSparkApplicationsOrIndexed(JobViewManager.getCluster(key));
                 }
             });
 
@@ -71,12 +97,20 @@ public class JobViewCacheManager {
             .build(new CacheLoader<ApplicationKey, List<Task>>() {
                 @Override
                 public List<Task> load(ApplicationKey key) throws Exception {
+                    if (isIndexedLocally(key)) {
+                        return SparkEventLogStore.getInstance().getTasks(key);
+                    }
+
                     List<Task> allTasks = new ArrayList<>();
                     List<Stage> stages = sparkStageLocalCache.get(key);
                     for (Stage stage: stages) {
                         int stageId = stage.getStageId();
                         int attemptedId = stage.getAttemptId();
                         List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
+                        for (Task task : tasks) {
+                            task.setStageId(stageId);
+                            task.setStageAttemptId(attemptedId);
+                        }
                         allTasks.addAll(tasks);
                     }
                     return allTasks;
@@ -99,7 +133,25 @@ public class JobViewCacheManager {
             .build(new CacheLoader<ApplicationKey, App>() {
                 @Override
                 public App load(ApplicationKey key) throws Exception {
-                    return YarnRestUtil.getApp(key);
+                    final SparkEventLogStore store = SparkEventLogStore.getInstance();
+                    final App savedApp = store.getYarnApp(key);
+
+                    if (savedApp != null) {
+                        return savedApp;
+                    }
+
+                    final App app = YarnRestUtil.getApp(key);
+
+                    if (store.isIndexed(key)) {
+                        // The YARN application of a finished Spark application doesn't change any more
+                        try {
+                            store.saveYarnApp(key, app);
+                        } catch (IOException e) {
+                            LOGGER.warn("Failed to save YARN application " + key.getAppId(), e);
+                        }
+                    }
+
+                    return app;
                 }
             });
 
@@ -109,10 +161,97 @@ public class JobViewCacheManager {
             .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
                 @Override
                 public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
+                    if (isIndexedLocally(key)) {
+                        return SparkEventLogStore.getInstance().getJobStartEventLogs(key);
+                    }
+
                     return SparkRestUtil.getSparkEventLogs(key);
                 }
             });
 
+    private static final LoadingCache<ApplicationKey, List<SqlExecution>> sparkSqlExecutionLocalCache = CacheBuilder.newBuilder()
+            .maximumSize(100)
+            .initialCapacity(20)
+            .build(new CacheLoader<ApplicationKey, List<SqlExecution>>() {
+                @Override
+                public List<SqlExecution> load(ApplicationKey key) throws Exception {
+                    // SQL executions are only available from the event logs, which are only indexed once completed
+                    if (isIndexedLocally(key)) {
+                        return SparkEventLogStore.getInstance().getSqlExecutions(key);
+                    }
+
+                    return new ArrayList<>();
+                }
+            });
+
+    private static final LoadingCache<ApplicationKey, StageAnalysis> sparkStageAnalysisLocalCache = CacheBuilder.newBuilder()
+            .maximumSize(20)
+            .initialCapacity(5)
+            .build(new CacheLoader<ApplicationKey, StageAnalysis>() {
+                @Override
+                public StageAnalysis load(ApplicationKey key) throws Exception {
+                    return new SparkStageAnalyzer().analyze(getStages(key), getTasks(key));
+                }
+            });
+
+    /**
+     * Get the Spark applications of the cluster from Spark history server, or the ones indexed locally if the
+     * server isn't reachable.
+     */
+    public static List<Application> getSparkApplicationsOrIndexed(@NotNull IClusterDetail clusterDetail) throws HDIException, IOException {
+        try {
+            return SparkRestUtil.getSparkApplications(clusterDetail);
+        } catch (HDIException | IOException e) {
+            final List<Application> indexed = SparkEventLogStore.getInstance().getIndexedApplications(clusterDetail.getName());
+
+            if (indexed.isEmpty()) {
+                throw e;
+            }
+
+            LOGGER.warn("Failed to get Spark applications of cluster " + clusterDetail.getName() + ", list the ones indexed locally", e);
+            return indexed;
+        }
+    }
+
+    /**
+     * Check whether the application's event logs are indexed locally, ingesting them if the application has
+     * completed but isn't indexed yet.
+     */
+    private static boolean isIndexedLocally(@NotNull ApplicationKey key) {
+        final SparkEventLogStore store = SparkEventLogStore.getInstance();
+
+        if (store.isIndexed(key)) {
+            return true;
+        }
+
+        try {
+            final Application application = getSingleSparkApplication(key);
+
+            // The event logs of a running application are still growing, request Spark history server for it
+            if (application == null || !isCompleted(application.getLastAttemptWithAppId(key.getClusterDetails().getName()))) {
+                return false;
+            }
+
+            store.ingest(key);
+            return true;
+        } catch (ExecutionException | HDIException | IOException | RuntimeException e) {
+            LOGGER.warn("Failed to index Spark event logs of application " + key.getAppId() + ", fall back to Spark history server", e);
+            return false;
+        }
+    }
+
+    private static boolean isCompleted(AttemptWithAppId lastAttempt) {
+        return lastAttempt != null && Boolean.parseBoolean(lastAttempt.getCompleted());
+    }
+
+    public static StageAnalysis getStageAnalysis(@NotNull ApplicationKey key) throws ExecutionException {
+        return sparkStageAnalysisLocalCache.get(key);
+    }
+
+    public static List<SqlExecution> getSqlExecutions(@NotNull ApplicationKey key) throws ExecutionException {
+        return sparkSqlExecutionLocalCache.get(key);
+    }
+
     public static List<JobStartEventLog> getJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkJobStartEventLogCache.get(key);
     }
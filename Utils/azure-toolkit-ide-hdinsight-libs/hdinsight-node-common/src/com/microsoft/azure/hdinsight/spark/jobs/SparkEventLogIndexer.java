@@ -0,0 +1,607 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.Attempt;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.ExecutorLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.sql.SqlExecution;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.InputMetrics;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.OutputMetrics;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.ShuffleReadMetrics;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.ShuffleWriteMetrics;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.TaskMetrics;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The indexer of a Spark event log into the job view resources (application, jobs, stages, tasks, executors and SQL
+ * executions), in the same JSON format as the Spark history server REST API.
+ *
+ * The event log is read line by line, one event per line. Tasks, the bulk of a log, are written to the index as
+ * soon as they end, and only jobs, stages, executors and SQL executions, whose number doesn't grow with the tasks,
+ * are kept in memory until the end of the log. So the memory used doesn't depend on the size of the log.
+ */
+public class SparkEventLogIndexer implements ILogger {
+    public static final String APPLICATION_FILE = "application.json";
+    public static final String JOBS_FILE = "jobs.json";
+    public static final String STAGES_FILE = "stages.json";
+    public static final String TASKS_FILE = "tasks.json";
+    public static final String EXECUTORS_FILE = "executors.json";
+    public static final String JOB_START_EVENTS_FILE = "job-start-events.json";
+    public static final String SQL_FILE = "sql.json";
+
+    private static final DateTimeFormatter SPARK_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'GMT'").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper;
+    private final Application application = new Application();
+    private final Attempt attempt = new Attempt();
+    private final Map<Integer, JobState> jobs = new LinkedHashMap<>();
+    // Stage ID to the ID of the job running it
+    private final Map<Integer, Integer> stageJobs = new HashMap<>();
+    // "Stage ID:Attempt ID" to the stage
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final Map<String, Executor> executors = new LinkedHashMap<>();
+    private final Map<Long, SqlState> sqlExecutions = new LinkedHashMap<>();
+    private long eventCount = 0;
+    private long taskCount = 0;
+    private long skippedLineCount = 0;
+
+    public SparkEventLogIndexer(@NotNull final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.application.setAttempts(Collections.singletonList(attempt));
+        this.attempt.setCompleted("false");
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Get the number of lines which are not a valid event, such as the truncated last line of an in-progress log.
+     */
+    public long getSkippedLineCount() {
+        return skippedLineCount;
+    }
+
+    /**
+     * Index the event log into the directory, which should be empty.
+     *
+     * @param eventLog the event log content, not closed by the method
+     * @param indexDir the directory to write index files into
+     * @throws IOException failed to read the event log or write the index
+     */
+    public void index(@NotNull final InputStream eventLog, @NotNull final File indexDir) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(eventLog, StandardCharsets.UTF_8));
+
+        try (final SequenceWriter tasksWriter = objectMapper.writerFor(Task.class)
+                                                             .writeValuesAsArray(new File(indexDir, TASKS_FILE));
+             final SequenceWriter jobStartsWriter = objectMapper.writerFor(JobStartEventLog.class)
+                                                                .writeValuesAsArray(new File(indexDir, JOB_START_EVENTS_FILE))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                final JsonNode event;
+
+                try {
+                    event = objectMapper.readTree(line);
+                } catch (final IOException err) {
+                    skippedLineCount++;
+                    continue;
+                }
+
+                eventCount++;
+                onEvent(event, line, tasksWriter, jobStartsWriter);
+            }
+        }
+
+        if (skippedLineCount > 0) {
+            log().warn("Skipped " + skippedLineCount + " invalid lines in the Spark event log of " + application.getId());
+        }
+
+        finishJobs();
+
+        objectMapper.writeValue(new File(indexDir, APPLICATION_FILE), application);
+        objectMapper.writeValue(new File(indexDir, JOBS_FILE), reverse(collectJobs()));
+        objectMapper.writeValue(new File(indexDir, STAGES_FILE), reverse(new ArrayList<>(stages.values())));
+        objectMapper.writeValue(new File(indexDir, EXECUTORS_FILE), new ArrayList<>(executors.values()));
+        objectMapper.writeValue(new File(indexDir, SQL_FILE), collectSqlExecutions());
+    }
+
+    private void onEvent(@NotNull final JsonNode event,
+                         @NotNull final String line,
+                         @NotNull final SequenceWriter tasksWriter,
+                         @NotNull final SequenceWriter jobStartsWriter) throws IOException {
+        final String name = event.path("Event").asText();
+
+        switch (name) {
+            case "SparkListenerLogStart":
+                attempt.setAppSparkVersion(event.path("Spark Version").asText(null));
+                break;
+            case "SparkListenerApplicationStart":
+                onApplicationStart(event);
+                break;
+            case "SparkListenerApplicationEnd":
+                onApplicationEnd(event);
+                break;
+            case "SparkListenerBlockManagerAdded":
+                onBlockManagerAdded(event);
+                break;
+            case "SparkListenerExecutorAdded":
+                onExecutorAdded(event);
+                break;
+            case "SparkListenerExecutorRemoved":
+                getExecutor(event.path("Executor ID").asText()).setActive(false);
+                break;
+            case "SparkListenerJobStart":
+                onJobStart(event);
+                jobStartsWriter.write(objectMapper.readValue(line, JobStartEventLog.class));
+                break;
+            case "SparkListenerJobEnd":
+                onJobEnd(event);
+                break;
+            case "SparkListenerStageSubmitted":
+                onStageSubmitted(event.path("Stage Info"));
+                break;
+            case "SparkListenerStageCompleted":
+                onStageCompleted(event.path("Stage Info"));
+                break;
+            case "SparkListenerTaskEnd":
+                tasksWriter.write(onTaskEnd(event));
+                taskCount++;
+                break;
+            case "org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionStart":
+                onSqlExecutionStart(event);
+                break;
+            case "org.apache.spark.sql.execution.ui.SparkListenerSQLExecutionEnd":
+                onSqlExecutionEnd(event);
+                break;
+            default:
+                // Not shown in the job view
+        }
+    }
+
+    private void onApplicationStart(@NotNull final JsonNode event) {
+        final long timestamp = event.path("Timestamp").asLong();
+
+        application.setId(event.path("App ID").asText(null));
+        application.setName(event.path("App Name").asText(null));
+        attempt.setAttemptId(event.path("App Attempt ID").asText("1"));
+        attempt.setSparkUser(event.path("User").asText(null));
+        attempt.setStartTime(formatTime(timestamp));
+        attempt.setStartTimeEpoch(String.valueOf(timestamp));
+    }
+
+    private void onApplicationEnd(@NotNull final JsonNode event) {
+        final long timestamp = event.path("Timestamp").asLong();
+
+        attempt.setEndTime(formatTime(timestamp));
+        attempt.setEndTimeEpoch(String.valueOf(timestamp));
+        attempt.setLastUpdated(formatTime(timestamp));
+        attempt.setLastUpdatedEpoch(String.valueOf(timestamp));
+        attempt.setCompleted("true");
+
+        if (attempt.getStartTimeEpoch() != null) {
+            attempt.setDuration(String.valueOf(timestamp - Long.parseLong(attempt.getStartTimeEpoch())));
+        }
+    }
+
+    private void onBlockManagerAdded(@NotNull final JsonNode event) {
+        final JsonNode blockManager = event.path("Block Manager ID");
+        final Executor executor = getExecutor(blockManager.path("Executor ID").asText());
+
+        if (executor.getHostPort() == null) {
+            executor.setHostPort(blockManager.path("Host").asText() + ":" + blockManager.path("Port").asText());
+        }
+
+        executor.setMaxMemory(event.path("Maximum Memory").asLong());
+    }
+
+    private void onExecutorAdded(@NotNull final JsonNode event) {
+        final JsonNode info = event.path("Executor Info");
+        final Executor executor = getExecutor(event.path("Executor ID").asText());
+        final ExecutorLog logs = new ExecutorLog();
+
+        logs.setStdout(info.path("Log Urls").path("stdout").asText(null));
+        logs.setStderr(info.path("Log Urls").path("stderr").asText(null));
+        executor.setHostPort(info.path("Host").asText(null));
+        executor.setTotalCores(info.path("Total Cores").asInt());
+        executor.setExecutorLogs(logs);
+    }
+
+    private void onJobStart(@NotNull final JsonNode event) {
+        final int jobId = event.path("Job ID").asInt();
+        final JobState state = new JobState();
+        final Job job = state.job;
+        final List<Integer> stageIds = new ArrayList<>();
+        final JsonNode sqlExecutionId = event.path("Properties").path("spark.sql.execution.id");
+        int lastStageId = -1;
+
+        job.setJobId(jobId);
+        job.setSubmissionTime(formatTime(event.path("Submission Time").asLong()));
+        job.setStatus("RUNNING");
+
+        for (final JsonNode stageInfo : event.path("Stage Infos")) {
+            final int stageId = stageInfo.path("Stage ID").asInt();
+
+            stageIds.add(stageId);
+            stageJobs.put(stageId, jobId);
+            job.setNumTasks(job.getNumTasks() + stageInfo.path("Number of Tasks").asInt());
+
+            // The job is named after its result stage, the last one, same as Spark UI
+            if (stageId > lastStageId) {
+                lastStageId = stageId;
+                job.setName(stageInfo.path("Stage Name").asText(null));
+            }
+        }
+
+        job.setStageIds(stageIds.stream().mapToInt(Integer::intValue).toArray());
+
+        if (!sqlExecutionId.isMissingNode() && sqlExecutions.containsKey(sqlExecutionId.asLong())) {
+            sqlExecutions.get(sqlExecutionId.asLong()).jobIds.add(jobId);
+        }
+
+        jobs.put(jobId, state);
+    }
+
+    private void onJobEnd(@NotNull final JsonNode event) {
+        final JobState state = jobs.get(event.path("Job ID").asInt());
+
+        if (state == null) {
+            return;
+        }
+
+        final boolean succeeded = "JobSucceeded".equals(event.path("Job Result").path("Result").asText());
+
+        state.job.setCompletionTime(formatTime(event.path("Completion Time").asLong()));
+        state.job.setStatus(succeeded ? "SUCCEEDED" : "FAILED");
+    }
+
+    private void onStageSubmitted(@NotNull final JsonNode stageInfo) {
+        final Stage stage = getStage(stageInfo);
+        final JobState state = jobs.get(stageJobs.get(stage.getStageId()));
+
+        stage.setStatus("ACTIVE");
+
+        if (stageInfo.has("Submission Time")) {
+            stage.setSubmissionTime(formatTime(stageInfo.path("Submission Time").asLong()));
+        }
+
+        if (state != null) {
+            state.submittedStageIds.add(stage.getStageId());
+        }
+    }
+
+    private void onStageCompleted(@NotNull final JsonNode stageInfo) {
+        final Stage stage = getStage(stageInfo);
+        final JobState state = jobs.get(stageJobs.get(stage.getStageId()));
+        final boolean failed = stageInfo.has("Failure Reason");
+
+        stage.setStatus(failed ? "FAILED" : "COMPLETE");
+
+        if (stageInfo.has("Completion Time")) {
+            stage.setCompletionTime(formatTime(stageInfo.path("Completion Time").asLong()));
+        }
+
+        if (state != null) {
+            if (failed) {
+                state.job.setNumFailedStages(state.job.getNumFailedStages() + 1);
+            } else {
+                state.job.setNumCompletedStages(state.job.getNumCompletedStages() + 1);
+            }
+        }
+    }
+
+    @NotNull
+    private Task onTaskEnd(@NotNull final JsonNode event) {
+        final JsonNode info = event.path("Task Info");
+        final JsonNode metrics = event.path("Task Metrics");
+        final boolean failed = info.path("Failed").asBoolean() || info.path("Killed").asBoolean();
+        final long launchTime = info.path("Launch Time").asLong();
+        final long duration = info.path("Finish Time").asLong() - launchTime;
+        final TaskMetrics taskMetrics = toTaskMetrics(metrics);
+        final Task task = new Task();
+
+        task.setStageId(event.path("Stage ID").asInt());
+        task.setStageAttemptId(event.path("Stage Attempt ID").asInt());
+        task.setTaskId(info.path("Task ID").asText());
+        task.setIndex(info.path("Index").asText());
+        task.setAttempt(info.path("Attempt").asText());
+        task.setExecutorId(info.path("Executor ID").asText());
+        task.setHost(info.path("Host").asText());
+        task.setLaunchTime(formatTime(launchTime));
+        task.setSpeculative(info.path("Speculative").asText("false"));
+        task.setTaskLocality(info.path("Locality").asText(null));
+        task.setTaskMetrics(taskMetrics);
+
+        final long shuffleRead = taskMetrics.getShuffleReadMetrics().getRemoteBytesRead()
+                + taskMetrics.getShuffleReadMetrics().getLocalBytesRead();
+
+        // Aggregate into the stage
+        final Stage stage = getStage(task.getStageId(), task.getStageAttemptId());
+
+        if (failed) {
+            stage.setNumFailedTasks(stage.getNumFailedTasks() + 1);
+        } else {
+            stage.setNumCompleteTasks(stage.getNumCompleteTasks() + 1);
+        }
+
+        if (stage.getFirstTaskLaunchedTime() == null) {
+            stage.setFirstTaskLaunchedTime(task.getLaunchTime());
+        }
+
+        stage.setExecutorRunTime((int) (stage.getExecutorRunTime() + taskMetrics.getExecutorRunTime()));
+        stage.setInputBytes(stage.getInputBytes() + taskMetrics.getInputMetrics().getBytesRead());
+        stage.setInputRecords(stage.getInputRecords() + taskMetrics.getInputMetrics().getRecordsRead());
+        stage.setOutputBytes(stage.getOutputBytes() + taskMetrics.getOutputMetrics().getBytesWritten());
+        stage.setOutputRecords(stage.getOutputRecords() + taskMetrics.getOutputMetrics().getRecordsWritten());
+        stage.setShuffleReadBytes(stage.getShuffleReadBytes() + shuffleRead);
+        stage.setShuffleReadRecords(stage.getShuffleReadRecords() + taskMetrics.getShuffleReadMetrics().getRecordsRead());
+        stage.setShuffleWriteBytes(stage.getShuffleWriteBytes() + taskMetrics.getShuffleWriteMetrics().getBytesWritten());
+        stage.setShuffleWriteRecords(stage.getShuffleWriteRecords() + taskMetrics.getShuffleWriteMetrics().getRecordsWritten());
+        stage.setMemoryBytesSpilled(stage.getMemoryBytesSpilled() + taskMetrics.getMemoryBytesSpilled());
+        stage.setDiskBytesSpilled(stage.getDiskBytesSpilled() + taskMetrics.getDiskBytesSpilled());
+
+        // Aggregate into the job
+        final JobState state = jobs.get(stageJobs.get(stage.getStageId()));
+
+        if (state != null) {
+            if (failed) {
+                state.job.setNumFailedTasks(state.job.getNumFailedTasks() + 1);
+            } else {
+                state.job.setNumCompletedTasks(state.job.getNumCompletedTasks() + 1);
+            }
+        }
+
+        // Aggregate into the executor
+        final Executor executor = getExecutor(task.getExecutorId());
+
+        if (failed) {
+            executor.setFailedTasks(executor.getFailedTasks() + 1);
+        } else {
+            executor.setCompletedTasks(executor.getCompletedTasks() + 1);
+        }
+
+        executor.setTotalTasks(executor.getTotalTasks() + 1);
+        executor.setTotalDuration(executor.getTotalDuration() + Math.max(duration, 0));
+        executor.setTotalGCTime(executor.getTotalGCTime() + taskMetrics.getJvmGcTime());
+        executor.setTotalInputBytes(executor.getTotalInputBytes() + taskMetrics.getInputMetrics().getBytesRead());
+        executor.setTotalShuffleRead(executor.getTotalShuffleRead() + shuffleRead);
+        executor.setTotalShuffleWrite(executor.getTotalShuffleWrite() + taskMetrics.getShuffleWriteMetrics().getBytesWritten());
+
+        return task;
+    }
+
+    private void onSqlExecutionStart(@NotNull final JsonNode event) {
+        final SqlState state = new SqlState();
+        final long time = event.path("time").asLong();
+
+        state.execution.setId(event.path("executionId").asLong());
+        state.execution.setDescription(event.path("description").asText(null));
+        state.execution.setPlanDescription(event.path("physicalPlanDescription").asText(null));
+        state.execution.setSubmissionTime(formatTime(time));
+        state.execution.setStatus("RUNNING");
+        state.startTime = time;
+
+        sqlExecutions.put(state.execution.getId(), state);
+    }
+
+    private void onSqlExecutionEnd(@NotNull final JsonNode event) {
+        final SqlState state = sqlExecutions.get(event.path("executionId").asLong());
+
+        if (state != null) {
+            state.execution.setDuration(event.path("time").asLong() - state.startTime);
+            state.ended = true;
+        }
+    }
+
+    private void finishJobs() {
+        for (final JobState state : jobs.values()) {
+            final Job job = state.job;
+            int skippedTasks = 0;
+
+            // Stages of a job never submitted were skipped, since their output was computed by earlier jobs
+            for (final int stageId : job.getStageIds()) {
+                if (!state.submittedStageIds.contains(stageId)) {
+                    job.setNumSkippedStages(job.getNumSkippedStages() + 1);
+                }
+            }
+
+            if (!"RUNNING".equals(job.getStatus())) {
+                skippedTasks = job.getNumTasks() - job.getNumCompletedTasks() - job.getNumFailedTasks();
+            }
+
+            job.setNumSkippedTasks(Math.max(skippedTasks, 0));
+            job.setNumActiveTasks(
+                    "RUNNING".equals(job.getStatus())
+                            ? Math.max(job.getNumTasks() - job.getNumCompletedTasks() - job.getNumFailedTasks(), 0)
+                            : 0);
+            job.setNumActiveStages(
+                    "RUNNING".equals(job.getStatus())
+                            ? Math.max(state.submittedStageIds.size() - job.getNumCompletedStages() - job.getNumFailedStages(), 0)
+                            : 0);
+        }
+    }
+
+    @NotNull
+    private List<Job> collectJobs() {
+        final List<Job> result = new ArrayList<>();
+
+        for (final JobState state : jobs.values()) {
+            result.add(state.job);
+        }
+
+        return result;
+    }
+
+    @NotNull
+    private List<SqlExecution> collectSqlExecutions() {
+        final List<SqlExecution> result = new ArrayList<>();
+
+        for (final SqlState state : sqlExecutions.values()) {
+            final List<Integer> running = new ArrayList<>();
+            final List<Integer> succeeded = new ArrayList<>();
+            final List<Integer> failed = new ArrayList<>();
+            boolean anyFailed = false;
+
+            for (final int jobId : state.jobIds) {
+                final String status = jobs.get(jobId).job.getStatus();
+
+                if ("SUCCEEDED".equals(status)) {
+                    succeeded.add(jobId);
+                } else if ("FAILED".equals(status)) {
+                    failed.add(jobId);
+                    anyFailed = true;
+                } else {
+                    running.add(jobId);
+                }
+            }
+
+            state.execution.setRunningJobIds(running.stream().mapToInt(Integer::intValue).toArray());
+            state.execution.setSuccessJobIds(succeeded.stream().mapToInt(Integer::intValue).toArray());
+            state.execution.setFailedJobIds(failed.stream().mapToInt(Integer::intValue).toArray());
+            state.execution.setStatus(!state.ended ? "RUNNING" : (anyFailed ? "FAILED" : "COMPLETED"));
+            result.add(state.execution);
+        }
+
+        return result;
+    }
+
+    @NotNull
+    private Stage getStage(@NotNull final JsonNode stageInfo) {
+        final Stage stage = getStage(stageInfo.path("Stage ID").asInt(), stageInfo.path("Stage Attempt ID").asInt());
+
+        stage.setName(stageInfo.path("Stage Name").asText(null));
+        stage.setDetails(stageInfo.path("Details").asText(null));
+
+        return stage;
+    }
+
+    @NotNull
+    private Stage getStage(final int stageId, final int attemptId) {
+        return stages.computeIfAbsent(stageId + ":" + attemptId, key -> {
+            final Stage stage = new Stage();
+            stage.setStageId(stageId);
+            stage.setAttemptId(attemptId);
+            stage.setStatus("PENDING");
+            stage.setSchedulingPool("default");
+
+            return stage;
+        });
+    }
+
+    @NotNull
+    private Executor getExecutor(@NotNull final String executorId) {
+        return executors.computeIfAbsent(executorId, key -> {
+            final Executor executor = new Executor();
+            executor.setId(key);
+            executor.setActive(true);
+
+            return executor;
+        });
+    }
+
+    @NotNull
+    private TaskMetrics toTaskMetrics(@NotNull final JsonNode metrics) {
+        final TaskMetrics taskMetrics = new TaskMetrics();
+        final JsonNode shuffleRead = metrics.path("Shuffle Read Metrics");
+        final JsonNode shuffleWrite = metrics.path("Shuffle Write Metrics");
+        final InputMetrics inputMetrics = new InputMetrics();
+        final OutputMetrics outputMetrics = new OutputMetrics();
+        final ShuffleReadMetrics shuffleReadMetrics = new ShuffleReadMetrics();
+        final ShuffleWriteMetrics shuffleWriteMetrics = new ShuffleWriteMetrics();
+
+        taskMetrics.setExecutorDeserializeTime(metrics.path("Executor Deserialize Time").asLong());
+        taskMetrics.setExecutorRunTime(metrics.path("Executor Run Time").asLong());
+        taskMetrics.setResultSize(metrics.path("Result Size").asLong());
+        taskMetrics.setJvmGcTime(metrics.path("JVM GC Time").asLong());
+        taskMetrics.setResultSerializationTime(metrics.path("Result Serialization Time").asLong());
+        taskMetrics.setMemoryBytesSpilled(metrics.path("Memory Bytes Spilled").asLong());
+        taskMetrics.setDiskBytesSpilled(metrics.path("Disk Bytes Spilled").asLong());
+
+        inputMetrics.setBytesRead(metrics.path("Input Metrics").path("Bytes Read").asLong());
+        inputMetrics.setRecordsRead(metrics.path("Input Metrics").path("Records Read").asLong());
+        outputMetrics.setBytesWritten(metrics.path("Output Metrics").path("Bytes Written").asLong());
+        outputMetrics.setRecordsWritten(metrics.path("Output Metrics").path("Records Written").asLong());
+        shuffleReadMetrics.setRemoteBlocksFetched(shuffleRead.path("Remote Blocks Fetched").asLong());
+        shuffleReadMetrics.setLocalBlocksFetched(shuffleRead.path("Local Blocks Fetched").asLong());
+        shuffleReadMetrics.setFetchWaitTime(shuffleRead.path("Fetch Wait Time").asLong());
+        shuffleReadMetrics.setRemoteBytesRead(shuffleRead.path("Remote Bytes Read").asLong());
+        shuffleReadMetrics.setLocalBytesRead(shuffleRead.path("Local Bytes Read").asLong());
+        shuffleReadMetrics.setRecordsRead(shuffleRead.path("Total Records Read").asLong());
+        shuffleWriteMetrics.setBytesWritten(shuffleWrite.path("Shuffle Bytes Written").asLong());
+        shuffleWriteMetrics.setWriteTime(shuffleWrite.path("Shuffle Write Time").asLong());
+        shuffleWriteMetrics.setRecordsWritten(shuffleWrite.path("Shuffle Records Written").asLong());
+
+        taskMetrics.setInputMetrics(inputMetrics);
+        taskMetrics.setOutputMetrics(outputMetrics);
+        taskMetrics.setShuffleReadMetrics(shuffleReadMetrics);
+        taskMetrics.setShuffleWriteMetrics(shuffleWriteMetrics);
+
+        return taskMetrics;
+    }
+
+    @Nullable
+    private static String formatTime(final long epochMillis) {
+        return epochMillis <= 0 ? null : SPARK_TIME_FORMAT.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    @NotNull
+    private static <T> List<T> reverse(@NotNull final List<T> list) {
+        // The history server lists the latest first
+        Collections.reverse(list);
+
+        return list;
+    }
+
+    private static class JobState {
+        private final Job job = new Job();
+        private final Set<Integer> submittedStageIds = new HashSet<>();
+    }
+
+    private static class SqlState {
+        private final SqlExecution execution = new SqlExecution();
+        private final List<Integer> jobIds = new ArrayList<>();
+        private long startTime;
+        private boolean ended = false;
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.microsoft.azure.hdinsight.common.HDInsightLoader;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.sql.SqlExecution;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The local store of Spark application event logs, for the job view to browse finished applications offline.
+ *
+ * An application's event logs are downloaded from Spark history server once, then indexed into the job view
+ * resources by {@link SparkEventLogIndexer}, both kept under {@code <root>/<cluster name>/<application ID>/}. The
+ * job view reads the index instead of requesting Spark history server again, even after the IDE restarted.
+ */
+public class SparkEventLogStore implements ILogger {
+    public static final String EVENT_LOGS_FILE = "eventLogs.zip";
+    // Bump the version once the index format changes, so that indexes of the old format are rebuilt
+    public static final String INDEX_DIR = "index-v2";
+    private static final String YARN_APP_FILE = "yarn-app.json";
+    private static final Pattern ROLLING_EVENTS_FILE_PATTERN = Pattern.compile("(^|/)events_(\\d+)_[^/]*$");
+    private static final String[] COMPRESSION_CODEC_SUFFIXES = { ".lz4", ".lzf", ".snappy", ".zstd" };
+
+    @Nullable
+    private static SparkEventLogStore instance;
+
+    @NotNull
+    private final Path root;
+    @NotNull
+    private final EventLogDownloader downloader;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * The downloader of the event logs zip of an application.
+     */
+    @FunctionalInterface
+    public interface EventLogDownloader {
+        void download(@NotNull ApplicationKey key, @NotNull File file) throws HDIException, IOException;
+    }
+
+    public SparkEventLogStore(@NotNull final Path root, @NotNull final EventLogDownloader downloader) {
+        this.root = root;
+        this.downloader = downloader;
+    }
+
+    @NotNull
+    public static synchronized SparkEventLogStore getInstance() {
+        if (instance == null) {
+            instance = new SparkEventLogStore(
+                    Paths.get(HDInsightLoader.getHDInsightHelper().getPluginRootPath(), "SparkEventLogs"),
+                    SparkRestUtil::downloadSparkEventLogs);
+        }
+
+        return instance;
+    }
+
+    public boolean isIndexed(@NotNull final ApplicationKey key) {
+        return getIndexDir(key).resolve(SparkEventLogIndexer.APPLICATION_FILE).toFile().isFile();
+    }
+
+    /**
+     * Download the application's event logs if they aren't downloaded yet, and index them if they aren't indexed
+     * yet. The application should have completed, since the index isn't updated after that.
+     *
+     * @param key the application to ingest
+     * @throws HDIException failed to download the event logs, or no supported event log found in them
+     * @throws IOException failed to read the event logs or write the index
+     */
+    public void ingest(@NotNull final ApplicationKey key) throws HDIException, IOException {
+        synchronized (locks.computeIfAbsent(getLockKey(key), lockKey -> new Object())) {
+            if (isIndexed(key)) {
+                return;
+            }
+
+            final Path appDir = getAppDir(key);
+            final File eventLogs = appDir.resolve(EVENT_LOGS_FILE).toFile();
+
+            if (!eventLogs.isFile()) {
+                final File downloading = appDir.resolve(EVENT_LOGS_FILE + ".download").toFile();
+
+                try {
+                    FileUtils.forceMkdir(appDir.toFile());
+                    downloader.download(key, downloading);
+                    Files.move(downloading.toPath(), eventLogs.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    FileUtils.deleteQuietly(downloading);
+                }
+            }
+
+            index(key, eventLogs);
+        }
+    }
+
+    private void index(@NotNull final ApplicationKey key, @NotNull final File eventLogs) throws HDIException, IOException {
+        final Path indexDir = getIndexDir(key);
+        final File indexing = indexDir.resolveSibling(INDEX_DIR + ".tmp").toFile();
+        final long startTime = System.currentTimeMillis();
+
+        FileUtils.deleteQuietly(indexing);
+        FileUtils.forceMkdir(indexing);
+
+        try (final ZipFile zipFile = new ZipFile(eventLogs);
+             final InputStream eventLog = openLastAttemptEventLog(zipFile, key.getAppId())) {
+            final SparkEventLogIndexer indexer = new SparkEventLogIndexer(objectMapper);
+            indexer.index(eventLog, indexing);
+
+            // Publish the whole index at once, a partial one is never read
+            FileUtils.deleteQuietly(indexDir.toFile());
+            Files.move(indexing.toPath(), indexDir, StandardCopyOption.ATOMIC_MOVE);
+
+            log().info(String.format("Indexed %d events (%d tasks) of Spark application %s in %d ms",
+                                     indexer.getEventCount(),
+                                     indexer.getTaskCount(),
+                                     key.getAppId(),
+                                     System.currentTimeMillis() - startTime));
+        } finally {
+            FileUtils.deleteQuietly(indexing);
+        }
+    }
+
+    @NotNull
+    public Application getApplication(@NotNull final ApplicationKey key) throws IOException {
+        return objectMapper.readValue(getIndexFile(key, SparkEventLogIndexer.APPLICATION_FILE), Application.class);
+    }
+
+    /**
+     * Get the applications of the cluster indexed in the store, the latest first.
+     */
+    @NotNull
+    public List<Application> getIndexedApplications(@NotNull final String clusterName) {
+        final File[] appDirs = root.resolve(clusterName).toFile().listFiles(File::isDirectory);
+
+        if (appDirs == null) {
+            return new ArrayList<>();
+        }
+
+        final List<Application> applications = new ArrayList<>();
+
+        for (final File appDir : appDirs) {
+            final File applicationFile = appDir.toPath().resolve(INDEX_DIR).resolve(SparkEventLogIndexer.APPLICATION_FILE).toFile();
+
+            if (!applicationFile.isFile()) {
+                continue;
+            }
+
+            try {
+                applications.add(objectMapper.readValue(applicationFile, Application.class));
+            } catch (final IOException err) {
+                log().warn("Can't read the indexed Spark application from " + applicationFile + ". " + err);
+            }
+        }
+
+        return applications.stream()
+                .filter(app -> app.getId() != null)
+                .sorted(Comparator.comparing(Application::getId).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @NotNull
+    public List<Job> getJobs(@NotNull final ApplicationKey key) throws IOException {
+        return readList(key, SparkEventLogIndexer.JOBS_FILE, Job.class);
+    }
+
+    @NotNull
+    public List<Stage> getStages(@NotNull final ApplicationKey key) throws IOException {
+        return readList(key, SparkEventLogIndexer.STAGES_FILE, Stage.class);
+    }
+
+    @NotNull
+    public List<Task> getTasks(@NotNull final ApplicationKey key) throws IOException {
+        return readList(key, SparkEventLogIndexer.TASKS_FILE, Task.class);
+    }
+
+    @NotNull
+    public List<Executor> getExecutors(@NotNull final ApplicationKey key) throws IOException {
+        return readList(key, SparkEventLogIndexer.EXECUTORS_FILE, Executor.class);
+    }
+
+    @NotNull
+    public List<JobStartEventLog> getJobStartEventLogs(@NotNull final ApplicationKey key) throws IOException {
+        return readList(key, SparkEventLogIndexer.JOB_START_EVENTS_FILE, JobStartEventLog.class);
+    }
+
+    @NotNull
+    public List<SqlExecution> getSqlExecutions(@NotNull final ApplicationKey key) throws IOException {
+        return readList(key, SparkEventLogIndexer.SQL_FILE, SqlExecution.class);
+    }
+
+    /**
+     * Save the YARN application of an indexed Spark application, which doesn't change once the application finished.
+     */
+    public void saveYarnApp(@NotNull final ApplicationKey key, @NotNull final App app) throws IOException {
+        objectMapper.writeValue(getAppDir(key).resolve(YARN_APP_FILE).toFile(), app);
+    }
+
+    @Nullable
+    public App getYarnApp(@NotNull final ApplicationKey key) throws IOException {
+        final File yarnAppFile = getAppDir(key).resolve(YARN_APP_FILE).toFile();
+
+        return yarnAppFile.isFile() ? objectMapper.readValue(yarnAppFile, App.class) : null;
+    }
+
+    @NotNull
+    private <T> List<T> readList(@NotNull final ApplicationKey key,
+                                 @NotNull final String fileName,
+                                 @NotNull final Class<T> clazz) throws IOException {
+        return objectMapper.readValue(getIndexFile(key, fileName),
+                                      TypeFactory.defaultInstance().constructCollectionType(List.class, clazz));
+    }
+
+    @NotNull
+    private File getIndexFile(@NotNull final ApplicationKey key, @NotNull final String fileName) throws IOException {
+        final File file = getIndexDir(key).resolve(fileName).toFile();
+
+        if (!file.isFile()) {
+            throw new IOException("Spark application " + key.getAppId() + " isn't indexed locally");
+        }
+
+        return file;
+    }
+
+    @NotNull
+    private Path getAppDir(@NotNull final ApplicationKey key) {
+        return root.resolve(key.getClusterDetails().getName()).resolve(key.getAppId());
+    }
+
+    @NotNull
+    private Path getIndexDir(@NotNull final ApplicationKey key) {
+        return getAppDir(key).resolve(INDEX_DIR);
+    }
+
+    @NotNull
+    private static String getLockKey(@NotNull final ApplicationKey key) {
+        return (key.getClusterDetails().getName() + "/" + key.getAppId()).toLowerCase();
+    }
+
+    /**
+     * Open the event log of the application's last attempt in the event logs zip downloaded from Spark history
+     * server. It's the entry "{appId}_{attemptId}" for applications with attempts, or the single one without. For
+     * rolling event logs, the event files of the last attempt directory are concatenated in order.
+     */
+    @NotNull
+    static InputStream openLastAttemptEventLog(@NotNull final ZipFile zipFile, @NotNull final String appId) throws HDIException, IOException {
+        final List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+        final List<ZipEntry> files = entries.stream()
+                .filter(entry -> !entry.isDirectory())
+                .collect(Collectors.toList());
+
+        if (files.isEmpty()) {
+            throw new HDIException(String.format("No Spark event log entity found for app: %s", appId));
+        }
+
+        final List<ZipEntry> rollingFiles = files.stream()
+                .filter(entry -> ROLLING_EVENTS_FILE_PATTERN.matcher(entry.getName()).find())
+                .collect(Collectors.toList());
+
+        if (!rollingFiles.isEmpty()) {
+            final String lastAttemptDir = rollingFiles.stream()
+                    .map(entry -> getParent(entry.getName()))
+                    .max(Comparator.naturalOrder())
+                    .orElse("");
+            final List<ZipEntry> lastAttemptFiles = rollingFiles.stream()
+                    .filter(entry -> getParent(entry.getName()).equals(lastAttemptDir))
+                    .sorted(Comparator.comparingLong(entry -> getRollingIndex(entry.getName())))
+                    .collect(Collectors.toList());
+            final List<InputStream> streams = new ArrayList<>();
+
+            for (final ZipEntry entry : lastAttemptFiles) {
+                checkCodec(entry);
+                streams.add(zipFile.getInputStream(entry));
+            }
+
+            return new SequenceInputStream(Collections.enumeration(streams));
+        }
+
+        // Every attempt has its event log, same as SparkRestUtil.getSparkEventLogs
+        final ZipEntry lastAttempt = files.stream()
+                .filter(entry -> entry.getName().equals(String.format("%s_%s", appId, entries.size())))
+                .findFirst()
+                .orElse(files.size() == 1 ? files.get(0) : null);
+
+        if (lastAttempt == null) {
+            throw new HDIException(String.format("No Spark event log entity found for app: %s", appId));
+        }
+
+        checkCodec(lastAttempt);
+
+        return zipFile.getInputStream(lastAttempt);
+    }
+
+    private static void checkCodec(@NotNull final ZipEntry entry) throws HDIException {
+        for (final String suffix : COMPRESSION_CODEC_SUFFIXES) {
+            if (entry.getName().endsWith(suffix)) {
+                throw new HDIException("The compressed Spark event log " + entry.getName() + " isn't supported");
+            }
+        }
+    }
+
+    @NotNull
+    private static String getParent(@NotNull final String name) {
+        final int separator = name.lastIndexOf('/');
+
+        return separator < 0 ? "" : name.substring(0, separator);
+    }
+
+    private static long getRollingIndex(@NotNull final String name) {
+        final Matcher matcher = ROLLING_EVENTS_FILE_PATTERN.matcher(name);
+
+        return matcher.find() ? Long.parseLong(matcher.group(2)) : 0;
+    }
+}
@@ -12,9 +12,11 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.YarnAppWithJobs;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.sql.SqlExecution;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
+import com.microsoft.azure.hdinsight.spark.jobs.analysis.StageAnalysis;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
@@ -35,7 +37,7 @@ public class SparkJobHttpHandler implements HttpHandler {
             String path = requestDetail.getRequestPath();
             if (path.equalsIgnoreCase("/applications/") && requestDetail.getAppId().equalsIgnoreCase("0")) {
                 try {
-                    List<Application> applications = SparkRestUtil.getSparkApplications(requestDetail.getCluster());
+                    List<Application> applications = JobViewCacheManager.getSparkApplicationsOrIndexed(requestDetail.getCluster());
                     Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(applications);
                     JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
                 } catch (HDIException e) {
@@ -61,6 +63,14 @@ public class SparkJobHttpHandler implements HttpHandler {
                 List<Task> tasks = JobViewCacheManager.getTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(tasks);
                 JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+            } else if (path.contains("sql_summary")) {
+                List<SqlExecution> sqlExecutions = JobViewCacheManager.getSqlExecutions(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
+                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(sqlExecutions);
+                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+            } else if (path.contains("stage_analysis")) {
+                StageAnalysis stageAnalysis = JobViewCacheManager.getStageAnalysis(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
+                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(stageAnalysis);
+                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
             }
         } catch (ExecutionException e) {
             JobUtils.setResponse(httpExchange, e.getMessage(), 500);
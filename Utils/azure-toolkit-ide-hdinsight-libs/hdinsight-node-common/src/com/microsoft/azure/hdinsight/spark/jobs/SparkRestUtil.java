@@ -84,14 +84,27 @@ public class SparkRestUtil {
         return tasks.orElse(RestUtil.getEmptyList(Task.class));
     }
 
-    public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
+    /**
+     * Download the event logs zip of all attempts of the application from Spark history server.
+     *
+     * @param key the application to download event logs of
+     * @param file the local file to save the zip into
+     */
+    public static void downloadSparkEventLogs(@NotNull ApplicationKey key, @NotNull File file) throws HDIException, IOException {
         String url = String.format("%s/logs", key.getAppId());
-        String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
-        File file = new File(eventLogsPath);
         HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
         InputStream inputStream = entity.getContent();
-        FileUtils.copyInputStreamToFile(inputStream, file);
-        IOUtils.closeQuietly(inputStream);
+        try {
+            FileUtils.copyInputStreamToFile(inputStream, file);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
+        String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
+        File file = new File(eventLogsPath);
+        downloadSparkEventLogs(key, file);
 
         ZipFile zipFile = new ZipFile(file);
         List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
@@ -0,0 +1,578 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs.analysis;
+
+import com.microsoft.azure.hdinsight.sdk.rest.IConvertible;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.TaskMetrics;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.FileUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Analyze the task metrics of Spark stages to find skewed partitions, stragglers, disk spill, GC pressure and
+ * shuffle imbalance across executors.
+ *
+ * Every stage attempt is analyzed independently with sorted primitive arrays, so the analysis takes
+ * O(n log n) time and O(n) memory for n tasks.
+ */
+public class SparkStageAnalyzer {
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * The thresholds of findings, the ratios are against the stage median.
+     */
+    public static class Thresholds implements IConvertible {
+        // A task reading at least the ratio of the median bytes, and the minimum, is skewed
+        private double skewRatio = 4;
+        private double skewCriticalRatio = 10;
+        private long skewMinBytes = 64 * MB;
+
+        // A task running at least the ratio of the median run time, and the minimum more, is a straggler
+        private double stragglerRatio = 3;
+        private double stragglerCriticalRatio = 10;
+        private long stragglerMinExcessMillis = 30_000;
+
+        // A stage spilling the minimum bytes to disk is reported, critical when most tasks spilled
+        private long spillMinBytes = 64 * MB;
+        private double spillCriticalTaskFraction = 0.5;
+
+        // A stage spending the fraction of run time in GC is reported, if it ran long enough to matter
+        private double gcFraction = 0.1;
+        private double gcCriticalFraction = 0.3;
+        private long gcMinRunTimeMillis = 60_000;
+
+        // An executor reading at least the ratio of the median executor shuffle bytes is overloaded
+        private double shuffleImbalanceRatio = 2;
+        private double shuffleImbalanceCriticalRatio = 5;
+        private long shuffleImbalanceMinBytes = 64 * MB;
+
+        // The most affected tasks or executors listed in a finding
+        private int maxListed = 10;
+
+        public double getSkewRatio() {
+            return skewRatio;
+        }
+
+        public void setSkewRatio(double skewRatio) {
+            this.skewRatio = skewRatio;
+        }
+
+        public double getSkewCriticalRatio() {
+            return skewCriticalRatio;
+        }
+
+        public void setSkewCriticalRatio(double skewCriticalRatio) {
+            this.skewCriticalRatio = skewCriticalRatio;
+        }
+
+        public long getSkewMinBytes() {
+            return skewMinBytes;
+        }
+
+        public void setSkewMinBytes(long skewMinBytes) {
+            this.skewMinBytes = skewMinBytes;
+        }
+
+        public double getStragglerRatio() {
+            return stragglerRatio;
+        }
+
+        public void setStragglerRatio(double stragglerRatio) {
+            this.stragglerRatio = stragglerRatio;
+        }
+
+        public double getStragglerCriticalRatio() {
+            return stragglerCriticalRatio;
+        }
+
+        public void setStragglerCriticalRatio(double stragglerCriticalRatio) {
+            this.stragglerCriticalRatio = stragglerCriticalRatio;
+        }
+
+        public long getStragglerMinExcessMillis() {
+            return stragglerMinExcessMillis;
+        }
+
+        public void setStragglerMinExcessMillis(long stragglerMinExcessMillis) {
+            this.stragglerMinExcessMillis = stragglerMinExcessMillis;
+        }
+
+        public long getSpillMinBytes() {
+            return spillMinBytes;
+        }
+
+        public void setSpillMinBytes(long spillMinBytes) {
+            this.spillMinBytes = spillMinBytes;
+        }
+
+        public double getSpillCriticalTaskFraction() {
+            return spillCriticalTaskFraction;
+        }
+
+        public void setSpillCriticalTaskFraction(double spillCriticalTaskFraction) {
+            this.spillCriticalTaskFraction = spillCriticalTaskFraction;
+        }
+
+        public double getGcFraction() {
+            return gcFraction;
+        }
+
+        public void setGcFraction(double gcFraction) {
+            this.gcFraction = gcFraction;
+        }
+
+        public double getGcCriticalFraction() {
+            return gcCriticalFraction;
+        }
+
+        public void setGcCriticalFraction(double gcCriticalFraction) {
+            this.gcCriticalFraction = gcCriticalFraction;
+        }
+
+        public long getGcMinRunTimeMillis() {
+            return gcMinRunTimeMillis;
+        }
+
+        public void setGcMinRunTimeMillis(long gcMinRunTimeMillis) {
+            this.gcMinRunTimeMillis = gcMinRunTimeMillis;
+        }
+
+        public double getShuffleImbalanceRatio() {
+            return shuffleImbalanceRatio;
+        }
+
+        public void setShuffleImbalanceRatio(double shuffleImbalanceRatio) {
+            this.shuffleImbalanceRatio = shuffleImbalanceRatio;
+        }
+
+        public double getShuffleImbalanceCriticalRatio() {
+            return shuffleImbalanceCriticalRatio;
+        }
+
+        public void setShuffleImbalanceCriticalRatio(double shuffleImbalanceCriticalRatio) {
+            this.shuffleImbalanceCriticalRatio = shuffleImbalanceCriticalRatio;
+        }
+
+        public long getShuffleImbalanceMinBytes() {
+            return shuffleImbalanceMinBytes;
+        }
+
+        public void setShuffleImbalanceMinBytes(long shuffleImbalanceMinBytes) {
+            this.shuffleImbalanceMinBytes = shuffleImbalanceMinBytes;
+        }
+
+        public int getMaxListed() {
+            return maxListed;
+        }
+
+        public void setMaxListed(int maxListed) {
+            this.maxListed = maxListed;
+        }
+    }
+
+    @NotNull
+    private final Thresholds thresholds;
+
+    public SparkStageAnalyzer() {
+        this(new Thresholds());
+    }
+
+    public SparkStageAnalyzer(@NotNull Thresholds thresholds) {
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * Analyze the tasks of the stages.
+     *
+     * @param stages the stages of an application, to name the findings
+     * @param tasks the tasks of the stages, tasks without metrics (not finished yet) are ignored
+     * @return the task distributions of the stages and the findings ranked by severity and then impact
+     */
+    @NotNull
+    public StageAnalysis analyze(@NotNull List<Stage> stages, @NotNull List<Task> tasks) {
+        final Map<String, Stage> stagesByKey = new HashMap<>();
+        stages.forEach(stage -> stagesByKey.put(stageKey(stage.getStageId(), stage.getAttemptId()), stage));
+
+        final Map<String, List<Task>> tasksByStage = new LinkedHashMap<>();
+        tasks.stream()
+                .filter(task -> task.getTaskMetrics() != null)
+                .forEach(task -> tasksByStage
+                        .computeIfAbsent(stageKey(task.getStageId(), task.getStageAttemptId()), key -> new ArrayList<>())
+                        .add(task));
+
+        final StageAnalysis analysis = new StageAnalysis();
+        analysis.setThresholds(thresholds);
+
+        tasksByStage.forEach((key, stageTasks) -> {
+            final StageTasks stage = new StageTasks(stagesByKey.get(key), stageTasks);
+
+            analysis.getStages().add(stage.getStatistics());
+            addIfFound(analysis.getFindings(), findSkewedPartitions(stage));
+            addIfFound(analysis.getFindings(), findStragglers(stage));
+            addIfFound(analysis.getFindings(), findDiskSpill(stage));
+            addIfFound(analysis.getFindings(), findGcPressure(stage));
+            addIfFound(analysis.getFindings(), findShuffleImbalance(stage));
+        });
+
+        analysis.getFindings().sort(Comparator.comparing(StageFinding::getSeverity).reversed()
+                .thenComparing(Comparator.comparingLong(StageFinding::getImpactMillis).reversed())
+                .thenComparingInt(StageFinding::getStageId));
+
+        return analysis;
+    }
+
+    @Nullable
+    private StageFinding findSkewedPartitions(@NotNull StageTasks stage) {
+        final long medianBytes = stage.getStatistics().getReadBytes().getMedian();
+        final IntPredicate isSkewed = i -> isSkewed(stage.readBytes[i], medianBytes);
+
+        final int[] skewed = stage.indexesOf(isSkewed);
+        if (skewed.length == 0) {
+            return null;
+        }
+
+        final long maxBytes = stage.getStatistics().getReadBytes().getMax();
+        final StageFinding finding = stage.createFinding(StageFinding.Type.SKEWED_PARTITION,
+                maxBytes >= thresholds.getSkewCriticalRatio() * medianBytes
+                        ? StageFinding.Severity.CRITICAL
+                        : StageFinding.Severity.WARNING);
+
+        finding.setImpactMillis(stage.excessRunTime(skewed));
+        finding.setTitle(String.format("%d skewed partition(s) in stage %d", skewed.length, finding.getStageId()));
+        finding.setExplanation(String.format(
+                "%d of %d tasks read at least %.0fx the median of %s, up to %s. Spread the data of the hot keys, " +
+                        "e.g. by salting them or repartitioning on a column with more distinct values.",
+                skewed.length, stage.size(), thresholds.getSkewRatio(), displaySize(medianBytes),
+                displaySize(maxBytes)));
+        finding.setTaskIds(stage.topTaskIds(skewed, stage.readBytes));
+
+        return finding;
+    }
+
+    @Nullable
+    private StageFinding findStragglers(@NotNull StageTasks stage) {
+        final long medianBytes = stage.getStatistics().getReadBytes().getMedian();
+        final long medianRunTime = stage.getStatistics().getDuration().getMedian();
+
+        // The slow tasks reading skewed data are reported as skewed partitions
+        final int[] stragglers = stage.indexesOf(i ->
+                stage.runTimes[i] >= thresholds.getStragglerRatio() * medianRunTime
+                        && stage.runTimes[i] - medianRunTime >= thresholds.getStragglerMinExcessMillis()
+                        && !isSkewed(stage.readBytes[i], medianBytes));
+        if (stragglers.length == 0) {
+            return null;
+        }
+
+        final long maxRunTime = Arrays.stream(stragglers).mapToLong(i -> stage.runTimes[i]).max().orElse(0);
+        final StageFinding finding = stage.createFinding(StageFinding.Type.STRAGGLER,
+                maxRunTime >= thresholds.getStragglerCriticalRatio() * medianRunTime
+                        ? StageFinding.Severity.CRITICAL
+                        : StageFinding.Severity.WARNING);
+
+        finding.setImpactMillis(stage.excessRunTime(stragglers));
+        finding.setTitle(String.format("%d straggler task(s) in stage %d", stragglers.length, finding.getStageId()));
+        finding.setExplanation(String.format(
+                "%d of %d tasks ran at least %.0fx the median of %d ms, up to %d ms, without reading more data. " +
+                        "Check the executors of these tasks for slow disks or nodes, or enable speculation " +
+                        "(spark.speculation=true).",
+                stragglers.length, stage.size(), thresholds.getStragglerRatio(), medianRunTime, maxRunTime));
+        finding.setTaskIds(stage.topTaskIds(stragglers, stage.runTimes));
+        finding.setExecutorIds(stage.topExecutorIds(stragglers, stage.runTimes));
+
+        return finding;
+    }
+
+    @Nullable
+    private StageFinding findDiskSpill(@NotNull StageTasks stage) {
+        final long diskBytesSpilled = stage.getStatistics().getDiskBytesSpilled();
+        if (diskBytesSpilled < thresholds.getSpillMinBytes()) {
+            return null;
+        }
+
+        final int[] spilled = stage.indexesOf(i -> stage.diskBytesSpilled[i] > 0);
+        final double spilledFraction = (double) spilled.length / stage.size();
+        final StageFinding finding = stage.createFinding(StageFinding.Type.DISK_SPILL,
+                spilledFraction >= thresholds.getSpillCriticalTaskFraction()
+                        ? StageFinding.Severity.CRITICAL
+                        : StageFinding.Severity.WARNING);
+
+        finding.setImpactMillis(stage.excessRunTime(spilled));
+        finding.setTitle(String.format("%s spilled to disk in stage %d", displaySize(diskBytesSpilled),
+                                       finding.getStageId()));
+        finding.setExplanation(String.format(
+                "%d of %d tasks spilled %s to disk (%s in memory) since their data didn't fit in execution memory. " +
+                        "Increase spark.executor.memory or the number of partitions " +
+                        "(spark.sql.shuffle.partitions).",
+                spilled.length, stage.size(), displaySize(diskBytesSpilled),
+                displaySize(stage.getStatistics().getMemoryBytesSpilled())));
+        finding.setTaskIds(stage.topTaskIds(spilled, stage.diskBytesSpilled));
+
+        return finding;
+    }
+
+    @Nullable
+    private StageFinding findGcPressure(@NotNull StageTasks stage) {
+        final long totalRunTime = stage.getStatistics().getTotalRunTime();
+        final long totalGcTime = stage.getStatistics().getTotalGcTime();
+        if (totalRunTime < thresholds.getGcMinRunTimeMillis()) {
+            return null;
+        }
+
+        final double gcFraction = (double) totalGcTime / totalRunTime;
+        if (gcFraction < thresholds.getGcFraction()) {
+            return null;
+        }
+
+        final StageFinding finding = stage.createFinding(StageFinding.Type.GC_PRESSURE,
+                gcFraction >= thresholds.getGcCriticalFraction()
+                        ? StageFinding.Severity.CRITICAL
+                        : StageFinding.Severity.WARNING);
+
+        finding.setImpactMillis(totalGcTime);
+        finding.setTitle(String.format("%.0f%% of run time in GC in stage %d", gcFraction * 100,
+                                       finding.getStageId()));
+        finding.setExplanation(String.format(
+                "Tasks spent %d of %d ms running in JVM garbage collection. Increase spark.executor.memory, " +
+                        "cache less data, or use the serialized storage levels to reduce the objects on heap.",
+                totalGcTime, totalRunTime));
+        finding.setTaskIds(stage.topTaskIds(stage.indexesOf(i -> stage.gcTimes[i] > 0), stage.gcTimes));
+
+        return finding;
+    }
+
+    @Nullable
+    private StageFinding findShuffleImbalance(@NotNull StageTasks stage) {
+        final Map<String, long[]> bytesAndRunTimeByExecutor = new HashMap<>();
+        for (int i = 0; i < stage.size(); i++) {
+            final long[] executor = bytesAndRunTimeByExecutor.computeIfAbsent(
+                    stage.tasks.get(i).getExecutorId(), id -> new long[2]);
+            executor[0] += stage.shuffleReadBytes[i];
+            executor[1] += stage.runTimes[i];
+        }
+
+        if (bytesAndRunTimeByExecutor.size() < 2) {
+            return null;
+        }
+
+        final long[] sortedBytes = bytesAndRunTimeByExecutor.values().stream().mapToLong(it -> it[0]).sorted().toArray();
+        if (Arrays.stream(sortedBytes).sum() < thresholds.getShuffleImbalanceMinBytes()) {
+            return null;
+        }
+
+        final long medianBytes = StageStatistics.Distribution.quantile(sortedBytes, 0.5);
+        final long maxBytes = sortedBytes[sortedBytes.length - 1];
+        if (maxBytes < thresholds.getShuffleImbalanceRatio() * medianBytes) {
+            return null;
+        }
+
+        final List<Map.Entry<String, long[]>> overloaded = bytesAndRunTimeByExecutor.entrySet().stream()
+                .filter(it -> it.getValue()[0] >= thresholds.getShuffleImbalanceRatio() * medianBytes)
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> it) -> it.getValue()[0]).reversed())
+                .collect(Collectors.toList());
+
+        final long[] sortedRunTimes = bytesAndRunTimeByExecutor.values().stream()
+                .mapToLong(it -> it[1]).sorted().toArray();
+        final long medianRunTime = StageStatistics.Distribution.quantile(sortedRunTimes, 0.5);
+
+        final StageFinding finding = stage.createFinding(StageFinding.Type.SHUFFLE_IMBALANCE,
+                maxBytes >= thresholds.getShuffleImbalanceCriticalRatio() * medianBytes
+                        ? StageFinding.Severity.CRITICAL
+                        : StageFinding.Severity.WARNING);
+
+        // The stage waits for the busiest executor
+        finding.setImpactMillis(Math.max(overloaded.get(0).getValue()[1] - medianRunTime, 0));
+        finding.setTitle(String.format("Shuffle read imbalanced across executors in stage %d", finding.getStageId()));
+        finding.setExplanation(String.format(
+                "%d of %d executors read at least %.0fx the median executor shuffle read of %s, up to %s. " +
+                        "Check the data locality of the stage and whether some executors got more cores.",
+                overloaded.size(), bytesAndRunTimeByExecutor.size(), thresholds.getShuffleImbalanceRatio(),
+                displaySize(medianBytes), displaySize(maxBytes)));
+        finding.setExecutorIds(overloaded.stream()
+                .limit(thresholds.getMaxListed())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList()));
+
+        return finding;
+    }
+
+    private boolean isSkewed(long readBytes, long medianBytes) {
+        return readBytes >= thresholds.getSkewMinBytes() && readBytes >= thresholds.getSkewRatio() * medianBytes;
+    }
+
+    private static void addIfFound(@NotNull List<StageFinding> findings, @Nullable StageFinding finding) {
+        if (finding != null) {
+            findings.add(finding);
+        }
+    }
+
+    @NotNull
+    private static String stageKey(int stageId, int stageAttemptId) {
+        return stageId + ":" + stageAttemptId;
+    }
+
+    @NotNull
+    private static String displaySize(long bytes) {
+        return FileUtils.byteCountToDisplaySize(bytes);
+    }
+
+    /**
+     * The task metrics of a stage attempt in primitive arrays, indexed as the tasks.
+     */
+    private class StageTasks {
+        @NotNull
+        private final List<Task> tasks;
+        @NotNull
+        private final StageStatistics statistics = new StageStatistics();
+
+        private final long[] runTimes;
+        private final long[] readBytes;
+        private final long[] shuffleReadBytes;
+        private final long[] diskBytesSpilled;
+        private final long[] gcTimes;
+
+        StageTasks(@Nullable Stage stage, @NotNull List<Task> tasks) {
+            this.tasks = tasks;
+
+            final int size = tasks.size();
+            this.runTimes = new long[size];
+            this.readBytes = new long[size];
+            this.shuffleReadBytes = new long[size];
+            this.diskBytesSpilled = new long[size];
+            this.gcTimes = new long[size];
+
+            long memoryBytesSpilled = 0;
+            for (int i = 0; i < size; i++) {
+                final TaskMetrics metrics = tasks.get(i).getTaskMetrics();
+
+                runTimes[i] = metrics.getExecutorRunTime();
+                shuffleReadBytes[i] = metrics.getShuffleReadMetrics() == null
+                        ? 0
+                        : metrics.getShuffleReadMetrics().getRemoteBytesRead()
+                                + metrics.getShuffleReadMetrics().getLocalBytesRead();
+                readBytes[i] = shuffleReadBytes[i]
+                        + (metrics.getInputMetrics() == null ? 0 : metrics.getInputMetrics().getBytesRead());
+                diskBytesSpilled[i] = metrics.getDiskBytesSpilled();
+                gcTimes[i] = metrics.getJvmGcTime();
+                memoryBytesSpilled += metrics.getMemoryBytesSpilled();
+            }
+
+            statistics.setStageId(tasks.get(0).getStageId());
+            statistics.setStageAttemptId(tasks.get(0).getStageAttemptId());
+            statistics.setStageName(stage == null ? null : stage.getName());
+            statistics.setTaskCount(size);
+            statistics.setDuration(distribution(runTimes));
+            statistics.setReadBytes(distribution(readBytes));
+            statistics.setTotalRunTime(Arrays.stream(runTimes).sum());
+            statistics.setTotalGcTime(Arrays.stream(gcTimes).sum());
+            statistics.setDiskBytesSpilled(Arrays.stream(diskBytesSpilled).sum());
+            statistics.setMemoryBytesSpilled(memoryBytesSpilled);
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        @NotNull
+        StageStatistics getStatistics() {
+            return statistics;
+        }
+
+        @NotNull
+        StageFinding createFinding(@NotNull StageFinding.Type type, @NotNull StageFinding.Severity severity) {
+            final StageFinding finding = new StageFinding();
+
+            finding.setType(type);
+            finding.setSeverity(severity);
+            finding.setStageId(statistics.getStageId());
+            finding.setStageAttemptId(statistics.getStageAttemptId());
+            finding.setStageName(statistics.getStageName());
+
+            return finding;
+        }
+
+        @NotNull
+        int[] indexesOf(@NotNull IntPredicate predicate) {
+            final int[] indexes = new int[size()];
+            int count = 0;
+
+            for (int i = 0; i < indexes.length; i++) {
+                if (predicate.test(i)) {
+                    indexes[count++] = i;
+                }
+            }
+
+            return Arrays.copyOf(indexes, count);
+        }
+
+        // The run time of the tasks over the stage median
+        long excessRunTime(@NotNull int[] indexes) {
+            final long medianRunTime = statistics.getDuration().getMedian();
+
+            return Arrays.stream(indexes).mapToLong(i -> Math.max(runTimes[i] - medianRunTime, 0)).sum();
+        }
+
+        // The IDs of the tasks with the largest values, the largest first
+        @NotNull
+        List<String> topTaskIds(@NotNull int[] indexes, @NotNull long[] values) {
+            return top(indexes, values).stream()
+                    .map(i -> tasks.get(i).getTaskId())
+                    .collect(Collectors.toList());
+        }
+
+        // The distinct IDs of the executors running the tasks with the largest values, the largest first
+        @NotNull
+        List<String> topExecutorIds(@NotNull int[] indexes, @NotNull long[] values) {
+            return top(indexes, values).stream()
+                    .map(i -> tasks.get(i).getExecutorId())
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
+
+        @NotNull
+        private List<Integer> top(@NotNull int[] indexes, @NotNull long[] values) {
+            // A min-heap of the largest values seen, bounded to keep the selection O(n)
+            final PriorityQueue<Integer> largest = new PriorityQueue<>(
+                    thresholds.getMaxListed() + 1, Comparator.comparingLong(i -> values[i]));
+
+            for (int i : indexes) {
+                largest.add(i);
+
+                if (largest.size() > thresholds.getMaxListed()) {
+                    largest.poll();
+                }
+            }
+
+            final LinkedList<Integer> top = new LinkedList<>();
+            while (!largest.isEmpty()) {
+                top.addFirst(largest.poll());
+            }
+
+            return top;
+        }
+
+        @NotNull
+        private StageStatistics.Distribution distribution(@NotNull long[] values) {
+            final long[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            return new StageStatistics.Distribution(sorted);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs.analysis;
+
+import com.microsoft.azure.hdinsight.sdk.rest.IConvertible;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of {@link SparkStageAnalyzer}: the task distributions of every stage, and the findings of all stages
+ * ranked by severity and impact.
+ */
+public class StageAnalysis implements IConvertible {
+    private List<StageStatistics> stages = new ArrayList<>();
+    private List<StageFinding> findings = new ArrayList<>();
+    private SparkStageAnalyzer.Thresholds thresholds;
+
+    public List<StageStatistics> getStages() {
+        return stages;
+    }
+
+    public void setStages(List<StageStatistics> stages) {
+        this.stages = stages;
+    }
+
+    public List<StageFinding> getFindings() {
+        return findings;
+    }
+
+    public void setFindings(List<StageFinding> findings) {
+        this.findings = findings;
+    }
+
+    public SparkStageAnalyzer.Thresholds getThresholds() {
+        return thresholds;
+    }
+
+    public void setThresholds(SparkStageAnalyzer.Thresholds thresholds) {
+        this.thresholds = thresholds;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs.analysis;
+
+import com.microsoft.azure.hdinsight.sdk.rest.IConvertible;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A performance problem found in a Spark stage by {@link SparkStageAnalyzer}.
+ */
+public class StageFinding implements IConvertible {
+    public enum Type {
+        // A few tasks read much more data than the others
+        SKEWED_PARTITION,
+        // A few tasks run much longer than the others without reading more data
+        STRAGGLER,
+        // Tasks spilled their data to disk since it didn't fit in execution memory
+        DISK_SPILL,
+        // Tasks spent much of their run time in JVM garbage collection
+        GC_PRESSURE,
+        // A few executors read much more shuffle data than the others
+        SHUFFLE_IMBALANCE
+    }
+
+    public enum Severity {
+        WARNING,
+        CRITICAL
+    }
+
+    private Type type;
+    private Severity severity;
+    private int stageId;
+    private int stageAttemptId;
+    private String stageName;
+    private long impactMillis;
+    private String title;
+    private String explanation;
+    private List<String> taskIds = new ArrayList<>();
+    private List<String> executorIds = new ArrayList<>();
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(Severity severity) {
+        this.severity = severity;
+    }
+
+    public int getStageId() {
+        return stageId;
+    }
+
+    public void setStageId(int stageId) {
+        this.stageId = stageId;
+    }
+
+    public int getStageAttemptId() {
+        return stageAttemptId;
+    }
+
+    public void setStageAttemptId(int stageAttemptId) {
+        this.stageAttemptId = stageAttemptId;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+
+    public void setStageName(String stageName) {
+        this.stageName = stageName;
+    }
+
+    /**
+     * Get the estimated task time in milliseconds lost to the problem, findings are ranked by it.
+     */
+    public long getImpactMillis() {
+        return impactMillis;
+    }
+
+    public void setImpactMillis(long impactMillis) {
+        this.impactMillis = impactMillis;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public void setExplanation(String explanation) {
+        this.explanation = explanation;
+    }
+
+    /**
+     * Get the IDs of the tasks most affected, the worst first.
+     */
+    public List<String> getTaskIds() {
+        return taskIds;
+    }
+
+    public void setTaskIds(List<String> taskIds) {
+        this.taskIds = taskIds;
+    }
+
+    /**
+     * Get the IDs of the executors most affected, the worst first.
+     */
+    public List<String> getExecutorIds() {
+        return executorIds;
+    }
+
+    public void setExecutorIds(List<String> executorIds) {
+        this.executorIds = executorIds;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs.analysis;
+
+import com.microsoft.azure.hdinsight.sdk.rest.IConvertible;
+
+/**
+ * The task metric distributions of a Spark stage attempt.
+ */
+public class StageStatistics implements IConvertible {
+    private int stageId;
+    private int stageAttemptId;
+    private String stageName;
+    private int taskCount;
+    // Task executor run time in milliseconds
+    private Distribution duration;
+    // Task input and shuffle read bytes
+    private Distribution readBytes;
+    private long totalRunTime;
+    private long totalGcTime;
+    private long diskBytesSpilled;
+    private long memoryBytesSpilled;
+
+    /**
+     * The quantiles of a task metric, by the nearest rank.
+     */
+    public static class Distribution implements IConvertible {
+        private long min;
+        private long p25;
+        private long median;
+        private long p75;
+        private long p95;
+        private long max;
+
+        public Distribution() {
+        }
+
+        /**
+         * Create the distribution of the values.
+         *
+         * @param sorted the values sorted ascending, not empty
+         */
+        public Distribution(long[] sorted) {
+            this.min = sorted[0];
+            this.p25 = quantile(sorted, 0.25);
+            this.median = quantile(sorted, 0.5);
+            this.p75 = quantile(sorted, 0.75);
+            this.p95 = quantile(sorted, 0.95);
+            this.max = sorted[sorted.length - 1];
+        }
+
+        public static long quantile(long[] sorted, double quantile) {
+            final int rank = (int) Math.ceil(quantile * sorted.length);
+
+            return sorted[Math.max(rank - 1, 0)];
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public void setMin(long min) {
+            this.min = min;
+        }
+
+        public long getP25() {
+            return p25;
+        }
+
+        public void setP25(long p25) {
+            this.p25 = p25;
+        }
+
+        public long getMedian() {
+            return median;
+        }
+
+        public void setMedian(long median) {
+            this.median = median;
+        }
+
+        public long getP75() {
+            return p75;
+        }
+
+        public void setP75(long p75) {
+            this.p75 = p75;
+        }
+
+        public long getP95() {
+            return p95;
+        }
+
+        public void setP95(long p95) {
+            this.p95 = p95;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+    }
+
+    public int getStageId() {
+        return stageId;
+    }
+
+    public void setStageId(int stageId) {
+        this.stageId = stageId;
+    }
+
+    public int getStageAttemptId() {
+        return stageAttemptId;
+    }
+
+    public void setStageAttemptId(int stageAttemptId) {
+        this.stageAttemptId = stageAttemptId;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+
+    public void setStageName(String stageName) {
+        this.stageName = stageName;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public Distribution getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Distribution duration) {
+        this.duration = duration;
+    }
+
+    public Distribution getReadBytes() {
+        return readBytes;
+    }
+
+    public void setReadBytes(Distribution readBytes) {
+        this.readBytes = readBytes;
+    }
+
+    public long getTotalRunTime() {
+        return totalRunTime;
+    }
+
+    public void setTotalRunTime(long totalRunTime) {
+        this.totalRunTime = totalRunTime;
+    }
+
+    public long getTotalGcTime() {
+        return totalGcTime;
+    }
+
+    public void setTotalGcTime(long totalGcTime) {
+        this.totalGcTime = totalGcTime;
+    }
+
+    public long getDiskBytesSpilled() {
+        return diskBytesSpilled;
+    }
+
+    public void setDiskBytesSpilled(long diskBytesSpilled) {
+        this.diskBytesSpilled = diskBytesSpilled;
+    }
+
+    public long getMemoryBytesSpilled() {
+        return memoryBytesSpilled;
+    }
+
+    public void setMemoryBytesSpilled(long memoryBytesSpilled) {
+        this.memoryBytesSpilled = memoryBytesSpilled;
+    }
+}
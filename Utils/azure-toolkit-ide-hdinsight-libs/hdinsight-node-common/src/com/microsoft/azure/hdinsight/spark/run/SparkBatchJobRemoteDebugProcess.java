@@ -74,6 +74,14 @@ public class SparkBatchJobRemoteDebugProcess extends SparkBatchJobRemoteProcess
         super.disconnect();
     }
 
+    @Override
+    public void destroy() {
+        super.destroy();
+
+        // Release the SSH tunnel of the cancelled job now, rather than after its debug events complete
+        debugSession.close();
+    }
+
     private Observable<SparkBatchRemoteDebugJob> createDebugSession(SparkBatchRemoteDebugJob job) {
         return createEventWithJdbPorForwarding(job)
                 // Rethrow it since JSch can't handle the certificate expired issue
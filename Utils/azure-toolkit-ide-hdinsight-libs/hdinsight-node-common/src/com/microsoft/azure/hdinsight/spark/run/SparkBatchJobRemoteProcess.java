@@ -19,13 +19,19 @@ import rx.Observable;
 import rx.Subscription;
 import rx.subjects.PublishSubject;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.UnknownServiceException;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SparkBatchJobRemoteProcess extends Process implements ILogger {
+    private static final int KILL_TIMEOUT_SECONDS = 30;
+
     @NotNull
     private final IdeSchedulers schedulers;
     @NotNull
@@ -44,7 +50,15 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
     private final ISparkBatchJob sparkJob;
     @NotNull
     private final PublishSubject<SparkBatchJobSubmissionEvent> eventSubject = PublishSubject.create();
-    private boolean isDestroyed = false;
+    private volatile boolean isDestroyed = false;
+
+    private final AtomicBoolean isDestroying = new AtomicBoolean(false);
+
+    private final Object submissionLock = new Object();
+
+    // The Livy batch submission, kept running even if the job is cancelled in the middle, to know the batch to kill
+    @Nullable
+    private Observable<? extends ISparkBatchJob> submission;
 
     private boolean isDisconnected;
 
@@ -111,24 +125,54 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
         return 0;
     }
 
+    /**
+     * Cancel the job: stop deploying, submitting, polling and log fetching at once, and kill the submitted Livy batch.
+     */
     @Override
     public void destroy() {
-        if (!isDestroyed()) {
-            getSparkJob().killBatchJob()
-                    .doOnEach(notification -> {
-                        if (notification.isOnError()) {
-                            getCtrlSubject().onError(notification.getThrowable());
-                        } else if (notification.isOnNext()) {
-                            getEventSubject().onNext(new SparkBatchJobKilledEvent());
-                        }
-                        this.isDestroyed = true;
-                        this.disconnect();
-                    })
-                    .subscribe(
-                            job -> log().info("Killed Spark batch job " + job.getBatchId()),
-                            err -> log().warn("Got error when killing Spark batch job", err),
-                            () -> {}
-                    );
+        final Observable<? extends ISparkBatchJob> submitted;
+
+        synchronized (submissionLock) {
+            if (isDestroyed() || !isDestroying.compareAndSet(false, true)) {
+                return;
+            }
+
+            submitted = submission == null ? Observable.empty() : submission;
+        }
+
+        getJobSubscription().ifPresent(Subscription::unsubscribe);
+        closeLogInputStreams();
+
+        // Nothing to kill if the job isn't submitted, or wait for the submission in flight to kill the batch created
+        submitted
+                .onErrorResumeNext(err -> Observable.empty())
+                .flatMap(ISparkBatchJob::killBatchJob)
+                .timeout(KILL_TIMEOUT_SECONDS, TimeUnit.SECONDS, Observable.error(new UnknownServiceException(
+                        "No response of killing Spark batch job in " + KILL_TIMEOUT_SECONDS + " seconds")))
+                .subscribeOn(schedulers.processBarVisibleAsync("Kill Spark batch job " + getTitle()))
+                .doOnEach(notification -> {
+                    if (notification.isOnError()) {
+                        getCtrlSubject().onError(notification.getThrowable());
+                    } else if (notification.isOnNext()) {
+                        getEventSubject().onNext(new SparkBatchJobKilledEvent());
+                    }
+                    this.isDestroyed = true;
+                    this.disconnect();
+                })
+                .subscribe(
+                        job -> log().info("Killed Spark batch job " + job.getBatchId()),
+                        err -> log().warn("Got error when killing Spark batch job", err),
+                        () -> {}
+                );
+    }
+
+    private void closeLogInputStreams() {
+        for (final InputStream logInputStream : Arrays.asList(getInputStream(), getErrorStream())) {
+            try {
+                logInputStream.close();
+            } catch (IOException ex) {
+                log().warn("Can't close Spark job log input stream", ex);
+            }
         }
     }
 
@@ -187,6 +231,8 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
             this.eventSubject.onCompleted();
 
             this.getJobSubscription().ifPresent(Subscription::unsubscribe);
+            // Unregister the log streams, so that the log multiplexer of the job stops polling and is released
+            closeLogInputStreams();
         }
     }
 
@@ -219,10 +265,21 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
     }
 
     protected Observable<? extends ISparkBatchJob> submitJob(ISparkBatchJob sparkJob) {
-        return sparkJob
-                .submit()
+        return Observable.defer(() -> {
+                    synchronized (submissionLock) {
+                        if (isDestroying.get()) {
+                            return Observable.empty();
+                        }
+
+                        submission = sparkJob
+                                .submit()
+                                .subscribeOn(schedulers.processBarVisibleAsync("Submit the Spark batch job"))
+                                .cache();
+
+                        return submission;
+                    }
+                })
                 .doOnNext(job -> eventSubject.onNext(new SparkBatchJobSubmittedEvent(job)))
-                .subscribeOn(schedulers.processBarVisibleAsync("Submit the Spark batch job"))
                 .flatMap(this::startJobSubmissionLogReceiver);   // To receive the Livy submission log
     }
 
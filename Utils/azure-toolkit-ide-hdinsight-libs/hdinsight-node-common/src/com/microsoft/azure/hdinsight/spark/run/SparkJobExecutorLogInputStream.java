@@ -5,7 +5,6 @@
 
 package com.microsoft.azure.hdinsight.spark.run;
 
-import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
@@ -28,13 +27,6 @@ class SparkJobExecutorLogInputStream extends SparkJobLogInputStream {
                         .toBlocking().singleOrDefault(null));
     }
 
-    @Override
-    public ISparkBatchJob attachJob(@NotNull ISparkBatchJob sparkJob) {
-        setSparkBatchJob(sparkJob);
-
-        return sparkJob;
-    }
-
     public String getLogUrl() {
         return logUrl;
     }
@@ -8,32 +8,68 @@ package com.microsoft.azure.hdinsight.spark.run;
 import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Optional;
 
-import static java.lang.Thread.sleep;
-
 public class SparkJobLogInputStream extends InputStream {
+    private static final long WAIT_FOR_LOG_MILLIS = 1000;
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+    // A UTF-8 character cut by a fetch has at most 3 bytes fetched, each may be decoded as a replacement character
+    private static final int MAX_CUT_CHARS = 3;
+
     @NotNull
     private String logType;
     @Nullable
     private ISparkBatchJob sparkBatchJob;
+    @Nullable
+    private SparkJobLogMultiplexer multiplexer;
 
+    // The byte offset of the log to fetch next, only accessed by the multiplexer
     private long offset = 0;
-    @NotNull
-    private byte[] buffer = new byte[0];
+    // The offset which only replacement characters were fetched at last time, or -1
+    private long replacementOnlyOffset = -1;
+    private long pollInterval;
+    private volatile long nextPollAt = 0;
+
+    private final Object bufferLock = new Object();
+    private final Deque<byte[]> buffer = new ArrayDeque<>();
     private int bufferPos;
+    private int bufferSize;
+    private boolean closed = false;
 
     public SparkJobLogInputStream(@NotNull String logType) {
         this.logType = logType;
     }
 
     public ISparkBatchJob attachJob(@NotNull ISparkBatchJob sparkJob) {
+        return attachJob(sparkJob, SparkJobLogMultiplexer.of(sparkJob));
+    }
+
+    ISparkBatchJob attachJob(@NotNull ISparkBatchJob sparkJob, @NotNull SparkJobLogMultiplexer logMultiplexer) {
         setSparkBatchJob(sparkJob);
 
+        synchronized (bufferLock) {
+            closed = false;
+        }
+
+        if (multiplexer != logMultiplexer) {
+            if (multiplexer != null) {
+                multiplexer.unregister(this);
+            }
+
+            multiplexer = logMultiplexer;
+        }
+
+        logMultiplexer.register(this);
+
         return sparkJob;
     }
 
@@ -51,34 +87,221 @@ public class SparkJobLogInputStream extends InputStream {
         return Optional.ofNullable(sparkBatchJob);
     }
 
+    /**
+     * Fetch the log following the fetched one into the buffer, called by the multiplexer.
+     *
+     * @param fetchSize the maximum bytes to fetch
+     * @return the bytes fetched
+     */
+    int fetchToBuffer(int fetchSize) {
+        final SimpleImmutableEntry<String, Long> sliceOffsetPair = fetchLog(offset, fetchSize).orElse(null);
+
+        if (sliceOffsetPair == null || StringUtils.isEmpty(sliceOffsetPair.getKey())) {
+            return 0;
+        }
+
+        // A fetch size limit may cut a multi-byte character, which is decoded as up to 3 replacement characters at
+        // the end. Leave them to the next fetch, unless nothing else is fetched twice at the same offset, so that
+        // malformed bytes at the end of the log can't stall the polling.
+        final String fetched = sliceOffsetPair.getKey();
+        final String slice;
+        final int cut = countTrailingReplacementChars(fetched, MAX_CUT_CHARS);
+
+        if (cut < fetched.length()) {
+            slice = fetched.substring(0, fetched.length() - cut);
+            replacementOnlyOffset = -1;
+        } else if (replacementOnlyOffset == sliceOffsetPair.getValue()) {
+            slice = fetched;
+            replacementOnlyOffset = -1;
+        } else {
+            replacementOnlyOffset = sliceOffsetPair.getValue();
+            return 0;
+        }
+
+        final byte[] bytes = slice.getBytes(StandardCharsets.UTF_8);
+
+        // The offset counts in bytes of the log file, which differ from the bytes re-encoded for malformed input
+        offset = sliceOffsetPair.getValue() + countRawBytes(slice);
+
+        if (bytes.length == 0) {
+            return 0;
+        }
+
+        synchronized (bufferLock) {
+            if (closed) {
+                return 0;
+            }
+
+            buffer.addLast(bytes);
+            bufferSize += bytes.length;
+            bufferLock.notifyAll();
+        }
+
+        return bytes.length;
+    }
+
+    private static int countTrailingReplacementChars(@NotNull String slice, int max) {
+        int count = 0;
+
+        while (count < max && count < slice.length() && slice.charAt(slice.length() - 1 - count) == REPLACEMENT_CHAR) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Count the bytes of the log file that the slice is decoded from. A character counts its UTF-8 length, while a
+     * replacement character counts one byte, since the decoder replaces each malformed byte with one.
+     */
+    static long countRawBytes(@NotNull String slice) {
+        long count = 0;
+
+        for (int i = 0; i < slice.length(); i++) {
+            final char c = slice.charAt(i);
+
+            if (c == REPLACEMENT_CHAR || c < 0x80) {
+                count += 1;
+            } else if (c < 0x800) {
+                count += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < slice.length() && Character.isLowSurrogate(slice.charAt(i + 1))) {
+                count += 4;
+                i++;
+            } else {
+                count += 3;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Drop the buffered logs and stop receiving new ones.
+     *
+     * @return the bytes dropped
+     */
+    int clearBuffer() {
+        synchronized (bufferLock) {
+            final int dropped = bufferSize;
+
+            closed = true;
+            buffer.clear();
+            bufferPos = 0;
+            bufferSize = 0;
+            bufferLock.notifyAll();
+
+            return dropped;
+        }
+    }
+
+    void resetPolling(@NotNull Duration minInterval) {
+        pollInterval = minInterval.toMillis();
+        nextPollAt = 0;
+    }
+
+    boolean isPollDue(long now) {
+        return now >= nextPollAt;
+    }
+
+    /**
+     * Schedule the next poll, soon if the last one got logs, otherwise later and later up to the maximum interval.
+     */
+    void schedulePoll(boolean gotLogs, @NotNull Duration minInterval, @NotNull Duration maxInterval) {
+        pollInterval = gotLogs ? minInterval.toMillis() : Math.min(maxInterval.toMillis(), pollInterval * 2);
+        nextPollAt = System.currentTimeMillis() + pollInterval;
+    }
+
     @Override
     public int read() throws IOException {
-        if (bufferPos >= buffer.length) {
-            throw new IOException("Beyond the buffer end, needs a new log fetch");
+        final int value;
+
+        synchronized (bufferLock) {
+            if (bufferSize == 0) {
+                throw new IOException("Beyond the buffer end, needs a new log fetch");
+            }
+
+            final byte[] chunk = buffer.getFirst();
+            value = chunk[bufferPos++] & 0xFF;
+            consumed(chunk, 1);
         }
 
-        return buffer[bufferPos++];
+        onRead(1);
+
+        return value;
     }
 
+    @Override
+    public int read(@NotNull byte[] bytes, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        int read = 0;
+
+        synchronized (bufferLock) {
+            if (bufferSize == 0) {
+                throw new IOException("Beyond the buffer end, needs a new log fetch");
+            }
+
+            while (read < len && bufferSize > 0) {
+                final byte[] chunk = buffer.getFirst();
+                final int size = Math.min(len - read, chunk.length - bufferPos);
+
+                System.arraycopy(chunk, bufferPos, bytes, off + read, size);
+                bufferPos += size;
+                read += size;
+                consumed(chunk, size);
+            }
+        }
+
+        onRead(read);
+
+        return read;
+    }
+
+    private void consumed(@NotNull byte[] chunk, int size) {
+        bufferSize -= size;
+
+        if (bufferPos >= chunk.length) {
+            buffer.removeFirst();
+            bufferPos = 0;
+        }
+    }
+
+    private void onRead(int size) {
+        final SparkJobLogMultiplexer logMultiplexer = multiplexer;
+
+        if (logMultiplexer != null) {
+            logMultiplexer.onRead(size);
+        }
+    }
+
+    /**
+     * Get the buffered log size, waiting a while for the log if nothing is buffered.
+     */
     @Override
     public int available() throws IOException {
-        if (bufferPos >= buffer.length) {
-            return fetchLog(offset, -1)
-                    .map(sliceOffsetPair -> {
-                        buffer = sliceOffsetPair.getKey().getBytes();
-                        bufferPos = 0;
-                        offset = sliceOffsetPair.getValue() + sliceOffsetPair.getKey().length();
-
-                        return buffer.length;
-                    }).orElseGet(() -> {
-                        try {
-                            sleep(3000);
-                        } catch (InterruptedException ignore) { }
-
-                        return 0;
-                    });
+        synchronized (bufferLock) {
+            if (bufferSize == 0 && !closed) {
+                try {
+                    bufferLock.wait(WAIT_FOR_LOG_MILLIS);
+                } catch (InterruptedException ignore) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return bufferSize;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final SparkJobLogMultiplexer logMultiplexer = multiplexer;
+
+        if (logMultiplexer != null) {
+            logMultiplexer.unregister(this);
         } else {
-            return buffer.length - bufferPos;
+            clearBuffer();
         }
     }
 
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.run;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob;
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The log fetcher of all log input streams (driver and executors, stdout and stderr) of one Spark application.
+ *
+ * Instead of each stream polling its container log on its own schedule, the multiplexer polls them in rounds, with
+ * a bounded number of concurrent fetches against the YARN / Livy endpoints. Each stream is polled adaptively: as
+ * soon as {@code minInterval} after a fetch got logs, and backing off to {@code maxInterval} while its log is idle.
+ * Fetched logs are kept in the streams until the consoles read them, bounded by a budget shared by all streams of
+ * the application, a stream is not fetched while the budget is used up.
+ */
+public class SparkJobLogMultiplexer implements ILogger {
+    public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofMillis(500);
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(10);
+    public static final int DEFAULT_BUFFER_LIMIT = 4 * 1024 * 1024;
+    public static final int MAX_CONCURRENT_FETCHES = 6;
+    private static final int MAX_FETCH_SIZE = 256 * 1024;
+    // Hold a UTF-8 character at least, or a fetch can't tell a cut character from malformed bytes
+    private static final int MIN_FETCH_SIZE = 4;
+    private static final Duration TICK = Duration.ofMillis(100);
+    private static final Map<ISparkBatchJob, SparkJobLogMultiplexer> multiplexers =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final long bufferLimit;
+    private final List<SparkJobLogInputStream> streams = new CopyOnWriteArrayList<>();
+    private final AtomicLong buffered = new AtomicLong();
+    private final AtomicLong fetchCount = new AtomicLong();
+    private Scheduler.Worker poller = Schedulers.io().createWorker();
+    private boolean polling = false;
+
+    /**
+     * Create a log multiplexer.
+     *
+     * @param minInterval the poll interval of a stream whose last fetch got logs
+     * @param maxInterval the longest poll interval of an idle stream
+     * @param bufferLimit the bytes fetched but not read yet by all streams, above which streams are not fetched
+     */
+    public SparkJobLogMultiplexer(final Duration minInterval, final Duration maxInterval, final long bufferLimit) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.bufferLimit = bufferLimit;
+    }
+
+    /**
+     * Get the shared log multiplexer of the Spark job, with the default intervals and buffer limit.
+     */
+    public static SparkJobLogMultiplexer of(final ISparkBatchJob job) {
+        synchronized (multiplexers) {
+            return multiplexers.computeIfAbsent(job, key ->
+                    new SparkJobLogMultiplexer(DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL, DEFAULT_BUFFER_LIMIT));
+        }
+    }
+
+    /**
+     * Start polling logs for the stream.
+     */
+    public synchronized void register(final SparkJobLogInputStream stream) {
+        if (streams.contains(stream)) {
+            return;
+        }
+
+        stream.resetPolling(minInterval);
+        streams.add(stream);
+
+        if (!polling) {
+            polling = true;
+            poller = poller.isUnsubscribed() ? Schedulers.io().createWorker() : poller;
+            poller.schedulePeriodically(this::poll, 0, TICK.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop polling logs for the stream, the polling stops once no stream is registered.
+     */
+    public synchronized void unregister(final SparkJobLogInputStream stream) {
+        if (!streams.remove(stream)) {
+            return;
+        }
+
+        buffered.addAndGet(-stream.clearBuffer());
+
+        if (streams.isEmpty()) {
+            polling = false;
+            poller.unsubscribe();
+
+            synchronized (multiplexers) {
+                multiplexers.values().remove(this);
+            }
+        }
+    }
+
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    /**
+     * Get the bytes fetched but not read yet by all streams.
+     */
+    public long getBufferedSize() {
+        return buffered.get();
+    }
+
+    /**
+     * Get the number of log fetches made.
+     */
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    void onRead(final int size) {
+        buffered.addAndGet(-size);
+    }
+
+    private void poll() {
+        final long now = System.currentTimeMillis();
+        final List<SparkJobLogInputStream> due = new ArrayList<>();
+
+        for (final SparkJobLogInputStream stream : streams) {
+            if (stream.isPollDue(now)) {
+                due.add(stream);
+            }
+        }
+
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // Fetch the round with bounded concurrency, rounds don't overlap since the poller waits for it
+        Observable.from(due)
+                .flatMap(stream -> Observable.fromCallable(() -> fetch(stream))
+                                             .subscribeOn(Schedulers.io())
+                                             .onErrorReturn(err -> {
+                                                 log().debug("Failed to fetch " + stream.getLogType() + " log. " + err);
+                                                 stream.schedulePoll(false, minInterval, maxInterval);
+                                                 return 0;
+                                             }),
+                         MAX_CONCURRENT_FETCHES)
+                .toBlocking()
+                .lastOrDefault(0);
+    }
+
+    private int fetch(final SparkJobLogInputStream stream) {
+        // Reserve the fetch size from the budget ahead, so that concurrent fetches can't exceed it together
+        long current;
+        int size;
+
+        do {
+            current = buffered.get();
+            size = (int) Math.min(MAX_FETCH_SIZE, bufferLimit - current);
+
+            if (size < MIN_FETCH_SIZE) {
+                // The consoles are behind, check again soon without fetching more
+                stream.schedulePoll(true, minInterval, maxInterval);
+                return 0;
+            }
+        } while (!buffered.compareAndSet(current, current + size));
+
+        int fetched = 0;
+
+        try {
+            fetchCount.incrementAndGet();
+            fetched = stream.fetchToBuffer(size);
+        } finally {
+            buffered.addAndGet(fetched - size);
+        }
+
+        stream.schedulePoll(fetched > 0, minInterval, maxInterval);
+
+        return fetched;
+    }
+}
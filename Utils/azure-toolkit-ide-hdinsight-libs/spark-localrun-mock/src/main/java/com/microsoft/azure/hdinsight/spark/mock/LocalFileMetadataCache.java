@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.mock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * The metadata cache of the local files behind the mocked file system.
+ *
+ * The attributes are read in-process by NIO, POSIX ones included where supported, and kept with the directory
+ * listings until a watch service reports the change of their directory. The changes made through the mocked file
+ * system are invalidated at once by {@link #invalidate(File)}, since a watch service may report them late.
+ * Nothing is cached for a directory which can't be watched, and the whole cache starts over once it holds
+ * {@link #MAX_CACHED_ENTRIES} entries, with the directories unwatched.
+ */
+class LocalFileMetadataCache {
+    static final boolean IS_POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    static final int MAX_CACHED_ENTRIES = 64 * 1024;
+
+    private static class LazyHolder {
+        static final LocalFileMetadataCache INSTANCE = new LocalFileMetadataCache();
+    }
+
+    static LocalFileMetadataCache getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    // Null if the watch service isn't available, then every read goes to the local file system
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> watchedDirs = new ConcurrentHashMap<>();
+    private final Map<Path, BasicFileAttributes> attributes = new ConcurrentHashMap<>();
+    private final Map<Path, String[]> listings = new ConcurrentHashMap<>();
+
+    // Count the invalidations to drop the entries read before an invalidation but put after it
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private Logger log() {
+        return LoggerFactory.getLogger(this.getClass());
+    }
+
+    private LocalFileMetadataCache() {
+        WatchService service = null;
+
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            log().warn("Can't watch local files, the mocked file system metadata won't be cached", e);
+        }
+
+        this.watchService = service;
+
+        if (watchService != null) {
+            final Thread watcher = new Thread(this::watch, "mock-fs-metadata-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    /**
+     * Get the attributes of a local file, as {@link PosixFileAttributes} if the POSIX ones are supported
+     *
+     * @param file the local file
+     * @return the file attributes
+     * @throws java.nio.file.FileSystemException if the file doesn't exist or isn't accessible
+     */
+    BasicFileAttributes getAttributes(File file) throws IOException {
+        final Path path = toKey(file);
+        final BasicFileAttributes cached = attributes.get(path);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final long version = invalidations.get();
+        final boolean isWatched = path.getParent() != null && watch(path.getParent());
+        final BasicFileAttributes read = IS_POSIX
+                ? Files.readAttributes(path, PosixFileAttributes.class)
+                : Files.readAttributes(path, BasicFileAttributes.class);
+
+        if (isWatched) {
+            putIfUnchanged(attributes, path, read, version);
+        }
+
+        return read;
+    }
+
+    /**
+     * List the names of a local directory
+     *
+     * @param dir the local directory
+     * @return the names of the directory entries, or null if the directory can't be listed as {@link File#list()}
+     */
+    String[] list(File dir) {
+        final Path path = toKey(dir);
+        final String[] cached = listings.get(path);
+
+        if (cached != null) {
+            return cached.clone();
+        }
+
+        final long version = invalidations.get();
+        final boolean isWatched = watch(path);
+        final List<String> names = new ArrayList<>();
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+            entries.forEach(entry -> names.add(entry.getFileName().toString()));
+        } catch (IOException e) {
+            return null;
+        }
+
+        final String[] read = names.toArray(new String[0]);
+
+        if (isWatched) {
+            putIfUnchanged(listings, path, read, version);
+        }
+
+        return read.clone();
+    }
+
+    /**
+     * Invalidate the cached metadata of a local file changed, with the ones under it if it's a directory
+     *
+     * @param file the local file changed
+     */
+    void invalidate(File file) {
+        invalidate(toKey(file));
+    }
+
+    private void invalidate(Path path) {
+        invalidations.incrementAndGet();
+
+        attributes.remove(path);
+        listings.remove(path);
+
+        // Only the watched directories have entries cached under them
+        if (watchedDirs.containsKey(path)) {
+            attributes.keySet().removeIf(cachedPath -> cachedPath.startsWith(path));
+            listings.keySet().removeIf(cachedPath -> cachedPath.startsWith(path));
+
+            // The watch of a renamed directory follows it, stop watching to not mistake its events for the old path
+            watchedDirs.entrySet().removeIf(watched -> {
+                if (watched.getKey().startsWith(path)) {
+                    watched.getValue().cancel();
+                    return true;
+                }
+
+                return false;
+            });
+        }
+
+        // The parent directory entries and modification time are changed
+        final Path parent = path.getParent();
+        if (parent != null) {
+            attributes.remove(parent);
+            listings.remove(parent);
+        }
+    }
+
+    private <T> void putIfUnchanged(Map<Path, T> cache, Path path, T value, long version) {
+        if (attributes.size() + listings.size() >= MAX_CACHED_ENTRIES) {
+            // Start over rather than tracking the use of each entry, the next reads fill the cache again
+            clear();
+        }
+
+        cache.put(path, value);
+
+        if (invalidations.get() != version) {
+            cache.remove(path);
+        }
+    }
+
+    private void clear() {
+        invalidations.incrementAndGet();
+
+        watchedDirs.entrySet().removeIf(watched -> {
+            watched.getValue().cancel();
+            return true;
+        });
+        attributes.clear();
+        listings.clear();
+    }
+
+    private boolean watch(Path dir) {
+        if (watchService == null) {
+            return false;
+        }
+
+        if (watchedDirs.containsKey(dir)) {
+            return true;
+        }
+
+        try {
+            watchedDirs.put(dir, dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+
+            return true;
+        } catch (IOException | ClosedWatchServiceException e) {
+            // Such as the directory is deleted, or the OS watch limit is reached
+            return false;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                final WatchKey key = watchService.take();
+                final Path dir = (Path) key.watchable();
+
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        invalidate(dir);
+                    } else if (event.kind() == ENTRY_MODIFY) {
+                        // Only the attributes are changed, the entries of a modified directory are watched by itself
+                        invalidations.incrementAndGet();
+                        attributes.remove(dir.resolve((Path) event.context()));
+                    } else {
+                        invalidate(dir.resolve((Path) event.context()));
+                    }
+                }
+
+                if (!key.reset()) {
+                    // The directory is deleted or not accessible any more
+                    invalidate(dir);
+                    watchedDirs.remove(dir, key);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Stop watching
+        }
+    }
+
+    private static Path toKey(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+}
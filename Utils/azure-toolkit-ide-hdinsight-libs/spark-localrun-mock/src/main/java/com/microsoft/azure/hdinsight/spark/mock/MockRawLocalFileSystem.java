@@ -9,6 +9,7 @@ package com.microsoft.azure.hdinsight.spark.mock;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
 import org.apache.hadoop.util.Shell;
 import org.apache.hadoop.util.StringUtils;
 
@@ -18,6 +19,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.FileSystemException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,13 +30,19 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
     private String authority;
     private String scheme = "wasb";
     private URI uri;
+    private final LocalFileMetadataCache metadataCache = LocalFileMetadataCache.getInstance();
 
     @Override
     public FileStatus getFileStatus(Path f) throws IOException {
         File path = pathToFile(f);
-        if (path.exists()) {
-            return new RawLocalFileStatus(pathToFile(f), getDefaultBlockSize(f), makeQualified(f));
-        } else {
+        return new RawLocalFileStatus(path, getAttributes(path, f), getDefaultBlockSize(f), makeQualified(f));
+    }
+
+    private BasicFileAttributes getAttributes(File localf, Path f) throws IOException {
+        try {
+            return metadataCache.getAttributes(localf);
+        } catch (FileSystemException e) {
+            // Not found, or not accessible as File.exists() treats
             throw new FileNotFoundException("File " + f + " does not exist");
         }
     }
@@ -41,15 +52,13 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         File localf = pathToFile(f);
         FileStatus[] results;
 
-        if (!localf.exists()) {
-            throw new FileNotFoundException("File " + f + " does not exist");
-        }
-        if (localf.isFile()) {
+        BasicFileAttributes attributes = getAttributes(localf, f);
+        if (!attributes.isDirectory()) {
             return new FileStatus[] {
-                    new RawLocalFileStatus(localf, getDefaultBlockSize(f), makeQualified(f)) };
+                    new RawLocalFileStatus(localf, attributes, getDefaultBlockSize(f), makeQualified(f)) };
         }
 
-        String[] names = localf.list();
+        String[] names = metadataCache.list(localf);
         if (names == null) {
             return null;
         }
@@ -72,6 +81,126 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         return Arrays.copyOf(results, j);
     }
 
+    // The changes through the file system are invalidated at once, rather than waiting for the metadata cache watcher
+    private void invalidate(Path f) {
+        metadataCache.invalidate(pathToFile(f));
+    }
+
+    // The file length and modification time keep changing until the output stream is closed
+    private FSDataOutputStream invalidateOnClose(Path f, FSDataOutputStream out) throws IOException {
+        invalidate(f);
+
+        return new FSDataOutputStream(out, null, out.getPos()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    invalidate(f);
+                }
+            }
+        };
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, boolean overwrite, int bufferSize, short replication, long blockSize,
+                                     Progressable progress) throws IOException {
+        return invalidateOnClose(f, super.create(f, overwrite, bufferSize, replication, blockSize, progress));
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                                     short replication, long blockSize, Progressable progress) throws IOException {
+        return invalidateOnClose(
+                f, super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress));
+    }
+
+    @Override
+    public FSDataOutputStream createNonRecursive(Path f, FsPermission permission, EnumSet<CreateFlag> flags,
+                                                 int bufferSize, short replication, long blockSize,
+                                                 Progressable progress) throws IOException {
+        return invalidateOnClose(
+                f, super.createNonRecursive(f, permission, flags, bufferSize, replication, blockSize, progress));
+    }
+
+    @Override
+    public FSDataOutputStream append(Path f, int bufferSize, Progressable progress) throws IOException {
+        return invalidateOnClose(f, super.append(f, bufferSize, progress));
+    }
+
+    @Override
+    public boolean truncate(Path f, long newLength) throws IOException {
+        try {
+            return super.truncate(f, newLength);
+        } finally {
+            invalidate(f);
+        }
+    }
+
+    @Override
+    public boolean rename(Path src, Path dst) throws IOException {
+        try {
+            return super.rename(src, dst);
+        } finally {
+            invalidate(src);
+            invalidate(dst);
+        }
+    }
+
+    @Override
+    public boolean delete(Path p, boolean recursive) throws IOException {
+        try {
+            return super.delete(p, recursive);
+        } finally {
+            invalidate(p);
+        }
+    }
+
+    @Override
+    public boolean mkdirs(Path f) throws IOException {
+        try {
+            return super.mkdirs(f);
+        } finally {
+            invalidate(f);
+        }
+    }
+
+    @Override
+    public boolean mkdirs(Path f, FsPermission permission) throws IOException {
+        try {
+            return super.mkdirs(f, permission);
+        } finally {
+            invalidate(f);
+        }
+    }
+
+    @Override
+    public void setOwner(Path p, String username, String groupname) throws IOException {
+        try {
+            super.setOwner(p, username, groupname);
+        } finally {
+            invalidate(p);
+        }
+    }
+
+    @Override
+    public void setPermission(Path p, FsPermission permission) throws IOException {
+        try {
+            super.setPermission(p, permission);
+        } finally {
+            invalidate(p);
+        }
+    }
+
+    @Override
+    public void setTimes(Path p, long mtime, long atime) throws IOException {
+        try {
+            super.setTimes(p, mtime, atime);
+        } finally {
+            invalidate(p);
+        }
+    }
+
     @Override
     public void initialize(URI uri, Configuration conf) throws IOException {
         super.initialize(uri, conf);
@@ -114,9 +243,24 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             return !super.getOwner().isEmpty();
         }
 
-        RawLocalFileStatus(File f, long defaultBlockSize, Path p) {
-            super(f.length(), f.isDirectory(), 1, defaultBlockSize, f.lastModified(), p);
+        RawLocalFileStatus(File f, BasicFileAttributes attributes, long defaultBlockSize, Path p) {
+            super(attributes.size(),
+                  attributes.isDirectory(),
+                  1,
+                  defaultBlockSize,
+                  attributes.lastModifiedTime().toMillis(),
+                  p);
             this.file = f;
+
+            // Set the POSIX permission, owner and group read in-process, without `ls -ld` forked for each file
+            if (attributes instanceof PosixFileAttributes) {
+                PosixFileAttributes posixAttributes = (PosixFileAttributes) attributes;
+
+                setPermission(FsPermission.valueOf((attributes.isDirectory() ? "d" : "-") +
+                        PosixFilePermissions.toString(posixAttributes.permissions())));
+                setOwner(posixAttributes.owner().getName());
+                setGroup(posixAttributes.group().getName());
+            }
         }
 
         @Override
@@ -143,7 +287,7 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             return super.getGroup();
         }
 
-        /// loads permissions, owner, and group from `ls -ld`
+        /// loads permissions, owner, and group from `ls -ld`, for the file systems without POSIX attributes
         private void loadPermissionInfo() {
             IOException e = null;
             try {
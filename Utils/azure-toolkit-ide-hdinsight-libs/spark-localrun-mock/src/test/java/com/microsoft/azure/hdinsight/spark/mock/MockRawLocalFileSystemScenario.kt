@@ -22,16 +22,28 @@
 
 package com.microsoft.azure.hdinsight.spark.mock
 
+import io.cucumber.java.After
+import io.cucumber.java.en.And
 import io.cucumber.java.en.Given
 import io.cucumber.java.en.Then
 import org.apache.hadoop.conf.Configuration
 import org.apache.hadoop.fs.Path
 import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
 import java.io.File
+import java.io.FileNotFoundException
+import java.nio.file.Files
 import kotlin.test.assertNotNull
 
 class MockRawLocalFileSystemScenario {
     private var workDir = ""
+    private var localDir: File? = null
+    private val fs = MockRawLocalFileSystem().apply { conf = Configuration() }
+
+    @After
+    fun tearDown() {
+        localDir?.deleteRecursively()
+    }
 
     @Given("^set mocked file system local working directory to '(.*)'")
     fun setWorkingDirectory(workDir: String) {
@@ -51,4 +63,63 @@ class MockRawLocalFileSystemScenario {
         fs.conf = Configuration()
         assertNotNull(fs.getFileStatus(Path(path)))
     }
-}
\ No newline at end of file
+
+    @Given("^a mocked file system on a local temporary directory$")
+    fun createLocalDirectory() {
+        localDir = Files.createTempDirectory("mockfs").toFile()
+    }
+
+    @And("^write '(.*)' to mocked file '(.*)'$")
+    fun writeFile(content: String, name: String) {
+        fs.create(localPath(name), true).use { it.write(content.toByteArray()) }
+    }
+
+    @And("^append '(.*)' to mocked file '(.*)'$")
+    fun appendFile(content: String, name: String) {
+        fs.append(localPath(name)).use { it.write(content.toByteArray()) }
+    }
+
+    @And("^rename mocked file '(.*)' to '(.*)'$")
+    fun renameFile(name: String, newName: String) {
+        assertThat(fs.rename(localPath(name), localPath(newName))).isTrue()
+    }
+
+    @And("^delete mocked file '(.*)'$")
+    fun deleteFile(name: String) {
+        assertThat(fs.delete(localPath(name), true)).isTrue()
+    }
+
+    @And("^write '(.*)' to local file '(.*)' outside of the mocked file system$")
+    fun writeLocalFile(content: String, name: String) {
+        File(localDir, name).writeText(content)
+    }
+
+    @Then("^mocked file '(.*)' should be (\\d+) bytes long$")
+    fun verifyFileLength(name: String, length: Long) {
+        assertThat(fs.getFileStatus(localPath(name)).len).isEqualTo(length)
+    }
+
+    @Then("^mocked file '(.*)' should be (\\d+) bytes long in (\\d+) seconds$")
+    fun verifyFileLengthChanged(name: String, length: Long, seconds: Long) {
+        // The watch service reports the changes made outside asynchronously, polled on some platforms
+        val deadline = System.currentTimeMillis() + seconds * 1000
+        while (fs.getFileStatus(localPath(name)).len != length && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100)
+        }
+
+        verifyFileLength(name, length)
+    }
+
+    @Then("^mocked file '(.*)' should not exist$")
+    fun verifyFileNotExist(name: String) {
+        assertThatThrownBy { fs.getFileStatus(localPath(name)) }.isInstanceOf(FileNotFoundException::class.java)
+    }
+
+    @Then("^mocked directory should list '(.*)'$")
+    fun verifyDirectoryList(names: String) {
+        assertThat(fs.listStatus(Path(localDir!!.toURI())).map { it.path.name }.sorted().joinToString(","))
+                .isEqualTo(names)
+    }
+
+    private fun localPath(name: String) = Path(File(localDir, name).toURI())
+}
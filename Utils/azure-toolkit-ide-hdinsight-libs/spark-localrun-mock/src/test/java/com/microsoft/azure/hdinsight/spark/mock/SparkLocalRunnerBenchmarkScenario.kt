@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.mock
+
+import com.microsoft.azure.hdinsight.spark.common.SparkLocalJvmProcess
+import io.cucumber.java.After
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import io.cucumber.java.en.When
+import org.assertj.core.api.Assertions.assertThat
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+class SparkLocalRunnerBenchmarkScenario {
+    private val jvmProcess = SparkLocalJvmProcess()
+    private var inputDir: File? = null
+    private var partFileCount = 0
+    private val roundOutputs = mutableListOf<List<String>>()
+    private val roundMillis = mutableListOf<Long>()
+
+    @After
+    fun cleanUp() {
+        inputDir?.deleteRecursively()
+    }
+
+    @Given("^create (\\d+) mocked part files in '(.*)' with lines$")
+    fun createPartFiles(count: Int, folder: String, lines: List<String>) {
+        // The mocked wasb:/// root folder
+        val dir = File(jvmProcess.userDefaultDir).parentFile.parentFile.resolve(folder)
+        val content = lines.joinToString("\n", postfix = "\n")
+
+        dir.deleteRecursively()
+        dir.mkdirs()
+
+        (0 until count).forEach { dir.resolve("part-%05d".format(it)).writeText(content) }
+
+        inputDir = dir
+        partFileCount = count
+    }
+
+    @When("^benchmark locally running job '(.*)' for (\\d+) rounds with args$")
+    fun benchmarkLocalRunJob(mainClass: String, rounds: Int, jobArgs: List<String>) {
+        val args = arrayOf("--master local[*]", mainClass) + jobArgs
+
+        repeat(rounds) { round ->
+            val job = jvmProcess.createProcess("", SparkLocalRunner::class.java, args)
+            job.redirectOutput(ProcessBuilder.Redirect.PIPE)
+
+            val start = System.nanoTime()
+            val process = job.start()
+            val outputLines = process.inputStream.reader().readLines()
+
+            assertThat(process.waitFor())
+                    .describedAs("Spark job exist with error.")
+                    .isEqualTo(0)
+
+            val millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+            println("Benchmark round ${round + 1}: $partFileCount part files in $millis ms")
+
+            roundOutputs.add(outputLines)
+            roundMillis.add(millis)
+        }
+
+        val sortedMillis = roundMillis.sorted()
+        println("Benchmark of $rounds rounds over $partFileCount part files: " +
+                "min ${sortedMillis.first()} ms, median ${sortedMillis[sortedMillis.size / 2]} ms, " +
+                "max ${sortedMillis.last()} ms")
+    }
+
+    @Then("^locally run benchmark output should be in every round$")
+    fun checkBenchmarkOutputs(expectOutputs: List<String>) {
+        roundOutputs.forEach { assertThat(it).containsExactlyInAnyOrderElementsOf(expectOutputs) }
+    }
+}
@@ -26,3 +26,29 @@ Feature: Mock File System Unit Test
   Scenario: Resources file exists
     Given set mocked file system local working directory to 'src/test/resources/data/__default__/user/current'
     Then mocked file 'my_words.txt' should exists
+
+  Scenario: File status changed through the mocked file system is read at once
+    Given a mocked file system on a local temporary directory
+    And write 'hello' to mocked file 'a.txt'
+    Then mocked file 'a.txt' should be 5 bytes long
+    And mocked directory should list 'a.txt'
+    And append ', world' to mocked file 'a.txt'
+    Then mocked file 'a.txt' should be 12 bytes long
+    And rename mocked file 'a.txt' to 'b.txt'
+    Then mocked file 'a.txt' should not exist
+    And mocked file 'b.txt' should be 12 bytes long
+    And mocked directory should list 'b.txt'
+    And delete mocked file 'b.txt'
+    Then mocked file 'b.txt' should not exist
+    And mocked directory should list ''
+
+  Scenario: File status changed outside of the mocked file system is read once watched
+    Given a mocked file system on a local temporary directory
+    And write 'hello' to mocked file 'a.txt'
+    Then mocked file 'a.txt' should be 5 bytes long
+    And mocked directory should list 'a.txt'
+    And write 'new' to local file 'c.txt' outside of the mocked file system
+    And write 'hello, world' to local file 'a.txt' outside of the mocked file system
+    Then mocked file 'a.txt' should be 12 bytes long in 30 seconds
+    And mocked file 'c.txt' should be 3 bytes long
+    And mocked directory should list 'a.txt,c.txt'
@@ -0,0 +1,16 @@
+Feature: Spark Local Runner Benchmark
+
+  Scenario: Spark Local Runner Benchmark of word count over 20000 part files
+    Given create 20000 mocked part files in 'benchmark_input' with lines
+      | Hello local Spark  |
+      | run with mocked fs |
+    When benchmark locally running job 'com.microsoft.azure.hdinsight.spark.mock.jobapp.WordCountTest' for 3 rounds with args
+      | wasb:///benchmark_input |
+    Then locally run benchmark output should be in every round
+      | Hello,20000  |
+      | local,20000  |
+      | Spark,20000  |
+      | run,20000    |
+      | with,20000   |
+      | mocked,20000 |
+      | fs,20000     |
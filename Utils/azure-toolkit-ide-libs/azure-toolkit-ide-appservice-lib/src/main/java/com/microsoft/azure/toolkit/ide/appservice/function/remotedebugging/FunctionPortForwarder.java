@@ -15,13 +15,18 @@ import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionAppBase;
 import com.microsoft.azure.toolkit.lib.auth.Account;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import okhttp3.OkHttpClient;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.time.Duration;
+import java.util.Objects;
 import java.util.Optional;
 
 public class FunctionPortForwarder extends AbstractPortForwarder {
@@ -36,13 +41,26 @@ public class FunctionPortForwarder extends AbstractPortForwarder {
     @Override
     public void startForward(int localPort) {
         target.ping();
-        super.startForward(localPort);
-        // ping function repeatedly otherwise the connection will lose.
-        Mono.fromCallable(server::isOpen)
+        if (Objects.isNull(this.server)) {
+            try {
+                initLocalSocket(localPort);
+            } catch (final IOException e) {
+                throw new AzureToolkitRuntimeException("Unable to start debugging.", e);
+            }
+        }
+        final ServerSocketChannel server = this.server;
+        // ping function repeatedly otherwise the connection will lose, started ahead since forwarding blocks until stopped.
+        final Disposable keepAlive = Mono.fromCallable(server::isOpen)
                 .delaySubscription(Duration.ofSeconds(30))
                 .repeat(server::isOpen)
+                .filter(open -> open)
                 .subscribeOn(Schedulers.boundedElastic())
                 .subscribe(ignore -> target.ping(), throwable -> {});
+        try {
+            super.startForward(localPort);
+        } finally {
+            keepAlive.dispose();
+        }
     }
 
     @Override
@@ -6,42 +6,94 @@
 package com.microsoft.azure.toolkit.ide.common.portforwarder;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
 import okhttp3.WebSocket;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * forwards every local connection accepted on the local port to its own remote websocket, so that clients opening
+ * parallel sockets are served concurrently. the forwarder stops once it is stopped explicitly or the last active
+ * connection is closed. the stats of every connection are logged once it's closed.
+ */
+@Slf4j
 public abstract class AbstractPortForwarder {
-    protected ServerSocketChannel server;
-    protected PortForwarderWebSocketListener listener;
+    private static final int MAX_CLOSED_STATS = 64;
+    protected volatile ServerSocketChannel server;
+    protected final Set<PortForwarderWebSocketListener> listeners = ConcurrentHashMap.newKeySet();
+    private final Deque<PortForwarderStats> closedStats = new ConcurrentLinkedDeque<>();
+    private final OkHttpClient okHttpClient = new OkHttpClient();
 
     public void initLocalSocket(final int port) throws IOException {
         stopForward();
         this.server = ServerSocketChannel.open().bind(new InetSocketAddress(port));
     }
 
+    /**
+     * accepts local connections until the forwarder is stopped, this call blocks the current thread.
+     */
     public void startForward(final int localPort) {
         try {
             if (Objects.isNull(this.server)) {
                 initLocalSocket(localPort);
             }
-            final OkHttpClient okHttpClient = new OkHttpClient();
-            this.listener = createWebSocketListener(server.accept());
-            final CompletableFuture<WebSocket> future = createSocketBuilder(okHttpClient).buildAsync(listener);
-            future.whenComplete((socket, throwable) -> Optional.ofNullable(throwable).ifPresent(t -> listener.onError(socket, t)));
+            final ServerSocketChannel server = this.server;
+            while (server.isOpen()) {
+                final SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (final ClosedChannelException e) {
+                    return; // stopped
+                }
+                openConnection(channel);
+            }
         } catch (final IOException e) {
             stopForward();
             throw new AzureToolkitRuntimeException("Unable to start debugging.", e);
         }
     }
 
+    protected void openConnection(final SocketChannel channel) {
+        final PortForwarderWebSocketListener listener = createWebSocketListener(channel);
+        this.listeners.add(listener);
+        final CompletableFuture<WebSocket> future = createSocketBuilder(okHttpClient).buildAsync(listener);
+        future.whenComplete((socket, throwable) -> Optional.ofNullable(throwable).ifPresent(t -> listener.onError(socket, t)));
+    }
+
+    /**
+     * called by the listener of a connection once it's closed.
+     */
+    protected void onConnectionClosed(final PortForwarderWebSocketListener listener) {
+        if (this.listeners.remove(listener)) {
+            log.info("port forwarding connection closed: {}", listener.getStats());
+            this.closedStats.addLast(listener.getStats());
+            while (this.closedStats.size() > MAX_CLOSED_STATS) {
+                this.closedStats.pollFirst();
+            }
+            if (this.listeners.isEmpty()) {
+                stopForward();
+            }
+        }
+    }
+
     public void stopForward() {
+        final ServerSocketChannel server = this.server;
         if (Objects.nonNull(server) && server.isOpen()) {
             try {
                 server.close();
@@ -49,9 +101,16 @@ public abstract class AbstractPortForwarder {
                 throw new AzureToolkitRuntimeException(e);
             }
         }
-        if (Objects.nonNull(listener) && listener.isAlive()) {
-            listener.closeForwarder();
-        }
+        new ArrayList<>(this.listeners).stream().filter(PortForwarderWebSocketListener::isAlive).forEach(PortForwarderWebSocketListener::closeForwarder);
+        this.listeners.clear();
+    }
+
+    /**
+     * stats of the recently closed connections followed by the ones of the active connections.
+     */
+    public List<PortForwarderStats> getConnectionStats() {
+        return Stream.concat(this.closedStats.stream(), this.listeners.stream().map(PortForwarderWebSocketListener::getStats))
+            .collect(Collectors.toList());
     }
 
     protected abstract WebSocketBuilder createSocketBuilder(OkHttpClient httpClient);
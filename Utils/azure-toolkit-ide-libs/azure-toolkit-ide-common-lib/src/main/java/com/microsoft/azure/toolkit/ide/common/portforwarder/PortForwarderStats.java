@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ *  Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.portforwarder;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * throughput and latency counters of a single forwarded local connection.
+ */
+public class PortForwarderStats {
+    @Getter
+    private final long acceptedAt = System.nanoTime();
+    private volatile long openedAt = -1;
+    private volatile long closedAt = -1;
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong totalWriteNanos = new AtomicLong();
+    private final LongAccumulator maxWriteNanos = new LongAccumulator(Math::max, 0);
+
+    void onOpened() {
+        this.openedAt = System.nanoTime();
+    }
+
+    void onClosed() {
+        if (this.closedAt < 0) {
+            this.closedAt = System.nanoTime();
+        }
+    }
+
+    void onSent(int bytes) {
+        this.bytesSent.addAndGet(bytes);
+    }
+
+    void onReceived(int bytes, long writeNanos) {
+        this.bytesReceived.addAndGet(bytes);
+        this.messagesReceived.incrementAndGet();
+        this.totalWriteNanos.addAndGet(writeNanos);
+        this.maxWriteNanos.accumulate(writeNanos);
+    }
+
+    /**
+     * bytes forwarded from the local client to the remote endpoint.
+     */
+    public long getBytesSent() {
+        return this.bytesSent.get();
+    }
+
+    /**
+     * bytes forwarded from the remote endpoint to the local client.
+     */
+    public long getBytesReceived() {
+        return this.bytesReceived.get();
+    }
+
+    /**
+     * time between accepting the local connection and the websocket being opened, or -1 if not opened yet.
+     */
+    public long getConnectLatencyMillis() {
+        return this.openedAt < 0 ? -1 : (this.openedAt - this.acceptedAt) / 1_000_000;
+    }
+
+    /**
+     * average time spent writing a remote message to the local client.
+     */
+    public double getAverageWriteLatencyMillis() {
+        final long messages = this.messagesReceived.get();
+        return messages == 0 ? 0 : this.totalWriteNanos.get() / 1_000_000.0 / messages;
+    }
+
+    public double getMaxWriteLatencyMillis() {
+        return this.maxWriteNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * overall throughput (both directions) in bytes per second since the websocket was opened.
+     */
+    public double getThroughputBytesPerSecond() {
+        if (this.openedAt < 0) {
+            return 0;
+        }
+        final long end = this.closedAt < 0 ? System.nanoTime() : this.closedAt;
+        final double seconds = Math.max(end - this.openedAt, 1) / 1_000_000_000.0;
+        return (getBytesSent() + getBytesReceived()) / seconds;
+    }
+
+    public boolean isClosed() {
+        return this.closedAt >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sent=%dB, received=%dB, connect=%dms, write(avg/max)=%.2f/%.2fms, throughput=%.1fKB/s",
+            getBytesSent(), getBytesReceived(), getConnectLatencyMillis(), getAverageWriteLatencyMillis(),
+            getMaxWriteLatencyMillis(), getThroughputBytesPerSecond() / 1024);
+    }
+}
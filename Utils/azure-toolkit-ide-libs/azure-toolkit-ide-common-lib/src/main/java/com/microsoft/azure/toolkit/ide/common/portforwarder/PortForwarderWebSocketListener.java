@@ -6,6 +6,7 @@
 package com.microsoft.azure.toolkit.ide.common.portforwarder;
 
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import lombok.Getter;
 import okhttp3.Response;
 import okhttp3.WebSocket;
 import okhttp3.WebSocketListener;
@@ -21,17 +22,22 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BooleanSupplier;
 
+/**
+ * pumps bytes of one local connection to/from its remote websocket. remote messages are written straight to the
+ * local channel on the websocket reader thread (a blocking write naturally back-pressures the reader), while local
+ * data is read into a direct buffer and enqueued to the websocket, pausing whenever the outgoing queue exceeds
+ * {@link #MAX_QUEUED_BYTES}.
+ */
 public class PortForwarderWebSocketListener extends WebSocketListener {
+    protected static final int BUFFER_SIZE = 64 * 1024;
+    protected static final long MAX_QUEUED_BYTES = 1024 * 1024;
     protected volatile boolean opened;
-    protected boolean more = true;
-    protected final ReentrantLock lock = new ReentrantLock();
-    protected final Condition moreRequested;
     protected final CompletableFuture<WebSocket> future;
     protected final ExecutorService pumperService = Executors.newSingleThreadExecutor();
+    @Getter
+    protected final PortForwarderStats stats = new PortForwarderStats();
     protected final AtomicBoolean alive = new AtomicBoolean(true);
     protected final ReadableByteChannel in;
     protected final WritableByteChannel out;
@@ -42,7 +48,6 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
         this.out = out;
         this.forwarder = forwarder;
         this.future = new CompletableFuture<>();
-        this.moreRequested = this.lock.newCondition();
     }
 
     public CompletableFuture<WebSocket> getFuture() {
@@ -68,6 +73,7 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
     @Override
     public void onOpen(@NotNull WebSocket webSocket, Response response) {
         this.opened = true;
+        this.stats.onOpened();
         if (response != null) {
             response.close();
         }
@@ -75,6 +81,10 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
             this.pumperService.execute(() -> {
                 try {
                     pipe(this.in, webSocket, this.alive::get);
+                    if (this.alive.get()) {
+                        // the local client closed the connection
+                        this.closeWebSocket(webSocket, 1000, "Client closed");
+                    }
                 } catch (final InterruptedException | IOException e) {
                     if (e instanceof InterruptedException) {
                         Thread.currentThread().interrupt();
@@ -91,19 +101,16 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
 
     @Override
     public void onMessage(WebSocket webSocket, String text) {
-        this.awaitMoreRequest();
         this.writeMessage(webSocket, ByteString.of(text.getBytes(StandardCharsets.UTF_8)));
     }
 
     @Override
     public void onMessage(WebSocket webSocket, ByteString bytes) {
-        this.awaitMoreRequest();
         this.writeMessage(webSocket, bytes);
     }
 
     @Override
     public void onClosing(WebSocket webSocket, int code, String reason) {
-        this.awaitMoreRequest();
         if (this.alive.get()) {
             this.closeForwarder();
             this.future.cancel(true);
@@ -121,16 +128,6 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
         return this.alive.get();
     }
 
-    protected void request() {
-        this.lock.lock();
-        try {
-            this.more = true;
-            this.moreRequested.signalAll();
-        } finally {
-            this.lock.unlock();
-        }
-    }
-
     protected void closeWebSocket(WebSocket webSocket, int code, String message) {
         this.alive.set(false);
         try {
@@ -142,7 +139,10 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
     }
 
     protected void closeForwarder() {
-        this.alive.set(false);
+        if (!this.alive.getAndSet(false) && this.stats.isClosed()) {
+            return;
+        }
+        this.stats.onClosed();
         if (this.in != null) {
             try {
                 this.in.close();
@@ -157,19 +157,26 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
                 AzureMessager.getMessager().error(e, "Error while stop debugger.");
             }
         }
-        this.forwarder.stopForward();
         this.pumperService.shutdownNow();
+        this.forwarder.onConnectionClosed(this);
     }
 
     protected void pipe(ReadableByteChannel in, WebSocket webSocket, BooleanSupplier isAlive) throws IOException, InterruptedException {
-        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
         int read;
         do {
             buffer.clear();
             read = readMessage(in, buffer);
             if (read > 0) {
                 buffer.flip();
-                webSocket.send(ByteString.of(buffer));
+                while (webSocket.queueSize() > MAX_QUEUED_BYTES && isAlive.getAsBoolean()) {
+                    Thread.sleep(5L);
+                }
+                final int size = buffer.remaining();
+                if (!webSocket.send(ByteString.of(buffer))) {
+                    return; // websocket is closing
+                }
+                this.stats.onSent(size);
             } else if (read == 0) {
                 Thread.sleep(50L);
             }
@@ -180,33 +187,21 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
         return channel.read(buffer);
     }
 
-    protected void awaitMoreRequest() {
-        this.lock.lock();
-        try {
-            while (!this.more) {
-                this.moreRequested.await();
-            }
-            this.more = false;
-        } catch (final InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } finally {
-            this.lock.unlock();
-        }
-    }
-
     protected void writeMessage(WebSocket webSocket, ByteString bytes) {
         final ByteBuffer buffer = bytes.asByteBuffer();
+        final int size = buffer.remaining();
+        final long start = System.nanoTime();
         if (this.out != null) {
             while (true) {
                 try {
                     if (buffer.hasRemaining()) {
                         final int written = this.out.write(buffer);
                         if (written == 0) {
-                            Thread.sleep(50L);
+                            Thread.sleep(1L);
                         }
                         continue;
                     }
-                    this.request();
+                    this.stats.onReceived(size, System.nanoTime() - start);
                 } catch (final InterruptedException | IOException e) {
                     if (e instanceof InterruptedException) {
                         Thread.currentThread().interrupt();
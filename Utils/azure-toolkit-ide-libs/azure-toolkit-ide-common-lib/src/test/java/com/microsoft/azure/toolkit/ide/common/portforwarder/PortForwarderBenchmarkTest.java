@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ *  Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.portforwarder;
+
+import okhttp3.OkHttpClient;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.ByteString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * forwards parallel local connections to a websocket echo endpoint and checks the bytes and stats of every one.
+ */
+public class PortForwarderBenchmarkTest {
+    private static final int CONNECTIONS = 4;
+    private static final int PAYLOAD_SIZE = 8 * 1024 * 1024;
+    private static final double MIN_THROUGHPUT_BYTES_PER_SECOND = 2 * 1024 * 1024;
+
+    private MockWebServer remote;
+    private EchoPortForwarder forwarder;
+    private CompletableFuture<Void> forwarding;
+    // a reader and a writer per connection, plus the accepting thread
+    private final ExecutorService executor = Executors.newFixedThreadPool(2 * CONNECTIONS + 1);
+
+    @Before
+    public void setUp() throws IOException {
+        this.remote = new MockWebServer();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            this.remote.enqueue(new MockResponse().withWebSocketUpgrade(new EchoListener()));
+        }
+        this.remote.start();
+
+        this.forwarder = new EchoPortForwarder(this.remote.url("/").toString().replaceFirst("^http", "ws"));
+        this.forwarder.initLocalSocket(0);
+        this.forwarding = CompletableFuture.runAsync(() -> this.forwarder.startForward(0), this.executor);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.forwarder.stopForward();
+        this.remote.shutdown();
+        this.executor.shutdownNow();
+    }
+
+    @Test(timeout = 120_000)
+    public void testForwardParallelConnections() throws Exception {
+        final int port = ((InetSocketAddress) this.forwarder.server.getLocalAddress()).getPort();
+        final byte[] payload = new byte[PAYLOAD_SIZE];
+        new Random(42).nextBytes(payload);
+
+        final long start = System.nanoTime();
+        final List<CompletableFuture<byte[]>> echoes = new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            echoes.add(CompletableFuture.supplyAsync(() -> roundTrip(port, payload, this.executor), this.executor));
+        }
+        for (final CompletableFuture<byte[]> echo : echoes) {
+            assertArrayEquals(payload, echo.get(60, TimeUnit.SECONDS));
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        final double throughput = 2.0 * CONNECTIONS * PAYLOAD_SIZE / seconds;
+        assertTrue(String.format("forwarded %.1f MB/s", throughput / 1024 / 1024), throughput > MIN_THROUGHPUT_BYTES_PER_SECOND);
+
+        // the forwarder stops once the last local connection is closed
+        this.forwarding.get(30, TimeUnit.SECONDS);
+        final List<PortForwarderStats> stats = this.forwarder.getConnectionStats();
+        assertEquals(CONNECTIONS, stats.size());
+        for (final PortForwarderStats connection : stats) {
+            assertTrue(connection.isClosed());
+            assertEquals(PAYLOAD_SIZE, connection.getBytesSent());
+            assertEquals(PAYLOAD_SIZE, connection.getBytesReceived());
+        }
+    }
+
+    private static byte[] roundTrip(final int port, final byte[] payload, final ExecutorService executor) {
+        try (Socket socket = new Socket("localhost", port)) {
+            final OutputStream out = socket.getOutputStream();
+            final CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int offset = 0; offset < payload.length; offset += 32 * 1024) {
+                        out.write(payload, offset, Math.min(32 * 1024, payload.length - offset));
+                    }
+                    out.flush();
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            final InputStream in = socket.getInputStream();
+            final byte[] echo = new byte[payload.length];
+            new DataInputStream(in).readFully(echo);
+            writing.join();
+            return echo;
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class EchoListener extends WebSocketListener {
+        @Override
+        public void onMessage(WebSocket webSocket, ByteString bytes) {
+            webSocket.send(bytes);
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            webSocket.close(code, reason);
+        }
+    }
+
+    private static class EchoPortForwarder extends AbstractPortForwarder {
+        private final String uri;
+
+        EchoPortForwarder(final String uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        protected WebSocketBuilder createSocketBuilder(OkHttpClient httpClient) {
+            return new WebSocketBuilder(httpClient).uri(this.uri);
+        }
+
+        @Override
+        protected PortForwarderWebSocketListener createWebSocketListener(SocketChannel channel) {
+            return new PortForwarderWebSocketListener(channel, channel, this);
+        }
+    }
+}
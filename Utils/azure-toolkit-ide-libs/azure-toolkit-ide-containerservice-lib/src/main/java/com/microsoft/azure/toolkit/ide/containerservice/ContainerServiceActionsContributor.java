@@ -13,6 +13,7 @@ import com.microsoft.azure.toolkit.lib.common.action.ActionGroup;
 import com.microsoft.azure.toolkit.lib.common.action.AzureActionManager;
 import com.microsoft.azure.toolkit.lib.common.action.IActionGroup;
 import com.microsoft.azure.toolkit.lib.common.model.AzResource;
+import com.microsoft.azure.toolkit.lib.containerservice.AzureContainerService;
 import com.microsoft.azure.toolkit.lib.containerservice.KubernetesCluster;
 import com.microsoft.azure.toolkit.lib.resource.ResourceGroup;
 import io.kubernetes.client.util.KubeConfig;
@@ -43,6 +44,8 @@ public class ContainerServiceActionsContributor implements IActionsContributor {
     public static final Action.Id<KubernetesCluster> LIST_NODES = Action.Id.of("user/kubernetes.list_nodes.kubernetes");
     public static final Action.Id<KubernetesCluster> LIST_SERVICES = Action.Id.of("user/kubernetes.list_services.kubernetes");
 
+    public static final Action.Id<AzureContainerService> DOWNLOAD_MERGED_CONFIG_USER = Action.Id.of("user/kubernetes.download_merged_config_user");
+
     public static final Action.Id<ResourceGroup> GROUP_CREATE_KUBERNETES_SERVICE = Action.Id.of("user/kubernetes.create_kubernetes.group");
 
     @Override
@@ -67,6 +70,11 @@ public class ContainerServiceActionsContributor implements IActionsContributor {
             .enableWhen(s -> s.getFormalStatus().isConnected())
             .register(am);
 
+        new Action<>(DOWNLOAD_MERGED_CONFIG_USER)
+            .withLabel("Download Merged Kubeconfig (User)...")
+            .visibleWhen(s -> s instanceof AzureContainerService)
+            .register(am);
+
         new Action<>(GET_CREDENTIAL_ADMIN)
             .withLabel("Set as Current Cluster (Admin)")
             .withIdParam(AzResource::getName)
@@ -113,7 +121,8 @@ public class ContainerServiceActionsContributor implements IActionsContributor {
             ResourceCommonActionsContributor.OPEN_AZURE_REFERENCE_BOOK,
             ResourceCommonActionsContributor.BROWSE_SERVICE_AZURE_SAMPLES,
             "---",
-            ResourceCommonActionsContributor.CREATE
+            ResourceCommonActionsContributor.CREATE,
+            ContainerServiceActionsContributor.DOWNLOAD_MERGED_CONFIG_USER
         );
         am.registerGroup(SERVICE_ACTIONS, serviceActionGroup);
 
@@ -35,7 +35,6 @@ public class SpringPortForwarderWebSocketListener extends PortForwarderWebSocket
         ++this.messagesRead;
         final ByteBuffer buffer = bytes.asByteBuffer();
         if (this.messagesRead <= 2) {
-            this.request();
             return;
         }
         if (!buffer.hasRemaining()) {
@@ -58,6 +58,7 @@ public class StorageActionsContributor implements IActionsContributor {
     public static final Action.Id<StorageFile> CREATE_FILE = StorageFile.CREATE_FILE;
     public static final Action.Id<StorageFile> CREATE_DIRECTORY = StorageFile.CREATE_DIRECTORY;
     public static final Action.Id<StorageFile> DOWNLOAD_FILE = Action.Id.of("user/storage.download_file.file");
+    public static final Action.Id<StorageFile> DOWNLOAD_FOLDER = Action.Id.of("user/storage.download_folder.dir");
     public static final Action.Id<StorageFile> UPLOAD_FILES = StorageFile.UPLOAD_FILES;
     public static final Action.Id<StorageFile> UPLOAD_FILE = Action.Id.of("user/storage.upload_file.file");
     public static final Action.Id<StorageFile> UPLOAD_FOLDER = Action.Id.of("user/storage.upload_folder.dir");
@@ -214,6 +215,13 @@ public class StorageActionsContributor implements IActionsContributor {
             .visibleWhen(s -> s instanceof StorageFile && !((StorageFile) s).isDirectory())
             .register(am);
 
+        new Action<>(DOWNLOAD_FOLDER)
+            .withLabel("Download")
+            .withIcon(AzureIcons.Action.DOWNLOAD.getIconPath())
+            .withIdParam(AzResource::getName)
+            .visibleWhen(s -> s instanceof StorageFile && ((StorageFile) s).isDirectory())
+            .register(am);
+
         new Action<>(COPY_FILE_URL)
             .withLabel("Copy URL")
             .withIdParam(AzResource::getName)
@@ -336,7 +344,8 @@ public class StorageActionsContributor implements IActionsContributor {
             StorageActionsContributor.CREATE_DIRECTORY,
             "---",
             StorageActionsContributor.UPLOAD_FILES,
-            StorageActionsContributor.DOWNLOAD_FILE,
+            StorageActionsContributor.UPLOAD_FOLDER,
+            StorageActionsContributor.DOWNLOAD_FOLDER,
             "---",
             StorageActionsContributor.COPY_FILE_URL,
             StorageActionsContributor.COPY_FILE_SAS_URL,
@@ -352,6 +361,7 @@ public class StorageActionsContributor implements IActionsContributor {
             StorageActionsContributor.CREATE_BLOB,
             StorageActionsContributor.UPLOAD_FILES,
             StorageActionsContributor.UPLOAD_FOLDER,
+            StorageActionsContributor.DOWNLOAD_FOLDER,
             "---",
             StorageActionsContributor.COPY_FILE_URL,
             StorageActionsContributor.COPY_FILE_SAS_URL,
@@ -368,6 +378,7 @@ public class StorageActionsContributor implements IActionsContributor {
             StorageActionsContributor.CREATE_DIRECTORY,
             StorageActionsContributor.UPLOAD_FILES,
             StorageActionsContributor.UPLOAD_FOLDER,
+            StorageActionsContributor.DOWNLOAD_FOLDER,
             "---",
             StorageActionsContributor.COPY_FILE_URL,
             StorageActionsContributor.COPY_FILE_SAS_URL,